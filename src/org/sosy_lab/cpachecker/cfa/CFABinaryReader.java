@@ -0,0 +1,1033 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cfa;
+
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.ADDRESS_OF_LABEL;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.ARRAY_DESIGNATOR;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.ARRAY_RANGE_DESIGNATOR;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.ARRAY_SUBSCRIPT;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.ARRAY_TYPE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.ASSUME_EDGE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.BINARY_EXPRESSION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.BIT_FIELD_TYPE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.BLANK_EDGE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.CAST_EXPRESSION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.CHAR_LITERAL;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.COMPLEX_CAST;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.COMPLEX_TYPE_DECLARATION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.COMPOSITE_TYPE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.COMPOSITE_TYPE_MEMBER;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.DECLARATION_EDGE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.DESIGNATED_INITIALIZER;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.ELABORATED_TYPE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.ENTRY_NODE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.ENUMERATOR;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.ENUM_TYPE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.EXIT_NODE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.EXPRESSION_ASSIGNMENT;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.EXPRESSION_STATEMENT;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.FIELD_DESIGNATOR;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.FIELD_REFERENCE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.FLOAT_LITERAL;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.FUNCTION_CALL_ASSIGNMENT;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.FUNCTION_CALL_EDGE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.FUNCTION_CALL_EXPRESSION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.FUNCTION_CALL_STATEMENT;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.FUNCTION_DECLARATION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.FUNCTION_RETURN_EDGE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.FUNCTION_TYPE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.ID_EXPRESSION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.IMAGINARY_LITERAL;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.INITIALIZER_EXPRESSION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.INITIALIZER_LIST;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.INTEGER_LITERAL;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.LABEL_NODE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.LOCATION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.LOCATION_DUMMY;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.LOCATION_MULTIPLE_FILES;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.MAGIC;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.NEW_REF;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.NODE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.NULL_REF;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.PARAMETER_DECLARATION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.POINTER_EXPRESSION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.POINTER_TYPE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.PROBLEM_TYPE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.RETURN_STATEMENT;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.RETURN_STATEMENT_EDGE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.SIMPLE_TYPE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.STATEMENT_EDGE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.STRING_LITERAL;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.SUMMARY_STATEMENT_EDGE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.TERMINATION_NODE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.THREAD_CREATE_STATEMENT;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.THREAD_JOIN_STATEMENT;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.TYPEDEF_DECLARATION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.TYPEDEF_TYPE;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.TYPE_ID_EXPRESSION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.UNARY_EXPRESSION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.VARIABLE_DECLARATION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.VERSION;
+import static org.sosy_lab.cpachecker.cfa.CFABinaryWriter.VOID_TYPE;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.TreeMultimap;
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAddressOfLabelExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArrayDesignator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArrayRangeDesignator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArraySubscriptExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAssignment;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCharLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CComplexCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CComplexTypeDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDesignatedInitializer;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDesignator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldDesignator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldReference;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFloatLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCall;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CImaginaryLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializer;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerList;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLeftHandSide;
+import org.sosy_lab.cpachecker.cfa.ast.c.CLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CPointerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CReturnStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CSimpleDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStringLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CThreadOperationStatement.CThreadCreateStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CThreadOperationStatement.CThreadJoinStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CTypeDefDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CTypeIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CTypeIdExpression.TypeIdOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression.UnaryOperator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.CFATerminationNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionReturnEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionSummaryEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionSummaryStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CLabelNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CReturnStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CArrayType;
+import org.sosy_lab.cpachecker.cfa.types.c.CBasicType;
+import org.sosy_lab.cpachecker.cfa.types.c.CBitFieldType;
+import org.sosy_lab.cpachecker.cfa.types.c.CComplexType;
+import org.sosy_lab.cpachecker.cfa.types.c.CComplexType.ComplexTypeKind;
+import org.sosy_lab.cpachecker.cfa.types.c.CCompositeType;
+import org.sosy_lab.cpachecker.cfa.types.c.CCompositeType.CCompositeTypeMemberDeclaration;
+import org.sosy_lab.cpachecker.cfa.types.c.CElaboratedType;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType.CEnumerator;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
+import org.sosy_lab.cpachecker.cfa.types.c.CProblemType;
+import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
+import org.sosy_lab.cpachecker.cfa.types.c.CStorageClass;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.cfa.types.c.CTypedefType;
+import org.sosy_lab.cpachecker.cfa.types.c.CVoidType;
+import org.sosy_lab.cpachecker.util.LoopStructure;
+import org.sosy_lab.cpachecker.util.LoopStructure.Loop;
+
+/**
+ * Reads a CFA that was written by {@link CFABinaryWriter}. Invalid input is reported as {@link
+ * IOException}, and the reader never allocates memory based on a count in the input before the
+ * respective elements were read, so truncated or corrupt input fails quickly.
+ */
+final class CFABinaryReader {
+
+  /** Upper bound for the length of single strings and numbers. */
+  private static final int MAX_LENGTH = 1 << 24;
+
+  private final DataInputStream in;
+
+  private final List<String> strings = new ArrayList<>();
+  private final List<Object> objects = new ArrayList<>();
+
+  private final TreeMultimap<String, CFANode> cfaNodes = TreeMultimap.create();
+  private final List<CFANode> nodes = new ArrayList<>();
+  private final List<CFAEdge> edges = new ArrayList<>();
+  private final List<CFunctionSummaryEdge> summaryEdges = new ArrayList<>();
+
+  private CFABinaryReader(InputStream pIn) {
+    in = new DataInputStream(new BufferedInputStream(pIn));
+  }
+
+  /**
+   * Read a CFA from the given stream. The returned CFA contains the loop structure if it was
+   * written, but no information about variables.
+   */
+  static MutableCFA read(InputStream pIn) throws IOException {
+    CFABinaryReader reader = new CFABinaryReader(pIn);
+    try {
+      return reader.readCfa();
+    } catch (IllegalArgumentException
+        | IllegalStateException
+        | NullPointerException
+        | ClassCastException e) {
+      // thrown by constructors of CFA elements for inconsistent data
+      throw new IOException("Invalid CFA file: " + e.getMessage(), e);
+    }
+  }
+
+  private MutableCFA readCfa() throws IOException {
+    byte[] magic = new byte[MAGIC.length];
+    in.readFully(magic);
+    if (!Arrays.equals(magic, MAGIC)) {
+      throw new IOException("Not a CFA file");
+    }
+    int version = in.readInt();
+    if (version != VERSION) {
+      throw new IOException(
+          String.format("Unsupported CFA file version %d, expected %d", version, VERSION));
+    }
+
+    MachineModel machineModel = readEnum(MachineModel.values());
+    int fileCount = readCount();
+    List<Path> fileNames = new ArrayList<>();
+    for (int i = 0; i < fileCount; i++) {
+      fileNames.add(Paths.get(readNonNullString()));
+    }
+
+    int nodeCount = readCount();
+    for (int i = 0; i < nodeCount; i++) {
+      nodes.add(readNode());
+    }
+
+    NavigableMap<String, FunctionEntryNode> functions = new TreeMap<>();
+    int functionCount = readCount();
+    for (int i = 0; i < functionCount; i++) {
+      functions.put(readNonNullString(), readNodeRef(FunctionEntryNode.class));
+    }
+    FunctionEntryNode mainFunction = readNodeRef(FunctionEntryNode.class);
+
+    @Nullable LoopStructure loopStructure = null;
+    if (isSet(readFlags(), 0)) {
+      ImmutableListMultimap.Builder<String, Loop> loops = ImmutableListMultimap.builder();
+      for (String function : functions.keySet()) {
+        int loopCount = readCount();
+        for (int i = 0; i < loopCount; i++) {
+          Set<CFANode> loopHeads = readNodeRefs();
+          loops.put(function, Loop.of(loopHeads, readNodeRefs()));
+        }
+      }
+      loopStructure = LoopStructure.of(loops.build());
+    }
+
+    int summaryEdgeCount = readCount();
+    for (int i = 0; i < summaryEdgeCount; i++) {
+      summaryEdges.add(readSummaryEdge());
+    }
+    for (CFANode node : nodes) {
+      int edgeCount = readCount();
+      for (int i = 0; i < edgeCount; i++) {
+        CFAEdge edge = readEdge(node);
+        node.addLeavingEdge(edge);
+        edges.add(edge);
+      }
+    }
+    for (CFANode node : nodes) {
+      int edgeCount = readCount();
+      for (int i = 0; i < edgeCount; i++) {
+        node.addEnteringEdge(get(edges, readCount()));
+      }
+    }
+
+    if (!functions.keySet().equals(cfaNodes.keySet())
+        || functions.get(mainFunction.getFunctionName()) != mainFunction) {
+      throw new IOException("Invalid CFA file: inconsistent functions");
+    }
+    MutableCFA cfa =
+        new MutableCFA(machineModel, functions, cfaNodes, mainFunction, fileNames, Language.C);
+    if (loopStructure != null) {
+      cfa.setLoopStructure(loopStructure);
+    }
+    return cfa;
+  }
+
+  private CFANode readNode() throws IOException {
+    int tag = readTag();
+    int flags = readFlags();
+    CFunctionDeclaration function = readNonNullObject(CFunctionDeclaration.class);
+
+    final CFANode node;
+    switch (tag) {
+      case NODE:
+        node = new CFANode(function);
+        break;
+      case LABEL_NODE:
+        node = new CLabelNode(function, readNonNullString());
+        break;
+      case TERMINATION_NODE:
+        node = new CFATerminationNode(function);
+        break;
+      case EXIT_NODE:
+        node = new FunctionExitNode(function);
+        break;
+      case ENTRY_NODE:
+        {
+          FileLocation fileLocation = readNonNullObject(FileLocation.class);
+          FunctionExitNode exitNode = readNodeRef(FunctionExitNode.class);
+          CVariableDeclaration returnVariable = readObject(CVariableDeclaration.class);
+          CFunctionEntryNode entryNode =
+              new CFunctionEntryNode(
+                  fileLocation, function, exitNode, Optional.fromNullable(returnVariable));
+          exitNode.setEntryNode(entryNode);
+          node = entryNode;
+          break;
+        }
+      default:
+        throw invalidTag("node", tag);
+    }
+
+    if (isSet(flags, 0)) {
+      cfaNodes.put(node.getFunctionName(), node);
+    }
+    if (isSet(flags, 1)) {
+      node.setLoopStart();
+    }
+    node.setReversePostorderId(readInt());
+    List<CSimpleDeclaration> outOfScopeVariables = readObjects(CSimpleDeclaration.class);
+    if (!outOfScopeVariables.isEmpty()) {
+      node.addOutOfScopeVariables(outOfScopeVariables);
+    }
+    return node;
+  }
+
+  private CFunctionSummaryEdge readSummaryEdge() throws IOException {
+    CFANode predecessor = readNodeRef(CFANode.class);
+    CFANode successor = readNodeRef(CFANode.class);
+    CFunctionSummaryEdge edge =
+        new CFunctionSummaryEdge(
+            readString(),
+            readNonNullObject(FileLocation.class),
+            predecessor,
+            successor,
+            readNonNullObject(CFunctionCall.class),
+            readNodeRef(CFunctionEntryNode.class));
+    predecessor.addLeavingSummaryEdge(edge);
+    if (isSet(readFlags(), 0)) {
+      successor.addEnteringSummaryEdge(edge);
+    }
+    return edge;
+  }
+
+  private CFAEdge readEdge(CFANode pPredecessor) throws IOException {
+    int tag = readTag();
+    CFANode successor = readNodeRef(CFANode.class);
+    FileLocation fileLocation = readNonNullObject(FileLocation.class);
+
+    if (tag == FUNCTION_RETURN_EDGE) {
+      return new CFunctionReturnEdge(
+          fileLocation,
+          cast(pPredecessor, FunctionExitNode.class),
+          successor,
+          get(summaryEdges, readCount()));
+    }
+    String rawStatement = readString();
+
+    switch (tag) {
+      case BLANK_EDGE:
+        return new BlankEdge(rawStatement, fileLocation, pPredecessor, successor, readString());
+      case ASSUME_EDGE:
+        {
+          CExpression expression = readNonNullObject(CExpression.class);
+          int flags = readFlags();
+          return new CAssumeEdge(
+              rawStatement,
+              fileLocation,
+              pPredecessor,
+              successor,
+              expression,
+              isSet(flags, 0),
+              isSet(flags, 1),
+              isSet(flags, 2));
+        }
+      case STATEMENT_EDGE:
+        return new CStatementEdge(
+            rawStatement,
+            readNonNullObject(CStatement.class),
+            fileLocation,
+            pPredecessor,
+            successor);
+      case SUMMARY_STATEMENT_EDGE:
+        return new CFunctionSummaryStatementEdge(
+            rawStatement,
+            readNonNullObject(CStatement.class),
+            fileLocation,
+            pPredecessor,
+            successor,
+            readNonNullObject(CFunctionCall.class),
+            readNonNullString());
+      case DECLARATION_EDGE:
+        return new CDeclarationEdge(
+            rawStatement,
+            fileLocation,
+            pPredecessor,
+            successor,
+            readNonNullObject(CDeclaration.class));
+      case RETURN_STATEMENT_EDGE:
+        return new CReturnStatementEdge(
+            rawStatement,
+            readNonNullObject(CReturnStatement.class),
+            fileLocation,
+            pPredecessor,
+            cast(successor, FunctionExitNode.class));
+      case FUNCTION_CALL_EDGE:
+        return new CFunctionCallEdge(
+            rawStatement,
+            fileLocation,
+            pPredecessor,
+            cast(successor, CFunctionEntryNode.class),
+            readNonNullObject(CFunctionCall.class),
+            get(summaryEdges, readCount()));
+      default:
+        throw invalidTag("edge", tag);
+    }
+  }
+
+  private <T> @Nullable T readObject(Class<T> pClass) throws IOException {
+    int ref = readCount();
+    if (ref == NULL_REF) {
+      return null;
+    }
+    Object object = ref == NEW_REF ? readNewObject(readTag()) : get(objects, ref - 2);
+    return cast(object, pClass);
+  }
+
+  private <T> T readNonNullObject(Class<T> pClass) throws IOException {
+    T object = readObject(pClass);
+    if (object == null) {
+      throw new IOException("Invalid CFA file: missing " + pClass.getSimpleName());
+    }
+    return object;
+  }
+
+  private <T> List<T> readObjects(Class<T> pClass) throws IOException {
+    int count = readCount();
+    List<T> result = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      result.add(readNonNullObject(pClass));
+    }
+    return result;
+  }
+
+  /** Assign the next index to an object, at the same point as {@link CFABinaryWriter}. */
+  private <T> T register(T pObject) {
+    objects.add(pObject);
+    return pObject;
+  }
+
+  /**
+   * Read an object with the given tag. Constructor arguments are read in the order of the
+   * parameters, which Java evaluates from left to right.
+   */
+  private Object readNewObject(int pTag) throws IOException {
+    switch (pTag) {
+      case LOCATION_DUMMY:
+        return register(FileLocation.DUMMY);
+      case LOCATION_MULTIPLE_FILES:
+        return register(FileLocation.MULTIPLE_FILES);
+      case LOCATION:
+        {
+          String fileName = readNonNullString();
+          String niceFileName = readNonNullString();
+          int offset = readInt();
+          int length = readInt();
+          int startingLine = readInt();
+          int endingLine = startingLine + readInt();
+          int startingLineInOrigin = startingLine + readInt();
+          int endingLineInOrigin = startingLineInOrigin + readInt();
+          return register(
+              new FileLocation(
+                  fileName,
+                  niceFileName,
+                  offset,
+                  length,
+                  startingLine,
+                  endingLine,
+                  startingLineInOrigin,
+                  endingLineInOrigin,
+                  isSet(readFlags(), 0)));
+        }
+
+        // types
+      case ARRAY_TYPE:
+        {
+          int flags = readFlags();
+          return register(
+              new CArrayType(
+                  isSet(flags, 0),
+                  isSet(flags, 1),
+                  readNonNullObject(CType.class),
+                  readObject(CExpression.class)));
+        }
+      case BIT_FIELD_TYPE:
+        return register(new CBitFieldType(readNonNullObject(CType.class), readInt()));
+      case COMPOSITE_TYPE:
+        {
+          int flags = readFlags();
+          CCompositeType type =
+              register(
+                  new CCompositeType(
+                      isSet(flags, 0),
+                      isSet(flags, 1),
+                      readEnum(ComplexTypeKind.values()),
+                      readNonNullString(),
+                      readNonNullString()));
+          type.setMembers(readObjects(CCompositeTypeMemberDeclaration.class));
+          return type;
+        }
+      case COMPOSITE_TYPE_MEMBER:
+        return register(
+            new CCompositeTypeMemberDeclaration(readNonNullObject(CType.class), readString()));
+      case ELABORATED_TYPE:
+        {
+          int flags = readFlags();
+          CElaboratedType type =
+              register(
+                  new CElaboratedType(
+                      isSet(flags, 0),
+                      isSet(flags, 1),
+                      readEnum(ComplexTypeKind.values()),
+                      readNonNullString(),
+                      readNonNullString(),
+                      null));
+          CComplexType realType = readObject(CComplexType.class);
+          if (realType != null) {
+            type.setRealType(realType);
+          }
+          return type;
+        }
+      case ENUM_TYPE:
+        return readEnumType();
+      case FUNCTION_TYPE:
+        {
+          CFunctionType type =
+              new CFunctionType(
+                  readNonNullObject(CType.class),
+                  readObjects(CType.class),
+                  isSet(readFlags(), 0));
+          String name = readString();
+          if (name != null) {
+            type.setName(name);
+          }
+          return register(type);
+        }
+      case POINTER_TYPE:
+        {
+          int flags = readFlags();
+          return register(
+              new CPointerType(isSet(flags, 0), isSet(flags, 1), readNonNullObject(CType.class)));
+        }
+      case PROBLEM_TYPE:
+        return register(new CProblemType(readNonNullString()));
+      case SIMPLE_TYPE:
+        {
+          CBasicType basicType = readEnum(CBasicType.values());
+          int flags = readFlags();
+          return register(
+              new CSimpleType(
+                  isSet(flags, 0),
+                  isSet(flags, 1),
+                  basicType,
+                  isSet(flags, 2),
+                  isSet(flags, 3),
+                  isSet(flags, 4),
+                  isSet(flags, 5),
+                  isSet(flags, 6),
+                  isSet(flags, 7),
+                  isSet(flags, 8)));
+        }
+      case TYPEDEF_TYPE:
+        {
+          int flags = readFlags();
+          return register(
+              new CTypedefType(
+                  isSet(flags, 0),
+                  isSet(flags, 1),
+                  readNonNullString(),
+                  readNonNullObject(CType.class)));
+        }
+      case VOID_TYPE:
+        {
+          int flags = readFlags();
+          return register(CVoidType.create(isSet(flags, 0), isSet(flags, 1)));
+        }
+
+        // expressions
+      case ADDRESS_OF_LABEL:
+        return register(
+            new CAddressOfLabelExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullString()));
+      case ARRAY_SUBSCRIPT:
+        return register(
+            new CArraySubscriptExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullObject(CExpression.class),
+                readNonNullObject(CExpression.class)));
+      case BINARY_EXPRESSION:
+        return register(
+            new CBinaryExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullObject(CType.class),
+                readNonNullObject(CExpression.class),
+                readNonNullObject(CExpression.class),
+                readEnum(BinaryOperator.values())));
+      case CAST_EXPRESSION:
+        return register(
+            new CCastExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullObject(CExpression.class)));
+      case CHAR_LITERAL:
+        {
+          FileLocation fileLocation = readNonNullObject(FileLocation.class);
+          CType type = readNonNullObject(CType.class);
+          int character = readCount();
+          if (character > Character.MAX_VALUE) {
+            throw new IOException("Invalid CFA file: invalid character");
+          }
+          return register(new CCharLiteralExpression(fileLocation, type, (char) character));
+        }
+      case COMPLEX_CAST:
+        return register(
+            new CComplexCastExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullObject(CExpression.class),
+                readNonNullObject(CType.class),
+                isSet(readFlags(), 0)));
+      case FIELD_REFERENCE:
+        return register(
+            new CFieldReference(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullString(),
+                readNonNullObject(CExpression.class),
+                isSet(readFlags(), 0)));
+      case FLOAT_LITERAL:
+        return register(
+            new CFloatLiteralExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                new BigDecimal(readBigInteger(), readInt())));
+      case FUNCTION_CALL_EXPRESSION:
+        return register(
+            new CFunctionCallExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullObject(CExpression.class),
+                readObjects(CExpression.class),
+                readObject(CFunctionDeclaration.class)));
+      case ID_EXPRESSION:
+        return register(
+            new CIdExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullString(),
+                readObject(CSimpleDeclaration.class)));
+      case IMAGINARY_LITERAL:
+        return register(
+            new CImaginaryLiteralExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullObject(CLiteralExpression.class)));
+      case INTEGER_LITERAL:
+        return register(
+            new CIntegerLiteralExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readBigInteger()));
+      case POINTER_EXPRESSION:
+        return register(
+            new CPointerExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullObject(CExpression.class)));
+      case STRING_LITERAL:
+        return register(
+            new CStringLiteralExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullString()));
+      case TYPE_ID_EXPRESSION:
+        return register(
+            new CTypeIdExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readEnum(TypeIdOperator.values()),
+                readNonNullObject(CType.class)));
+      case UNARY_EXPRESSION:
+        return register(
+            new CUnaryExpression(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CType.class),
+                readNonNullObject(CExpression.class),
+                readEnum(UnaryOperator.values())));
+
+        // statements
+      case EXPRESSION_ASSIGNMENT:
+        return register(
+            new CExpressionAssignmentStatement(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CLeftHandSide.class),
+                readNonNullObject(CExpression.class)));
+      case EXPRESSION_STATEMENT:
+        return register(
+            new CExpressionStatement(
+                readNonNullObject(FileLocation.class), readNonNullObject(CExpression.class)));
+      case FUNCTION_CALL_ASSIGNMENT:
+        return register(
+            new CFunctionCallAssignmentStatement(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CLeftHandSide.class),
+                readNonNullObject(CFunctionCallExpression.class)));
+      case FUNCTION_CALL_STATEMENT:
+        return register(
+            new CFunctionCallStatement(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CFunctionCallExpression.class)));
+      case RETURN_STATEMENT:
+        return register(
+            new CReturnStatement(
+                readNonNullObject(FileLocation.class),
+                Optional.fromNullable(readObject(CExpression.class)),
+                Optional.fromNullable(readObject(CAssignment.class))));
+      case THREAD_CREATE_STATEMENT:
+        return register(
+            new CThreadCreateStatement(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CFunctionCallExpression.class),
+                isSet(readFlags(), 0),
+                readString()));
+      case THREAD_JOIN_STATEMENT:
+        return register(
+            new CThreadJoinStatement(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CFunctionCallExpression.class),
+                isSet(readFlags(), 0),
+                readString()));
+
+        // initializers
+      case ARRAY_DESIGNATOR:
+        return register(
+            new CArrayDesignator(
+                readNonNullObject(FileLocation.class), readNonNullObject(CExpression.class)));
+      case ARRAY_RANGE_DESIGNATOR:
+        return register(
+            new CArrayRangeDesignator(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CExpression.class),
+                readNonNullObject(CExpression.class)));
+      case DESIGNATED_INITIALIZER:
+        return register(
+            new CDesignatedInitializer(
+                readNonNullObject(FileLocation.class),
+                readObjects(CDesignator.class),
+                readNonNullObject(CInitializer.class)));
+      case FIELD_DESIGNATOR:
+        return register(
+            new CFieldDesignator(readNonNullObject(FileLocation.class), readNonNullString()));
+      case INITIALIZER_EXPRESSION:
+        return register(
+            new CInitializerExpression(
+                readNonNullObject(FileLocation.class), readNonNullObject(CExpression.class)));
+      case INITIALIZER_LIST:
+        return register(
+            new CInitializerList(
+                readNonNullObject(FileLocation.class), readObjects(CInitializer.class)));
+
+        // declarations
+      case COMPLEX_TYPE_DECLARATION:
+        return register(
+            new CComplexTypeDeclaration(
+                readNonNullObject(FileLocation.class),
+                isSet(readFlags(), 0),
+                readNonNullObject(CComplexType.class)));
+      case ENUMERATOR:
+        {
+          CEnumerator enumerator = readEnumeratorShell();
+          readEnumeratorReferences(enumerator);
+          return enumerator;
+        }
+      case FUNCTION_DECLARATION:
+        return register(
+            new CFunctionDeclaration(
+                readNonNullObject(FileLocation.class),
+                readNonNullObject(CFunctionType.class),
+                readNonNullString(),
+                readNonNullString(),
+                readObjects(CParameterDeclaration.class)));
+      case PARAMETER_DECLARATION:
+        {
+          CParameterDeclaration decl =
+              new CParameterDeclaration(
+                  readNonNullObject(FileLocation.class),
+                  readNonNullObject(CType.class),
+                  readNonNullString());
+          String qualifiedName = readString();
+          if (qualifiedName != null) {
+            decl.setQualifiedName(qualifiedName);
+          }
+          return register(decl);
+        }
+      case TYPEDEF_DECLARATION:
+        return register(
+            new CTypeDefDeclaration(
+                readNonNullObject(FileLocation.class),
+                isSet(readFlags(), 0),
+                readNonNullObject(CType.class),
+                readNonNullString(),
+                readNonNullString()));
+      case VARIABLE_DECLARATION:
+        {
+          CVariableDeclaration decl =
+              register(
+                  new CVariableDeclaration(
+                      readNonNullObject(FileLocation.class),
+                      isSet(readFlags(), 0),
+                      readEnum(CStorageClass.values()),
+                      readNonNullObject(CType.class),
+                      readNonNullString(),
+                      readNonNullString(),
+                      readNonNullString(),
+                      null));
+          CInitializer initializer = readObject(CInitializer.class);
+          if (initializer != null) {
+            decl.addInitializer(initializer);
+          }
+          return decl;
+        }
+
+      default:
+        throw invalidTag("object", pTag);
+    }
+  }
+
+  private CEnumType readEnumType() throws IOException {
+    List<CEnumerator> enumerators = new ArrayList<>();
+    List<CEnumerator> newEnumerators = new ArrayList<>();
+    int count = readCount();
+    for (int i = 0; i < count; i++) {
+      int ref = readCount();
+      if (ref == NEW_REF) {
+        int tag = readTag();
+        if (tag != ENUMERATOR) {
+          throw invalidTag("enumerator", tag);
+        }
+        CEnumerator enumerator = readEnumeratorShell();
+        enumerators.add(enumerator);
+        newEnumerators.add(enumerator);
+      } else {
+        enumerators.add(cast(get(objects, ref - 2), CEnumerator.class));
+      }
+    }
+    int flags = readFlags();
+    CEnumType type =
+        register(
+            new CEnumType(
+                isSet(flags, 0),
+                isSet(flags, 1),
+                enumerators,
+                readNonNullString(),
+                readNonNullString()));
+    for (CEnumerator enumerator : newEnumerators) {
+      readEnumeratorReferences(enumerator);
+    }
+    return type;
+  }
+
+  private CEnumerator readEnumeratorShell() throws IOException {
+    FileLocation fileLocation = readNonNullObject(FileLocation.class);
+    String name = readNonNullString();
+    String qualifiedName = readNonNullString();
+    Long value = isSet(readFlags(), 0) ? readLong() : null;
+    return register(new CEnumerator(fileLocation, name, qualifiedName, null, value));
+  }
+
+  private void readEnumeratorReferences(CEnumerator pEnumerator) throws IOException {
+    CType type = readObject(CType.class);
+    if (type != null) {
+      pEnumerator.setType(type);
+    }
+    CEnumType enumType = readObject(CEnumType.class);
+    if (enumType != null) {
+      pEnumerator.setEnum(enumType);
+    }
+  }
+
+  private <T extends CFANode> T readNodeRef(Class<T> pClass) throws IOException {
+    return cast(get(nodes, readCount()), pClass);
+  }
+
+  private Set<CFANode> readNodeRefs() throws IOException {
+    int count = readCount();
+    Set<CFANode> result = new HashSet<>();
+    for (int i = 0; i < count; i++) {
+      result.add(readNodeRef(CFANode.class));
+    }
+    return result;
+  }
+
+  private @Nullable String readString() throws IOException {
+    int ref = readCount();
+    if (ref == NULL_REF) {
+      return null;
+    } else if (ref != NEW_REF) {
+      return get(strings, ref - 2);
+    }
+    String string = new String(readBytes(), StandardCharsets.UTF_8);
+    strings.add(string);
+    return string;
+  }
+
+  private String readNonNullString() throws IOException {
+    String string = readString();
+    if (string == null) {
+      throw new IOException("Invalid CFA file: missing string");
+    }
+    return string;
+  }
+
+  private int readTag() throws IOException {
+    return in.readUnsignedByte();
+  }
+
+  private <E extends Enum<E>> E readEnum(E[] pValues) throws IOException {
+    return get(Arrays.asList(pValues), readCount());
+  }
+
+  private int readFlags() throws IOException {
+    return readCount();
+  }
+
+  private static boolean isSet(int pFlags, int pIndex) {
+    return (pFlags & (1 << pIndex)) != 0;
+  }
+
+  private BigInteger readBigInteger() throws IOException {
+    return new BigInteger(readBytes());
+  }
+
+  private byte[] readBytes() throws IOException {
+    int length = readCount();
+    if (length > MAX_LENGTH) {
+      throw new IOException("Invalid CFA file: too long string or number");
+    }
+    byte[] bytes = new byte[length];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  private int readCount() throws IOException {
+    long value = readUnsignedLong();
+    if (value > Integer.MAX_VALUE) {
+      throw new IOException("Invalid CFA file: too large number");
+    }
+    return (int) value;
+  }
+
+  private int readInt() throws IOException {
+    long value = readLong();
+    if (value != (int) value) {
+      throw new IOException("Invalid CFA file: too large number");
+    }
+    return (int) value;
+  }
+
+  private long readLong() throws IOException {
+    long value = readUnsignedLong();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private long readUnsignedLong() throws IOException {
+    long value = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      int b = in.readUnsignedByte();
+      value |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return value;
+      }
+    }
+    throw new IOException("Invalid CFA file: too long number");
+  }
+
+  private static <T> T get(List<T> pList, int pIndex) throws IOException {
+    if (pIndex < 0 || pIndex >= pList.size()) {
+      throw new IOException("Invalid CFA file: reference to unknown element " + pIndex);
+    }
+    return pList.get(pIndex);
+  }
+
+  private static <T> T cast(Object pObject, Class<T> pClass) throws IOException {
+    if (!pClass.isInstance(pObject)) {
+      throw new IOException(
+          String.format(
+              "Invalid CFA file: expected %s but found %s",
+              pClass.getSimpleName(), pObject.getClass().getSimpleName()));
+    }
+    return pClass.cast(pObject);
+  }
+
+  private static IOException invalidTag(String pKind, int pTag) {
+    return new IOException(String.format("Invalid CFA file: unknown %s tag %d", pKind, pTag));
+  }
+}
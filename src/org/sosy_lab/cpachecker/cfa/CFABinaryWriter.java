@@ -0,0 +1,1006 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.collect.Sets;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CAddressOfLabelExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArrayDesignator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArrayRangeDesignator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CArraySubscriptExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CCharLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CComplexCastExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CComplexTypeDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CDesignatedInitializer;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CExpressionStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldDesignator;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFieldReference;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFloatLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallAssignmentStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionCallStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CImaginaryLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CInitializerList;
+import org.sosy_lab.cpachecker.cfa.ast.c.CIntegerLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CParameterDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CPointerExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CReturnStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CStringLiteralExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CThreadOperationStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CThreadOperationStatement.CThreadCreateStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CThreadOperationStatement.CThreadJoinStatement;
+import org.sosy_lab.cpachecker.cfa.ast.c.CTypeDefDeclaration;
+import org.sosy_lab.cpachecker.cfa.ast.c.CTypeIdExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CUnaryExpression;
+import org.sosy_lab.cpachecker.cfa.ast.c.CVariableDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.BlankEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.CFATerminationNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CAssumeEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CDeclarationEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionCallEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionReturnEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionSummaryEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionSummaryStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CLabelNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CReturnStatementEdge;
+import org.sosy_lab.cpachecker.cfa.model.c.CStatementEdge;
+import org.sosy_lab.cpachecker.cfa.types.c.CArrayType;
+import org.sosy_lab.cpachecker.cfa.types.c.CBitFieldType;
+import org.sosy_lab.cpachecker.cfa.types.c.CCompositeType;
+import org.sosy_lab.cpachecker.cfa.types.c.CCompositeType.CCompositeTypeMemberDeclaration;
+import org.sosy_lab.cpachecker.cfa.types.c.CElaboratedType;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType;
+import org.sosy_lab.cpachecker.cfa.types.c.CEnumType.CEnumerator;
+import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
+import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
+import org.sosy_lab.cpachecker.cfa.types.c.CProblemType;
+import org.sosy_lab.cpachecker.cfa.types.c.CSimpleType;
+import org.sosy_lab.cpachecker.cfa.types.c.CTypedefType;
+import org.sosy_lab.cpachecker.cfa.types.c.CVoidType;
+import org.sosy_lab.cpachecker.util.LoopStructure;
+import org.sosy_lab.cpachecker.util.LoopStructure.Loop;
+
+/**
+ * Writes the CFA of a C program in a compact binary format that can be read with {@link
+ * CFACreator#readBinaryCFA(Path)}, e.g., for sending a CFA to another process.
+ *
+ * <p>In contrast to Java serialization, the format contains no class descriptors and no field
+ * names, integers are written with a variable-length encoding, and each string, AST node, type,
+ * and file location is written only once and referenced by its index afterwards. Nodes and edges
+ * are referenced by their position. The loop structure is part of the format, but information about
+ * variables (variable classification, live variables, and dependence graph) is not, because it can
+ * be computed from the CFA by the reader. Reading the format creates only instances of the known
+ * CFA classes, so a file from an untrusted source cannot execute code.
+ */
+public final class CFABinaryWriter {
+
+  static final byte[] MAGIC = "CPABINCFA".getBytes(StandardCharsets.US_ASCII);
+  static final int VERSION = 1;
+
+  // References to strings and objects: null, new object, or index of known object plus 2
+  static final int NULL_REF = 0;
+  static final int NEW_REF = 1;
+
+  // Tags of AST nodes, types, and file locations
+  static final int LOCATION = 1;
+  static final int LOCATION_DUMMY = 2;
+  static final int LOCATION_MULTIPLE_FILES = 3;
+
+  static final int ARRAY_TYPE = 10;
+  static final int BIT_FIELD_TYPE = 11;
+  static final int COMPOSITE_TYPE = 12;
+  static final int COMPOSITE_TYPE_MEMBER = 13;
+  static final int ELABORATED_TYPE = 14;
+  static final int ENUM_TYPE = 15;
+  static final int FUNCTION_TYPE = 16;
+  static final int POINTER_TYPE = 17;
+  static final int PROBLEM_TYPE = 18;
+  static final int SIMPLE_TYPE = 19;
+  static final int TYPEDEF_TYPE = 20;
+  static final int VOID_TYPE = 21;
+
+  static final int ADDRESS_OF_LABEL = 30;
+  static final int ARRAY_SUBSCRIPT = 31;
+  static final int BINARY_EXPRESSION = 32;
+  static final int CAST_EXPRESSION = 33;
+  static final int CHAR_LITERAL = 34;
+  static final int COMPLEX_CAST = 35;
+  static final int FIELD_REFERENCE = 36;
+  static final int FLOAT_LITERAL = 37;
+  static final int FUNCTION_CALL_EXPRESSION = 38;
+  static final int ID_EXPRESSION = 39;
+  static final int IMAGINARY_LITERAL = 40;
+  static final int INTEGER_LITERAL = 41;
+  static final int POINTER_EXPRESSION = 42;
+  static final int STRING_LITERAL = 43;
+  static final int TYPE_ID_EXPRESSION = 44;
+  static final int UNARY_EXPRESSION = 45;
+
+  static final int EXPRESSION_ASSIGNMENT = 50;
+  static final int EXPRESSION_STATEMENT = 51;
+  static final int FUNCTION_CALL_ASSIGNMENT = 52;
+  static final int FUNCTION_CALL_STATEMENT = 53;
+  static final int RETURN_STATEMENT = 54;
+  static final int THREAD_CREATE_STATEMENT = 55;
+  static final int THREAD_JOIN_STATEMENT = 56;
+
+  static final int ARRAY_DESIGNATOR = 60;
+  static final int ARRAY_RANGE_DESIGNATOR = 61;
+  static final int DESIGNATED_INITIALIZER = 62;
+  static final int FIELD_DESIGNATOR = 63;
+  static final int INITIALIZER_EXPRESSION = 64;
+  static final int INITIALIZER_LIST = 65;
+
+  static final int COMPLEX_TYPE_DECLARATION = 70;
+  static final int ENUMERATOR = 71;
+  static final int FUNCTION_DECLARATION = 72;
+  static final int PARAMETER_DECLARATION = 73;
+  static final int TYPEDEF_DECLARATION = 74;
+  static final int VARIABLE_DECLARATION = 75;
+
+  // Tags of nodes
+  static final int NODE = 1;
+  static final int LABEL_NODE = 2;
+  static final int TERMINATION_NODE = 3;
+  static final int EXIT_NODE = 4;
+  static final int ENTRY_NODE = 5;
+
+  // Tags of edges
+  static final int BLANK_EDGE = 1;
+  static final int ASSUME_EDGE = 2;
+  static final int STATEMENT_EDGE = 3;
+  static final int SUMMARY_STATEMENT_EDGE = 4;
+  static final int DECLARATION_EDGE = 5;
+  static final int RETURN_STATEMENT_EDGE = 6;
+  static final int FUNCTION_CALL_EDGE = 7;
+  static final int FUNCTION_RETURN_EDGE = 8;
+
+  private final DataOutputStream out;
+
+  private final Map<String, Integer> strings = new HashMap<>();
+  private final Map<Object, Integer> objects = new IdentityHashMap<>();
+  private final Map<FileLocation, Integer> locations = new HashMap<>();
+  private final Set<Object> objectsInProgress = Sets.newIdentityHashSet();
+
+  private final Map<CFANode, Integer> nodes = new HashMap<>();
+  private final Map<CFAEdge, Integer> edges = new IdentityHashMap<>();
+  private final Map<FunctionSummaryEdge, Integer> summaryEdges = new IdentityHashMap<>();
+
+  private CFABinaryWriter(OutputStream pOut) {
+    out = new DataOutputStream(new BufferedOutputStream(pOut));
+  }
+
+  /**
+   * Write the given CFA to the given stream, which is flushed but not closed.
+   *
+   * @throws IllegalArgumentException If the CFA is not a CFA of a C program or contains elements
+   *     that are not supported by the format.
+   */
+  public static void write(CFA pCfa, OutputStream pOut) throws IOException {
+    checkArgument(
+        pCfa.getLanguage() == Language.C,
+        "Only CFAs of C programs can be written, not of %s programs",
+        pCfa.getLanguage());
+    CFABinaryWriter writer = new CFABinaryWriter(pOut);
+    writer.writeCfa(pCfa);
+    writer.out.flush();
+  }
+
+  private void writeCfa(CFA pCfa) throws IOException {
+    out.write(MAGIC);
+    out.writeInt(VERSION);
+
+    writeEnum(pCfa.getMachineModel());
+    List<Path> fileNames = pCfa.getFileNames();
+    writeCount(fileNames.size());
+    for (Path fileName : fileNames) {
+      writeString(fileName.toString());
+    }
+
+    Set<CFANode> cfaNodes = new TreeSet<>(pCfa.getAllNodes());
+    List<CFANode> allNodes = collectNodes(cfaNodes);
+    writeCount(allNodes.size());
+    for (CFANode node : allNodes) {
+      writeNode(node, cfaNodes.contains(node));
+      nodes.put(node, nodes.size());
+    }
+
+    Map<String, FunctionEntryNode> functions = pCfa.getAllFunctions();
+    writeCount(functions.size());
+    for (Map.Entry<String, FunctionEntryNode> function : functions.entrySet()) {
+      writeString(function.getKey());
+      writeNodeRef(function.getValue());
+    }
+    writeNodeRef(pCfa.getMainFunction());
+
+    Optional<LoopStructure> loopStructure = pCfa.getLoopStructure();
+    writeFlags(loopStructure.isPresent());
+    if (loopStructure.isPresent()) {
+      for (String function : functions.keySet()) {
+        Collection<Loop> loops = loopStructure.orElseThrow().getLoopsForFunction(function);
+        writeCount(loops.size());
+        for (Loop loop : loops) {
+          writeNodeRefs(loop.getLoopHeads());
+          writeNodeRefs(loop.getLoopNodes());
+        }
+      }
+    }
+
+    List<FunctionSummaryEdge> allSummaryEdges = new ArrayList<>();
+    for (CFANode node : allNodes) {
+      if (node.getLeavingSummaryEdge() != null) {
+        allSummaryEdges.add(node.getLeavingSummaryEdge());
+      }
+    }
+    writeCount(allSummaryEdges.size());
+    for (FunctionSummaryEdge summaryEdge : allSummaryEdges) {
+      writeSummaryEdge(summaryEdge);
+      summaryEdges.put(summaryEdge, summaryEdges.size());
+    }
+
+    for (CFANode node : allNodes) {
+      writeCount(node.getNumLeavingEdges());
+      for (int i = 0; i < node.getNumLeavingEdges(); i++) {
+        CFAEdge edge = node.getLeavingEdge(i);
+        writeEdge(edge);
+        edges.put(edge, edges.size());
+      }
+    }
+    for (CFANode node : allNodes) {
+      writeCount(node.getNumEnteringEdges());
+      for (int i = 0; i < node.getNumEnteringEdges(); i++) {
+        CFAEdge edge = node.getEnteringEdge(i);
+        Integer id = edges.get(edge);
+        checkArgument(id != null, "Edge %s is not a leaving edge of its predecessor", edge);
+        writeCount(id);
+      }
+    }
+  }
+
+  /**
+   * Return the given nodes and all nodes that are reachable from them by an edge or as entry or
+   * exit node of a function, sorted by node number except that each function exit node is placed
+   * before its entry node, which the reader needs to create first.
+   */
+  private static List<CFANode> collectNodes(Set<CFANode> pCfaNodes) {
+    Set<CFANode> reached = new TreeSet<>(pCfaNodes);
+    List<CFANode> waitlist = new ArrayList<>(pCfaNodes);
+    while (!waitlist.isEmpty()) {
+      CFANode node = waitlist.remove(waitlist.size() - 1);
+      List<CFANode> neighbors = new ArrayList<>();
+      for (int i = 0; i < node.getNumLeavingEdges(); i++) {
+        neighbors.add(node.getLeavingEdge(i).getSuccessor());
+      }
+      for (int i = 0; i < node.getNumEnteringEdges(); i++) {
+        neighbors.add(node.getEnteringEdge(i).getPredecessor());
+      }
+      for (FunctionSummaryEdge summaryEdge :
+          new FunctionSummaryEdge[] {
+            node.getLeavingSummaryEdge(), node.getEnteringSummaryEdge()
+          }) {
+        if (summaryEdge != null) {
+          neighbors.add(summaryEdge.getPredecessor());
+          neighbors.add(summaryEdge.getSuccessor());
+          neighbors.add(summaryEdge.getFunctionEntry());
+        }
+      }
+      if (node instanceof FunctionEntryNode) {
+        neighbors.add(((FunctionEntryNode) node).getExitNode());
+      } else if (node instanceof FunctionExitNode) {
+        neighbors.add(((FunctionExitNode) node).getEntryNode());
+      }
+      for (CFANode neighbor : neighbors) {
+        if (reached.add(neighbor)) {
+          waitlist.add(neighbor);
+        }
+      }
+    }
+
+    List<CFANode> result = new ArrayList<>(reached.size());
+    Set<CFANode> added = new TreeSet<>();
+    for (CFANode node : reached) {
+      if (node instanceof FunctionEntryNode) {
+        FunctionExitNode exitNode = ((FunctionEntryNode) node).getExitNode();
+        if (added.add(exitNode)) {
+          result.add(exitNode);
+        }
+      }
+      if (added.add(node)) {
+        result.add(node);
+      }
+    }
+    return result;
+  }
+
+  private void writeNode(CFANode pNode, boolean pInCfa) throws IOException {
+    Class<?> cls = pNode.getClass();
+    if (cls == CFANode.class) {
+      writeTag(NODE);
+    } else if (cls == CLabelNode.class) {
+      writeTag(LABEL_NODE);
+    } else if (cls == CFATerminationNode.class) {
+      writeTag(TERMINATION_NODE);
+    } else if (cls == FunctionExitNode.class) {
+      writeTag(EXIT_NODE);
+    } else if (cls == CFunctionEntryNode.class) {
+      writeTag(ENTRY_NODE);
+    } else {
+      throw unsupported(pNode);
+    }
+    writeFlags(pInCfa, pNode.isLoopStart());
+    writeObject(pNode.getFunction());
+
+    if (pNode instanceof CLabelNode) {
+      writeString(((CLabelNode) pNode).getLabel());
+    } else if (pNode instanceof CFunctionEntryNode) {
+      CFunctionEntryNode entryNode = (CFunctionEntryNode) pNode;
+      writeObject(entryNode.getFileLocation());
+      writeNodeRef(entryNode.getExitNode());
+      writeObject(entryNode.getReturnVariable().orNull());
+    }
+
+    writeInt(pNode.getReversePostorderId());
+    writeObjects(pNode.getOutOfScopeVariables());
+  }
+
+  private void writeSummaryEdge(FunctionSummaryEdge pEdge) throws IOException {
+    if (pEdge.getClass() != CFunctionSummaryEdge.class) {
+      throw unsupported(pEdge);
+    }
+    CFunctionSummaryEdge edge = (CFunctionSummaryEdge) pEdge;
+    writeNodeRef(edge.getPredecessor());
+    writeNodeRef(edge.getSuccessor());
+    writeString(edge.getRawStatement());
+    writeObject(edge.getFileLocation());
+    writeObject(edge.getExpression());
+    writeNodeRef(edge.getFunctionEntry());
+    writeFlags(edge.getSuccessor().getEnteringSummaryEdge() == edge);
+  }
+
+  /** Write a leaving edge, its predecessor is implicitly given by the position in the file. */
+  private void writeEdge(CFAEdge pEdge) throws IOException {
+    Class<?> cls = pEdge.getClass();
+    if (cls == BlankEdge.class) {
+      writeTag(BLANK_EDGE);
+    } else if (cls == CAssumeEdge.class) {
+      writeTag(ASSUME_EDGE);
+    } else if (cls == CStatementEdge.class) {
+      writeTag(STATEMENT_EDGE);
+    } else if (cls == CFunctionSummaryStatementEdge.class) {
+      writeTag(SUMMARY_STATEMENT_EDGE);
+    } else if (cls == CDeclarationEdge.class) {
+      writeTag(DECLARATION_EDGE);
+    } else if (cls == CReturnStatementEdge.class) {
+      writeTag(RETURN_STATEMENT_EDGE);
+    } else if (cls == CFunctionCallEdge.class) {
+      writeTag(FUNCTION_CALL_EDGE);
+    } else if (cls == CFunctionReturnEdge.class) {
+      writeTag(FUNCTION_RETURN_EDGE);
+    } else {
+      throw unsupported(pEdge);
+    }
+    writeNodeRef(pEdge.getSuccessor());
+    writeObject(pEdge.getFileLocation());
+
+    if (pEdge instanceof CFunctionReturnEdge) {
+      // raw statement is determined by the summary edge
+      writeSummaryEdgeRef(((CFunctionReturnEdge) pEdge).getSummaryEdge());
+      return;
+    }
+    writeString(pEdge.getRawStatement());
+
+    if (pEdge instanceof BlankEdge) {
+      writeString(pEdge.getDescription());
+    } else if (pEdge instanceof CAssumeEdge) {
+      CAssumeEdge edge = (CAssumeEdge) pEdge;
+      writeObject(edge.getExpression());
+      writeFlags(edge.getTruthAssumption(), edge.isSwapped(), edge.isArtificialIntermediate());
+    } else if (pEdge instanceof CStatementEdge) {
+      writeObject(((CStatementEdge) pEdge).getStatement());
+      if (pEdge instanceof CFunctionSummaryStatementEdge) {
+        CFunctionSummaryStatementEdge edge = (CFunctionSummaryStatementEdge) pEdge;
+        writeObject(edge.getFunctionCall());
+        writeString(edge.getFunctionName());
+      }
+    } else if (pEdge instanceof CDeclarationEdge) {
+      writeObject(((CDeclarationEdge) pEdge).getDeclaration());
+    } else if (pEdge instanceof CReturnStatementEdge) {
+      writeObject(((CReturnStatementEdge) pEdge).getRawAST().get());
+    } else if (pEdge instanceof CFunctionCallEdge) {
+      CFunctionCallEdge edge = (CFunctionCallEdge) pEdge;
+      writeObject(edge.getRawAST().get());
+      writeSummaryEdgeRef(edge.getSummaryEdge());
+    }
+  }
+
+  private void writeObject(@Nullable Object pObject) throws IOException {
+    if (pObject == null) {
+      writeCount(NULL_REF);
+      return;
+    }
+    Integer id = objects.get(pObject);
+    if (id == null && pObject.getClass() == FileLocation.class) {
+      // file locations are values, so equal ones can be shared
+      id = locations.get(pObject);
+    }
+    if (id != null) {
+      writeCount(id + 2);
+      return;
+    }
+    checkArgument(objectsInProgress.add(pObject), "Unsupported cyclic reference to %s", pObject);
+    writeCount(NEW_REF);
+    writeNewObject(pObject);
+    objectsInProgress.remove(pObject);
+  }
+
+  private void writeObjects(Collection<?> pObjects) throws IOException {
+    writeCount(pObjects.size());
+    for (Object object : pObjects) {
+      writeObject(object);
+    }
+  }
+
+  /**
+   * Assign the next index to an object. This needs to happen at the same point during reading, so
+   * immutable objects are registered after their fields. Objects that are part of cyclic
+   * structures are registered before the fields that may reference them again.
+   */
+  private void register(Object pObject) {
+    int id = objects.size();
+    objects.put(pObject, id);
+    if (pObject.getClass() == FileLocation.class) {
+      locations.put((FileLocation) pObject, id);
+    }
+  }
+
+  private void writeNewObject(Object pObject) throws IOException {
+    Class<?> cls = pObject.getClass();
+
+    if (pObject == FileLocation.DUMMY) {
+      writeTag(LOCATION_DUMMY);
+      register(pObject);
+    } else if (pObject == FileLocation.MULTIPLE_FILES) {
+      writeTag(LOCATION_MULTIPLE_FILES);
+      register(pObject);
+    } else if (cls == FileLocation.class) {
+      FileLocation loc = (FileLocation) pObject;
+      writeTag(LOCATION);
+      writeString(loc.getFileName());
+      writeString(loc.getNiceFileName());
+      writeInt(loc.getNodeOffset());
+      writeInt(loc.getNodeLength());
+      writeInt(loc.getStartingLineNumber());
+      writeInt(loc.getEndingLineNumber() - loc.getStartingLineNumber());
+      writeInt(loc.getStartingLineInOrigin() - loc.getStartingLineNumber());
+      writeInt(loc.getEndingLineInOrigin() - loc.getStartingLineInOrigin());
+      writeFlags(loc.isOffsetRelatedToOrigin());
+      register(pObject);
+
+      // types
+    } else if (cls == CArrayType.class) {
+      CArrayType type = (CArrayType) pObject;
+      writeTag(ARRAY_TYPE);
+      writeFlags(type.isConst(), type.isVolatile());
+      writeObject(type.getType());
+      writeObject(type.getLength());
+      register(pObject);
+    } else if (cls == CBitFieldType.class) {
+      CBitFieldType type = (CBitFieldType) pObject;
+      writeTag(BIT_FIELD_TYPE);
+      writeObject(type.getType());
+      writeInt(type.getBitFieldSize());
+      register(pObject);
+    } else if (cls == CCompositeType.class) {
+      CCompositeType type = (CCompositeType) pObject;
+      writeTag(COMPOSITE_TYPE);
+      writeFlags(type.isConst(), type.isVolatile());
+      writeEnum(type.getKind());
+      writeString(type.getName());
+      writeString(type.getOrigName());
+      register(pObject);
+      writeObjects(type.getMembers());
+    } else if (cls == CCompositeTypeMemberDeclaration.class) {
+      CCompositeTypeMemberDeclaration member = (CCompositeTypeMemberDeclaration) pObject;
+      writeTag(COMPOSITE_TYPE_MEMBER);
+      writeObject(member.getType());
+      writeString(member.getName());
+      register(pObject);
+    } else if (cls == CElaboratedType.class) {
+      CElaboratedType type = (CElaboratedType) pObject;
+      writeTag(ELABORATED_TYPE);
+      writeFlags(type.isConst(), type.isVolatile());
+      writeEnum(type.getKind());
+      writeString(type.getName());
+      writeString(type.getOrigName());
+      register(pObject);
+      writeObject(type.getRealType());
+    } else if (cls == CEnumType.class) {
+      writeEnumType((CEnumType) pObject);
+    } else if (pObject instanceof CFunctionType) {
+      // also CFunctionTypeWithNames, which is serialized as CFunctionType, too
+      CFunctionType type = (CFunctionType) pObject;
+      writeTag(FUNCTION_TYPE);
+      writeObject(type.getReturnType());
+      writeObjects(type.getParameters());
+      writeFlags(type.takesVarArgs());
+      writeString(type.getName());
+      register(pObject);
+    } else if (cls == CPointerType.class) {
+      CPointerType type = (CPointerType) pObject;
+      writeTag(POINTER_TYPE);
+      writeFlags(type.isConst(), type.isVolatile());
+      writeObject(type.getType());
+      register(pObject);
+    } else if (cls == CProblemType.class) {
+      writeTag(PROBLEM_TYPE);
+      writeString(pObject.toString());
+      register(pObject);
+    } else if (cls == CSimpleType.class) {
+      CSimpleType type = (CSimpleType) pObject;
+      writeTag(SIMPLE_TYPE);
+      writeEnum(type.getType());
+      writeFlags(
+          type.isConst(),
+          type.isVolatile(),
+          type.isLong(),
+          type.isShort(),
+          type.isSigned(),
+          type.isUnsigned(),
+          type.isComplex(),
+          type.isImaginary(),
+          type.isLongLong());
+      register(pObject);
+    } else if (cls == CTypedefType.class) {
+      CTypedefType type = (CTypedefType) pObject;
+      writeTag(TYPEDEF_TYPE);
+      writeFlags(type.isConst(), type.isVolatile());
+      writeString(type.getName());
+      writeObject(type.getRealType());
+      register(pObject);
+    } else if (cls == CVoidType.class) {
+      CVoidType type = (CVoidType) pObject;
+      writeTag(VOID_TYPE);
+      writeFlags(type.isConst(), type.isVolatile());
+      register(pObject);
+
+      // expressions
+    } else if (cls == CAddressOfLabelExpression.class) {
+      CAddressOfLabelExpression exp = (CAddressOfLabelExpression) pObject;
+      writeTag(ADDRESS_OF_LABEL);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeString(exp.getLabelName());
+      register(pObject);
+    } else if (cls == CArraySubscriptExpression.class) {
+      CArraySubscriptExpression exp = (CArraySubscriptExpression) pObject;
+      writeTag(ARRAY_SUBSCRIPT);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeObject(exp.getArrayExpression());
+      writeObject(exp.getSubscriptExpression());
+      register(pObject);
+    } else if (cls == CBinaryExpression.class) {
+      CBinaryExpression exp = (CBinaryExpression) pObject;
+      writeTag(BINARY_EXPRESSION);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeObject(exp.getCalculationType());
+      writeObject(exp.getOperand1());
+      writeObject(exp.getOperand2());
+      writeEnum(exp.getOperator());
+      register(pObject);
+    } else if (cls == CCastExpression.class) {
+      CCastExpression exp = (CCastExpression) pObject;
+      writeTag(CAST_EXPRESSION);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeObject(exp.getOperand());
+      register(pObject);
+    } else if (cls == CCharLiteralExpression.class) {
+      CCharLiteralExpression exp = (CCharLiteralExpression) pObject;
+      writeTag(CHAR_LITERAL);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeCount(exp.getCharacter());
+      register(pObject);
+    } else if (cls == CComplexCastExpression.class) {
+      CComplexCastExpression exp = (CComplexCastExpression) pObject;
+      writeTag(COMPLEX_CAST);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeObject(exp.getOperand());
+      writeObject(exp.getType());
+      writeFlags(exp.isRealCast());
+      register(pObject);
+    } else if (cls == CFieldReference.class) {
+      CFieldReference exp = (CFieldReference) pObject;
+      writeTag(FIELD_REFERENCE);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeString(exp.getFieldName());
+      writeObject(exp.getFieldOwner());
+      writeFlags(exp.isPointerDereference());
+      register(pObject);
+    } else if (cls == CFloatLiteralExpression.class) {
+      CFloatLiteralExpression exp = (CFloatLiteralExpression) pObject;
+      writeTag(FLOAT_LITERAL);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeBigInteger(exp.getValue().unscaledValue());
+      writeInt(exp.getValue().scale());
+      register(pObject);
+    } else if (cls == CFunctionCallExpression.class) {
+      CFunctionCallExpression exp = (CFunctionCallExpression) pObject;
+      writeTag(FUNCTION_CALL_EXPRESSION);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeObject(exp.getFunctionNameExpression());
+      writeObjects(exp.getParameterExpressions());
+      writeObject(exp.getDeclaration());
+      register(pObject);
+    } else if (cls == CIdExpression.class) {
+      CIdExpression exp = (CIdExpression) pObject;
+      writeTag(ID_EXPRESSION);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeString(exp.getName());
+      writeObject(exp.getDeclaration());
+      register(pObject);
+    } else if (cls == CImaginaryLiteralExpression.class) {
+      CImaginaryLiteralExpression exp = (CImaginaryLiteralExpression) pObject;
+      writeTag(IMAGINARY_LITERAL);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeObject(exp.getValue());
+      register(pObject);
+    } else if (cls == CIntegerLiteralExpression.class) {
+      CIntegerLiteralExpression exp = (CIntegerLiteralExpression) pObject;
+      writeTag(INTEGER_LITERAL);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeBigInteger(exp.getValue());
+      register(pObject);
+    } else if (cls == CPointerExpression.class) {
+      CPointerExpression exp = (CPointerExpression) pObject;
+      writeTag(POINTER_EXPRESSION);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeObject(exp.getOperand());
+      register(pObject);
+    } else if (cls == CStringLiteralExpression.class) {
+      CStringLiteralExpression exp = (CStringLiteralExpression) pObject;
+      writeTag(STRING_LITERAL);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeString(exp.getValue());
+      register(pObject);
+    } else if (cls == CTypeIdExpression.class) {
+      CTypeIdExpression exp = (CTypeIdExpression) pObject;
+      writeTag(TYPE_ID_EXPRESSION);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeEnum(exp.getOperator());
+      writeObject(exp.getType());
+      register(pObject);
+    } else if (cls == CUnaryExpression.class) {
+      CUnaryExpression exp = (CUnaryExpression) pObject;
+      writeTag(UNARY_EXPRESSION);
+      writeObject(exp.getFileLocation());
+      writeObject(exp.getExpressionType());
+      writeObject(exp.getOperand());
+      writeEnum(exp.getOperator());
+      register(pObject);
+
+      // statements
+    } else if (cls == CExpressionAssignmentStatement.class) {
+      CExpressionAssignmentStatement stmt = (CExpressionAssignmentStatement) pObject;
+      writeTag(EXPRESSION_ASSIGNMENT);
+      writeObject(stmt.getFileLocation());
+      writeObject(stmt.getLeftHandSide());
+      writeObject(stmt.getRightHandSide());
+      register(pObject);
+    } else if (cls == CExpressionStatement.class) {
+      CExpressionStatement stmt = (CExpressionStatement) pObject;
+      writeTag(EXPRESSION_STATEMENT);
+      writeObject(stmt.getFileLocation());
+      writeObject(stmt.getExpression());
+      register(pObject);
+    } else if (cls == CFunctionCallAssignmentStatement.class) {
+      CFunctionCallAssignmentStatement stmt = (CFunctionCallAssignmentStatement) pObject;
+      writeTag(FUNCTION_CALL_ASSIGNMENT);
+      writeObject(stmt.getFileLocation());
+      writeObject(stmt.getLeftHandSide());
+      writeObject(stmt.getRightHandSide());
+      register(pObject);
+    } else if (cls == CFunctionCallStatement.class) {
+      CFunctionCallStatement stmt = (CFunctionCallStatement) pObject;
+      writeTag(FUNCTION_CALL_STATEMENT);
+      writeObject(stmt.getFileLocation());
+      writeObject(stmt.getFunctionCallExpression());
+      register(pObject);
+    } else if (cls == CReturnStatement.class) {
+      CReturnStatement stmt = (CReturnStatement) pObject;
+      writeTag(RETURN_STATEMENT);
+      writeObject(stmt.getFileLocation());
+      writeObject(stmt.getReturnValue().orNull());
+      writeObject(stmt.asAssignment().orNull());
+      register(pObject);
+    } else if (cls == CThreadCreateStatement.class || cls == CThreadJoinStatement.class) {
+      CThreadOperationStatement stmt = (CThreadOperationStatement) pObject;
+      writeTag(
+          cls == CThreadCreateStatement.class ? THREAD_CREATE_STATEMENT : THREAD_JOIN_STATEMENT);
+      writeObject(stmt.getFileLocation());
+      writeObject(stmt.getFunctionCallExpression());
+      writeFlags(stmt.isSelfParallel());
+      writeString(stmt.getVariableName());
+      register(pObject);
+
+      // initializers
+    } else if (cls == CArrayDesignator.class) {
+      CArrayDesignator designator = (CArrayDesignator) pObject;
+      writeTag(ARRAY_DESIGNATOR);
+      writeObject(designator.getFileLocation());
+      writeObject(designator.getSubscriptExpression());
+      register(pObject);
+    } else if (cls == CArrayRangeDesignator.class) {
+      CArrayRangeDesignator designator = (CArrayRangeDesignator) pObject;
+      writeTag(ARRAY_RANGE_DESIGNATOR);
+      writeObject(designator.getFileLocation());
+      writeObject(designator.getFloorExpression());
+      writeObject(designator.getCeilExpression());
+      register(pObject);
+    } else if (cls == CDesignatedInitializer.class) {
+      CDesignatedInitializer initializer = (CDesignatedInitializer) pObject;
+      writeTag(DESIGNATED_INITIALIZER);
+      writeObject(initializer.getFileLocation());
+      writeObjects(initializer.getDesignators());
+      writeObject(initializer.getRightHandSide());
+      register(pObject);
+    } else if (cls == CFieldDesignator.class) {
+      CFieldDesignator designator = (CFieldDesignator) pObject;
+      writeTag(FIELD_DESIGNATOR);
+      writeObject(designator.getFileLocation());
+      writeString(designator.getFieldName());
+      register(pObject);
+    } else if (cls == CInitializerExpression.class) {
+      CInitializerExpression initializer = (CInitializerExpression) pObject;
+      writeTag(INITIALIZER_EXPRESSION);
+      writeObject(initializer.getFileLocation());
+      writeObject(initializer.getExpression());
+      register(pObject);
+    } else if (cls == CInitializerList.class) {
+      CInitializerList initializer = (CInitializerList) pObject;
+      writeTag(INITIALIZER_LIST);
+      writeObject(initializer.getFileLocation());
+      writeObjects(initializer.getInitializers());
+      register(pObject);
+
+      // declarations
+    } else if (cls == CComplexTypeDeclaration.class) {
+      CComplexTypeDeclaration decl = (CComplexTypeDeclaration) pObject;
+      writeTag(COMPLEX_TYPE_DECLARATION);
+      writeObject(decl.getFileLocation());
+      writeFlags(decl.isGlobal());
+      writeObject(decl.getType());
+      register(pObject);
+    } else if (cls == CEnumerator.class) {
+      CEnumerator enumerator = (CEnumerator) pObject;
+      writeTag(ENUMERATOR);
+      writeEnumeratorShell(enumerator);
+      writeEnumeratorReferences(enumerator);
+    } else if (cls == CFunctionDeclaration.class) {
+      CFunctionDeclaration decl = (CFunctionDeclaration) pObject;
+      writeTag(FUNCTION_DECLARATION);
+      writeObject(decl.getFileLocation());
+      writeObject(decl.getType());
+      writeString(decl.getName());
+      writeString(decl.getOrigName());
+      writeObjects(decl.getParameters());
+      register(pObject);
+    } else if (cls == CParameterDeclaration.class) {
+      CParameterDeclaration decl = (CParameterDeclaration) pObject;
+      writeTag(PARAMETER_DECLARATION);
+      writeObject(decl.getFileLocation());
+      writeObject(decl.getType());
+      writeString(decl.getName());
+      writeString(decl.getQualifiedName());
+      register(pObject);
+    } else if (cls == CTypeDefDeclaration.class) {
+      CTypeDefDeclaration decl = (CTypeDefDeclaration) pObject;
+      writeTag(TYPEDEF_DECLARATION);
+      writeObject(decl.getFileLocation());
+      writeFlags(decl.isGlobal());
+      writeObject(decl.getType());
+      writeString(decl.getName());
+      writeString(decl.getQualifiedName());
+      register(pObject);
+    } else if (cls == CVariableDeclaration.class) {
+      CVariableDeclaration decl = (CVariableDeclaration) pObject;
+      writeTag(VARIABLE_DECLARATION);
+      writeObject(decl.getFileLocation());
+      writeFlags(decl.isGlobal());
+      writeEnum(decl.getCStorageClass());
+      writeObject(decl.getType());
+      writeString(decl.getName());
+      writeString(decl.getOrigName());
+      writeString(decl.getQualifiedName());
+      register(pObject);
+      // the initializer may reference the variable itself
+      writeObject(decl.getInitializer());
+
+    } else {
+      throw unsupported(pObject);
+    }
+  }
+
+  /**
+   * Write an enum type. Enumerators and their enum type reference each other, so the enumerators
+   * that are new are written without their references, and these are written after the enum type
+   * was registered.
+   */
+  private void writeEnumType(CEnumType pType) throws IOException {
+    writeTag(ENUM_TYPE);
+    List<CEnumerator> newEnumerators = new ArrayList<>();
+    writeCount(pType.getEnumerators().size());
+    for (CEnumerator enumerator : pType.getEnumerators()) {
+      Integer id = objects.get(enumerator);
+      if (id != null) {
+        writeCount(id + 2);
+      } else {
+        writeCount(NEW_REF);
+        writeTag(ENUMERATOR);
+        writeEnumeratorShell(enumerator);
+        newEnumerators.add(enumerator);
+      }
+    }
+    writeFlags(pType.isConst(), pType.isVolatile());
+    writeString(pType.getName());
+    writeString(pType.getOrigName());
+    register(pType);
+    for (CEnumerator enumerator : newEnumerators) {
+      writeEnumeratorReferences(enumerator);
+    }
+  }
+
+  private void writeEnumeratorShell(CEnumerator pEnumerator) throws IOException {
+    writeObject(pEnumerator.getFileLocation());
+    writeString(pEnumerator.getName());
+    writeString(pEnumerator.getQualifiedName());
+    writeFlags(pEnumerator.hasValue());
+    if (pEnumerator.hasValue()) {
+      writeLong(pEnumerator.getValue());
+    }
+    register(pEnumerator);
+  }
+
+  private void writeEnumeratorReferences(CEnumerator pEnumerator) throws IOException {
+    writeObject(pEnumerator.getType());
+    writeObject(pEnumerator.getEnum());
+  }
+
+  private void writeNodeRef(CFANode pNode) throws IOException {
+    Integer id = nodes.get(pNode);
+    checkArgument(id != null, "Reference to unknown node %s", pNode);
+    writeCount(id);
+  }
+
+  private void writeNodeRefs(Collection<CFANode> pNodes) throws IOException {
+    writeCount(pNodes.size());
+    for (CFANode node : pNodes) {
+      writeNodeRef(node);
+    }
+  }
+
+  private void writeSummaryEdgeRef(FunctionSummaryEdge pEdge) throws IOException {
+    Integer id = summaryEdges.get(pEdge);
+    checkArgument(id != null, "Summary edge %s is not a leaving edge of its predecessor", pEdge);
+    writeCount(id);
+  }
+
+  private void writeString(@Nullable String pString) throws IOException {
+    if (pString == null) {
+      writeCount(NULL_REF);
+      return;
+    }
+    Integer id = strings.get(pString);
+    if (id != null) {
+      writeCount(id + 2);
+      return;
+    }
+    writeCount(NEW_REF);
+    byte[] bytes = pString.getBytes(StandardCharsets.UTF_8);
+    writeCount(bytes.length);
+    out.write(bytes);
+    strings.put(pString, strings.size());
+  }
+
+  private void writeTag(int pTag) throws IOException {
+    out.writeByte(pTag);
+  }
+
+  private void writeEnum(Enum<?> pValue) throws IOException {
+    writeCount(pValue.ordinal());
+  }
+
+  private void writeFlags(boolean... pFlags) throws IOException {
+    int flags = 0;
+    for (int i = 0; i < pFlags.length; i++) {
+      if (pFlags[i]) {
+        flags |= 1 << i;
+      }
+    }
+    writeCount(flags);
+  }
+
+  private void writeBigInteger(BigInteger pValue) throws IOException {
+    byte[] bytes = pValue.toByteArray();
+    writeCount(bytes.length);
+    out.write(bytes);
+  }
+
+  /** Write a non-negative number with a variable-length encoding of 7 bits per byte. */
+  private void writeCount(int pValue) throws IOException {
+    checkArgument(pValue >= 0);
+    writeUnsignedLong(pValue);
+  }
+
+  /** Write a number with a variable-length encoding that is short for small absolute values. */
+  private void writeInt(int pValue) throws IOException {
+    writeLong(pValue);
+  }
+
+  private void writeLong(long pValue) throws IOException {
+    writeUnsignedLong((pValue << 1) ^ (pValue >> 63));
+  }
+
+  private void writeUnsignedLong(long pValue) throws IOException {
+    long value = pValue;
+    while ((value & ~0x7FL) != 0) {
+      out.writeByte((int) ((value & 0x7F) | 0x80));
+      value >>>= 7;
+    }
+    out.writeByte((int) value);
+  }
+
+  private static IllegalArgumentException unsupported(Object pObject) {
+    return new IllegalArgumentException(
+        String.format("Cannot write %s of class %s", pObject, pObject.getClass().getName()));
+  }
+}
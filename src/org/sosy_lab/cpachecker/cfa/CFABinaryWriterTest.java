@@ -0,0 +1,256 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.FluentIterable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionSummaryEdge;
+import org.sosy_lab.cpachecker.util.LoopStructure;
+import org.sosy_lab.cpachecker.util.LoopStructure.Loop;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CFABinaryWriterTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private CFA cfa;
+
+  @Before
+  public void setUp() throws Exception {
+    cfa =
+        TestDataTools.makeCFA(
+            "typedef struct node { int value; struct node *next; } node_t;",
+            "enum color { RED, GREEN = 5, BLUE };",
+            "extern int __VERIFIER_nondet_int(void);",
+            "int global[3] = { 1, 2, [2] = 3 };",
+            "const char *name = \"cfa\";",
+            "double ratio = 1.5;",
+            "struct point { int x; int y; } origin = { .x = 0, .y = 'a' };",
+            "int add(int a, int b) { return a + b; }",
+            "void nothing(void) { }",
+            "int main() {",
+            "  node_t n = { 1, 0 };",
+            "  node_t *p = &n;",
+            "  enum color c = BLUE;",
+            "  int i = 0;",
+            "  int sum = 0;",
+            "  while (i < 10) {",
+            "    sum = add(sum, global[i % 3]);",
+            "    i++;",
+            "  }",
+            "  switch (c) { case RED: sum = -sum; break; default: sum = sum * 2; }",
+            "  p->value = sum > 0 ? sizeof(node_t) : (int) ratio;",
+            "  nothing();",
+            "  if (__VERIFIER_nondet_int()) { goto end; }",
+            "  for (int j = 0; j < 2; j++) { sum += p->value; }",
+            "end:",
+            "  return sum != 0 && name[0] == 'c';",
+            "}");
+  }
+
+  private static byte[] write(CFA pCfa) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    CFABinaryWriter.write(pCfa, bytes);
+    return bytes.toByteArray();
+  }
+
+  private static MutableCFA read(byte[] pBytes) throws IOException {
+    return CFABinaryReader.read(new ByteArrayInputStream(pBytes));
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    MutableCFA result = read(write(cfa));
+
+    assertThat(result.getMachineModel()).isEqualTo(cfa.getMachineModel());
+    assertThat(result.getFileNames()).containsExactlyElementsIn(cfa.getFileNames()).inOrder();
+    assertThat(result.getAllFunctionNames()).containsExactlyElementsIn(cfa.getAllFunctionNames());
+    assertThat(result.getAllNodes()).hasSize(cfa.getAllNodes().size());
+
+    Map<CFANode, CFANode> nodeMapping = assertEquivalentNodes(cfa, result);
+    assertThat(result.getMainFunction())
+        .isSameInstanceAs(nodeMapping.get(cfa.getMainFunction()));
+    assertEquivalentLoops(cfa.getLoopStructure().orElseThrow(), result, nodeMapping);
+  }
+
+  /**
+   * Traverse both CFAs in parallel and check that all nodes and edges match.
+   *
+   * @return the mapping from nodes of the expected CFA to nodes of the actual CFA
+   */
+  private static Map<CFANode, CFANode> assertEquivalentNodes(CFA pExpected, CFA pActual) {
+    Map<CFANode, CFANode> mapping = new HashMap<>();
+    Deque<CFANode> waitlist = new ArrayDeque<>();
+    for (String function : pExpected.getAllFunctionNames()) {
+      addToMapping(
+          pExpected.getFunctionHead(function),
+          pActual.getFunctionHead(function),
+          mapping,
+          waitlist);
+    }
+
+    while (!waitlist.isEmpty()) {
+      CFANode expected = waitlist.pop();
+      CFANode actual = mapping.get(expected);
+      assertThat(actual.getClass()).isEqualTo(expected.getClass());
+      assertThat(actual.getFunctionName()).isEqualTo(expected.getFunctionName());
+      assertThat(actual.isLoopStart()).isEqualTo(expected.isLoopStart());
+      assertThat(actual.getReversePostorderId()).isEqualTo(expected.getReversePostorderId());
+      assertThat(actual.getOutOfScopeVariables())
+          .containsExactlyElementsIn(expected.getOutOfScopeVariables());
+      assertThat(actual.getNumEnteringEdges()).isEqualTo(expected.getNumEnteringEdges());
+      assertThat(actual.getNumLeavingEdges()).isEqualTo(expected.getNumLeavingEdges());
+
+      for (int i = 0; i < expected.getNumLeavingEdges(); i++) {
+        CFAEdge expectedEdge = expected.getLeavingEdge(i);
+        CFAEdge actualEdge = actual.getLeavingEdge(i);
+        assertEquivalentEdges(expectedEdge, actualEdge);
+        addToMapping(expectedEdge.getSuccessor(), actualEdge.getSuccessor(), mapping, waitlist);
+      }
+
+      FunctionSummaryEdge expectedSummaryEdge = expected.getLeavingSummaryEdge();
+      if (expectedSummaryEdge == null) {
+        assertThat(actual.getLeavingSummaryEdge()).isNull();
+      } else {
+        FunctionSummaryEdge actualSummaryEdge = actual.getLeavingSummaryEdge();
+        assertEquivalentEdges(expectedSummaryEdge, actualSummaryEdge);
+        assertThat(actualSummaryEdge.getExpression())
+            .isEqualTo(expectedSummaryEdge.getExpression());
+        addToMapping(
+            expectedSummaryEdge.getSuccessor(),
+            actualSummaryEdge.getSuccessor(),
+            mapping,
+            waitlist);
+      }
+
+      if (expected instanceof FunctionEntryNode) {
+        FunctionEntryNode expectedEntry = (FunctionEntryNode) expected;
+        FunctionEntryNode actualEntry = (FunctionEntryNode) actual;
+        assertThat(actualEntry.getFunctionDefinition())
+            .isEqualTo(expectedEntry.getFunctionDefinition());
+        assertThat(actualEntry.getReturnVariable()).isEqualTo(expectedEntry.getReturnVariable());
+        addToMapping(expectedEntry.getExitNode(), actualEntry.getExitNode(), mapping, waitlist);
+      }
+    }
+
+    assertThat(mapping).hasSize(pExpected.getAllNodes().size());
+    return mapping;
+  }
+
+  private static void addToMapping(
+      CFANode pExpected,
+      CFANode pActual,
+      Map<CFANode, CFANode> pMapping,
+      Deque<CFANode> pWaitlist) {
+    CFANode previous = pMapping.putIfAbsent(pExpected, pActual);
+    if (previous == null) {
+      pWaitlist.push(pExpected);
+    } else {
+      assertThat(pActual).isSameInstanceAs(previous);
+    }
+  }
+
+  private static void assertEquivalentEdges(CFAEdge pExpected, CFAEdge pActual) {
+    assertThat(pActual.getClass()).isEqualTo(pExpected.getClass());
+    assertThat(pActual.getEdgeType()).isEqualTo(pExpected.getEdgeType());
+    assertThat(pActual.getFileLocation()).isEqualTo(pExpected.getFileLocation());
+    assertThat(pActual.getRawStatement()).isEqualTo(pExpected.getRawStatement());
+    assertThat(pActual.getDescription()).isEqualTo(pExpected.getDescription());
+    assertThat(pActual.getRawAST()).isEqualTo(pExpected.getRawAST());
+  }
+
+  private static void assertEquivalentLoops(
+      LoopStructure pExpected, CFA pActual, Map<CFANode, CFANode> pMapping) {
+    LoopStructure actual = pActual.getLoopStructure().orElseThrow();
+    assertThat(pExpected.getAllLoops()).hasSize(2);
+    for (String function : pActual.getAllFunctionNames()) {
+      List<Loop> expectedLoops = pExpected.getLoopsForFunction(function).asList();
+      List<Loop> actualLoops = actual.getLoopsForFunction(function).asList();
+      assertThat(actualLoops).hasSize(expectedLoops.size());
+      for (int i = 0; i < expectedLoops.size(); i++) {
+        assertThat(actualLoops.get(i).getLoopHeads())
+            .containsExactlyElementsIn(
+                FluentIterable.from(expectedLoops.get(i).getLoopHeads()).transform(pMapping::get));
+        assertThat(actualLoops.get(i).getLoopNodes())
+            .containsExactlyElementsIn(
+                FluentIterable.from(expectedLoops.get(i).getLoopNodes()).transform(pMapping::get));
+      }
+    }
+  }
+
+  @Test
+  public void testSmallerThanJavaSerialization() throws IOException {
+    ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(serialized)) {
+      out.writeObject(cfa);
+    }
+
+    assertThat(write(cfa).length).isLessThan(serialized.size());
+  }
+
+  @Test
+  public void testInvalidMagic() throws IOException {
+    byte[] bytes = write(cfa);
+    bytes[0]++;
+
+    assertThrows(IOException.class, () -> read(bytes));
+  }
+
+  @Test
+  public void testTruncated() throws IOException {
+    byte[] bytes = write(cfa);
+
+    for (int length : new int[] {0, bytes.length / 3, bytes.length / 2, bytes.length - 1}) {
+      assertThrows(IOException.class, () -> read(Arrays.copyOf(bytes, length)));
+    }
+  }
+
+  @Test
+  public void testReadWithVariableInformation() throws Exception {
+    Path file = tempFolder.newFile("program.cfa").toPath();
+    Files.write(file, write(cfa));
+
+    CFACreator creator =
+        new CFACreator(
+            TestDataTools.configurationForTest().build(),
+            LogManager.createTestLogManager(),
+            ShutdownNotifier.createDummy());
+    CFA result = creator.readBinaryCFA(file);
+
+    assertThat(result.getVarClassification()).isPresent();
+    assertThat(result.getVarClassification().orElseThrow().getIntBoolVars())
+        .isEqualTo(cfa.getVarClassification().orElseThrow().getIntBoolVars());
+    assertThat(result.getLoopStructure()).isPresent();
+    assertThat(result.getAllNodes()).hasSize(cfa.getAllNodes().size());
+  }
+}
@@ -0,0 +1,244 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Optional;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+import org.sosy_lab.cpachecker.exceptions.ParserException;
+
+/**
+ * A cache for CFAs that survives the current JVM and allows to skip parsing and post-processing
+ * if the same program is analyzed repeatedly with the same configuration.
+ *
+ * <p>Cache entries are content-addressed: the key is a SHA-256 hash over the CPAchecker version,
+ * all configuration options that may influence the CFA, and the names and the (preprocessed)
+ * contents of all source files. Each entry is stored in its own file that consists of a small
+ * header (magic bytes, format version, and key) followed by the serialized {@link CFA}, which
+ * includes the {@link org.sosy_lab.cpachecker.util.LoopStructure} and the {@link
+ * org.sosy_lab.cpachecker.util.variableclassification.VariableClassification}. All AST nodes and
+ * types are written only once and shared by reference. Entries are memory-mapped when loading,
+ * and are written to a temporary file that is atomically moved to its final location, such that
+ * several processes can share a cache directory.
+ */
+@Options(prefix = "cfa.cache")
+final class CFACache {
+
+  private static final byte[] MAGIC = "CPACFA".getBytes(StandardCharsets.US_ASCII);
+  private static final int VERSION = 1;
+
+  private static final String FILE_SUFFIX = ".cfa";
+
+  /** Options with these prefixes do not influence the CFA and are not part of the key. */
+  private static final ImmutableList<String> IRRELEVANT_OPTION_PREFIXES =
+      ImmutableList.of("cfa.cache.", "log.", "output.", "statistics.", "limits.");
+
+  @Option(
+      description =
+          "Directory for caching CFAs across runs. If set, a created CFA is stored there, and it"
+              + " is loaded instead of parsing the program if the (preprocessed) source files and"
+              + " all options that may influence the CFA are the same. Relative paths are"
+              + " resolved against the output directory, so for sharing the cache between runs"
+              + " an absolute path should be used.")
+  @FileOption(FileOption.Type.OUTPUT_DIRECTORY)
+  private @Nullable Path directory = null;
+
+  private final LogManager logger;
+  private final String relevantOptions;
+  private final String version;
+
+  private CFACache(Configuration pConfig, LogManager pLogger)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    version = CPAchecker.getPlainVersion();
+
+    StringBuilder options = new StringBuilder();
+    for (String line : Splitter.on('\n').omitEmptyStrings().split(pConfig.asPropertiesString())) {
+      if (IRRELEVANT_OPTION_PREFIXES.stream().noneMatch(line::startsWith)) {
+        options.append(line).append('\n');
+      }
+    }
+    relevantOptions = options.toString();
+  }
+
+  /** Create a cache if it is enabled in the given configuration. */
+  static Optional<CFACache> create(Configuration pConfig, LogManager pLogger)
+      throws InvalidConfigurationException {
+    CFACache cache = new CFACache(pConfig, pLogger);
+    return cache.directory == null ? Optional.empty() : Optional.of(cache);
+  }
+
+  /** Reads the source of a program file as it is given to the parser. */
+  @FunctionalInterface
+  interface SourceReader {
+    byte[] read(String pFileName) throws IOException, ParserException, InterruptedException;
+  }
+
+  /** Compute the key for a CFA created from the given source files. */
+  HashCode computeKey(List<String> pSourceFiles, SourceReader pSourceReader)
+      throws IOException, ParserException, InterruptedException {
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putInt(VERSION).putString(version, StandardCharsets.UTF_8).putByte((byte) 0);
+    hasher.putString(relevantOptions, StandardCharsets.UTF_8).putByte((byte) 0);
+    for (String sourceFile : pSourceFiles) {
+      hasher.putString(sourceFile, StandardCharsets.UTF_8).putByte((byte) 0);
+      byte[] content = pSourceReader.read(sourceFile);
+      hasher.putInt(content.length).putBytes(content);
+    }
+    return hasher.hash();
+  }
+
+  private Path getFile(HashCode pKey) {
+    return checkNotNull(directory).resolve(pKey + FILE_SUFFIX);
+  }
+
+  /**
+   * Load the CFA for the given key, if it exists in the cache. Problems with the cache are logged
+   * and treated like a cache miss.
+   */
+  Optional<CFA> load(HashCode pKey) {
+    Path file = getFile(pKey);
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      MappedByteBuffer buffer = channel.map(MapMode.READ_ONLY, 0, channel.size());
+      if (!readHeader(buffer, pKey)) {
+        logger.logf(Level.WARNING, "Ignoring invalid CFA cache file %s", file);
+        return Optional.empty();
+      }
+      try (ObjectInputStream in = new ObjectInputStream(new ByteBufferInputStream(buffer))) {
+        CFA cfa = (CFA) in.readObject();
+        logger.logf(Level.INFO, "Loaded CFA from cache file %s", file);
+        return Optional.of(cfa);
+      }
+    } catch (IOException | ClassNotFoundException | ClassCastException e) {
+      // e.g., a truncated file or a file from an incompatible CPAchecker build
+      logger.logDebugException(e);
+      logger.logf(Level.WARNING, "Could not load CFA from cache file %s", file);
+      return Optional.empty();
+    }
+  }
+
+  private static boolean readHeader(ByteBuffer pBuffer, HashCode pKey) {
+    byte[] key = pKey.asBytes();
+    if (pBuffer.remaining() < MAGIC.length + Integer.BYTES + key.length) {
+      return false;
+    }
+    byte[] magic = new byte[MAGIC.length];
+    pBuffer.get(magic);
+    int storedVersion = pBuffer.getInt();
+    byte[] storedKey = new byte[key.length];
+    pBuffer.get(storedKey);
+    return ByteBuffer.wrap(magic).equals(ByteBuffer.wrap(MAGIC))
+        && storedVersion == VERSION
+        && ByteBuffer.wrap(storedKey).equals(ByteBuffer.wrap(key));
+  }
+
+  /** Store the CFA for the given key in the cache. Problems are logged and ignored. */
+  void store(HashCode pKey, CFA pCfa) {
+    Path file = getFile(pKey);
+    Path tmpFile = null;
+    try {
+      Files.createDirectories(file.getParent());
+      tmpFile = Files.createTempFile(file.getParent(), pKey.toString(), ".tmp");
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmpFile));
+          DataOutputStream dataOut = new DataOutputStream(out)) {
+        dataOut.write(MAGIC);
+        dataOut.writeInt(VERSION);
+        dataOut.write(pKey.asBytes());
+        try (ObjectOutputStream objectOut = new ObjectOutputStream(dataOut)) {
+          objectOut.writeObject(pCfa);
+        }
+      }
+      try {
+        Files.move(tmpFile, file, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Files.move(tmpFile, file, StandardCopyOption.REPLACE_EXISTING);
+      }
+      logger.logf(Level.FINE, "Stored CFA in cache file %s", file);
+
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not store CFA in cache");
+      if (tmpFile != null) {
+        try {
+          Files.deleteIfExists(tmpFile);
+        } catch (IOException e2) {
+          logger.logDebugException(e2);
+        }
+      }
+    }
+  }
+
+  /** An {@link InputStream} that reads from a (memory-mapped) {@link ByteBuffer}. */
+  private static final class ByteBufferInputStream extends InputStream {
+
+    private final ByteBuffer buffer;
+
+    private ByteBufferInputStream(ByteBuffer pBuffer) {
+      buffer = pBuffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? Byte.toUnsignedInt(buffer.get()) : -1;
+    }
+
+    @Override
+    public int read(byte[] pBytes, int pOffset, int pLength) {
+      if (pLength == 0) {
+        return 0;
+      } else if (!buffer.hasRemaining()) {
+        return -1;
+      }
+      int length = Math.min(pLength, buffer.remaining());
+      buffer.get(pBytes, pOffset, length);
+      return length;
+    }
+
+    @Override
+    public int available() {
+      return buffer.remaining();
+    }
+  }
+}
@@ -0,0 +1,194 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cfa;
+
+import static com.google.common.truth.Truth.assertThat;
+import static com.google.common.truth.Truth8.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.hash.HashCode;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.converters.FileTypeConverter;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.exceptions.ParserException;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class CFACacheTest {
+
+  private static final ImmutableList<String> FILES = ImmutableList.of("a.c", "b.c");
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private FileTypeConverter fileTypeConverter;
+  private Path cacheDirectory;
+
+  @Before
+  public void setUp() throws InvalidConfigurationException {
+    fileTypeConverter =
+        FileTypeConverter.create(
+            Configuration.builder()
+                .setOption("output.path", tempFolder.getRoot().toString())
+                .build());
+    cacheDirectory = tempFolder.getRoot().toPath().resolve("cache");
+  }
+
+  private ConfigurationBuilder configWithCache() {
+    return Configuration.builder()
+        .addConverter(FileOption.class, fileTypeConverter)
+        .setOption("cfa.cache.directory", cacheDirectory.toString());
+  }
+
+  private static CFACache createCache(Configuration pConfig)
+      throws InvalidConfigurationException {
+    return CFACache.create(pConfig, LogManager.createTestLogManager()).orElseThrow();
+  }
+
+  private static HashCode computeKey(CFACache pCache, ImmutableMap<String, String> pSources)
+      throws Exception {
+    return pCache.computeKey(
+        pSources.keySet().asList(), name -> pSources.get(name).getBytes(UTF_8));
+  }
+
+  private static HashCode computeKey(CFACache pCache, String pSourceA, String pSourceB)
+      throws Exception {
+    return pCache.computeKey(
+        FILES, name -> (name.equals("a.c") ? pSourceA : pSourceB).getBytes(UTF_8));
+  }
+
+  private static CFA makeCFA() throws ParserException, InterruptedException {
+    return TestDataTools.makeCFA("int f(int x) { return x + 1; }", "int main() { return f(0); }");
+  }
+
+  @Test
+  public void testDisabledByDefault() throws InvalidConfigurationException {
+    assertThat(
+            CFACache.create(
+                Configuration.defaultConfiguration(), LogManager.createTestLogManager()))
+        .isEmpty();
+  }
+
+  @Test
+  public void testKeyIsStable() throws Exception {
+    HashCode key = computeKey(createCache(configWithCache().build()), "int x;", "int y;");
+
+    assertThat(computeKey(createCache(configWithCache().build()), "int x;", "int y;"))
+        .isEqualTo(key);
+    // options that do not influence the CFA are ignored
+    assertThat(
+            computeKey(
+                createCache(configWithCache().setOption("log.level", "FINE").build()),
+                "int x;",
+                "int y;"))
+        .isEqualTo(key);
+  }
+
+  @Test
+  public void testKeyDependsOnInput() throws Exception {
+    CFACache cache = createCache(configWithCache().build());
+    HashCode key = computeKey(cache, "int x;", "int y;");
+
+    assertThat(computeKey(cache, "int x;", "int z;")).isNotEqualTo(key);
+    assertThat(computeKey(cache, "int y;", "int x;")).isNotEqualTo(key);
+    // names of files are relevant, and contents are not simply concatenated
+    assertThat(computeKey(cache, ImmutableMap.of("a.c", "int x;", "c.c", "int y;")))
+        .isNotEqualTo(key);
+    assertThat(computeKey(cache, ImmutableMap.of("a.c", "int x;int y;"))).isNotEqualTo(key);
+    // options that influence the CFA are relevant
+    assertThat(
+            computeKey(
+                createCache(configWithCache().setOption("analysis.entryFunction", "f").build()),
+                "int x;",
+                "int y;"))
+        .isNotEqualTo(key);
+  }
+
+  @Test
+  public void testStoreAndLoad() throws Exception {
+    CFACache cache = createCache(configWithCache().build());
+    HashCode key = computeKey(cache, "int x;", "int y;");
+    CFA cfa = makeCFA();
+
+    assertThat(cache.load(key)).isEmpty();
+    cache.store(key, cfa);
+
+    CFA loaded = createCache(configWithCache().build()).load(key).orElseThrow();
+    assertThat(loaded.getAllFunctionNames()).containsExactlyElementsIn(cfa.getAllFunctionNames());
+    assertThat(loaded.getAllNodes()).hasSize(cfa.getAllNodes().size());
+    assertThat(loaded.getMainFunction().getFunctionName())
+        .isEqualTo(cfa.getMainFunction().getFunctionName());
+    assertThat(loaded.getMachineModel()).isEqualTo(cfa.getMachineModel());
+  }
+
+  private Path storeAndGetFile(CFACache pCache, HashCode pKey) throws Exception {
+    pCache.store(pKey, makeCFA());
+    Path file = cacheDirectory.resolve(pKey + ".cfa");
+    assertThat(Files.isRegularFile(file)).isTrue();
+    return file;
+  }
+
+  private static void modifyByte(Path pFile, int pPosition) throws IOException {
+    byte[] content = Files.readAllBytes(pFile);
+    content[pPosition]++;
+    Files.write(pFile, content);
+  }
+
+  @Test
+  public void testRejectBadMagic() throws Exception {
+    CFACache cache = createCache(configWithCache().build());
+    HashCode key = computeKey(cache, "int x;", "int y;");
+    modifyByte(storeAndGetFile(cache, key), 0);
+
+    assertThat(cache.load(key)).isEmpty();
+  }
+
+  @Test
+  public void testRejectBadVersion() throws Exception {
+    CFACache cache = createCache(configWithCache().build());
+    HashCode key = computeKey(cache, "int x;", "int y;");
+    // the version is an int directly after the magic bytes "CPACFA"
+    modifyByte(storeAndGetFile(cache, key), 6 + Integer.BYTES - 1);
+
+    assertThat(cache.load(key)).isEmpty();
+  }
+
+  @Test
+  public void testRejectOtherKey() throws Exception {
+    CFACache cache = createCache(configWithCache().build());
+    HashCode key = computeKey(cache, "int x;", "int y;");
+    HashCode otherKey = computeKey(cache, "int x;", "int z;");
+    Path file = storeAndGetFile(cache, key);
+    Files.copy(file, file.resolveSibling(otherKey + ".cfa"));
+
+    assertThat(cache.load(otherKey)).isEmpty();
+  }
+
+  @Test
+  public void testRejectTruncatedFile() throws Exception {
+    CFACache cache = createCache(configWithCache().build());
+    HashCode key = computeKey(cache, "int x;", "int y;");
+    Path file = storeAndGetFile(cache, key);
+    byte[] content = Files.readAllBytes(file);
+    Files.write(file, Arrays.copyOf(content, content.length / 2));
+
+    assertThat(cache.load(key)).isEmpty();
+  }
+}
@@ -10,18 +10,22 @@ package org.sosy_lab.cpachecker.cfa;
 
 import com.google.common.base.Preconditions;
 import com.google.common.collect.Iterables;
+import com.google.common.hash.HashCode;
 import com.google.common.io.MoreFiles;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectOutputStream;
 import java.io.OutputStream;
 import java.io.PrintStream;
 import java.io.Writer;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.ListIterator;
@@ -30,6 +34,7 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.logging.Level;
 import java.util.zip.GZIPOutputStream;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.Concurrency;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -40,6 +45,7 @@ import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.io.IO;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CParser.FileContentToParse;
 import org.sosy_lab.cpachecker.cfa.ast.ADeclaration;
 import org.sosy_lab.cpachecker.cfa.ast.AExpression;
 import org.sosy_lab.cpachecker.cfa.ast.AFunctionCall;
@@ -278,6 +284,8 @@ public class CFACreator {
 
   private final LogManager logger;
   private final Parser parser;
+  private final @Nullable CParserWithPreprocessor preprocessingParser;
+  private final Optional<CFACache> cfaCache;
   private final ShutdownNotifier shutdownNotifier;
 
   private static class CFACreatorStatistics implements Statistics {
@@ -289,6 +297,8 @@ public class CFACreator {
     private final Timer checkTime = new Timer();
     private final Timer processingTime = new Timer();
     private final Timer exportTime = new Timer();
+    private final Timer cacheTime = new Timer();
+    private boolean loadedFromCache = false;
     private final List<Statistics> statisticsCollection;
     private final LogManager logger;
 
@@ -314,6 +324,10 @@ public class CFACreator {
       if (exportTime.getNumberOfIntervals() > 0) {
         out.println("    Time for CFA export:      " + exportTime);
       }
+      if (cacheTime.getNumberOfIntervals() > 0) {
+        out.println("    Time for CFA cache:       " + cacheTime);
+        out.println("    CFA loaded from cache:    " + loadedFromCache);
+      }
 
       for (Statistics st : statisticsCollection) {
         StatisticsUtils.printStatistics(st, out, logger, pResult, pReached);
@@ -343,6 +357,7 @@ public class CFACreator {
 
     stats.parserInstantiationTime.start();
 
+    CParserWithPreprocessor cParserWithPreprocessor = null;
     switch (language) {
     case JAVA:
       parser = Parsers.getJavaParser(logger, config);
@@ -357,8 +372,9 @@ public class CFACreator {
               config, logger, outerParser, readLineDirectives || usePreprocessor);
 
       if (usePreprocessor) {
-        CPreprocessor preprocessor = new CPreprocessor(config, logger);
-        outerParser = new CParserWithPreprocessor(outerParser, preprocessor);
+        cParserWithPreprocessor =
+            new CParserWithPreprocessor(outerParser, new CPreprocessor(config, logger));
+        outerParser = cParserWithPreprocessor;
       }
 
       parser = outerParser;
@@ -373,6 +389,11 @@ public class CFACreator {
       throw new AssertionError();
     }
 
+    preprocessingParser = cParserWithPreprocessor;
+    // Java programs are given as class path, which is not supported by the cache
+    cfaCache =
+        language == Language.JAVA ? Optional.empty() : CFACache.create(config, logger);
+
     stats.parsingTime = parser.getParseTime();
     stats.conversionTime = parser.getCFAConstructionTime();
 
@@ -420,10 +441,43 @@ public class CFACreator {
 
     stats.totalTime.start();
     try {
+      Optional<HashCode> cacheKey = Optional.empty();
+      // If the cache needs the preprocessed code, it is given to the parser afterwards,
+      // such that the preprocessor runs only once.
+      List<FileContentToParse> preprocessedPrograms = null;
+      if (cfaCache.isPresent()) {
+        if (language == Language.C) {
+          checkIfValidFiles(sourceFiles);
+        }
+        if (preprocessingParser != null) {
+          preprocessedPrograms = preprocessingParser.preprocess(sourceFiles);
+        }
+
+        stats.cacheTime.start();
+        try {
+          HashCode key =
+              cfaCache.orElseThrow().computeKey(sourceFiles, getSourceReader(preprocessedPrograms));
+          cacheKey = Optional.of(key);
+          Optional<CFA> cachedCfa = cfaCache.orElseThrow().load(key);
+          if (cachedCfa.isPresent()) {
+            stats.loadedFromCache = true;
+            exportCFAIfNecessary(cachedCfa.orElseThrow());
+            return cachedCfa.orElseThrow();
+          }
+        } finally {
+          stats.cacheTime.stop();
+        }
+      }
+
       // FIRST, parse file(s) and create CFAs for each function
       logger.log(Level.FINE, "Starting parsing of file(s)");
 
-      final ParseResult c = parseToCFAs(sourceFiles);
+      final ParseResult c;
+      if (preprocessedPrograms != null) {
+        c = checkParseResult(preprocessingParser.parsePreprocessed(preprocessedPrograms));
+      } else {
+        c = parseToCFAs(sourceFiles);
+      }
 
       logger.log(Level.FINE, "Parser Finished");
 
@@ -440,13 +494,83 @@ public class CFACreator {
         throw new AssertionError();
       }
 
-      return createCFA(c, mainFunction);
+      CFA cfa = createCFA(c, mainFunction);
+      if (cacheKey.isPresent()) {
+        storeInCacheAsync(cacheKey.orElseThrow(), cfa);
+      }
+      return cfa;
+
+    } finally {
+      stats.totalTime.stop();
+    }
+  }
+
+  /**
+   * Read a CFA that was written with {@link CFABinaryWriter} instead of parsing a program, e.g., in
+   * a worker process of a portfolio. The file contains the CFA after all post-processing and its
+   * loop structure, the information about variables (variable classification, live variables, and
+   * dependence graph) is created according to the configuration.
+   *
+   * @param pFile The file to read.
+   * @return A representation of the CFA.
+   * @throws IOException If the file cannot be read or does not contain a valid CFA.
+   * @throws ParserException If the information about variables cannot be created for the CFA.
+   */
+  public CFA readBinaryCFA(Path pFile)
+      throws InvalidConfigurationException, IOException, ParserException, InterruptedException {
 
+    stats.totalTime.start();
+    try {
+      MutableCFA cfa;
+      try (InputStream in = Files.newInputStream(pFile)) {
+        cfa = CFABinaryReader.read(in);
+      }
+      stats.processingTime.start();
+      return createImmutableCFA(cfa, collectGlobalDeclarations(cfa));
     } finally {
       stats.totalTime.stop();
     }
   }
 
+  /**
+   * Collect the global declarations of a CFA, which were inserted as declaration edges at the
+   * beginning of the main function.
+   */
+  private static List<Pair<ADeclaration, String>> collectGlobalDeclarations(CFA pCfa) {
+    List<Pair<ADeclaration, String>> globalDeclarations = new ArrayList<>();
+    for (CFANode node : pCfa.getAllNodes()) {
+      for (CDeclarationEdge edge :
+          CFAUtils.leavingEdges(node).filter(CDeclarationEdge.class)) {
+        if (edge.getDeclaration().isGlobal()) {
+          globalDeclarations.add(Pair.of(edge.getDeclaration(), edge.getRawStatement()));
+        }
+      }
+    }
+    return globalDeclarations;
+  }
+
+  /**
+   * Returns a reader for the content of the source files as the parser will see it, used for
+   * caching. If the files were preprocessed, the preprocessed code is used.
+   */
+  private static CFACache.SourceReader getSourceReader(
+      @Nullable List<FileContentToParse> pPreprocessedPrograms) {
+    if (pPreprocessedPrograms == null) {
+      return fileName -> Files.readAllBytes(Paths.get(fileName));
+    }
+    Map<String, String> preprocessedCode = new HashMap<>();
+    for (FileContentToParse program : pPreprocessedPrograms) {
+      preprocessedCode.put(program.getFileName(), program.getFileContent());
+    }
+    return fileName -> preprocessedCode.get(fileName).getBytes(StandardCharsets.UTF_8);
+  }
+
+  private void storeInCacheAsync(final HashCode pKey, final CFA pCfa) {
+    // Like the CFA export, this is safe because we don't modify the CFA from this point on.
+    Concurrency.newThread("CFA cache thread", () -> cfaCache.orElseThrow().store(pKey, pCfa))
+        .start();
+  }
+
   private CFA createCFA(ParseResult pParseResult, FunctionEntryNode pMainFunction) throws InvalidConfigurationException, InterruptedException, ParserException {
 
     FunctionEntryNode mainFunction = pMainFunction;
@@ -517,9 +641,20 @@ public class CFACreator {
     // SIXTH, get information about the CFA,
     // the cfa should not be modified after this line.
 
+    return createImmutableCFA(cfa, pParseResult.getGlobalDeclarations());
+  }
+
+  /**
+   * Collect information about the variables of a CFA that is not modified anymore and create the
+   * immutable CFA. The processing time needs to be started by the caller.
+   */
+  private ImmutableCFA createImmutableCFA(
+      MutableCFA cfa, List<Pair<ADeclaration, String>> globalDeclarations)
+      throws InvalidConfigurationException, InterruptedException, ParserException {
+
     // Get information about variables, needed for some analysis.
     final Optional<VariableClassification> varClassification;
-    if (language == Language.C) {
+    if (cfa.getLanguage() == Language.C) {
       try {
         VariableClassificationBuilder builder = new VariableClassificationBuilder(config, logger);
         varClassification = Optional.of(builder.build(cfa));
@@ -535,7 +670,7 @@ public class CFACreator {
     if (findLiveVariables &&
         (varClassification.isPresent() || cfa.getLanguage() != Language.C)) {
       cfa.setLiveVariables(LiveVariables.create(varClassification,
-                                                pParseResult.getGlobalDeclarations(),
+                                                globalDeclarations,
                                                 cfa, logger, shutdownNotifier,
                                                 config));
     }
@@ -567,21 +702,25 @@ public class CFACreator {
 
     // check the super CFA starting at the main function
     stats.checkTime.start();
-    assert CFACheck.check(mainFunction, null, machineModel);
+    assert CFACheck.check(cfa.getMainFunction(), null, cfa.getMachineModel());
     stats.checkTime.stop();
 
+    exportCFAIfNecessary(immutableCFA);
+
+    logger.log(Level.FINE, "DONE, CFA for", immutableCFA.getNumberOfFunctions(), "functions created.");
+
+    return immutableCFA;
+  }
+
+  private void exportCFAIfNecessary(CFA pCfa) {
     if (((exportCfaFile != null) && (exportCfa || exportCfaPerFunction))
         || ((exportFunctionCallsFile != null) && exportFunctionCalls)
         || ((exportFunctionCallsUsedFile != null) && exportFunctionCalls)
         || ((serializeCfaFile != null) && serializeCfa)
         || (exportCfaPixelFile != null)
         || (exportCfaToCFile != null && exportCfaToC)) {
-      exportCFAAsync(immutableCFA);
+      exportCFAAsync(pCfa);
     }
-
-    logger.log(Level.FINE, "DONE, CFA for", immutableCFA.getNumberOfFunctions(), "functions created.");
-
-    return immutableCFA;
   }
 
   private void instrumentCfa(MutableCFA pCfa) throws InvalidConfigurationException {
@@ -605,22 +744,7 @@ public class CFACreator {
    */
   private ParseResult parseToCFAs(final String program)
       throws ParserException, InterruptedException {
-    final ParseResult parseResult;
-
-    parseResult = parser.parseString("test", program);
-
-    if (parseResult.isEmpty()) {
-      switch (language) {
-      case JAVA:
-        throw new JParserException("No methods found in program");
-      case C:
-        throw new CParserException("No functions found in program");
-      default:
-        throw new AssertionError();
-      }
-    }
-
-    return parseResult;
+    return checkParseResult(parser.parseString("test", program));
   }
 
   /** This method parses the sourceFiles and builds a CFA for each function.
@@ -646,7 +770,11 @@ public class CFACreator {
       parseResult = ((CParser) parser).parseFile(sourceFiles);
     }
 
-    if (parseResult.isEmpty()) {
+    return checkParseResult(parseResult);
+  }
+
+  private ParseResult checkParseResult(ParseResult pParseResult) throws ParserException {
+    if (pParseResult.isEmpty()) {
       switch (language) {
         case JAVA:
           throw new JParserException("No methods found in program");
@@ -656,8 +784,7 @@ public class CFACreator {
           throw new AssertionError();
       }
     }
-
-    return parseResult;
+    return pParseResult;
   }
 
   /**
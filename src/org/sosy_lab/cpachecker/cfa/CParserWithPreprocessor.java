@@ -32,11 +32,42 @@ class CParserWithPreprocessor implements CParser {
 
   @Override
   public ParseResult parseFile(String pFilename) throws ParserException, InterruptedException {
+    return realParser.parseString(pFilename, preprocess(pFilename));
+  }
+
+  private String preprocess(String pFilename) throws CParserException, InterruptedException {
     String programCode = preprocessor.preprocess(pFilename);
     if (programCode.isEmpty()) {
       throw new CParserException("Preprocessor returned empty program");
     }
-    return realParser.parseString(pFilename, programCode);
+    return programCode;
+  }
+
+  /**
+   * Run the preprocessor on the given files without parsing them. The result can be given to
+   * {@link #parsePreprocessed(List)}, this allows to inspect the preprocessed code without
+   * preprocessing it twice.
+   */
+  List<FileContentToParse> preprocess(List<String> pFilenames)
+      throws CParserException, InterruptedException {
+    List<FileContentToParse> programs = new ArrayList<>(pFilenames.size());
+    for (String f : pFilenames) {
+      programs.add(new FileContentToParse(f, preprocess(f)));
+    }
+    return programs;
+  }
+
+  /**
+   * Parse files that were already preprocessed by {@link #preprocess(List)}. The result is the
+   * same as for {@link #parseFile(String)} or {@link #parseFile(List)} with the same files.
+   */
+  ParseResult parsePreprocessed(List<FileContentToParse> pPrograms)
+      throws CParserException, InterruptedException {
+    if (pPrograms.size() == 1) {
+      FileContentToParse program = pPrograms.get(0);
+      return realParser.parseString(program.getFileName(), program.getFileContent());
+    }
+    return realParser.parseString(pPrograms, new CSourceOriginMapping());
   }
 
   @Override
@@ -60,15 +91,7 @@ class CParserWithPreprocessor implements CParser {
   public ParseResult parseFile(List<String> pFilenames)
       throws CParserException, InterruptedException {
 
-    List<FileContentToParse> programs = new ArrayList<>(pFilenames.size());
-    for (String f : pFilenames) {
-      String programCode = preprocessor.preprocess(f);
-      if (programCode.isEmpty()) {
-        throw new CParserException("Preprocessor returned empty program");
-      }
-      programs.add(new FileContentToParse(f, programCode));
-    }
-    return realParser.parseString(programs, new CSourceOriginMapping());
+    return realParser.parseString(preprocess(pFilenames), new CSourceOriginMapping());
   }
 
   @Override
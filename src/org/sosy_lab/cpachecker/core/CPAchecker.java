@@ -207,6 +207,17 @@ public class CPAchecker {
   @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
   private @Nullable Path serializedCfaFile = null;
 
+  @Option(
+    secure = true,
+    name = "analysis.binaryCfaFile",
+    description =
+        "if this option is used, the CFA will be loaded from the given file in the compact binary "
+            + "format that is used for sending CFAs to portfolio workers instead of parsed from "
+            + "sourcefile. Information about variables is computed according to the configuration."
+  )
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path binaryCfaFile = null;
+
   @Option(
     secure = true,
     name = "analysis.unknownAsTrue",
@@ -477,7 +488,13 @@ public class CPAchecker {
       ClassNotFoundException {
 
     final CFA cfa;
-    if (serializedCfaFile == null) {
+    if (binaryCfaFile != null) {
+      logger.logf(Level.INFO, "Reading CFA from file \"%s\"", binaryCfaFile);
+      CFACreator cfaCreator = new CFACreator(config, logger, shutdownNotifier);
+      stats.setCFACreator(cfaCreator);
+      cfa = cfaCreator.readBinaryCFA(binaryCfaFile);
+
+    } else if (serializedCfaFile == null) {
       // parse file and create CFA
       logger.logf(Level.INFO, "Parsing CFA from file(s) \"%s\"", Joiner.on(", ").join(fileNames));
       CFACreator cfaCreator = new CFACreator(config, logger, shutdownNotifier);
@@ -33,6 +33,7 @@ import org.sosy_lab.cpachecker.core.algorithm.ExternalCBMCAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.MPIPortfolioAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.NoopAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.ParallelAlgorithm;
+import org.sosy_lab.cpachecker.core.algorithm.ParallelCPAAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.ProgramSplitAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.RestartAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.RestartWithConditionsAlgorithm;
@@ -40,6 +41,7 @@ import org.sosy_lab.cpachecker.core.algorithm.RestrictedProgramDomainAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.SelectionAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.TestCaseGeneratorAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.UndefinedFunctionCollectorAlgorithm;
+import org.sosy_lab.cpachecker.core.algorithm.WorkerPortfolioAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.BMCAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.IMCAlgorithm;
 import org.sosy_lab.cpachecker.core.algorithm.bmc.pdr.PdrAlgorithm;
@@ -176,6 +178,16 @@ public class CoreComponentsFactory {
         + "get aborted.")
   private boolean useMPIProcessAlgorithm = false;
 
+  @Option(
+      secure = true,
+      name = "algorithm.workerPortfolio",
+      description =
+          "Run analyses in separate worker JVMs, which are started locally or are already running"
+              + " on other machines. The CFA is parsed only once and sent to all workers. The"
+              + " result is the one of the first analysis returning in time, all other analyses"
+              + " get aborted.")
+  private boolean useWorkerPortfolioAlgorithm = false;
+
   @Option(
       secure = true,
       name = "algorithm.termination",
@@ -255,6 +267,14 @@ public class CoreComponentsFactory {
   @Option(secure = true, name = "algorithm.useParallelBAM", description = "run the parallel BAM algortihm.")
   private boolean useParallelBAM = false;
 
+  @Option(
+      secure = true,
+      name = "algorithm.useParallelCPA",
+      description =
+          "use multiple threads for exploring the state space in the CPA algorithm"
+              + " (the CPA must support concurrent calls of its transfer relation)")
+  private boolean useParallelCPA = false;
+
   @Option(secure=true, name="unknownIfUnrestrictedProgram",
       description="stop the analysis with the result unknown if the program does not satisfies certain restrictions.")
   private boolean unknownIfUnrestrictedProgram = false;
@@ -399,8 +419,16 @@ public class CoreComponentsFactory {
     } else if (useMPIProcessAlgorithm) {
       algorithm = new MPIPortfolioAlgorithm(config, logger, shutdownNotifier, specification);
 
+    } else if (useWorkerPortfolioAlgorithm) {
+      algorithm =
+          new WorkerPortfolioAlgorithm(config, logger, shutdownNotifier, specification, cfa);
+
     } else {
-      algorithm = CPAAlgorithm.create(cpa, logger, config, shutdownNotifier);
+      if (useParallelCPA) {
+        algorithm = ParallelCPAAlgorithm.create(cpa, logger, config, shutdownNotifier);
+      } else {
+        algorithm = CPAAlgorithm.create(cpa, logger, config, shutdownNotifier);
+      }
 
       if (constructResidualProgram) {
         algorithm = new ResidualProgramConstructionAlgorithm(cfa, config, logger, shutdownNotifier,
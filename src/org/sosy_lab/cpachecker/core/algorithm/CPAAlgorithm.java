@@ -199,6 +199,21 @@ public class CPAAlgorithm implements Algorithm, StatisticsProvider {
     public CPAAlgorithm newInstance() {
       return new CPAAlgorithm(cpa, logger, shutdownNotifier, forcedCovering, reportFalseAsUnknown);
     }
+
+    /**
+     * Create a {@link ParallelCPAAlgorithm} that respects the same options as the instances
+     * created by {@link #newInstance()}.
+     */
+    ParallelCPAAlgorithm newParallelInstance(Configuration config)
+        throws InvalidConfigurationException {
+      if (forcedCovering != null) {
+        throw new InvalidConfigurationException(
+            "Parallel CPA algorithm does not support forced covering, "
+                + "please unset option cpa.forcedCovering.");
+      }
+      return new ParallelCPAAlgorithm(
+          cpa, config, logger, shutdownNotifier, reportFalseAsUnknown);
+    }
   }
 
   public static CPAAlgorithm create(ConfigurableProgramAnalysis cpa, LogManager logger,
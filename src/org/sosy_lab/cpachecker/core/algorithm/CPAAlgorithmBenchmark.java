@@ -0,0 +1,126 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFACreator;
+import org.sosy_lab.cpachecker.cfa.model.FunctionEntryNode;
+import org.sosy_lab.cpachecker.core.CoreComponentsFactory;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.specification.Specification;
+import org.sosy_lab.cpachecker.util.CPAs;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Microbenchmark for the main loop of {@link CPAAlgorithm} (precision adjustment, transfer, merge
+ * and stop) on fixed programs from <code>test/programs</code>.
+ *
+ * <p>Parsing the program and creating the CPA is done outside of the measured code, such that only
+ * the state-space exploration is measured. Each invocation uses a fresh CPA and reached set,
+ * because CPAs like the predicate analysis keep caches across runs. The CPA is closed after each
+ * invocation, such that native solver contexts are not leaked.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CPAAlgorithmBenchmark {
+
+  @Param({"config/valueAnalysis-NoCegar.properties", "config/predicateAnalysis.properties"})
+  public String configFile;
+
+  @Param({"test/programs/simple/SynchronousSimulator.c", "test/programs/simple/ex2.cil.c"})
+  public String programFile;
+
+  private static final Path SPECIFICATION = Paths.get("config/specification/default.spc");
+
+  private final LogManager logger = LogManager.createNullLogManager();
+  private final ShutdownNotifier shutdownNotifier = ShutdownNotifier.createDummy();
+
+  private Configuration config;
+  private CFA cfa;
+  private Specification specification;
+
+  private CoreComponentsFactory factory;
+  private ConfigurableProgramAnalysis cpa;
+  private CPAAlgorithm algorithm;
+  private ReachedSet reached;
+
+  @Setup(Level.Trial)
+  public void parseProgram() throws Exception {
+    config =
+        TestDataTools.configurationForTest()
+            .loadFromFile(configFile)
+            .setOption("analysis.checkCounterexamples", "false")
+            .build();
+    cfa =
+        new CFACreator(config, logger, shutdownNotifier)
+            .parseFileAndCreateCFA(ImmutableList.of(programFile));
+    specification =
+        Specification.fromFiles(
+            ImmutableSet.of(),
+            ImmutableList.of(SPECIFICATION),
+            cfa,
+            config,
+            logger,
+            shutdownNotifier);
+  }
+
+  @Setup(Level.Invocation)
+  public void createAnalysis() throws Exception {
+    factory =
+        new CoreComponentsFactory(config, logger, shutdownNotifier, new AggregatedReachedSets());
+    cpa = factory.createCPA(cfa, specification);
+    algorithm = CPAAlgorithm.create(cpa, logger, config, shutdownNotifier);
+
+    FunctionEntryNode mainFunction = cfa.getMainFunction();
+    StateSpacePartition partition = StateSpacePartition.getDefaultPartition();
+    reached = factory.createReachedSet();
+    reached.add(
+        cpa.getInitialState(mainFunction, partition),
+        cpa.getInitialPrecision(mainFunction, partition));
+  }
+
+  @Benchmark
+  public ReachedSet run() throws Exception {
+    algorithm.run(reached);
+    return reached;
+  }
+
+  @TearDown(Level.Invocation)
+  public void closeAnalysis() {
+    CPAs.closeCpaIfPossible(cpa, logger);
+  }
+}
@@ -0,0 +1,607 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import com.google.common.base.Functions;
+import com.google.common.base.Preconditions;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.defaults.MergeSepOperator;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.MergeOperator;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustment;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult;
+import org.sosy_lab.cpachecker.core.interfaces.PrecisionAdjustmentResult.Action;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
+import org.sosy_lab.cpachecker.core.interfaces.TransferRelation;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGCPA;
+import org.sosy_lab.cpachecker.cpa.arg.ARGMergeJoinCPAEnabledAnalysis;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.cpa.arg.ARGTransferRelation;
+import org.sosy_lab.cpachecker.cpa.predicate.PredicateCPA;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.exceptions.UnrecognizedCodeException;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.CPAs;
+import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsUtils;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
+
+/**
+ * Multi-threaded variant of {@link CPAAlgorithm}.
+ *
+ * <p>Several worker threads take states from the waitlist of the (shared) reached set and compute
+ * their successors in parallel. The transfer relation is called without holding any lock, the
+ * precision adjustment is called while holding the read lock of the reached set (such that it can
+ * safely inspect the reached set while other workers do the same), and merge, stop, and all
+ * modifications of the reached set and the waitlist are done while holding the write lock. Thus
+ * the reached set always stays consistent, and the order of states in the waitlist is still
+ * defined by the configured waitlist strategy.
+ *
+ * <p>The ARG is modified not only by merge and stop, but also by the transfer relation and the
+ * precision adjustment of {@link ARGCPA}. If the CPA is an {@link ARGCPA}, this algorithm
+ * therefore calls only the transfer relation of the wrapped CPA without holding a lock, and links
+ * the new states into the ARG and calls the precision adjustment while holding the write lock.
+ * {@link ARGCPA} is only supported as the outer-most CPA.
+ *
+ * <p>This algorithm requires that the transfer relation and precision adjustment of the CPA can be
+ * called concurrently, as it is already required for the parallel BAM algorithm (e.g., value
+ * analysis and BDD analysis). The predicate analysis shares one solver between all operations and
+ * is thus not supported. Forced covering is not supported either, configurations that enable it
+ * are rejected.
+ */
+@Options(prefix = "cpa.parallel")
+public class ParallelCPAAlgorithm implements Algorithm, StatisticsProvider {
+
+  private static class ParallelCPAStatistics implements Statistics {
+
+    private final StatTimer totalTimer = new StatTimer("Total time for parallel CPA algorithm");
+    private final ThreadSafeTimerContainer transferTimer =
+        new ThreadSafeTimerContainer("Time for transfer relation");
+    private final ThreadSafeTimerContainer precisionTimer =
+        new ThreadSafeTimerContainer("Time for precision adjustment");
+    private final ThreadSafeTimerContainer mergeTimer =
+        new ThreadSafeTimerContainer("Time for merge operator");
+    private final ThreadSafeTimerContainer stopTimer =
+        new ThreadSafeTimerContainer("Time for stop operator");
+    private final ThreadSafeTimerContainer lockTimer =
+        new ThreadSafeTimerContainer("Time waiting for reached-set lock");
+
+    private final StatCounter countIterations = new StatCounter("Number of iterations");
+    private final StatCounter countSuccessors = new StatCounter("Number of computed successors");
+    private final StatCounter countMerge = new StatCounter("Number of times merged");
+    private final StatCounter countStop = new StatCounter("Number of times stopped");
+    private final StatCounter countBreak = new StatCounter("Number of times breaked");
+
+    private int usedThreads = 0;
+
+    @Override
+    public String getName() {
+      return "Parallel CPA algorithm";
+    }
+
+    @Override
+    public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+      StatisticsUtils.write(out, 0, 40, "Number of worker threads", usedThreads);
+      StatisticsUtils.write(out, 0, 40, countIterations);
+      StatisticsUtils.write(out, 0, 40, countSuccessors);
+      StatisticsUtils.write(out, 0, 40, countMerge);
+      StatisticsUtils.write(out, 0, 40, countStop);
+      StatisticsUtils.write(out, 0, 40, countBreak);
+      out.println();
+      StatisticsUtils.write(out, 0, 40, totalTimer);
+      StatisticsUtils.write(out, 1, 40, transferTimer);
+      StatisticsUtils.write(out, 1, 40, precisionTimer);
+      if (mergeTimer.getNumberOfIntervals() > 0) {
+        StatisticsUtils.write(out, 1, 40, mergeTimer);
+      }
+      StatisticsUtils.write(out, 1, 40, stopTimer);
+      StatisticsUtils.write(out, 1, 40, lockTimer);
+    }
+  }
+
+  @Option(
+      secure = true,
+      description =
+          "number of worker threads, positive values match exactly, "
+              + "with -1 we use the number of available cores of the machine automatically.")
+  private int numberOfThreads = -1;
+
+  private final ParallelCPAStatistics stats = new ParallelCPAStatistics();
+
+  private final TransferRelation transferRelation;
+
+  /**
+   * The transfer relation of the CPA wrapped by {@link ARGCPA}, or null if the CPA is not an
+   * {@link ARGCPA}.
+   */
+  private final @Nullable TransferRelation transferRelationInsideARG;
+  private final MergeOperator mergeOperator;
+  private final StopOperator stopOperator;
+  private final PrecisionAdjustment precisionAdjustment;
+
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+
+  /** Guards the reached set (including its waitlist) and the fields below. */
+  private final ReentrantReadWriteLock reachedSetLock = new ReentrantReadWriteLock();
+
+  /** Signalled whenever states are added to the waitlist or a worker finishes a state. */
+  private final Condition workChanged = reachedSetLock.writeLock().newCondition();
+
+  /** Number of states that were taken from the waitlist and are currently being handled. */
+  private int statesInProgress = 0;
+
+  /** Whether the analysis should stop (because of a BREAK or an exception in some worker). */
+  private volatile boolean stopRequested = false;
+
+  private final AlgorithmStatus status;
+
+  /**
+   * Create a new instance. Options of {@link CPAAlgorithm} that the parallel algorithm does not
+   * support (e.g., forced covering) are rejected with an {@link InvalidConfigurationException}.
+   */
+  public static ParallelCPAAlgorithm create(
+      ConfigurableProgramAnalysis pCpa,
+      LogManager pLogger,
+      Configuration pConfig,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    return new CPAAlgorithm.CPAAlgorithmFactory(pCpa, pLogger, pConfig, pShutdownNotifier)
+        .newParallelInstance(pConfig);
+  }
+
+  ParallelCPAAlgorithm(
+      ConfigurableProgramAnalysis pCpa,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      boolean pIsImprecise)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    if (CPAs.retrieveCPA(pCpa, PredicateCPA.class) != null) {
+      throw new InvalidConfigurationException(
+          "Parallel CPA algorithm does not support PredicateCPA, its solver is not thread-safe.");
+    }
+    if (pCpa instanceof ARGCPA) {
+      transferRelationInsideARG =
+          Iterables.getOnlyElement(((ARGCPA) pCpa).getWrappedCPAs()).getTransferRelation();
+    } else if (CPAs.retrieveCPA(pCpa, ARGCPA.class) != null) {
+      throw new InvalidConfigurationException(
+          "Parallel CPA algorithm supports ARGCPA only as the outer-most CPA.");
+    } else {
+      transferRelationInsideARG = null;
+    }
+    transferRelation = pCpa.getTransferRelation();
+    mergeOperator = pCpa.getMergeOperator();
+    stopOperator = pCpa.getStopOperator();
+    precisionAdjustment = pCpa.getPrecisionAdjustment();
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    status = AlgorithmStatus.SOUND_AND_PRECISE.withPrecise(!pIsImprecise);
+  }
+
+  @Override
+  public AlgorithmStatus run(final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    stats.totalTimer.start();
+    try {
+      return run0(reachedSet);
+    } finally {
+      stats.totalTimer.stop();
+    }
+  }
+
+  private AlgorithmStatus run0(final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    final int threads = getNumberOfThreads();
+    stats.usedThreads = threads;
+    logger.logf(Level.INFO, "Exploring state space with %d threads", threads);
+
+    statesInProgress = 0;
+    stopRequested = false;
+
+    ExecutorService pool =
+        Executors.newFixedThreadPool(
+            threads,
+            new ThreadFactoryBuilder()
+                .setDaemon(true) // for killing hanging threads at program exit
+                .setNameFormat("ParallelCPA-worker-%d")
+                .build());
+    List<Future<?>> workers = new ArrayList<>(threads);
+    try {
+      for (int i = 0; i < threads; i++) {
+        workers.add(pool.submit(() -> work(reachedSet)));
+      }
+      pool.shutdown();
+      collectResults(workers);
+
+    } finally {
+      // in case of an exception or interrupt, tell the other workers to stop
+      stopRequested = true;
+      pool.shutdownNow();
+      pool.awaitTermination(1, TimeUnit.SECONDS);
+    }
+
+    return status;
+  }
+
+  private int getNumberOfThreads() {
+    if (numberOfThreads > 0) {
+      return numberOfThreads;
+    }
+    Preconditions.checkState(
+        numberOfThreads == -1, "number of threads can only be a positive number or -1.");
+    return Runtime.getRuntime().availableProcessors();
+  }
+
+  /**
+   * Wait for all workers and rethrow the first exception that occurred in one of them. All other
+   * exceptions are added as suppressed exceptions.
+   */
+  private void collectResults(List<Future<?>> pWorkers)
+      throws CPAException, InterruptedException {
+    Throwable error = null;
+    for (Future<?> worker : pWorkers) {
+      try {
+        worker.get();
+      } catch (ExecutionException e) {
+        if (error == null) {
+          error = e.getCause();
+        } else {
+          error.addSuppressed(e.getCause());
+        }
+      }
+    }
+
+    if (error == null) {
+      return;
+    } else if (error instanceof CPAException) {
+      throw (CPAException) error;
+    } else if (error instanceof InterruptedException) {
+      throw (InterruptedException) error;
+    } else if (error instanceof RuntimeException) {
+      throw (RuntimeException) error;
+    } else if (error instanceof Error) {
+      throw (Error) error;
+    } else {
+      throw new UnexpectedCheckedException("parallel CPA algorithm", error);
+    }
+  }
+
+  /** Main loop of a worker: handle states from the waitlist until there is nothing left to do. */
+  private Void work(final ReachedSet reachedSet) throws CPAException, InterruptedException {
+    while (true) {
+      shutdownNotifier.shutdownIfNecessary();
+      final AbstractState state;
+      final Precision precision;
+
+      lockForWriting();
+      try {
+        // Another worker may still produce new states, so we cannot terminate yet.
+        while (!reachedSet.hasWaitingState() && statesInProgress > 0 && !stopRequested) {
+          workChanged.await();
+        }
+        if (stopRequested || !reachedSet.hasWaitingState()) {
+          workChanged.signalAll();
+          return null;
+        }
+        stats.countIterations.inc();
+        state = reachedSet.popFromWaitlist();
+        precision = reachedSet.getPrecision(state);
+        statesInProgress++;
+      } finally {
+        reachedSetLock.writeLock().unlock();
+      }
+
+      boolean finished = false;
+      try {
+        if (handleState(state, precision, reachedSet)) {
+          // Prec operator requested break
+          stopRequested = true;
+        }
+        finished = true;
+
+      } finally {
+        // not interruptible, we need to restore a consistent state of the reached set
+        reachedSetLock.writeLock().lock();
+        try {
+          if (!finished) {
+            // re-add the old state to the waitlist, there might be unhandled successors left
+            // that otherwise would be forgotten (which would be unsound)
+            reachedSet.reAddToWaitlist(state);
+            stopRequested = true;
+          }
+          statesInProgress--;
+          workChanged.signalAll();
+        } finally {
+          reachedSetLock.writeLock().unlock();
+        }
+      }
+    }
+  }
+
+  /**
+   * Handle one state from the waitlist, i.e., produce successors etc.
+   *
+   * @param state The abstract state that was taken out of the waitlist
+   * @param precision The precision for this abstract state.
+   * @param reachedSet The reached set.
+   * @return true if analysis should terminate, false if analysis should continue with next state
+   */
+  private boolean handleState(
+      final AbstractState state, final Precision precision, final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    logger.log(Level.ALL, "Current state is", state, "with precision", precision);
+
+    Collection<? extends AbstractState> successors;
+    if (transferRelationInsideARG != null) {
+      successors = getARGSuccessors((ARGState) state, precision);
+    } else {
+      TimerWrapper transferTimer = stats.transferTimer.getNewTimer();
+      transferTimer.start();
+      try {
+        successors = transferRelation.getAbstractSuccessors(state, precision);
+      } finally {
+        transferTimer.stop();
+      }
+    }
+
+    logger.log(Level.FINER, "Current state has", successors.size(), "successors");
+
+    for (Iterator<? extends AbstractState> it = successors.iterator(); it.hasNext(); ) {
+      AbstractState successor = it.next();
+      shutdownNotifier.shutdownIfNecessary();
+      stats.countSuccessors.inc();
+
+      PrecisionAdjustmentResult precAdjustmentResult;
+      // the precision adjustment of ARGCPA removes and replaces states in the ARG
+      Lock precisionLock =
+          transferRelationInsideARG != null
+              ? reachedSetLock.writeLock()
+              : reachedSetLock.readLock();
+      lock(precisionLock);
+      TimerWrapper precisionTimer = stats.precisionTimer.getNewTimer();
+      precisionTimer.start();
+      try {
+        Optional<PrecisionAdjustmentResult> precAdjustmentOptional =
+            precisionAdjustment.prec(
+                successor, precision, reachedSet, Functions.identity(), successor);
+        if (!precAdjustmentOptional.isPresent()) {
+          continue;
+        }
+        precAdjustmentResult = precAdjustmentOptional.orElseThrow();
+      } finally {
+        precisionTimer.stop();
+        precisionLock.unlock();
+      }
+
+      lockForWriting();
+      try {
+        if (stopRequested) {
+          // Another worker requested break, we keep the current state for later.
+          reachedSet.reAddToWaitlist(state);
+          return false;
+        }
+        if (updateReachedSet(state, it.hasNext(), precAdjustmentResult, reachedSet)) {
+          return true;
+        }
+      } finally {
+        reachedSetLock.writeLock().unlock();
+      }
+    }
+
+    return false;
+  }
+
+  /**
+   * Compute the successors of an {@link ARGState} like {@link ARGTransferRelation}, but call only
+   * the transfer relation of the wrapped CPA without holding a lock, and link the successors into
+   * the ARG while holding the write lock.
+   */
+  private Collection<ARGState> getARGSuccessors(final ARGState state, final Precision precision)
+      throws CPAException, InterruptedException {
+    lockForWriting();
+    try {
+      // covered elements may be in the reached set, but should always be ignored
+      if (state.isCovered()) {
+        return ImmutableList.of();
+      }
+      state.markExpanded();
+    } finally {
+      reachedSetLock.writeLock().unlock();
+    }
+
+    Collection<? extends AbstractState> successors;
+    TimerWrapper transferTimer = stats.transferTimer.getNewTimer();
+    transferTimer.start();
+    try {
+      successors =
+          transferRelationInsideARG.getAbstractSuccessors(state.getWrappedState(), precision);
+    } catch (UnrecognizedCodeException e) {
+      // setting parent of this unsupported code part
+      e.setParentState(state);
+      throw e;
+    } finally {
+      transferTimer.stop();
+    }
+
+    if (successors.isEmpty()) {
+      return ImmutableList.of();
+    }
+
+    lockForWriting();
+    try {
+      if (state.isDestroyed()) {
+        // Another worker merged the state into a new state, which will be expanded instead.
+        return ImmutableList.of();
+      }
+      ImmutableList.Builder<ARGState> wrappedSuccessors =
+          ImmutableList.builderWithExpectedSize(successors.size());
+      for (AbstractState successor : successors) {
+        wrappedSuccessors.add(new ARGState(successor, state));
+      }
+      return wrappedSuccessors.build();
+    } finally {
+      reachedSetLock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Apply merge and stop for one successor and add it to the reached set if necessary. The caller
+   * needs to hold the write lock of the reached set.
+   *
+   * @return true if analysis should terminate, false if analysis should continue
+   */
+  private boolean updateReachedSet(
+      final AbstractState state,
+      final boolean hasMoreSuccessors,
+      final PrecisionAdjustmentResult precAdjustmentResult,
+      final ReachedSet reachedSet)
+      throws CPAException, InterruptedException {
+    assert reachedSetLock.isWriteLockedByCurrentThread();
+
+    AbstractState successor = precAdjustmentResult.abstractState();
+    Precision successorPrecision = precAdjustmentResult.precision();
+    Action action = precAdjustmentResult.action();
+
+    if (action == Action.BREAK) {
+      boolean stop = stop(successor, reachedSet.getReached(successor), successorPrecision);
+
+      if (AbstractStates.isTargetState(successor) && stop) {
+        // don't signal BREAK for covered states
+        stats.countStop.inc();
+        logger.log(Level.FINER, "Break was signalled but ignored because the state is covered.");
+        return false;
+
+      } else {
+        stats.countBreak.inc();
+        logger.log(Level.FINER, "Break signalled, parallel CPA algorithm will stop.");
+        reachedSet.add(successor, successorPrecision);
+        if (hasMoreSuccessors) {
+          // re-add the old state to the waitlist, there are unhandled
+          // successors left that otherwise would be forgotten
+          reachedSet.reAddToWaitlist(state);
+        }
+        return true;
+      }
+    }
+    assert action == Action.CONTINUE : "Enum Action has unhandled values!";
+
+    Collection<AbstractState> reached = reachedSet.getReached(successor);
+
+    if (mergeOperator != MergeSepOperator.getInstance() && !reached.isEmpty()) {
+      TimerWrapper mergeTimer = stats.mergeTimer.getNewTimer();
+      mergeTimer.start();
+      try {
+        List<AbstractState> toRemove = new ArrayList<>();
+        List<Pair<AbstractState, Precision>> toAdd = new ArrayList<>();
+        try {
+          for (AbstractState reachedState : reached) {
+            shutdownNotifier.shutdownIfNecessary();
+            AbstractState mergedState =
+                mergeOperator.merge(successor, reachedState, successorPrecision);
+
+            if (!mergedState.equals(reachedState)) {
+              stats.countMerge.inc();
+              toRemove.add(reachedState);
+              toAdd.add(Pair.of(mergedState, successorPrecision));
+            }
+          }
+        } finally {
+          // If we terminate, we should still update the reachedSet if necessary
+          // because ARGCPA doesn't like states in toRemove to be in the reachedSet.
+          reachedSet.removeAll(toRemove);
+          reachedSet.addAll(toAdd);
+        }
+
+        if (mergeOperator instanceof ARGMergeJoinCPAEnabledAnalysis) {
+          ((ARGMergeJoinCPAEnabledAnalysis) mergeOperator).cleanUp(reachedSet);
+        }
+      } finally {
+        mergeTimer.stop();
+      }
+    }
+
+    if (stop(successor, reached, successorPrecision)) {
+      logger.log(Level.FINER, "Successor is covered or unreachable, not adding to waitlist");
+      stats.countStop.inc();
+    } else {
+      logger.log(Level.FINER, "No need to stop, adding successor to waitlist");
+      reachedSet.add(successor, successorPrecision);
+      workChanged.signalAll();
+    }
+    return false;
+  }
+
+  private boolean stop(
+      AbstractState pSuccessor, Collection<AbstractState> pReached, Precision pPrecision)
+      throws CPAException, InterruptedException {
+    TimerWrapper stopTimer = stats.stopTimer.getNewTimer();
+    stopTimer.start();
+    try {
+      return stopOperator.stop(pSuccessor, pReached, pPrecision);
+    } finally {
+      stopTimer.stop();
+    }
+  }
+
+  private void lockForWriting() throws InterruptedException {
+    lock(reachedSetLock.writeLock());
+  }
+
+  private void lock(Lock pLock) throws InterruptedException {
+    TimerWrapper lockTimer = stats.lockTimer.getNewTimer();
+    lockTimer.start();
+    try {
+      pLock.lockInterruptibly();
+    } finally {
+      lockTimer.stop();
+    }
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.add(stats);
+  }
+}
@@ -0,0 +1,110 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.Mockito.mock;
+
+import com.google.common.collect.ImmutableMap;
+import java.util.Map;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
+import org.sosy_lab.cpachecker.core.interfaces.ForcedCovering;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/** Checks that the parallel CPA algorithm produces the same verdicts as {@link CPAAlgorithm}. */
+@RunWith(Parameterized.class)
+public class ParallelCPAAlgorithmTest {
+
+  private static final String SEQUENTIAL_CONFIG = "config/valueAnalysis-NoCegar.properties";
+  private static final String PARALLEL_CONFIG = "config/valueAnalysis-NoCegar-parallel.properties";
+
+  @Parameters(name = "{0}")
+  public static Object[][] getPrograms() {
+    return new Object[][] {
+      // the value analysis tracks all variables, so the state space needs to be finite
+      {"test/programs/simple/explicit/explicitIgnoreFeatureVars.c", Result.TRUE},
+      {"test/programs/induction/induction2.c", Result.TRUE},
+      {"test/programs/induction/induction1_BUG.c", Result.FALSE},
+      {"test/programs/simple/binary-or-optimization-1.c", Result.FALSE},
+    };
+  }
+
+  @Parameter(0)
+  public String program;
+
+  @Parameter(1)
+  public Result expected;
+
+  private static Result check(String pConfigFile, String pProgram, Map<String, String> pOptions)
+      throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .loadFromFile(pConfigFile)
+            .setOption("cpa.parallel.numberOfThreads", "4")
+            .setOptions(pOptions)
+            .build();
+    return CPATestRunner.run(config, pProgram).getCheckerResult().getResult();
+  }
+
+  @Test
+  public void testSameVerdictAsSequential() throws Exception {
+    assertThat(check(SEQUENTIAL_CONFIG, program, ImmutableMap.of())).isEqualTo(expected);
+    assertThat(check(PARALLEL_CONFIG, program, ImmutableMap.of())).isEqualTo(expected);
+  }
+
+  @Test
+  public void testReportFalseAsUnknown() throws Exception {
+    Map<String, String> options = ImmutableMap.of("cpa.reportFalseAsUnknown", "true");
+    Result sequential = check(SEQUENTIAL_CONFIG, program, options);
+    Result parallel = check(PARALLEL_CONFIG, program, options);
+    assertThat(parallel).isEqualTo(sequential);
+    assertThat(parallel).isEqualTo(expected == Result.FALSE ? Result.UNKNOWN : expected);
+  }
+
+  @Test
+  public void testForcedCoveringRejected() throws Exception {
+    Configuration config =
+        Configuration.builder()
+            .setOption("cpa.forcedCovering", NoForcedCovering.class.getName())
+            .build();
+    assertThrows(
+        InvalidConfigurationException.class,
+        () ->
+            ParallelCPAAlgorithm.create(
+                mock(ConfigurableProgramAnalysis.class),
+                LogManager.createTestLogManager(),
+                config,
+                ShutdownNotifier.createDummy()));
+  }
+
+  /** Forced-covering strategy that never covers anything. */
+  public static class NoForcedCovering implements ForcedCovering {
+
+    @Override
+    public boolean tryForcedCovering(
+        AbstractState pState, Precision pPrecision, ReachedSet pReached) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,416 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.ConsoleHandler;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.SimpleFormatter;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.io.TempFile;
+import org.sosy_lab.common.log.BasicLogManager;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAchecker;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult;
+import org.sosy_lab.cpachecker.util.resources.ResourceLimitChecker;
+
+/**
+ * Worker process for the {@link WorkerPortfolioAlgorithm}. A worker receives a configuration and
+ * an already parsed CFA over a socket, runs a separate CPAchecker instance on it, and sends back
+ * the log messages, the verification result, and the statistics of this run.
+ *
+ * <p>Usage: <code>java -cp &lt;classpath of CPAchecker&gt;
+ * org.sosy_lab.cpachecker.core.algorithm.PortfolioWorker &lt;port&gt; [--once]</code>
+ *
+ * <p>The worker accepts connections only on the loopback interface. Without <code>--once</code>,
+ * the worker runs as a daemon and handles each connection in a separate thread. Workers on other
+ * machines can be used via a tunnel, e.g., with SSH port forwarding. With <code>--once</code>, the
+ * worker accepts a single connection and terminates afterwards, this is how the {@link
+ * WorkerPortfolioAlgorithm} starts local workers. Port 0 lets the operating system choose a free
+ * port. In any case, the chosen port is printed on stdout.
+ *
+ * <p>Clients need to authenticate with a shared secret that the worker reads from the environment
+ * variable {@value #SECRET_ENVIRONMENT_VARIABLE}, because a task contains arbitrary configuration
+ * options, which allow to read and write arbitrary files as the user of the worker. The CFA is sent
+ * in the binary format of {@link org.sosy_lab.cpachecker.cfa.CFABinaryWriter}, which contains only
+ * data and does not instantiate arbitrary classes like Java serialization. The lengths of all parts
+ * of a task are limited.
+ *
+ * <p>Configuration files and specification files are referenced by their absolute path, so
+ * workers on other machines need to have CPAchecker installed at the same location.
+ */
+public final class PortfolioWorker {
+
+  static final int PROTOCOL_VERSION = 3;
+
+  static final String SECRET_ENVIRONMENT_VARIABLE = "CPACHECKER_PORTFOLIO_WORKER_SECRET";
+
+  // limits for the parts of a message, such that a client cannot exhaust our memory
+  static final int MAX_SECRET_LENGTH = 1024;
+  static final int MAX_STRING_LENGTH = 64 * 1024 * 1024;
+  static final int MAX_COLLECTION_SIZE = 100_000;
+  static final int MAX_CFA_SIZE = 1024 * 1024 * 1024;
+
+  static final String READY_MESSAGE = "Portfolio worker listening on port ";
+
+  // messages from worker to main process
+  static final byte MESSAGE_LOG = 0;
+  static final byte MESSAGE_RESULT = 1;
+  static final byte MESSAGE_ERROR = 2;
+
+  private PortfolioWorker() {}
+
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1 || args.length > 2 || (args.length == 2 && !args[1].equals("--once"))) {
+      System.err.println("Usage: PortfolioWorker <port> [--once]");
+      System.exit(1);
+      return;
+    }
+    int port;
+    try {
+      port = Integer.parseInt(args[0]);
+    } catch (NumberFormatException e) {
+      System.err.println("Invalid port: " + args[0]);
+      System.exit(1);
+      return;
+    }
+    boolean once = args.length == 2;
+    String secret = System.getenv(SECRET_ENVIRONMENT_VARIABLE);
+    if (Strings.isNullOrEmpty(secret)) {
+      System.err.println("Environment variable " + SECRET_ENVIRONMENT_VARIABLE + " is not set");
+      System.exit(1);
+      return;
+    }
+    byte[] secretBytes = secret.getBytes(UTF_8);
+    LogManager logger = BasicLogManager.createWithHandler(new ConsoleHandler());
+
+    try (ServerSocket server =
+        new ServerSocket(port, once ? 1 : 50, InetAddress.getLoopbackAddress())) {
+      System.out.println(READY_MESSAGE + server.getLocalPort());
+      System.out.flush();
+
+      if (once) {
+        try (Socket socket = server.accept()) {
+          serve(socket.getInputStream(), socket.getOutputStream(), secretBytes);
+        }
+      } else {
+        acceptConnections(server, secretBytes, logger);
+      }
+    }
+  }
+
+  /**
+   * Handle each connection to the given socket in a separate thread, until the socket is closed.
+   */
+  static void acceptConnections(ServerSocket pServer, byte[] pSecret, LogManager pLogger)
+      throws IOException {
+    while (true) {
+      Socket socket = pServer.accept();
+      Thread thread =
+          new Thread(
+              () -> {
+                try (socket) {
+                  serve(socket.getInputStream(), socket.getOutputStream(), pSecret);
+                } catch (IOException e) {
+                  pLogger.logUserException(
+                      Level.WARNING,
+                      e,
+                      "Portfolio worker could not handle connection from "
+                          + socket.getRemoteSocketAddress());
+                }
+              },
+              "Portfolio worker for " + socket.getRemoteSocketAddress());
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  /**
+   * Handle one task from the main process, i.e., one analysis run.
+   *
+   * @param pSecret the secret that the main process needs to send before the task
+   */
+  static void serve(InputStream pIn, OutputStream pOut, byte[] pSecret) throws IOException {
+    DataInputStream in = new DataInputStream(new BufferedInputStream(pIn));
+    DataOutputStream out = new DataOutputStream(new BufferedOutputStream(pOut));
+
+    int version = in.readInt();
+    if (version != PROTOCOL_VERSION) {
+      sendError(
+          out,
+          String.format(
+              "Unsupported protocol version %d (expected %d)", version, PROTOCOL_VERSION));
+      return;
+    }
+    try {
+      if (!MessageDigest.isEqual(readBytes(in, MAX_SECRET_LENGTH), pSecret)) {
+        sendError(out, "Authentication failed");
+        return;
+      }
+    } catch (InvalidRequestException e) {
+      sendError(out, "Invalid request: " + e.getMessage());
+      return;
+    }
+
+    Path cfaFile = TempFile.builder().prefix("cpachecker-worker-cfa").suffix(".cfa").create();
+    try {
+      Map<String, String> options;
+      Path configFile;
+      Map<String, String> overrides;
+      List<String> programs;
+      try {
+        options = readMap(in);
+        configFile = Path.of(readString(in));
+        overrides = readMap(in);
+        programs = readList(in);
+        copyToFile(in, readLength(in, MAX_CFA_SIZE), cfaFile);
+      } catch (IllegalArgumentException | InvalidRequestException e) {
+        // IllegalArgumentException for invalid paths and duplicate keys
+        sendError(out, "Invalid request: " + e.getMessage());
+        return;
+      }
+
+      Configuration config;
+      try {
+        ConfigurationBuilder builder = Configuration.builder();
+        options.forEach(builder::setOption);
+        builder.loadFromFile(configFile);
+        overrides.forEach(builder::setOption);
+        builder.setOption("analysis.binaryCfaFile", cfaFile.toString());
+        config = builder.build();
+      } catch (InvalidConfigurationException e) {
+        sendError(out, "Invalid configuration: " + e.getMessage());
+        return;
+      } catch (IOException e) {
+        sendError(out, "Could not read configuration file: " + e.getMessage());
+        return;
+      }
+
+      run(config, programs, in, out);
+    } finally {
+      Files.deleteIfExists(cfaFile);
+    }
+  }
+
+  private static void run(
+      Configuration pConfig, List<String> pPrograms, DataInputStream in, DataOutputStream out)
+      throws IOException {
+    Handler handler = new ForwardingLogHandler(out);
+    handler.setLevel(Level.INFO);
+    LogManager logger = BasicLogManager.createWithHandler(handler);
+    ShutdownManager shutdownManager = ShutdownManager.create();
+
+    // The main process closes the connection if it is no longer interested in our result.
+    Thread connectionWatcher =
+        new Thread(
+            () -> {
+              try {
+                while (in.read() >= 0) {
+                  // ignore, there are no further messages from the main process
+                }
+              } catch (IOException e) {
+                // connection broken, handled below
+              }
+              shutdownManager.requestShutdown("Connection to main process was closed");
+            },
+            "Portfolio worker connection watcher");
+    connectionWatcher.setDaemon(true);
+    connectionWatcher.start();
+
+    ResourceLimitChecker limits = null;
+    CPAcheckerResult result;
+    try {
+      limits = ResourceLimitChecker.fromConfiguration(pConfig, logger, shutdownManager);
+      limits.start();
+      CPAchecker cpachecker = new CPAchecker(pConfig, logger, shutdownManager);
+      result = cpachecker.run(pPrograms, ImmutableSet.of());
+    } catch (InvalidConfigurationException e) {
+      sendError(out, "Invalid configuration: " + e.getMessage());
+      return;
+    } finally {
+      if (limits != null) {
+        limits.cancel();
+      }
+    }
+    Thread.interrupted(); // clear interrupted flag
+
+    ByteArrayOutputStream statistics = new ByteArrayOutputStream();
+    try (PrintStream statisticsStream = new PrintStream(statistics, true, UTF_8.name())) {
+      result.printStatistics(statisticsStream);
+    }
+    result.writeOutputFiles();
+
+    synchronized (out) {
+      out.writeByte(MESSAGE_RESULT);
+      writeString(out, result.getResult().name());
+      writeString(out, result.getViolatedPropertyDescription());
+      writeString(out, statistics.toString(UTF_8.name()));
+      out.flush();
+    }
+  }
+
+  private static void sendError(DataOutputStream out, String pMessage) throws IOException {
+    synchronized (out) {
+      out.writeByte(MESSAGE_ERROR);
+      writeString(out, pMessage);
+      out.flush();
+    }
+  }
+
+  /** Sends all log messages of the analysis to the main process. */
+  private static final class ForwardingLogHandler extends Handler {
+
+    private final DataOutputStream out;
+
+    private ForwardingLogHandler(DataOutputStream pOut) {
+      out = pOut;
+      setFormatter(new SimpleFormatter());
+    }
+
+    @Override
+    public void publish(LogRecord pRecord) {
+      if (!isLoggable(pRecord)) {
+        return;
+      }
+      String message = getFormatter().formatMessage(pRecord);
+      try {
+        synchronized (out) {
+          out.writeByte(MESSAGE_LOG);
+          writeString(out, pRecord.getLevel().getName());
+          writeString(out, message);
+          out.flush();
+        }
+      } catch (IOException e) {
+        // connection to main process is broken, the analysis will be shut down
+      }
+    }
+
+    @Override
+    public void flush() {}
+
+    @Override
+    public void close() {}
+  }
+
+  /** Signals a message that violates the protocol or its limits. */
+  static final class InvalidRequestException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private InvalidRequestException(String pMessage) {
+      super(pMessage);
+    }
+  }
+
+  private static int readLength(DataInputStream in, int pMaxLength) throws IOException {
+    int length = in.readInt();
+    if (length < 0 || length > pMaxLength) {
+      throw new InvalidRequestException(
+          String.format("Length %d is not between 0 and %d", length, pMaxLength));
+    }
+    return length;
+  }
+
+  private static void copyToFile(DataInputStream in, int pLength, Path pFile) throws IOException {
+    byte[] buffer = new byte[64 * 1024];
+    try (OutputStream file = Files.newOutputStream(pFile)) {
+      int remaining = pLength;
+      while (remaining > 0) {
+        int read = in.read(buffer, 0, Math.min(buffer.length, remaining));
+        if (read < 0) {
+          throw new EOFException();
+        }
+        file.write(buffer, 0, read);
+        remaining -= read;
+      }
+    }
+  }
+
+  // Strings are written with an explicit length because DataOutput.writeUTF is limited to 64KB.
+
+  static void writeString(DataOutputStream out, String pString) throws IOException {
+    writeBytes(out, pString.getBytes(UTF_8));
+  }
+
+  static String readString(DataInputStream in) throws IOException {
+    return new String(readBytes(in, MAX_STRING_LENGTH), UTF_8);
+  }
+
+  static void writeBytes(DataOutputStream out, byte[] pBytes) throws IOException {
+    out.writeInt(pBytes.length);
+    out.write(pBytes);
+  }
+
+  private static byte[] readBytes(DataInputStream in, int pMaxLength) throws IOException {
+    byte[] bytes = new byte[readLength(in, pMaxLength)];
+    in.readFully(bytes);
+    return bytes;
+  }
+
+  static void writeList(DataOutputStream out, List<String> pList) throws IOException {
+    out.writeInt(pList.size());
+    for (String s : pList) {
+      writeString(out, s);
+    }
+  }
+
+  static ImmutableList<String> readList(DataInputStream in) throws IOException {
+    int size = readLength(in, MAX_COLLECTION_SIZE);
+    ImmutableList.Builder<String> result = ImmutableList.builderWithExpectedSize(size);
+    for (int i = 0; i < size; i++) {
+      result.add(readString(in));
+    }
+    return result.build();
+  }
+
+  static void writeMap(DataOutputStream out, Map<String, String> pMap) throws IOException {
+    out.writeInt(pMap.size());
+    for (Map.Entry<String, String> entry : pMap.entrySet()) {
+      writeString(out, entry.getKey());
+      writeString(out, entry.getValue());
+    }
+  }
+
+  static ImmutableMap<String, String> readMap(DataInputStream in) throws IOException {
+    int size = readLength(in, MAX_COLLECTION_SIZE);
+    ImmutableMap.Builder<String, String> result = ImmutableMap.builderWithExpectedSize(size);
+    for (int i = 0; i < size; i++) {
+      result.put(readString(in), readString(in));
+    }
+    return result.build();
+  }
+}
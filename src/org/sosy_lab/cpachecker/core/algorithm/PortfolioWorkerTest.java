@@ -0,0 +1,123 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.base.Strings;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+public class PortfolioWorkerTest {
+
+  @Test
+  public void testEncoding() throws IOException {
+    String longString = Strings.repeat("äöü", 100_000); // longer than supported by writeUTF
+    ImmutableMap<String, String> map = ImmutableMap.of("a", "1", "b.c", "x = y");
+    ImmutableList<String> list = ImmutableList.of("", "program.c");
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      PortfolioWorker.writeString(out, longString);
+      PortfolioWorker.writeMap(out, map);
+      PortfolioWorker.writeList(out, list);
+    }
+
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+      assertThat(PortfolioWorker.readString(in)).isEqualTo(longString);
+      assertThat(PortfolioWorker.readMap(in)).containsExactlyEntriesIn(map).inOrder();
+      assertThat(PortfolioWorker.readList(in)).containsExactlyElementsIn(list).inOrder();
+      assertThat(in.read()).isEqualTo(-1);
+    }
+  }
+
+  private static final byte[] SECRET = "secret".getBytes(UTF_8);
+
+  /** Let the worker handle the given request and return the error message that it sends. */
+  private static String serveAndGetError(byte[] pRequest) throws IOException {
+    ByteArrayOutputStream response = new ByteArrayOutputStream();
+    PortfolioWorker.serve(new ByteArrayInputStream(pRequest), response, SECRET);
+
+    try (DataInputStream in =
+        new DataInputStream(new ByteArrayInputStream(response.toByteArray()))) {
+      assertThat(in.readByte()).isEqualTo(PortfolioWorker.MESSAGE_ERROR);
+      String error = PortfolioWorker.readString(in);
+      assertThat(in.read()).isEqualTo(-1);
+      return error;
+    }
+  }
+
+  @Test
+  public void testProtocolVersionMismatch() throws IOException {
+    ByteArrayOutputStream request = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(request)) {
+      out.writeInt(PortfolioWorker.PROTOCOL_VERSION + 1);
+    }
+
+    assertThat(serveAndGetError(request.toByteArray())).contains("protocol version");
+  }
+
+  @Test
+  public void testWrongSecret() throws IOException {
+    ByteArrayOutputStream request = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(request)) {
+      out.writeInt(PortfolioWorker.PROTOCOL_VERSION);
+      PortfolioWorker.writeBytes(out, "wrong".getBytes(UTF_8));
+      PortfolioWorker.writeMap(out, ImmutableMap.of("analysis.binaryCfaFile", "/tmp/x"));
+    }
+
+    assertThat(serveAndGetError(request.toByteArray())).contains("Authentication failed");
+  }
+
+  @Test
+  public void testOversizedSecret() throws IOException {
+    ByteArrayOutputStream request = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(request)) {
+      out.writeInt(PortfolioWorker.PROTOCOL_VERSION);
+      out.writeInt(PortfolioWorker.MAX_SECRET_LENGTH + 1);
+    }
+
+    assertThat(serveAndGetError(request.toByteArray())).contains("Invalid request");
+  }
+
+  @Test
+  public void testOversizedCfa() throws IOException {
+    ByteArrayOutputStream request = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(request)) {
+      out.writeInt(PortfolioWorker.PROTOCOL_VERSION);
+      PortfolioWorker.writeBytes(out, SECRET);
+      PortfolioWorker.writeMap(out, ImmutableMap.of());
+      PortfolioWorker.writeString(out, "config.properties");
+      PortfolioWorker.writeMap(out, ImmutableMap.of());
+      PortfolioWorker.writeList(out, ImmutableList.of("program.c"));
+      out.writeInt(Integer.MAX_VALUE);
+    }
+
+    assertThat(serveAndGetError(request.toByteArray())).contains("Invalid request");
+  }
+
+  @Test
+  public void testNegativeLength() throws IOException {
+    ByteArrayOutputStream request = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(request)) {
+      out.writeInt(PortfolioWorker.PROTOCOL_VERSION);
+      PortfolioWorker.writeBytes(out, SECRET);
+      out.writeInt(-1);
+    }
+
+    assertThat(serveAndGetError(request.toByteArray())).contains("Invalid request");
+  }
+}
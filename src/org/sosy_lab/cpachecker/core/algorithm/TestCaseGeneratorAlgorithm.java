@@ -11,6 +11,7 @@ package org.sosy_lab.cpachecker.core.algorithm;
 import static com.google.common.collect.FluentIterable.from;
 
 import com.google.common.base.Preconditions;
+import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
@@ -25,6 +26,7 @@ import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.counterexample.AssumptionToEdgeAllocator;
 import org.sosy_lab.cpachecker.core.counterexample.CounterexampleInfo;
 import org.sosy_lab.cpachecker.core.defaults.NamedProperty;
@@ -35,6 +37,7 @@ import org.sosy_lab.cpachecker.core.interfaces.Property;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.core.specification.Property.CommonCoverageType;
 import org.sosy_lab.cpachecker.core.specification.Specification;
 import org.sosy_lab.cpachecker.core.specification.SpecificationProperty;
@@ -53,6 +56,9 @@ import org.sosy_lab.cpachecker.exceptions.RefinementFailedException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 import org.sosy_lab.cpachecker.util.CPAs;
 import org.sosy_lab.cpachecker.util.error.DummyErrorState;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 import org.sosy_lab.cpachecker.util.testcase.TestCaseExporter;
 
 @Options(prefix = "testcase")
@@ -76,6 +82,34 @@ public class TestCaseGeneratorAlgorithm implements ProgressReportingAlgorithm, S
   @Option(secure = true, name = "progress", description = "defines how progress is computed")
   private ProgressComputation progressType = ProgressComputation.RELATIVE_TOTAL;
 
+  private class TestCaseGeneratorStatistics implements Statistics {
+
+    private final StatTimer totalTimer = new StatTimer("Total time for test-case generation");
+    private final StatTimer exportTimer = new StatTimer("Time for exporting test cases");
+    private final StatCounter coveredGoals = new StatCounter("Number of covered test goals");
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+      double seconds = totalTimer.getConsumedTime().asNanos() / 1e9;
+      StatisticsWriter writer =
+          StatisticsWriter.writingStatisticsTo(pOut)
+              .put(coveredGoals)
+              .putIf(
+                  seconds > 0,
+                  "Covered test goals per second",
+                  String.format("%.2f", coveredGoals.getValue() / seconds))
+              .put(totalTimer)
+              .beginLevel()
+              .put(exportTimer);
+      exporter.writeStatistics(writer);
+    }
+
+    @Override
+    public String getName() {
+      return "Test-Case Generation";
+    }
+  }
+
   private final Algorithm algorithm;
   private final AssumptionToEdgeAllocator assumptionToEdgeAllocator;
   private final ConfigurableProgramAnalysis cpa;
@@ -84,6 +118,7 @@ public class TestCaseGeneratorAlgorithm implements ProgressReportingAlgorithm, S
   private final Set<CFAEdge> testTargets;
   private final SpecificationProperty specProp;
   private final TestCaseExporter exporter;
+  private final TestCaseGeneratorStatistics stats = new TestCaseGeneratorStatistics();
   private double progress = 0;
 
   public TestCaseGeneratorAlgorithm(
@@ -123,6 +158,16 @@ public class TestCaseGeneratorAlgorithm implements ProgressReportingAlgorithm, S
   @Override
   public AlgorithmStatus run(final ReachedSet pReached)
       throws CPAException, InterruptedException, CPAEnabledAnalysisPropertyViolationException {
+    stats.totalTimer.start();
+    try {
+      return run0(pReached);
+    } finally {
+      stats.totalTimer.stop();
+    }
+  }
+
+  private AlgorithmStatus run0(final ReachedSet pReached)
+      throws CPAException, InterruptedException, CPAEnabledAnalysisPropertyViolationException {
     int uncoveredGoalsAtStart = testTargets.size();
     progress = 0;
     // clean up ARG
@@ -209,8 +254,19 @@ public class TestCaseGeneratorAlgorithm implements ProgressReportingAlgorithm, S
               if (testTargets.contains(targetEdge)) {
 
                 if (status.isPrecise()) {
-                  CounterexampleInfo cexInfo = ARGUtils.tryGetOrCreateCounterexampleInformation(argState, cpa, assumptionToEdgeAllocator).orElseThrow();
-                  exporter.writeTestCaseFiles(cexInfo, Optional.ofNullable(specProp));
+                  stats.exportTimer.start();
+                  try {
+                    CounterexampleInfo cexInfo =
+                        ARGUtils.tryGetOrCreateCounterexampleInformation(
+                                argState, cpa, assumptionToEdgeAllocator)
+                            .orElseThrow();
+                    // files are written in the background if configured, so that the next
+                    // goal is already analyzed in the meantime
+                    exporter.writeTestCaseFiles(cexInfo, Optional.ofNullable(specProp));
+                  } finally {
+                    stats.exportTimer.stop();
+                  }
+                  stats.coveredGoals.inc();
 
                   logger.log(Level.FINE, "Removing test target: " + targetEdge.toString());
                   testTargets.remove(targetEdge);
@@ -264,6 +320,9 @@ public class TestCaseGeneratorAlgorithm implements ProgressReportingAlgorithm, S
 
       cleanUpIfNoTestTargetsRemain(pReached);
     } finally {
+      // Wait for the pending test cases and stop the writer threads, nothing else owns them.
+      // If the algorithm is run again, the exporter starts new writers.
+      exporter.close();
       if (uncoveredGoalsAtStart != testTargets.size()) {
         logger.log(Level.SEVERE, TestTargetProvider.getCoverageInfo());
       }
@@ -306,6 +365,7 @@ public class TestCaseGeneratorAlgorithm implements ProgressReportingAlgorithm, S
     if (algorithm instanceof StatisticsProvider) {
       ((StatisticsProvider) algorithm).collectStatistics(pStatsCollection);
     }
+    pStatsCollection.add(stats);
     pStatsCollection.add(TestTargetProvider.getTestTargetStatisitics(printTestTargetInfoInStats));
   }
 
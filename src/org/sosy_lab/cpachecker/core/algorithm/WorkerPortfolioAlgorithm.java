@@ -0,0 +1,547 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+
+import com.google.common.base.Joiner;
+import com.google.common.base.Splitter;
+import com.google.common.base.Throwables;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterables;
+import com.google.common.io.BaseEncoding;
+import com.google.common.net.HostAndPort;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownManager;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.common.time.Timer;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.CFABinaryWriter;
+import org.sosy_lab.cpachecker.cfa.Language;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.defaults.DummyTargetState;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.core.specification.Specification;
+import org.sosy_lab.cpachecker.exceptions.CPAException;
+import org.sosy_lab.cpachecker.exceptions.CompoundException;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Portfolio of analyses that run in separate JVMs, either in local worker processes that are
+ * started by this algorithm, or in {@link PortfolioWorker} daemons that are already running (e.g.,
+ * on other machines that are reachable via a tunnel). The CFA is parsed only once by the main
+ * process and sent to all workers in the compact binary format of {@link CFABinaryWriter}, and the
+ * log messages, results, and statistics of the workers are sent back over the same connection.
+ * Information about variables (e.g., the variable classification) is recomputed by each worker.
+ * The result of the first analysis that returns TRUE or FALSE is used, all other analyses are
+ * aborted.
+ *
+ * <p>In contrast to the {@link MPIPortfolioAlgorithm}, this needs no MPI installation.
+ */
+@Options(prefix = "workerPortfolio")
+public class WorkerPortfolioAlgorithm implements Algorithm, StatisticsProvider {
+
+  private static final String SUCCESS_MESSAGE =
+      "One of the portfolio analyses finished successfully.";
+
+  @Option(
+      secure = true,
+      required = true,
+      description = "List of configuration files to be run by the portfolio workers.")
+  @FileOption(FileOption.Type.REQUIRED_INPUT_FILE)
+  private List<Path> configFiles;
+
+  @Option(
+      description =
+          "Addresses (host:port) of running portfolio workers (class PortfolioWorker) that should"
+              + " be used. The analyses are distributed round-robin on the given workers. If no"
+              + " address is given, one worker JVM is started on the local machine for each"
+              + " analysis. Workers accept only local connections, so workers on other machines"
+              + " need to be reached via a tunnel (e.g., SSH port forwarding).")
+  private List<String> workers = ImmutableList.of();
+
+  @Option(
+      secure = true,
+      description =
+          "File with the secret that authenticates this process at the portfolio workers given"
+              + " by the option 'workers'. The workers need to be started with the content of this"
+              + " file in the environment variable "
+              + PortfolioWorker.SECRET_ENVIRONMENT_VARIABLE
+              + ". Local workers get a random secret.")
+  @FileOption(FileOption.Type.OPTIONAL_INPUT_FILE)
+  private @Nullable Path secretFile = null;
+
+  @Option(description = "Additional arguments for the JVMs of local workers, e.g., a heap limit.")
+  private List<String> jvmArguments = ImmutableList.of();
+
+  private final Configuration globalConfig;
+  private final LogManager logger;
+  private final ShutdownManager shutdownManager;
+  private final Specification specification;
+  private final CFA cfa;
+  private final ImmutableList<HostAndPort> workerAddresses;
+  private final String secret;
+  private final WorkerPortfolioStatistics stats = new WorkerPortfolioStatistics();
+
+  public WorkerPortfolioAlgorithm(
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      Specification pSpecification,
+      CFA pCfa)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    globalConfig = pConfig;
+    logger = checkNotNull(pLogger);
+    shutdownManager = ShutdownManager.createWithParent(checkNotNull(pShutdownNotifier));
+    specification = checkNotNull(pSpecification);
+    cfa = checkNotNull(pCfa);
+    if (cfa.getLanguage() != Language.C) {
+      throw new InvalidConfigurationException(
+          "Portfolio workers support only C programs, but the program is written in "
+              + cfa.getLanguage());
+    }
+
+    ImmutableList.Builder<HostAndPort> addresses = ImmutableList.builder();
+    for (String worker : workers) {
+      try {
+        addresses.add(HostAndPort.fromString(worker).requireBracketsForIPv6());
+      } catch (IllegalArgumentException e) {
+        throw new InvalidConfigurationException(
+            "Invalid address of portfolio worker: " + worker, e);
+      }
+    }
+    workerAddresses = addresses.build();
+    for (HostAndPort address : workerAddresses) {
+      if (!address.hasPort()) {
+        throw new InvalidConfigurationException(
+            "Address of portfolio worker needs a port: " + address);
+      }
+    }
+
+    if (workerAddresses.isEmpty()) {
+      byte[] randomBytes = new byte[32];
+      new SecureRandom().nextBytes(randomBytes);
+      secret = BaseEncoding.base16().encode(randomBytes);
+    } else if (secretFile == null) {
+      throw new InvalidConfigurationException(
+          "Option workerPortfolio.secretFile is required for using existing portfolio workers.");
+    } else {
+      try {
+        secret = Files.readString(secretFile, UTF_8).trim();
+      } catch (IOException e) {
+        throw new InvalidConfigurationException(
+            "Could not read secret for portfolio workers: " + e.getMessage(), e);
+      }
+      if (secret.isEmpty()) {
+        throw new InvalidConfigurationException(
+            "Secret for portfolio workers in " + secretFile + " is empty.");
+      }
+    }
+  }
+
+  @Override
+  public AlgorithmStatus run(ReachedSet pReachedSet) throws CPAException, InterruptedException {
+    byte[] encodedCfa = encodeCfa();
+    Map<String, String> options = getOptionsForWorkers();
+
+    ListeningExecutorService exec =
+        listeningDecorator(
+            newFixedThreadPool(
+                configFiles.size(),
+                new ThreadFactoryBuilder()
+                    .setDaemon(true)
+                    .setNameFormat("WorkerPortfolioAlgorithm-%d")
+                    .build()));
+    List<ListenableFuture<WorkerResult>> futures = new ArrayList<>(configFiles.size());
+    for (int i = 0; i < configFiles.size(); i++) {
+      final int index = i;
+      futures.add(exec.submit(() -> runWorker(index, options, encodedCfa)));
+    }
+    exec.shutdown();
+
+    WorkerResult finalResult;
+    try {
+      finalResult = handleFutureResults(futures);
+    } finally {
+      exec.shutdownNow();
+    }
+
+    if (finalResult == null) {
+      logger.log(Level.WARNING, "None of the portfolio analyses produced a result.");
+      return AlgorithmStatus.UNSOUND_AND_IMPRECISE;
+    }
+
+    stats.successfulAnalysis = finalResult;
+    pReachedSet.clear();
+    if (finalResult.result == Result.FALSE) {
+      // a reached set with one dummy target state reflects the result in the main analysis
+      pReachedSet.add(
+          DummyTargetState.withSingleProperty(finalResult.violatedPropertyDescription),
+          SingletonPrecision.getInstance());
+    }
+    return AlgorithmStatus.SOUND_AND_PRECISE;
+  }
+
+  private byte[] encodeCfa() throws CPAException {
+    stats.cfaEncodingTime.start();
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      CFABinaryWriter.write(cfa, bytes);
+      stats.encodedCfaSize = bytes.size();
+      return bytes.toByteArray();
+    } catch (IOException | IllegalArgumentException e) {
+      // IllegalArgumentException for AST nodes that are not supported by the encoding
+      throw new CPAException("Could not encode CFA for portfolio workers: " + e.getMessage(), e);
+    } finally {
+      stats.cfaEncodingTime.stop();
+    }
+  }
+
+  /**
+   * Keep all options of the global configuration except those that are only relevant for this
+   * algorithm. The configuration file of the respective analysis is loaded on top of these options
+   * by the worker.
+   */
+  private Map<String, String> getOptionsForWorkers() {
+    Map<String, String> options = new LinkedHashMap<>();
+    for (String option :
+        Splitter.on('\n').omitEmptyStrings().split(globalConfig.asPropertiesString())) {
+      List<String> split = Splitter.on(" = ").limit(2).splitToList(option);
+      String key = split.get(0);
+      if (split.size() == 2
+          && !key.startsWith("workerPortfolio.")
+          && !key.equals("analysis.algorithm.workerPortfolio")
+          && !key.equals("analysis.serializedCfaFile")
+          && !key.equals("analysis.binaryCfaFile")
+          && !key.equals("output.path")) {
+        options.put(key, split.get(1));
+      }
+    }
+    return options;
+  }
+
+  private Map<String, String> getOverridesForWorker(int pIndex) {
+    Map<String, String> overrides = new LinkedHashMap<>();
+    overrides.put("output.path", Path.of("output", "portfolio-worker-" + pIndex).toString());
+    if (!specification.getSpecFiles().isEmpty()) {
+      overrides.put(
+          "specification",
+          FluentIterable.from(specification.getSpecFiles())
+              .transform(p -> p.toAbsolutePath().toString())
+              .join(Joiner.on(',')));
+    }
+    return overrides;
+  }
+
+  private @Nullable WorkerResult handleFutureResults(List<ListenableFuture<WorkerResult>> futures)
+      throws InterruptedException, CPAException {
+
+    List<CPAException> exceptions = new ArrayList<>();
+    for (ListenableFuture<WorkerResult> f : Futures.inCompletionOrder(futures)) {
+      try {
+        WorkerResult result = f.get();
+        if (result == null) {
+          continue; // aborted
+        }
+        logger.logf(
+            Level.INFO,
+            "Portfolio analysis %s finished with result %s",
+            result.name,
+            result.result);
+        if (result.result == Result.TRUE || result.result == Result.FALSE) {
+          // cancel other analyses
+          shutdownManager.requestShutdown(SUCCESS_MESSAGE);
+          futures.forEach(future -> future.cancel(true));
+          return result;
+        }
+
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof CPAException) {
+          logger.logUserException(Level.WARNING, cause, "Portfolio analysis failed");
+          exceptions.add((CPAException) cause);
+        } else {
+          shutdownManager.requestShutdown("cancelling all remaining analyses");
+          futures.forEach(future -> future.cancel(true));
+          Throwables.throwIfUnchecked(cause);
+          Throwables.propagateIfPossible(cause, InterruptedException.class);
+          throw new UnexpectedCheckedException("portfolio analysis", cause);
+        }
+      } catch (CancellationException e) {
+        // do nothing, this is normal if we cancel other analyses
+      }
+    }
+
+    // we do not have any result, so we propagate the found CPAExceptions upwards
+    if (!exceptions.isEmpty()) {
+      if (exceptions.size() == 1) {
+        throw Iterables.getOnlyElement(exceptions);
+      } else {
+        throw new CompoundException(exceptions);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Run the analysis with the given index on a worker and wait for its result.
+   *
+   * @return the result of the analysis, or null if it was aborted
+   */
+  private @Nullable WorkerResult runWorker(
+      int pIndex, Map<String, String> pOptions, byte[] pEncodedCfa)
+      throws CPAException, InterruptedException {
+    Path configFile = configFiles.get(pIndex);
+    String name = configFile.getFileName().toString();
+    LogManager workerLogger = logger.withComponentName("Portfolio worker " + pIndex);
+
+    AtomicReference<Process> process = new AtomicReference<>();
+    Socket socket = new Socket();
+    ShutdownRequestListener closeOnShutdown =
+        reason -> {
+          closeQuietly(socket, workerLogger);
+          Process p = process.get();
+          if (p != null) {
+            p.destroyForcibly();
+          }
+        };
+    shutdownManager.getNotifier().register(closeOnShutdown);
+
+    try {
+      InetSocketAddress address;
+      if (workerAddresses.isEmpty()) {
+        process.set(startLocalWorker(workerLogger));
+        shutdownManager.getNotifier().shutdownIfNecessary();
+        int port = waitForPort(process.get(), workerLogger);
+        address = new InetSocketAddress(InetAddress.getLoopbackAddress(), port);
+      } else {
+        HostAndPort worker = workerAddresses.get(pIndex % workerAddresses.size());
+        address = new InetSocketAddress(worker.getHost(), worker.getPort());
+      }
+      shutdownManager.getNotifier().shutdownIfNecessary();
+      workerLogger.logf(Level.INFO, "Running analysis %s on worker %s", name, address);
+      socket.connect(address);
+
+      DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()));
+      out.writeInt(PortfolioWorker.PROTOCOL_VERSION);
+      PortfolioWorker.writeBytes(out, secret.getBytes(UTF_8));
+      PortfolioWorker.writeMap(out, pOptions);
+      PortfolioWorker.writeString(out, configFile.toAbsolutePath().toString());
+      PortfolioWorker.writeMap(out, getOverridesForWorker(pIndex));
+      PortfolioWorker.writeList(
+          out, FluentIterable.from(cfa.getFileNames()).transform(Path::toString).toList());
+      out.writeInt(pEncodedCfa.length);
+      out.write(pEncodedCfa);
+      out.flush();
+
+      DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+      while (true) {
+        byte message = in.readByte();
+        switch (message) {
+          case PortfolioWorker.MESSAGE_LOG:
+            Level level = Level.parse(PortfolioWorker.readString(in));
+            workerLogger.log(level, PortfolioWorker.readString(in));
+            break;
+          case PortfolioWorker.MESSAGE_RESULT:
+            Result result = Result.valueOf(PortfolioWorker.readString(in));
+            String violatedPropertyDescription = PortfolioWorker.readString(in);
+            String statistics = PortfolioWorker.readString(in);
+            return new WorkerResult(name, result, violatedPropertyDescription, statistics);
+          case PortfolioWorker.MESSAGE_ERROR:
+            throw new CPAException(
+                "Portfolio worker for " + name + " failed: " + PortfolioWorker.readString(in));
+          default:
+            throw new CPAException("Unexpected message from portfolio worker: " + message);
+        }
+      }
+
+    } catch (IOException e) {
+      if (shutdownManager.getNotifier().shouldShutdown()) {
+        return null; // connection was closed by us
+      }
+      if (e instanceof EOFException) {
+        throw new CPAException("Portfolio worker for " + name + " terminated unexpectedly", e);
+      }
+      throw new CPAException("Communication with portfolio worker for " + name + " failed", e);
+
+    } finally {
+      shutdownManager.getNotifier().unregister(closeOnShutdown);
+      closeQuietly(socket, workerLogger);
+      Process p = process.get();
+      if (p != null && !p.waitFor(10, TimeUnit.SECONDS)) {
+        p.destroyForcibly();
+      }
+    }
+  }
+
+  private static void closeQuietly(Socket pSocket, LogManager pWorkerLogger) {
+    try {
+      pSocket.close();
+    } catch (IOException e) {
+      pWorkerLogger.logDebugException(e);
+    }
+  }
+
+  private Process startLocalWorker(LogManager pWorkerLogger) throws IOException {
+    List<String> cmdLine = new ArrayList<>();
+    cmdLine.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+    cmdLine.addAll(jvmArguments);
+    cmdLine.add("-cp");
+    cmdLine.add(System.getProperty("java.class.path"));
+    cmdLine.add(PortfolioWorker.class.getName());
+    cmdLine.add("0");
+    cmdLine.add("--once");
+    pWorkerLogger.log(Level.FINE, "Starting local worker with command line", cmdLine);
+    ProcessBuilder processBuilder = new ProcessBuilder(cmdLine).redirectErrorStream(true);
+    // not on the command line, where other users of this machine could see it
+    processBuilder.environment().put(PortfolioWorker.SECRET_ENVIRONMENT_VARIABLE, secret);
+    return processBuilder.start();
+  }
+
+  /**
+   * Read the output of a local worker process until it reports its port, and forward all further
+   * output to the log.
+   */
+  private int waitForPort(Process pProcess, LogManager pWorkerLogger)
+      throws IOException, InterruptedException {
+    // If the analysis is aborted, the process is killed and the output ends.
+    BufferedReader output =
+        new BufferedReader(new InputStreamReader(pProcess.getInputStream(), UTF_8));
+    String line;
+    while ((line = output.readLine()) != null) {
+      if (line.startsWith(PortfolioWorker.READY_MESSAGE)) {
+        Thread outputForwarder =
+            new Thread(
+                () -> {
+                  try {
+                    String l;
+                    while ((l = output.readLine()) != null) {
+                      pWorkerLogger.log(Level.FINE, l);
+                    }
+                  } catch (IOException e) {
+                    pWorkerLogger.logDebugException(e);
+                  }
+                },
+                "Portfolio worker output forwarder");
+        outputForwarder.setDaemon(true);
+        outputForwarder.start();
+        try {
+          return Integer.parseInt(line.substring(PortfolioWorker.READY_MESSAGE.length()).trim());
+        } catch (NumberFormatException e) {
+          throw new IOException("Invalid port reported by worker process: " + line, e);
+        }
+      }
+      pWorkerLogger.log(Level.WARNING, line);
+    }
+    shutdownManager.getNotifier().shutdownIfNecessary();
+    throw new IOException("Worker process did not start correctly");
+  }
+
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    pStatsCollection.add(stats);
+  }
+
+  private static final class WorkerResult {
+
+    private final String name;
+    private final Result result;
+    private final String violatedPropertyDescription;
+    private final String statistics;
+
+    private WorkerResult(
+        String pName, Result pResult, String pViolatedPropertyDescription, String pStatistics) {
+      name = pName;
+      result = pResult;
+      violatedPropertyDescription = pViolatedPropertyDescription;
+      statistics = pStatistics;
+    }
+  }
+
+  private class WorkerPortfolioStatistics implements Statistics {
+
+    private final Timer cfaEncodingTime = new Timer();
+    private int encodedCfaSize = 0;
+    private @Nullable WorkerResult successfulAnalysis = null;
+
+    @Override
+    public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
+      StatisticsWriter.writingStatisticsTo(pOut)
+          .put("Number of analyses", configFiles.size())
+          .put(
+              "Number of workers",
+              workerAddresses.isEmpty() ? configFiles.size() : workerAddresses.size())
+          .put("Time for encoding CFA", cfaEncodingTime)
+          .put("Size of encoded CFA", encodedCfaSize + " bytes")
+          .putIf(
+              successfulAnalysis != null,
+              "Successful analysis",
+              successfulAnalysis == null ? "" : successfulAnalysis.name);
+
+      if (successfulAnalysis != null) {
+        pOut.println();
+        pOut.println("Statistics of successful analysis:");
+        pOut.print(successfulAnalysis.statistics);
+      }
+    }
+
+    @Override
+    public @Nullable String getName() {
+      return "Worker Portfolio Algorithm";
+    }
+  }
+}
@@ -0,0 +1,97 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.net.HostAndPort;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Runs analyses with the {@link WorkerPortfolioAlgorithm} on a {@link PortfolioWorker} that runs
+ * in a separate thread of this JVM and is reached via the loopback interface.
+ */
+public class WorkerPortfolioAlgorithmTest {
+
+  private static final String SECRET = "test-secret";
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private ServerSocket server;
+  private Thread worker;
+
+  @Before
+  public void startWorker() throws IOException {
+    server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+    worker =
+        new Thread(
+            () -> {
+              try {
+                PortfolioWorker.acceptConnections(
+                    server, SECRET.getBytes(UTF_8), LogManager.createTestLogManager());
+              } catch (IOException e) {
+                // server socket was closed at the end of the test
+              }
+            },
+            "Portfolio worker for test");
+    worker.setDaemon(true);
+    worker.start();
+  }
+
+  @After
+  public void stopWorker() throws IOException, InterruptedException {
+    server.close();
+    worker.join();
+  }
+
+  private Result check(String pProgram) throws Exception {
+    Path secretFile = tempFolder.newFile("secret").toPath();
+    Files.writeString(secretFile, SECRET, UTF_8);
+
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .setOption("analysis.algorithm.workerPortfolio", "true")
+            .setOption("workerPortfolio.configFiles", "config/valueAnalysis-Cegar.properties")
+            .setOption(
+                "workerPortfolio.workers",
+                HostAndPort.fromParts(
+                        server.getInetAddress().getHostAddress(), server.getLocalPort())
+                    .toString())
+            .setOption("workerPortfolio.secretFile", secretFile.toString())
+            .setOption("specification", "config/specification/default.spc")
+            .setOption("output.disable", "true")
+            .build();
+    return CPATestRunner.run(config, pProgram).getCheckerResult().getResult();
+  }
+
+  @Test
+  public void testSafeProgram() throws Exception {
+    assertThat(check("test/programs/induction/induction2.c")).isEqualTo(Result.TRUE);
+  }
+
+  @Test
+  public void testUnsafeProgram() throws Exception {
+    assertThat(check("test/programs/induction/induction1_BUG.c")).isEqualTo(Result.FALSE);
+  }
+}
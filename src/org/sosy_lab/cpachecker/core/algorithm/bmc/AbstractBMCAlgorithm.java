@@ -17,11 +17,14 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.extractLocation;
 import com.google.common.base.Joiner;
 import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
+import com.google.common.base.Throwables;
 import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.MapMaker;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
@@ -41,9 +44,15 @@ import java.util.TreeSet;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.ToIntFunction;
 import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.ShutdownNotifier.ShutdownRequestListener;
@@ -167,6 +176,22 @@ abstract class AbstractBMCAlgorithm
   )
   private boolean usePropertyDirection = false;
 
+  @Option(
+      secure = true,
+      description =
+          "Check each candidate invariant only at those states that were not yet checked for it"
+              + " in a previous iteration of BMC. The states of the reached set are kept between"
+              + " iterations, so only the newly unrolled loop iterations need to be checked.")
+  private boolean incremental = false;
+
+  @Option(
+      secure = true,
+      description =
+          "Check the inductive step of k-induction in a separate thread with its own solver,"
+              + " such that the base case for the next bounds is checked in the meantime."
+              + " Not supported together with bmc.usePropertyDirection.")
+  private boolean parallelInductiveStep = false;
+
   protected final BMCStatistics stats;
   private final Algorithm algorithm;
   private final ConfigurableProgramAnalysis cpa;
@@ -201,6 +226,9 @@ abstract class AbstractBMCAlgorithm
   private final List<ConditionAdjustmentEventSubscriber> conditionAdjustmentEventSubscribers =
       new CopyOnWriteArrayList<>();
 
+  /** The states at which each candidate invariant was already checked (for incremental BMC). */
+  private final Map<CandidateInvariant, BmcResult> checkedCandidates = new HashMap<>();
+
   protected AbstractBMCAlgorithm(
       Algorithm pAlgorithm,
       ConfigurableProgramAnalysis pCPA,
@@ -315,6 +343,11 @@ abstract class AbstractBMCAlgorithm
     }
     invariantGeneratorHeadStart = invariantGeneratorHeadStartStrategy.createFor(this);
 
+    if (parallelInductiveStep && usePropertyDirection) {
+      throw new InvalidConfigurationException(
+          "Option bmc.parallelInductiveStep is not supported with bmc.usePropertyDirection");
+    }
+
     @SuppressWarnings("resource")
     PredicateCPA predCpa = CPAs.retrieveCPAOrFail(cpa, PredicateCPA.class, BMCAlgorithm.class);
     solver = predCpa.getSolver();
@@ -341,9 +374,14 @@ abstract class AbstractBMCAlgorithm
 
     // The set of candidate invariants that still need to be checked.
     // Successfully proven invariants are removed from the set.
-    final CandidateGenerator candidateGenerator = getCandidateInvariants();
+    final boolean checkStepCaseInParallel = induction && parallelInductiveStep;
+    final CandidateGenerator candidateGenerator =
+        checkStepCaseInParallel
+            ? new SynchronizedCandidateGenerator(getCandidateInvariants())
+            : getCandidateInvariants();
     Set<Obligation> ctiBlockingClauses = new TreeSet<>();
     Map<SymbolicCandiateInvariant, BmcResult> checkedClauses = new HashMap<>();
+    checkedCandidates.clear();
 
     if (!candidateGenerator.produceMoreCandidates()) {
       for (AbstractState state : ImmutableList.copyOf(reachedSet.getWaitlist())) {
@@ -354,7 +392,9 @@ abstract class AbstractBMCAlgorithm
 
     AlgorithmStatus status;
 
-    try (ProverEnvironment prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS)) {
+    try (ProverEnvironment prover = solver.newProverEnvironment(ProverOptions.GENERATE_MODELS);
+        ParallelInductiveStep parallelStepCase =
+            checkStepCaseInParallel ? new ParallelInductiveStep(candidateGenerator) : null) {
       invariantGeneratorHeadStart.waitForInvariantGenerator();
 
       do {
@@ -414,7 +454,9 @@ abstract class AbstractBMCAlgorithm
           }
 
           // try to prove program safety via induction
-          if (induction && !sound) {
+          if (parallelStepCase != null && !sound) {
+            sound = parallelStepCase.submitOrCollect(reachedSet);
+          } else if (induction && !sound) {
             if (usePropertyDirection) {
               usePropertyDirection =
                   refineCtiBlockingClauses(reachedSet, prover, ctiBlockingClauses, checkedClauses);
@@ -423,7 +465,7 @@ abstract class AbstractBMCAlgorithm
               }
             }
             try (@SuppressWarnings("resource")
-                KInductionProver kInductionProver = createInductionProver()) {
+                KInductionProver kInductionProver = createInductionProver(shutdownNotifier)) {
             sound =
                 checkStepCase(reachedSet, candidateGenerator, kInductionProver, ctiBlockingClauses);
             }
@@ -440,6 +482,14 @@ abstract class AbstractBMCAlgorithm
         }
       }
       while (status.isSound() && adjustConditions());
+
+      // the base case cannot be unrolled any further, so wait for the inductive step
+      if (parallelStepCase != null
+          && status.isSound()
+          && parallelStepCase.finish(reachedSet)
+          && !candidateGenerator.produceMoreCandidates()) {
+        return AlgorithmStatus.SOUND_AND_PRECISE;
+      }
     }
 
     return AlgorithmStatus.UNSOUND_AND_PRECISE;
@@ -451,6 +501,15 @@ abstract class AbstractBMCAlgorithm
       KInductionProver kInductionProver,
       Set<Obligation> pCtiBlockingClauses)
       throws InterruptedException, CPAException, SolverException {
+    StepCase stepCase = prepareStepCase(reachedSet, candidateGenerator, pCtiBlockingClauses);
+    return checkStepCase(stepCase, candidateGenerator, kInductionProver, pCtiBlockingClauses);
+  }
+
+  /** Determine the bound and the candidates for the inductive step from the base case. */
+  private StepCase prepareStepCase(
+      final ReachedSet reachedSet,
+      final CandidateGenerator candidateGenerator,
+      Set<Obligation> pCtiBlockingClauses) {
 
     final int k = CPAs.retrieveCPA(cpa, LoopIterationBounding.class).getMaxLoopIterations();
 
@@ -460,6 +519,23 @@ abstract class AbstractBMCAlgorithm
 
     Set<CandidateInvariant> candidates =
         FluentIterable.concat(pCtiBlockingClauses, candidateGenerator).filter(isApplicable).toSet();
+    return new StepCase(k, checkedKeys, candidates);
+  }
+
+  /**
+   * Check the inductive step for the given candidates. This does not access the reached set of the
+   * base case, so it can run in parallel to further unrollings of the base case.
+   */
+  private boolean checkStepCase(
+      final StepCase pStepCase,
+      final CandidateGenerator candidateGenerator,
+      KInductionProver kInductionProver,
+      Set<Obligation> pCtiBlockingClauses)
+      throws InterruptedException, CPAException, SolverException {
+
+    final int k = pStepCase.k;
+    Set<Object> checkedKeys = pStepCase.checkedKeys;
+    Set<CandidateInvariant> candidates = pStepCase.candidates;
     Set<SymbolicCandiateInvariant> checked = new HashSet<>();
 
     shutdownNotifier.shutdownIfNecessary();
@@ -600,7 +676,27 @@ abstract class AbstractBMCAlgorithm
       final BasicProverEnvironment<?> pProver,
       CandidateInvariant pCandidateInvariant)
       throws CPATransferException, InterruptedException, SolverException {
-    return boundedModelCheck((Iterable<AbstractState>) pReachedSet, pProver, pCandidateInvariant);
+    if (!incremental) {
+      return boundedModelCheck(pReachedSet, pReachedSet, pProver, pCandidateInvariant);
+    }
+
+    // The path formulas of the states do not change, and states that were merged or removed
+    // are no longer in the reached set, so a result for a state stays valid in later iterations.
+    BmcResult result =
+        checkedCandidates.computeIfAbsent(pCandidateInvariant, candidate -> new BmcResult());
+    List<AbstractState> applicableStates =
+        ImmutableList.copyOf(pCandidateInvariant.filterApplicable(pReachedSet));
+    List<AbstractState> uncheckedStates =
+        ImmutableList.copyOf(result.filterUnchecked(applicableStates));
+    stats.reusedStateChecks += applicableStates.size() - uncheckedStates.size();
+
+    boolean safe = boundedModelCheck(uncheckedStates, pReachedSet, pProver, pCandidateInvariant);
+    if (safe) {
+      result.addSafeStates(uncheckedStates);
+    } else {
+      checkedCandidates.remove(pCandidateInvariant);
+    }
+    return safe;
   }
 
   private boolean boundedModelCheck(
@@ -608,7 +704,25 @@ abstract class AbstractBMCAlgorithm
       BasicProverEnvironment<?> pProver,
       CandidateInvariant pCandidateInvariant)
       throws CPATransferException, InterruptedException, SolverException {
-    BooleanFormula program = bfmgr.not(pCandidateInvariant.getAssertion(pReachedSet, fmgr, pmgr));
+    return boundedModelCheck(pReachedSet, null, pProver, pCandidateInvariant);
+  }
+
+  /**
+   * Check the candidate invariant at the given states.
+   *
+   * @param pStates the states at which the candidate invariant is checked.
+   * @param pReachedSet the reached set that is updated with the result, if available.
+   * @param pProver the prover to use.
+   * @param pCandidateInvariant the candidate invariant to check.
+   * @return {@code true} if the candidate invariant holds at all given states.
+   */
+  private boolean boundedModelCheck(
+      Iterable<AbstractState> pStates,
+      @Nullable ReachedSet pReachedSet,
+      BasicProverEnvironment<?> pProver,
+      CandidateInvariant pCandidateInvariant)
+      throws CPATransferException, InterruptedException, SolverException {
+    BooleanFormula program = bfmgr.not(pCandidateInvariant.getAssertion(pStates, fmgr, pmgr));
     logger.log(Level.INFO, "Starting satisfiability check...");
     stats.satCheck.start();
     pProver.push(program);
@@ -616,12 +730,11 @@ abstract class AbstractBMCAlgorithm
     stats.satCheck.stop();
     // Leave program formula on solver stack until error path is created
 
-    if (pReachedSet instanceof ReachedSet) {
-      ReachedSet reachedSet = (ReachedSet) pReachedSet;
+    if (pReachedSet != null) {
       if (safe) {
-        pCandidateInvariant.assumeTruth(reachedSet);
+        pCandidateInvariant.assumeTruth(pReachedSet);
       } else if (pCandidateInvariant == TargetLocationCandidateInvariant.INSTANCE) {
-        analyzeCounterexample(program, reachedSet, pProver);
+        analyzeCounterexample(program, pReachedSet, pProver);
       }
     }
 
@@ -818,7 +931,7 @@ abstract class AbstractBMCAlgorithm
     }
   }
 
-  protected KInductionProver createInductionProver() {
+  protected KInductionProver createInductionProver(ShutdownNotifier pShutdownNotifier) {
     assert induction;
     return new KInductionProver(
         cfa,
@@ -828,7 +941,7 @@ abstract class AbstractBMCAlgorithm
         invariantGenerator,
         stats,
         reachedSetFactory,
-        shutdownNotifier,
+        pShutdownNotifier,
         getLoopHeads(),
         usePropertyDirection);
   }
@@ -1176,9 +1289,151 @@ abstract class AbstractBMCAlgorithm
     }
   }
 
+  /** The input of the inductive step, which is computed from the reached set of the base case. */
+  private static final class StepCase {
+
+    private final int k;
+
+    private final ImmutableSet<Object> checkedKeys;
+
+    private final ImmutableSet<CandidateInvariant> candidates;
+
+    private StepCase(int pK, Set<Object> pCheckedKeys, Set<CandidateInvariant> pCandidates) {
+      k = pK;
+      checkedKeys = ImmutableSet.copyOf(pCheckedKeys);
+      candidates = ImmutableSet.copyOf(pCandidates);
+    }
+  }
+
+  /**
+   * Checks the inductive step in a separate thread, while the base case continues with the next
+   * bounds. At most one inductive step is checked at a time, and if the base case is faster, the
+   * bounds in between are skipped and the inductive step continues with the latest bound.
+   *
+   * <p>This is sound because a candidate is only passed to the inductive step for a bound k after
+   * the base case for k succeeded for it, and the base case is never undone for larger bounds.
+   */
+  private class ParallelInductiveStep implements AutoCloseable {
+
+    private static final int STEP_CASE_TERMINATION_TIMEOUT_SECONDS = 10;
+
+    private final CandidateGenerator candidateGenerator;
+
+    /** Stops the inductive step if it is no longer needed, e.g., because the base case failed. */
+    private final ShutdownManager stepCaseShutdownManager =
+        ShutdownManager.createWithParent(shutdownNotifier);
+
+    private final ExecutorService executor =
+        Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("k-induction-step-case")
+                .build());
+
+    private @Nullable Future<Boolean> running = null;
+
+    private int lastSubmittedK = -1;
+
+    private ParallelInductiveStep(CandidateGenerator pCandidateGenerator) {
+      candidateGenerator = pCandidateGenerator;
+    }
+
+    /**
+     * Start the inductive step for the current bound of the base case if no inductive step is
+     * running.
+     *
+     * @return whether a finished inductive step proved the program safe.
+     */
+    boolean submitOrCollect(ReachedSet pReachedSet)
+        throws CPAException, SolverException, InterruptedException {
+      if (running != null) {
+        if (!running.isDone()) {
+          return false;
+        }
+        if (collect()) {
+          return true;
+        }
+      }
+      submit(prepareStepCase(pReachedSet, candidateGenerator, ImmutableSet.of()));
+      return false;
+    }
+
+    /**
+     * Wait for the running inductive step, and check the current bound of the base case if it was
+     * not checked yet.
+     *
+     * @return whether the inductive step proved the program safe.
+     */
+    boolean finish(ReachedSet pReachedSet)
+        throws CPAException, SolverException, InterruptedException {
+      if (running != null && collect()) {
+        return true;
+      }
+      StepCase stepCase = prepareStepCase(pReachedSet, candidateGenerator, ImmutableSet.of());
+      if (stepCase.k <= lastSubmittedK) {
+        return false;
+      }
+      submit(stepCase);
+      return collect();
+    }
+
+    private void submit(StepCase pStepCase) {
+      assert running == null;
+      lastSubmittedK = pStepCase.k;
+      running =
+          executor.submit(
+              () -> {
+                try (KInductionProver kInductionProver =
+                    createInductionProver(stepCaseShutdownManager.getNotifier())) {
+                  return checkStepCase(
+                      pStepCase, candidateGenerator, kInductionProver, new TreeSet<>());
+                }
+              });
+    }
+
+    private boolean collect() throws CPAException, SolverException, InterruptedException {
+      Future<Boolean> future = checkNotNull(running);
+      running = null;
+      try {
+        return future.get();
+      } catch (ExecutionException e) {
+        Throwable cause = e.getCause();
+        Throwables.propagateIfPossible(cause, CPAException.class, SolverException.class);
+        if (cause instanceof InterruptedException) {
+          throw (InterruptedException) cause;
+        }
+        throw new UnexpectedCheckedException("inductive step", cause);
+      }
+    }
+
+    /**
+     * Stop the running inductive step and wait until it has terminated, because its CPA and solver
+     * are used again by later inductive steps. The wait is bounded, because a solver may not react
+     * to the shutdown request, and this must not block the shutdown of the whole analysis.
+     */
+    @Override
+    public void close() throws InterruptedException {
+      stepCaseShutdownManager.requestShutdown("Inductive step is no longer needed");
+      if (running != null) {
+        running.cancel(true);
+        running = null;
+      }
+      executor.shutdownNow();
+      if (!executor.awaitTermination(STEP_CASE_TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+        logger.log(
+            Level.WARNING,
+            "Inductive step did not terminate within",
+            STEP_CASE_TERMINATION_TIMEOUT_SECONDS,
+            "seconds after it was stopped, continuing without waiting for it.");
+      }
+    }
+  }
+
   private static class BmcResult {
 
-    private final Set<AbstractState> checkedStates = new HashSet<>();
+    /** Weak keys, such that states that were removed from the reached set can be collected. */
+    private final Set<AbstractState> checkedStates =
+        Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
 
     private boolean safe = true;
 
@@ -0,0 +1,158 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class BMCAlgorithmTest {
+
+  private static final String CONFIG_FILE = "config/bmc-incremental.properties";
+
+  private static final String K_INDUCTION_CONFIG_FILE =
+      "config/components/kInduction/kInduction.properties";
+  private static final String SPECIFICATION_FILE = "config/specification/default.spc";
+  private static final String INDUCTION_TEST_DIR_PATH = "test/programs/induction/";
+
+  private static final String REUSED_CHECKS = "Number of reused checks of states:";
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  /**
+   * A loop with ten iterations that decrements a nondeterministic value, which is at least the
+   * given lower bound. The target state in each iteration is reached with x == 5, so it is
+   * infeasible in the first (pLowerBound - 5) iterations and feasible afterwards (if any).
+   */
+  private Path createProgram(int pLowerBound) throws Exception {
+    return writeProgram(
+        "extern void __assert_fail(void);",
+        "extern int __VERIFIER_nondet_int(void);",
+        "int main() {",
+        "  int x = __VERIFIER_nondet_int();",
+        "  if (x < " + pLowerBound + ") {",
+        "    return 0;",
+        "  }",
+        "  int i = 0;",
+        "  while (i < 10) {",
+        "    i++;",
+        "    x--;",
+        "    if (x == 5) {",
+        "      __assert_fail();",
+        "    }",
+        "  }",
+        "  return 0;",
+        "}");
+  }
+
+  private Path writeProgram(String... pLines) throws Exception {
+    Path program = tempFolder.newFolder().toPath().resolve("program.c");
+    Files.write(program, Arrays.asList(pLines), UTF_8);
+    return program;
+  }
+
+  private static CPAcheckerResult check(Path pProgram, boolean pIncremental) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .loadFromFile(CONFIG_FILE)
+            .setOption("bmc.incremental", Boolean.toString(pIncremental))
+            .build();
+    return CPATestRunner.run(config, pProgram.toString()).getCheckerResult();
+  }
+
+  private static String getStatistics(CPAcheckerResult pResult) {
+    ByteArrayOutputStream statistics = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(statistics, true, UTF_8)) {
+      pResult.printStatistics(out);
+    }
+    return statistics.toString(UTF_8);
+  }
+
+  @Test
+  public void testIncrementalFindsBug() throws Exception {
+    // the target state is feasible from the 5th iteration on
+    Path program = createProgram(10);
+
+    CPAcheckerResult incremental = check(program, true);
+    assertThat(incremental.getResult()).isEqualTo(Result.FALSE);
+    assertThat(check(program, false).getResult()).isEqualTo(Result.FALSE);
+
+    // the infeasible target states of the first iterations are not checked again
+    assertThat(getStatistics(incremental)).contains(REUSED_CHECKS);
+  }
+
+  @Test
+  public void testIncrementalProvesSafety() throws Exception {
+    // the target state is infeasible in all ten iterations
+    Path program = createProgram(20);
+
+    CPAcheckerResult incremental = check(program, true);
+    CPAcheckerResult nonIncremental = check(program, false);
+    assertThat(incremental.getResult()).isEqualTo(Result.TRUE);
+    assertThat(nonIncremental.getResult()).isEqualTo(Result.TRUE);
+
+    assertThat(getStatistics(incremental)).contains(REUSED_CHECKS);
+    assertThat(getStatistics(nonIncremental)).doesNotContain(REUSED_CHECKS);
+  }
+
+  private static Result checkWithKInduction(Path pProgram, boolean pParallelInductiveStep)
+      throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .loadFromFile(K_INDUCTION_CONFIG_FILE)
+            .setOption("specification", SPECIFICATION_FILE)
+            .setOption("bmc.parallelInductiveStep", Boolean.toString(pParallelInductiveStep))
+            .build();
+    return CPATestRunner.run(config, pProgram.toString()).getCheckerResult().getResult();
+  }
+
+  @Test
+  public void testParallelInductiveStepProvesSafety() throws Exception {
+    for (String program : Arrays.asList("induction1.c", "induction2.c")) {
+      Path path = Paths.get(INDUCTION_TEST_DIR_PATH, program);
+      assertThat(checkWithKInduction(path, true)).isEqualTo(Result.TRUE);
+      assertThat(checkWithKInduction(path, false)).isEqualTo(Result.TRUE);
+    }
+  }
+
+  @Test
+  public void testParallelInductiveStepFindsBug() throws Exception {
+    // the inductive step for the unbounded loop fails while the base case continues
+    Path unboundedLoop =
+        writeProgram(
+            "extern void __assert_fail(void);",
+            "int main() {",
+            "  int x = 0;",
+            "  while (1) {",
+            "    x++;",
+            "    if (x == 5) {",
+            "      __assert_fail();",
+            "    }",
+            "  }",
+            "}");
+    for (Path program : Arrays.asList(createProgram(10), unboundedLoop)) {
+      assertThat(checkWithKInduction(program, true)).isEqualTo(Result.FALSE);
+      assertThat(checkWithKInduction(program, false)).isEqualTo(Result.FALSE);
+    }
+  }
+}
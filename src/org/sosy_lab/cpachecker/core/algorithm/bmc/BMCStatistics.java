@@ -8,6 +8,8 @@
 
 package org.sosy_lab.cpachecker.core.algorithm.bmc;
 
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.toPercent;
+
 import java.io.PrintStream;
 import org.sosy_lab.common.time.Timer;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
@@ -24,6 +26,12 @@ public class BMCStatistics implements Statistics {
   final Timer inductionPreparation = new Timer();
   final Timer inductionCheck = new Timer();
 
+  int reusedStateChecks = 0;
+
+  final Timer interpolation = new Timer();
+  int interpolationQueries = 0;
+  int reusedInterpolants = 0;
+
   @Override
   public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
     if (bmcPreparation.getNumberOfIntervals() > 0) {
@@ -32,12 +40,25 @@ public class BMCStatistics implements Statistics {
     if (satCheck.getNumberOfIntervals() > 0) {
       out.println("Time for final sat check:            " + satCheck);
     }
+    if (reusedStateChecks > 0) {
+      out.println("Number of reused checks of states:   " + reusedStateChecks);
+    }
     if (errorPathCreation.getNumberOfIntervals() > 0) {
       out.println("Time for error path creation:        " + errorPathCreation);
     }
     if (assertionsCheck.getNumberOfIntervals() > 0) {
       out.println("Time for bounding assertions check:  " + assertionsCheck);
     }
+    if (interpolationQueries > 0) {
+      out.println("Time for interpolation:              " + interpolation);
+      out.println("Number of interpolation queries:     " + interpolationQueries);
+      out.println(
+          "Number of reused interpolants:       "
+              + reusedInterpolants
+              + " ("
+              + toPercent(reusedInterpolants, interpolationQueries)
+              + ")");
+    }
     if (inductionCheck.getNumberOfIntervals() > 0) {
       out.println("Time for induction formula creation: " + inductionPreparation);
       out.println("Time for induction check:            " + inductionCheck);
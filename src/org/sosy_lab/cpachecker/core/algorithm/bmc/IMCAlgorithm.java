@@ -11,9 +11,12 @@ package org.sosy_lab.cpachecker.core.algorithm.bmc;
 import static com.google.common.collect.FluentIterable.from;
 
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.HashBasedTable;
+import com.google.common.collect.Table;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownManager;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -68,6 +71,13 @@ public class IMCAlgorithm extends AbstractBMCAlgorithm implements Algorithm {
   @Option(secure = true, description = "toggle deriving the interpolants from suffix formulas")
   private boolean deriveInterpolantFromSuffix = false;
 
+  @Option(
+      secure = true,
+      description =
+          "reuse interpolants that were computed for a smaller unrolling bound"
+              + " if they still separate the new suffix formula from the reachable states")
+  private boolean reuseInterpolants = false;
+
   private final ConfigurableProgramAnalysis cpa;
 
   private final Algorithm algorithm;
@@ -79,6 +89,15 @@ public class IMCAlgorithm extends AbstractBMCAlgorithm implements Algorithm {
 
   private final CFA cfa;
 
+  /**
+   * Interpolants that were computed in the fixed-point iterations of earlier unrolling bounds,
+   * indexed by the image from which the interpolant was computed and by the loop formula. As
+   * multi-loop programs are not supported, both formulas together identify the query at the unique
+   * loop head. The interpolants are stored before the SSA indices are changed.
+   */
+  private final Table<BooleanFormula, BooleanFormula, BooleanFormula> interpolantCache =
+      HashBasedTable.create();
+
   public IMCAlgorithm(
       Algorithm pAlgorithm,
       ConfigurableProgramAnalysis pCPA,
@@ -144,6 +163,7 @@ public class IMCAlgorithm extends AbstractBMCAlgorithm implements Algorithm {
     }
 
     logger.log(Level.FINE, "Performing interpolation-based model checking");
+    interpolantCache.clear();
     PathFormula prefixFormula = pmgr.makeEmptyPathFormula();
     BooleanFormula loopFormula = bfmgr.makeTrue();
     BooleanFormula tailFormula = bfmgr.makeTrue();
@@ -362,9 +382,24 @@ public class IMCAlgorithm extends AbstractBMCAlgorithm implements Algorithm {
     formulaA.add(itpProver.push(pLoopFormula));
     formulaA.add(itpProver.push(prefixFormula));
 
-    while (itpProver.isUnsat()) {
+    BooleanFormula image = prefixFormula;
+    while (true) {
+      BooleanFormula interpolant = getCachedInterpolant(image, pLoopFormula, pSuffixFormula);
+      if (interpolant == null) {
+        stats.interpolation.start();
+        try {
+          if (!itpProver.isUnsat()) {
+            break;
+          }
+          interpolant = getInterpolantFrom(itpProver, formulaA, formulaB);
+        } finally {
+          stats.interpolation.stop();
+        }
+        if (reuseInterpolants) {
+          interpolantCache.put(image, pLoopFormula, interpolant);
+        }
+      }
       logger.log(Level.ALL, "The current image is", currentImage);
-      BooleanFormula interpolant = getInterpolantFrom(itpProver, formulaA, formulaB);
       logger.log(Level.ALL, "The interpolant is", interpolant);
       interpolant = fmgr.instantiate(fmgr.uninstantiate(interpolant), prefixSsaMap);
       logger.log(Level.ALL, "After changing SSA", interpolant);
@@ -376,11 +411,42 @@ public class IMCAlgorithm extends AbstractBMCAlgorithm implements Algorithm {
       itpProver.pop();
       formulaA.remove(formulaA.size() - 1);
       formulaA.add(itpProver.push(interpolant));
+      image = interpolant;
     }
     logger.log(Level.FINE, "The overapproximation is unsafe, going back to BMC phase");
     return false;
   }
 
+  /**
+   * Returns the interpolant that was computed for the given image and loop formula at an earlier
+   * unrolling bound, if it is also an interpolant for the given suffix formula. The image and the
+   * loop formula imply the cached interpolant, so it suffices to check that the interpolant and
+   * the suffix formula are unsatisfiable, which is usually much cheaper than the interpolation
+   * query and also shows that the query is unsatisfiable.
+   *
+   * @return the interpolant, or {@code null} if there is no reusable interpolant
+   */
+  private @Nullable BooleanFormula getCachedInterpolant(
+      BooleanFormula pImage, BooleanFormula pLoopFormula, BooleanFormula pSuffixFormula)
+      throws SolverException, InterruptedException {
+    stats.interpolationQueries++;
+    BooleanFormula interpolant = interpolantCache.get(pImage, pLoopFormula);
+    if (interpolant == null) {
+      return null;
+    }
+    stats.interpolation.start();
+    try {
+      if (!solver.isUnsat(bfmgr.and(interpolant, pSuffixFormula))) {
+        logger.log(Level.ALL, "The cached interpolant", interpolant, "is not reusable");
+        return null;
+      }
+    } finally {
+      stats.interpolation.stop();
+    }
+    stats.reusedInterpolants++;
+    return interpolant;
+  }
+
   @Override
   protected CandidateGenerator getCandidateInvariants() {
     throw new AssertionError(
@@ -0,0 +1,105 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class IMCAlgorithmTest {
+
+  private static final String CONFIG_FILE = "config/bmc-interpolation.properties";
+  private static final String INDUCTION_TEST_DIR_PATH = "test/programs/induction/";
+
+  private static final Pattern REUSED_INTERPOLANTS =
+      Pattern.compile("^Number of reused interpolants: *(\\d+) ", Pattern.MULTILINE);
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path writeProgram(String... pLines) throws Exception {
+    Path program = tempFolder.newFolder().toPath().resolve("program.c");
+    Files.write(program, Arrays.asList(pLines), UTF_8);
+    return program;
+  }
+
+  private static CPAcheckerResult check(Path pProgram, boolean pReuseInterpolants)
+      throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .loadFromFile(CONFIG_FILE)
+            .setOption("imc.reuseInterpolants", Boolean.toString(pReuseInterpolants))
+            .build();
+    return CPATestRunner.run(config, pProgram.toString()).getCheckerResult();
+  }
+
+  /** Returns the number of reused interpolants, which is only printed after interpolation. */
+  private static int getReusedInterpolants(CPAcheckerResult pResult) {
+    ByteArrayOutputStream statistics = new ByteArrayOutputStream();
+    try (PrintStream out = new PrintStream(statistics, true, UTF_8)) {
+      pResult.printStatistics(out);
+    }
+    Matcher matcher = REUSED_INTERPOLANTS.matcher(statistics.toString(UTF_8));
+    return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+  }
+
+  @Test
+  public void testReuseProvesSafety() throws Exception {
+    for (String program : Arrays.asList("induction1.c", "induction2.c")) {
+      Path path = Paths.get(INDUCTION_TEST_DIR_PATH, program);
+      CPAcheckerResult reusing = check(path, true);
+      CPAcheckerResult notReusing = check(path, false);
+
+      assertThat(reusing.getResult()).isEqualTo(Result.TRUE);
+      assertThat(notReusing.getResult()).isEqualTo(Result.TRUE);
+      assertThat(getReusedInterpolants(notReusing)).isEqualTo(0);
+    }
+  }
+
+  @Test
+  public void testReuseFindsBug() throws Exception {
+    // The target state is reached in the fifth iteration. Until then, the fixed-point iteration
+    // fails for each bound, and the first interpolant of the previous bound is checked again.
+    Path program =
+        writeProgram(
+            "extern void __assert_fail(void);",
+            "int main() {",
+            "  int x = 0;",
+            "  while (1) {",
+            "    x++;",
+            "    if (x == 5) {",
+            "      __assert_fail();",
+            "    }",
+            "  }",
+            "}");
+
+    CPAcheckerResult reusing = check(program, true);
+    CPAcheckerResult notReusing = check(program, false);
+
+    assertThat(reusing.getResult()).isEqualTo(Result.FALSE);
+    assertThat(notReusing.getResult()).isEqualTo(Result.FALSE);
+    assertThat(getReusedInterpolants(reusing)).isGreaterThan(0);
+    assertThat(getReusedInterpolants(notReusing)).isEqualTo(0);
+  }
+}
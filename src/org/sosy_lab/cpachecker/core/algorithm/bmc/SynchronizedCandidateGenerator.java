@@ -0,0 +1,98 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm.bmc;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import java.util.Iterator;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.CandidateInvariant;
+
+/**
+ * A candidate generator that can be used by several threads, e.g., by the base case and the
+ * inductive step of k-induction if they are checked in parallel.
+ *
+ * <p>Iteration happens over a snapshot of the candidates, such that the lock is not held while the
+ * candidates are checked. Candidates that are confirmed by another thread during the iteration may
+ * therefore still be returned, and removing such a candidate via the iterator has no effect.
+ */
+final class SynchronizedCandidateGenerator implements CandidateGenerator {
+
+  private final CandidateGenerator delegate;
+
+  SynchronizedCandidateGenerator(CandidateGenerator pDelegate) {
+    delegate = checkNotNull(pDelegate);
+  }
+
+  @Override
+  public synchronized boolean produceMoreCandidates() {
+    return delegate.produceMoreCandidates();
+  }
+
+  @Override
+  public synchronized boolean hasCandidatesAvailable() {
+    return delegate.hasCandidatesAvailable();
+  }
+
+  @Override
+  public synchronized void confirmCandidates(Iterable<CandidateInvariant> pCandidates) {
+    delegate.confirmCandidates(pCandidates);
+  }
+
+  @Override
+  public synchronized Set<? extends CandidateInvariant> getConfirmedCandidates() {
+    return ImmutableSet.copyOf(delegate.getConfirmedCandidates());
+  }
+
+  @Override
+  public synchronized boolean suggestCandidates(
+      Iterable<? extends CandidateInvariant> pCandidates) {
+    return delegate.suggestCandidates(pCandidates);
+  }
+
+  @Override
+  public synchronized Iterator<CandidateInvariant> iterator() {
+    final Iterator<CandidateInvariant> snapshot = ImmutableList.copyOf(delegate).iterator();
+    return new Iterator<>() {
+
+      private @Nullable CandidateInvariant candidate;
+
+      @Override
+      public boolean hasNext() {
+        return snapshot.hasNext();
+      }
+
+      @Override
+      public CandidateInvariant next() {
+        return candidate = snapshot.next();
+      }
+
+      @Override
+      public void remove() {
+        checkState(candidate != null);
+        removeCandidate(candidate);
+        candidate = null;
+      }
+    };
+  }
+
+  private synchronized void removeCandidate(CandidateInvariant pCandidate) {
+    Iterator<CandidateInvariant> iterator = delegate.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().equals(pCandidate)) {
+        iterator.remove();
+        return;
+      }
+    }
+  }
+}
@@ -0,0 +1,166 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm.bmc.pdr;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.predicates.smt.FormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverException;
+
+/**
+ * Checks the clause propagation queries of a frame in parallel. Each worker thread has its own
+ * solver, because solver contexts must not be used by several threads at the same time.
+ *
+ * <p>The queries are created by the caller with the formula manager of the analysis and are
+ * translated into the contexts of the workers before the workers are started, so the formula
+ * manager of the analysis is only used by the calling thread. Because the workers only decide
+ * satisfiability, no model or unsat core needs to be translated back.
+ */
+class ParallelPushChecker implements AutoCloseable {
+
+  private static final int TERMINATION_TIMEOUT_SECONDS = 10;
+
+  private final FormulaManagerView fmgr;
+
+  private final LogManager logger;
+
+  private final ImmutableList<Solver> solvers;
+
+  private final ExecutorService executor;
+
+  ParallelPushChecker(
+      int pThreads,
+      FormulaManagerView pFmgr,
+      Configuration pConfig,
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    checkArgument(pThreads > 1, "Parallel clause propagation needs at least two threads");
+    fmgr = pFmgr;
+    logger = pLogger;
+
+    List<Solver> createdSolvers = new ArrayList<>(pThreads);
+    try {
+      for (int i = 0; i < pThreads; i++) {
+        createdSolvers.add(Solver.create(pConfig, pLogger, pShutdownNotifier));
+      }
+    } catch (InvalidConfigurationException | RuntimeException e) {
+      createdSolvers.forEach(Solver::close);
+      throw e;
+    }
+    solvers = ImmutableList.copyOf(createdSolvers);
+
+    executor =
+        Executors.newFixedThreadPool(
+            pThreads,
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("pdr-push-%d").build());
+  }
+
+  /**
+   * Checks the satisfiability of the given queries.
+   *
+   * @return for each query, in the same order, whether it is unsatisfiable.
+   */
+  List<Boolean> checkUnsat(List<BooleanFormula> pQueries)
+      throws SolverException, InterruptedException {
+    int workers = Math.min(solvers.size(), pQueries.size());
+    List<Future<List<Boolean>>> futures = new ArrayList<>(workers);
+    try {
+      for (int worker = 0; worker < workers; worker++) {
+        Solver solver = solvers.get(worker);
+        FormulaManagerView workerFmgr = solver.getFormulaManager();
+        List<BooleanFormula> batch = new ArrayList<>();
+        for (int i = worker; i < pQueries.size(); i += workers) {
+          batch.add(workerFmgr.translateFrom(pQueries.get(i), fmgr));
+        }
+        futures.add(executor.submit(() -> checkBatch(solver, batch)));
+      }
+    } catch (RuntimeException e) {
+      futures.forEach(f -> f.cancel(true));
+      throw e;
+    }
+
+    // Wait for all workers even if one of them fails,
+    // such that no solver is still in use when this method returns.
+    Boolean[] results = new Boolean[pQueries.size()];
+    Throwable failure = null;
+    for (int worker = 0; worker < workers; worker++) {
+      try {
+        List<Boolean> batchResults = futures.get(worker).get();
+        for (int j = 0; j < batchResults.size(); j++) {
+          results[worker + j * workers] = batchResults.get(j);
+        }
+      } catch (ExecutionException e) {
+        if (failure == null) {
+          failure = e.getCause();
+        }
+      } catch (InterruptedException e) {
+        futures.forEach(f -> f.cancel(true));
+        throw e;
+      }
+    }
+
+    if (failure != null) {
+      Throwables.propagateIfPossible(failure, SolverException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("clause propagation", failure);
+    }
+    return Arrays.asList(results);
+  }
+
+  private static List<Boolean> checkBatch(Solver pSolver, List<BooleanFormula> pQueries)
+      throws SolverException, InterruptedException {
+    List<Boolean> results = new ArrayList<>(pQueries.size());
+    try (ProverEnvironment prover = pSolver.newProverEnvironment()) {
+      for (BooleanFormula query : pQueries) {
+        prover.push(query);
+        results.add(prover.isUnsat());
+        prover.pop();
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Stop the workers and close their solvers. The wait for the workers is bounded, because a solver
+   * may not react to the interruption, and its solver is not closed in this case.
+   */
+  @Override
+  public void close() throws InterruptedException {
+    executor.shutdownNow();
+    if (executor.awaitTermination(TERMINATION_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+      solvers.forEach(Solver::close);
+    } else {
+      logger.log(
+          Level.WARNING,
+          "Clause propagation did not terminate within",
+          TERMINATION_TIMEOUT_SECONDS,
+          "seconds after it was stopped, continuing without waiting for it.");
+    }
+  }
+}
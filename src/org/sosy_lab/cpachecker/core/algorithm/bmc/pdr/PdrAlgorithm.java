@@ -16,10 +16,13 @@ import static org.sosy_lab.cpachecker.core.algorithm.bmc.BMCHelper.isTrivialSelf
 
 import com.google.common.base.Predicates;
 import com.google.common.collect.FluentIterable;
+import com.google.common.collect.HashBasedTable;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Sets;
+import com.google.common.collect.Table;
 import java.io.PrintStream;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -43,6 +46,7 @@ import java.util.stream.Stream;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -83,6 +87,7 @@ import org.sosy_lab.cpachecker.core.counterexample.CounterexampleInfo;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
+import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.conditions.AdjustableConditionCPA;
 import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
@@ -118,7 +123,7 @@ import org.sosy_lab.java_smt.api.Model.ValueAssignment;
 import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
 import org.sosy_lab.java_smt.api.SolverException;
 
-public class PdrAlgorithm implements Algorithm {
+public class PdrAlgorithm implements Algorithm, StatisticsProvider {
 
   private final Algorithm algorithm;
   private final ConfigurableProgramAnalysis cpa;
@@ -150,16 +155,64 @@ public class PdrAlgorithm implements Algorithm {
 
   private boolean invariantGenerationRunning = true;
 
+  /** Everything apart from the clause that determines the result of pushing a clause. */
+  private static final class PushContext {
+
+    private final Set<CandidateInvariant> frameInvariants;
+
+    private final CandidateInvariant currentInvariant;
+
+    private final BooleanFormula transitionFormula;
+
+    private PushContext(
+        Set<CandidateInvariant> pFrameInvariants,
+        CandidateInvariant pCurrentInvariant,
+        BooleanFormula pTransitionFormula) {
+      frameInvariants = ImmutableSet.copyOf(pFrameInvariants);
+      currentInvariant = pCurrentInvariant;
+      transitionFormula = pTransitionFormula;
+    }
+
+    @Override
+    public boolean equals(Object pOther) {
+      if (this == pOther) {
+        return true;
+      }
+      if (!(pOther instanceof PushContext)) {
+        return false;
+      }
+      PushContext other = (PushContext) pOther;
+      return currentInvariant.equals(other.currentInvariant)
+          && transitionFormula.equals(other.transitionFormula)
+          && frameInvariants.equals(other.frameInvariants);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(frameInvariants, currentInvariant, transitionFormula);
+    }
+  }
+
   private static class PdrStatistics implements Statistics {
 
     private final Timer satCheck = new Timer();
     private final Timer errorPathCreation = new Timer();
+    private int pushAttempts = 0;
+    private int skippedPushAttempts = 0;
+    private final Timer parallelPushChecks = new Timer();
 
     @Override
     public void printStatistics(PrintStream pOut, Result pResult, UnmodifiableReachedSet pReached) {
       if (satCheck.getNumberOfIntervals() > 0) {
         pOut.println("Time for final sat check:            " + satCheck);
       }
+      if (pushAttempts > 0) {
+        pOut.println("Number of clause propagation checks: " + pushAttempts);
+        pOut.println("  Skipped because of earlier checks: " + skippedPushAttempts);
+      }
+      if (parallelPushChecks.getNumberOfIntervals() > 0) {
+        pOut.println("Time for parallel push checks:       " + parallelPushChecks);
+      }
       if (errorPathCreation.getNumberOfIntervals() > 0) {
         pOut.println("Time for error path creation:        " + errorPathCreation);
       }
@@ -235,6 +288,14 @@ public class PdrAlgorithm implements Algorithm {
     };
   }
 
+  @Override
+  public void collectStatistics(Collection<Statistics> pStatsCollection) {
+    if (algorithm instanceof StatisticsProvider) {
+      ((StatisticsProvider) algorithm).collectStatistics(pStatsCollection);
+    }
+    pStatsCollection.add(stats);
+  }
+
   @Override
   public AlgorithmStatus run(ReachedSet pReachedSet) throws CPAException, InterruptedException {
     CFANode initialLocation = AbstractStates.extractLocation(pReachedSet.getFirstState());
@@ -285,9 +346,17 @@ public class PdrAlgorithm implements Algorithm {
 
     boolean producedNewRootInvariants = true;
 
+    // A clause that could not be pushed can not be pushed in later attempts as long as the
+    // invariants of the frame, the auxiliary invariant, and the transition formula are unchanged,
+    // so the check can be skipped. The invariants of a frame may also shrink, e.g., if components
+    // of a clause are removed when it is pushed, so the complete set needs to be compared.
+    Table<Integer, CandidateInvariant, PushContext> failedPushAttempts = HashBasedTable.create();
+
     try (FrameSet frameSet =
-        new FrameSet(
-            solver, EnumSet.of(ProverOptions.GENERATE_MODELS, ProverOptions.GENERATE_UNSAT_CORE))) {
+            new FrameSet(
+                solver,
+                EnumSet.of(ProverOptions.GENERATE_MODELS, ProverOptions.GENERATE_UNSAT_CORE));
+        ParallelPushChecker pushChecker = createPushChecker()) {
       learnClause(frameSet, 0, pTransitionRelation.getInitiationAssertion());
 
       while (producedNewRootInvariants) {
@@ -300,32 +369,43 @@ public class PdrAlgorithm implements Algorithm {
         while (candidateGenerator.hasCandidatesAvailable()) {
 
           boolean propagated = false;
+          BooleanFormula transitionFormula = pTransitionRelation.getTransitionFormula();
 
           for (int i = 0; i < frameSet.getFrontierIndex(); ++i) {
             @SuppressWarnings("resource")
             ProverEnvironmentWithFallback frameProver = frameSet.getFrameProver(i);
             Set<CandidateInvariant> frameInvariants = frameSet.getInvariants(i);
-            frameInvariants =
-                Sets.union(
-                    frameInvariants, Collections.singleton(getCurrentInvariant(pTransitionRelation)));
-            List<CandidateInvariant> toPush = new ArrayList<>();
+            CandidateInvariant currentInvariant = getCurrentInvariant(pTransitionRelation);
+            PushContext pushContext =
+                new PushContext(frameInvariants, currentInvariant, transitionFormula);
+            frameInvariants = Sets.union(frameInvariants, Collections.singleton(currentInvariant));
+            List<CandidateInvariant> toCheck = new ArrayList<>();
             for (CandidateInvariant frameClause : frameSet.getPushableFrameClauses(i)) {
-              InductionResult<CandidateInvariant> pushAttempt =
-                  checkInduction(
-                      frameProver,
-                      frameInvariants,
-                      pTransitionRelation,
-                      frameClause,
-                      InvariantStrengthenings.noStrengthening(),
-                      StandardLiftings.NO_LIFTING);
-              if (pushAttempt.isSuccessful()) {
+              stats.pushAttempts++;
+              if (basicPdrOptions.skipRepeatedPushAttempts()
+                  && pushContext.equals(failedPushAttempts.get(i, frameClause))) {
+                stats.skippedPushAttempts++;
+              } else {
+                toCheck.add(frameClause);
+              }
+            }
+            List<Boolean> pushable =
+                checkPushable(
+                    frameProver, frameInvariants, pTransitionRelation, toCheck, pushChecker);
+            List<CandidateInvariant> toPush = new ArrayList<>();
+            for (int j = 0; j < toCheck.size(); j++) {
+              CandidateInvariant frameClause = toCheck.get(j);
+              if (pushable.get(j)) {
                 toPush.add(frameClause);
                 propagated = true;
+              } else if (basicPdrOptions.skipRepeatedPushAttempts()) {
+                failedPushAttempts.put(i, frameClause, pushContext);
               }
             }
 
             for (CandidateInvariant pushableClause : toPush) {
               frameSet.pushFrameClause(i, pushableClause);
+              failedPushAttempts.remove(i, pushableClause);
             }
           }
 
@@ -354,6 +434,78 @@ public class PdrAlgorithm implements Algorithm {
     return status;
   }
 
+  /**
+   * Creates the checker for parallel clause propagation, or returns {@code null} if clauses are
+   * propagated sequentially.
+   */
+  private @Nullable ParallelPushChecker createPushChecker() throws CPAException {
+    if (basicPdrOptions.getPushThreads() <= 1) {
+      return null;
+    }
+    try {
+      return new ParallelPushChecker(
+          basicPdrOptions.getPushThreads(), fmgr, config, logger, shutdownNotifier);
+    } catch (InvalidConfigurationException e) {
+      // Should be unreachable, since the solver of the analysis was created with the same config
+      throw new CPAException("Cannot create solvers for parallel clause propagation", e);
+    }
+  }
+
+  /**
+   * Checks for each of the given clauses of a frame whether it can be pushed to the next frame,
+   * i.e., whether it is inductive relative to the given frame invariants.
+   *
+   * <p>Only the result of the satisfiability check is needed, neither a strengthening nor a
+   * lifting of a counterexample to inductivity, so the checks are independent of each other and
+   * can be done in parallel if a push checker is given.
+   *
+   * @return for each clause, in the same order, whether it can be pushed.
+   */
+  private List<Boolean> checkPushable(
+      ProverEnvironmentWithFallback pFrameProver,
+      Set<CandidateInvariant> pFrameInvariants,
+      TotalTransitionRelation pTransitionRelation,
+      List<CandidateInvariant> pClauses,
+      @Nullable ParallelPushChecker pPushChecker)
+      throws SolverException, InterruptedException, CPATransferException {
+    if (pPushChecker == null || pClauses.size() < 2) {
+      List<Boolean> pushable = new ArrayList<>(pClauses.size());
+      for (CandidateInvariant clause : pClauses) {
+        InductionResult<CandidateInvariant> pushAttempt =
+            checkInduction(
+                pFrameProver,
+                pFrameInvariants,
+                pTransitionRelation,
+                clause,
+                InvariantStrengthenings.noStrengthening(),
+                StandardLiftings.NO_LIFTING);
+        pushable.add(pushAttempt.isSuccessful());
+      }
+      return pushable;
+    }
+
+    // The same query as in checkInduction, but as a single formula for each clause
+    BooleanFormula transitionAndFrame =
+        bfmgr.and(
+            pTransitionRelation.getTransitionFormula(),
+            pTransitionRelation.getPredecessorAssertions(pFrameInvariants));
+    List<BooleanFormula> queries = new ArrayList<>(pClauses.size());
+    for (CandidateInvariant clause : pClauses) {
+      queries.add(
+          bfmgr.and(
+              transitionAndFrame,
+              pTransitionRelation.getPredecessorAssertion(clause),
+              BMCHelper.disjoinStateViolationAssertions(
+                  bfmgr, pTransitionRelation.getSuccessorViolationAssertions(clause))));
+    }
+    stats.parallelPushChecks.start();
+    try {
+      return pPushChecker.checkUnsat(queries);
+    } finally {
+      stats.parallelPushChecks.stop();
+    }
+  }
+
   /**
    * Adjusts the conditions of those CPAs that support the adjustment of conditions.
    *
@@ -1312,6 +1464,22 @@ public class PdrAlgorithm implements Algorithm {
     private ConditionAdjustmentCriterion conditionAdjustmentCriterion =
         ConditionAdjustmentCriterion.NEVER;
 
+    @Option(
+        secure = true,
+        description =
+            "Whether to skip checks for pushing a clause to the next frame if an earlier check"
+                + " for the same clause, frame invariants, and transition relation failed.")
+    private boolean skipRepeatedPushAttempts = true;
+
+    @Option(
+        secure = true,
+        description =
+            "Number of threads that check in parallel whether the clauses of a frame can be"
+                + " pushed to the next frame, each with its own solver."
+                + " With one thread, the clauses are checked sequentially with the frame prover.")
+    @IntegerOption(min = 1)
+    private int pushThreads = 1;
+
     private BasicPdrOptions(Configuration pConfig) throws InvalidConfigurationException {
       pConfig.inject(this);
     }
@@ -1339,6 +1507,14 @@ public class PdrAlgorithm implements Algorithm {
     public ConditionAdjustmentCriterion getConditionAdjustmentCriterion() {
       return conditionAdjustmentCriterion;
     }
+
+    public boolean skipRepeatedPushAttempts() {
+      return skipRepeatedPushAttempts;
+    }
+
+    public int getPushThreads() {
+      return pushThreads;
+    }
   }
 
   private enum LiftingStrategyFactories {
@@ -0,0 +1,122 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.algorithm.bmc.pdr;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import com.google.common.collect.ImmutableMap;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+public class PdrAlgorithmTest {
+
+  private static final String TEST_DIR_PATH = "test/programs/induction/";
+  private static final String CONFIG_FILE =
+      "config/unmaintained/components/kInduction/pdr.properties";
+  private static final String SPECIFICATION_FILE = "config/specification/default.spc";
+
+  private static final ImmutableMap<String, Result> PROGRAMS =
+      ImmutableMap.<String, Result>builder()
+          .put("induction1.c", Result.TRUE)
+          .put("induction2.c", Result.TRUE)
+          .put("induction-mod2.c", Result.TRUE)
+          .put("induction-mod5.c", Result.TRUE)
+          .put("induction-next-state.c", Result.TRUE)
+          .put("induction1_BUG.c", Result.FALSE)
+          .build();
+
+  private static final Pattern PUSH_ATTEMPTS =
+      Pattern.compile("^Number of clause propagation checks: *(\\d+)$", Pattern.MULTILINE);
+  private static final Pattern SKIPPED_PUSH_ATTEMPTS =
+      Pattern.compile("^  Skipped because of earlier checks: *(\\d+)$", Pattern.MULTILINE);
+
+  /** The verdict and the propagation statistics of one run. */
+  private static class Run {
+
+    private final Result result;
+    private final int pushAttempts;
+    private final int skippedPushAttempts;
+
+    private Run(CPAcheckerResult pResult) {
+      ByteArrayOutputStream statistics = new ByteArrayOutputStream();
+      try (PrintStream out = new PrintStream(statistics, true, UTF_8)) {
+        pResult.printStatistics(out);
+      }
+      String output = statistics.toString(UTF_8);
+      result = pResult.getResult();
+      pushAttempts = getCount(PUSH_ATTEMPTS, output);
+      skippedPushAttempts = getCount(SKIPPED_PUSH_ATTEMPTS, output);
+    }
+
+    /** Returns the number in the statistics, which are only printed if it is not zero. */
+    private static int getCount(Pattern pPattern, String pStatistics) {
+      Matcher matcher = pPattern.matcher(pStatistics);
+      return matcher.find() ? Integer.parseInt(matcher.group(1)) : 0;
+    }
+  }
+
+  private static Run check(String pProgram, boolean pSkipRepeatedPushAttempts, int pPushThreads)
+      throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .loadFromFile(CONFIG_FILE)
+            .setOption("specification", SPECIFICATION_FILE)
+            .setOption(
+                "pdr.skipRepeatedPushAttempts", Boolean.toString(pSkipRepeatedPushAttempts))
+            .setOption("pdr.pushThreads", Integer.toString(pPushThreads))
+            .build();
+    return new Run(
+        CPATestRunner.run(config, Paths.get(TEST_DIR_PATH, pProgram).toString())
+            .getCheckerResult());
+  }
+
+  @Test
+  public void testSkippingRepeatedPushAttempts() throws Exception {
+    int skippedPushAttempts = 0;
+    for (Map.Entry<String, Result> program : PROGRAMS.entrySet()) {
+      Run skipping = check(program.getKey(), true, 1);
+      Run notSkipping = check(program.getKey(), false, 1);
+
+      assertThat(skipping.result).isEqualTo(program.getValue());
+      assertThat(notSkipping.result).isEqualTo(program.getValue());
+
+      // only checks that would fail anyway are skipped, so the analysis proceeds in the same way
+      assertThat(skipping.pushAttempts).isEqualTo(notSkipping.pushAttempts);
+      assertThat(notSkipping.skippedPushAttempts).isEqualTo(0);
+      skippedPushAttempts += skipping.skippedPushAttempts;
+    }
+    assertThat(skippedPushAttempts).isGreaterThan(0);
+  }
+
+  @Test
+  public void testParallelPushAttempts() throws Exception {
+    for (Map.Entry<String, Result> program : PROGRAMS.entrySet()) {
+      Run sequential = check(program.getKey(), true, 1);
+      Run parallel = check(program.getKey(), true, 2);
+
+      assertThat(sequential.result).isEqualTo(program.getValue());
+      assertThat(parallel.result).isEqualTo(program.getValue());
+
+      // the parallel checks have the same results, so the analysis proceeds in the same way
+      assertThat(parallel.pushAttempts).isEqualTo(sequential.pushAttempts);
+      assertThat(parallel.skippedPushAttempts).isEqualTo(sequential.skippedPushAttempts);
+    }
+  }
+}
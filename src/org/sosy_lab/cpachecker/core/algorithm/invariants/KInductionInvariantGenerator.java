@@ -21,6 +21,7 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import java.io.PrintStream;
 import java.math.BigInteger;
@@ -102,6 +103,8 @@ import org.sosy_lab.cpachecker.core.interfaces.StateSpacePartition;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ArtifactExchange;
+import org.sosy_lab.cpachecker.core.reachedset.ArtifactExchange.Endpoint;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
 import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
@@ -283,6 +286,10 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
               .filter(Predicates.not(Predicates.instanceOf(TargetLocationCandidateInvariant.class)))
               .size();
     }
+    Optional<Endpoint<CandidateInvariant>> invariantExchange =
+        pAggregatedReachedSets
+            .getArtifactExchange()
+            .map(ArtifactExchange::connectToInvariants);
     CandidateGenerator statisticsCandidateGenerator =
         new CandidateGenerator() {
 
@@ -328,12 +335,20 @@ public class KInductionInvariantGenerator extends AbstractInvariantGenerator
           @Override
           public void confirmCandidates(Iterable<CandidateInvariant> pCandidates) {
             pCandidateGenerator.confirmCandidates(pCandidates);
+            // invariants over C expressions can be used by the analyses that run in parallel
+            SetMultimap<CFANode, CandidateInvariant> sharableInvariants =
+                LinkedHashMultimap.create();
             for (CandidateInvariant invariant : pCandidates) {
               if (!(invariant instanceof TargetLocationCandidateInvariant)
                   && confirmedCandidates.add(invariant)) {
                 ++stats.numberOfConfirmedCandidates;
+                if (invariant instanceof ExpressionTreeLocationInvariant) {
+                  sharableInvariants.put(
+                      ((ExpressionTreeLocationInvariant) invariant).getLocation(), invariant);
+                }
               }
             }
+            invariantExchange.ifPresent(exchange -> exchange.publish(sharableInvariants));
           }
         };
 
@@ -491,25 +491,15 @@ class ReachedSetExecutor {
     ReachedSet newRs = pBsme.getReachedSet();
     BAMDataManager data = bamcpa.getData();
 
-    synchronized (data) {
-      if (newRs == null) {
-        // We are only synchronized in the current method. Thus, we need to check
-        // the cache again, maybe another thread already created the needed reached-set.
-        final BAMCacheEntry entry =
-            data.getCache()
-                .get(pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
-        newRs = entry == null ? null : entry.getReachedSet();
-      }
-
-      // now we can be sure, whether the sub-reached-set exists or not.
-      if (newRs == null) {
-        // we have not even cached a partly computed reached-set,
-        // so we must compute the subgraph specification from scratch
-        BAMCacheEntry entry =
-            data.createAndRegisterNewReachedSet(
-                pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock());
-        newRs = entry.getReachedSet();
-      }
+    if (newRs == null) {
+      // Check the cache again, maybe another thread already created the needed reached-set.
+      // Otherwise we have not even cached a partly computed reached-set,
+      // so we must compute the subgraph specification from scratch.
+      // Both steps are done atomically by the data manager.
+      newRs =
+          data.getOrCreateAndRegisterReachedSet(
+                  pBsme.getReducedState(), pBsme.getReducedPrecision(), pBsme.getBlock())
+              .getReachedSet();
     }
 
     // check whether we already have a matching RSE.
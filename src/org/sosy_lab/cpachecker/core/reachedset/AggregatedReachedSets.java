@@ -15,9 +15,11 @@ import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class AggregatedReachedSets {
   protected final Set<UnmodifiableReachedSet> reachedSets;
@@ -36,9 +38,18 @@ public class AggregatedReachedSets {
     }
   }
 
+  /**
+   * Return the exchange over which analyses that run in parallel share artifacts they learned,
+   * if such an exchange is available.
+   */
+  public Optional<ArtifactExchange> getArtifactExchange() {
+    return Optional.empty();
+  }
+
   private static class AggregatedThreadedReachedSets extends AggregatedReachedSets {
     private final ReentrantReadWriteLock lock;
     private final List<AggregatedThreadedReachedSets> otherAggregators = new ArrayList<>();
+    private volatile @Nullable ArtifactExchange artifactExchange = null;
 
     private AggregatedThreadedReachedSets(
         final ReentrantReadWriteLock pLock, Set<UnmodifiableReachedSet> pReachedSets) {
@@ -58,6 +69,25 @@ public class AggregatedReachedSets {
       }
     }
 
+    @Override
+    public Optional<ArtifactExchange> getArtifactExchange() {
+      if (artifactExchange != null) {
+        return Optional.of(artifactExchange);
+      }
+      lock.readLock().lock();
+      try {
+        for (AggregatedThreadedReachedSets other : otherAggregators) {
+          Optional<ArtifactExchange> exchange = other.getArtifactExchange();
+          if (exchange.isPresent()) {
+            return exchange;
+          }
+        }
+        return Optional.empty();
+      } finally {
+        lock.readLock().unlock();
+      }
+    }
+
     public void concat(AggregatedThreadedReachedSets other) {
       otherAggregators.add(other);
     }
@@ -97,6 +127,11 @@ public class AggregatedReachedSets {
       return reachedView;
     }
 
+    /** Make the given exchange available to all users of the {@link #asView() view}. */
+    public void setArtifactExchange(ArtifactExchange pArtifactExchange) {
+      reachedView.artifactExchange = checkNotNull(pArtifactExchange);
+    }
+
     public synchronized void addAggregated(AggregatedReachedSets pAggregatedReachedSets) {
       lock.writeLock().lock();
 
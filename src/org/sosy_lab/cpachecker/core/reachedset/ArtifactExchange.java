@@ -0,0 +1,152 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.Multimap;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.CandidateInvariant;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * Allows analyses that run in parallel (cf. {@link
+ * org.sosy_lab.cpachecker.core.algorithm.ParallelAlgorithm}) to share facts they learned while
+ * they are still running, instead of only sharing their reached set after they have finished.
+ *
+ * <p>There is one channel per kind of artifact. Every component that wants to use a channel
+ * connects to it and receives an {@link Endpoint}, which can be used to publish artifacts and to
+ * poll the artifacts that other endpoints have published since the last poll. All artifacts are
+ * bound to a {@link CFANode} of the CFA that is shared by all analyses, and need to be
+ * independent of the formula managers and other data structures of the publishing analysis:
+ *
+ * <ul>
+ *   <li>predicates are exchanged as SMT-LIB strings of uninstantiated atoms,
+ *   <li>value-analysis precisions as the memory locations that should be tracked, and
+ *   <li>invariants as {@link CandidateInvariant}s that were confirmed by an analysis and that can
+ *       be instantiated with any formula manager.
+ * </ul>
+ */
+public final class ArtifactExchange {
+
+  private final Channel<String> predicates = new Channel<>("Predicates");
+  private final Channel<MemoryLocation> valuePrecisions =
+      new Channel<>("Value-analysis precisions");
+  private final Channel<CandidateInvariant> invariants = new Channel<>("Invariants");
+
+  public Endpoint<String> connectToPredicates() {
+    return predicates.connect();
+  }
+
+  public Endpoint<MemoryLocation> connectToValuePrecisions() {
+    return valuePrecisions.connect();
+  }
+
+  public Endpoint<CandidateInvariant> connectToInvariants() {
+    return invariants.connect();
+  }
+
+  public void printStatistics(PrintStream pOut) {
+    StatisticsWriter writer = StatisticsWriter.writingStatisticsTo(pOut);
+    for (Channel<?> channel : ImmutableList.of(predicates, valuePrecisions, invariants)) {
+      writer
+          .put(channel.name + " published", channel.published.get())
+          .put(channel.name + " received", channel.received.get());
+    }
+  }
+
+  private static final class Channel<T> {
+
+    private final String name;
+
+    // guarded by this, only ever appended to
+    private final List<Artifact<T>> artifacts = new ArrayList<>();
+
+    private final AtomicInteger published = new AtomicInteger();
+    private final AtomicInteger received = new AtomicInteger();
+
+    private Channel(String pName) {
+      name = pName;
+    }
+
+    private Endpoint<T> connect() {
+      return new Endpoint<>(this);
+    }
+  }
+
+  private static final class Artifact<T> {
+
+    private final Endpoint<T> publisher;
+    private final CFANode location;
+    private final T content;
+
+    private Artifact(Endpoint<T> pPublisher, CFANode pLocation, T pContent) {
+      publisher = pPublisher;
+      location = checkNotNull(pLocation);
+      content = checkNotNull(pContent);
+    }
+  }
+
+  /**
+   * The connection of one component to a channel. Publishing is thread-safe, polling is expected
+   * to be done by one thread only.
+   */
+  public static final class Endpoint<T> {
+
+    private final Channel<T> channel;
+
+    /** Number of artifacts of the channel that were already seen by this endpoint. */
+    private int position = 0;
+
+    private Endpoint(Channel<T> pChannel) {
+      channel = pChannel;
+    }
+
+    /** Make the given artifacts available to all other endpoints of the same channel. */
+    public void publish(Multimap<CFANode, ? extends T> pArtifacts) {
+      if (pArtifacts.isEmpty()) {
+        return;
+      }
+      synchronized (channel) {
+        for (Map.Entry<CFANode, ? extends T> entry : pArtifacts.entries()) {
+          channel.artifacts.add(new Artifact<>(this, entry.getKey(), entry.getValue()));
+        }
+      }
+      channel.published.addAndGet(pArtifacts.size());
+    }
+
+    /**
+     * Return all artifacts that were published by other endpoints of the same channel since the
+     * last call to this method.
+     */
+    public ImmutableSetMultimap<CFANode, T> poll() {
+      ImmutableSetMultimap.Builder<CFANode, T> result = ImmutableSetMultimap.builder();
+      synchronized (channel) {
+        List<Artifact<T>> artifacts = channel.artifacts;
+        for (; position < artifacts.size(); position++) {
+          Artifact<T> artifact = artifacts.get(position);
+          if (artifact.publisher != this) {
+            result.put(artifact.location, artifact.content);
+          }
+        }
+      }
+      ImmutableSetMultimap<CFANode, T> newArtifacts = result.build();
+      channel.received.addAndGet(newArtifacts.size());
+      return newArtifacts;
+    }
+  }
+}
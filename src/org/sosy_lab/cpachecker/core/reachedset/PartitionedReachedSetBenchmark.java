@@ -0,0 +1,111 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.core.reachedset;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.sosy_lab.cpachecker.core.defaults.SingletonPrecision;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Partitionable;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.waitlist.Waitlist.TraversalMethod;
+
+/**
+ * Microbenchmark for {@link PartitionedReachedSet#add(AbstractState, Precision)} and {@link
+ * PartitionedReachedSet#getReached(AbstractState)}, which are called by the CPA algorithm for
+ * every successor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PartitionedReachedSetBenchmark {
+
+  private static final class PartitionedState implements AbstractState, Partitionable {
+
+    private final Integer partitionKey;
+
+    private PartitionedState(int pPartitionKey) {
+      partitionKey = pPartitionKey;
+    }
+
+    @Override
+    public Object getPartitionKey() {
+      return partitionKey;
+    }
+  }
+
+  @Param({"10000"})
+  public int states;
+
+  @Param({"10", "1000"})
+  public int partitions;
+
+  private final Precision precision = SingletonPrecision.getInstance();
+
+  private List<AbstractState> input;
+  private PartitionedReachedSet filledReachedSet;
+
+  @Setup
+  public void createStates() {
+    input = new ArrayList<>(states);
+    for (int i = 0; i < states; i++) {
+      input.add(new PartitionedState(i % partitions));
+    }
+
+    filledReachedSet = new PartitionedReachedSet(TraversalMethod.DFS);
+    for (AbstractState state : input) {
+      filledReachedSet.add(state, precision);
+    }
+  }
+
+  @Benchmark
+  public PartitionedReachedSet add() {
+    PartitionedReachedSet reached = new PartitionedReachedSet(TraversalMethod.DFS);
+    for (AbstractState state : input) {
+      reached.add(state, precision);
+    }
+    return reached;
+  }
+
+  @Benchmark
+  public void getReached(Blackhole pBlackhole) {
+    for (AbstractState state : input) {
+      Collection<AbstractState> partition = filledReachedSet.getReached(state);
+      pBlackhole.consume(partition.size());
+    }
+  }
+
+  @Benchmark
+  public void addAndPop(Blackhole pBlackhole) {
+    PartitionedReachedSet reached = new PartitionedReachedSet(TraversalMethod.DFS);
+    for (AbstractState state : input) {
+      reached.add(state, precision);
+    }
+    while (reached.hasWaitingState()) {
+      pBlackhole.consume(reached.popFromWaitlist());
+    }
+  }
+}
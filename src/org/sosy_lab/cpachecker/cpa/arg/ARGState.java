@@ -19,9 +19,10 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
 import com.google.common.graph.Traverser;
-import java.util.ArrayList;
+import java.util.AbstractCollection;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Optional;
@@ -44,12 +45,12 @@ public class ARGState extends AbstractSingleWrapperState
 
   private static final long serialVersionUID = 2608287648397165040L;
 
-  // We use a List here although we would like to have a Set
-  // because ArrayList is much more memory efficient than e.g. LinkedHashSet.
-  // Also these collections are small and so a slow contains() method won't hurt.
+  // Parents and children are stored in the compact representation of ARGStateAdjacency
+  // (null, a single ARGState, or an array), which needs much less memory than a collection.
+  // These sets are small and so a slow contains() method won't hurt.
   // To enforce set semantics, do not add elements except through addparent()!
-  private final Collection<ARGState> children = new ArrayList<>(1);
-  private final Collection<ARGState> parents = new ArrayList<>(1);
+  private @Nullable Object children = null;
+  private @Nullable Object parents = null;
 
   private ARGState mCoveredBy = null;
   private Set<ARGState> mCoveredByThis = null; // lazy initialization because rarely needed
@@ -84,7 +85,7 @@ public class ARGState extends AbstractSingleWrapperState
    * @return A unmodifiable collection of ARGStates without duplicates.
    */
   public Collection<ARGState> getParents() {
-    return Collections.unmodifiableCollection(parents);
+    return new AdjacentStates(false);
   }
 
   public void addParent(ARGState pOtherParent) {
@@ -92,12 +93,12 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (!parents.contains(pOtherParent)) {
-      assert !pOtherParent.children.contains(this);
-      parents.add(pOtherParent);
-      pOtherParent.children.add(this);
+    if (!ARGStateAdjacency.contains(parents, pOtherParent)) {
+      assert !ARGStateAdjacency.contains(pOtherParent.children, this);
+      parents = ARGStateAdjacency.add(parents, pOtherParent);
+      pOtherParent.children = ARGStateAdjacency.add(pOtherParent.children, this);
     } else {
-      assert pOtherParent.children.contains(this);
+      assert ARGStateAdjacency.contains(pOtherParent.children, this);
     }
   }
 
@@ -107,7 +108,41 @@ public class ARGState extends AbstractSingleWrapperState
    */
   public Collection<ARGState> getChildren() {
     assert !destroyed : "Don't use destroyed ARGState " + this;
-    return Collections.unmodifiableCollection(children);
+    return new AdjacentStates(true);
+  }
+
+  /** Unmodifiable view of the current parents or children of this state. */
+  private final class AdjacentStates extends AbstractCollection<ARGState> {
+
+    private final boolean ofChildren;
+
+    private AdjacentStates(boolean pOfChildren) {
+      ofChildren = pOfChildren;
+    }
+
+    private @Nullable Object getStates() {
+      return ofChildren ? children : parents;
+    }
+
+    @Override
+    public Iterator<ARGState> iterator() {
+      return ARGStateAdjacency.iterator(getStates());
+    }
+
+    @Override
+    public int size() {
+      return ARGStateAdjacency.size(getStates());
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return getStates() == null;
+    }
+
+    @Override
+    public boolean contains(Object pObj) {
+      return pObj instanceof ARGState && ARGStateAdjacency.contains(getStates(), (ARGState) pObj);
+    }
   }
 
   /**
@@ -292,10 +327,10 @@ public class ARGState extends AbstractSingleWrapperState
   }
 
   void deleteChild(ARGState child) {
-    assert (children.contains(child));
-    assert (child.parents.contains(this));
-    children.remove(child);
-    child.parents.remove(this);
+    assert ARGStateAdjacency.contains(children, child);
+    assert ARGStateAdjacency.contains(child.parents, this);
+    children = ARGStateAdjacency.remove(children, child);
+    child.parents = ARGStateAdjacency.remove(child.parents, this);
   }
 
   // counterexample
@@ -383,9 +418,9 @@ public class ARGState extends AbstractSingleWrapperState
     sb.append(stateId);
     if (!destroyed) {
       sb.append(", Parents: ");
-      sb.append(stateIdsOf(parents));
+      sb.append(stateIdsOf(ARGStateAdjacency.snapshot(parents)));
       sb.append(", Children: ");
-      sb.append(stateIdsOf(children));
+      sb.append(stateIdsOf(ARGStateAdjacency.snapshot(children)));
 
       if (mCoveredBy != null) {
         sb.append(", Covered by: ");
@@ -470,18 +505,18 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // clear children
-    for (ARGState child : children) {
-      assert (child.parents.contains(this));
-      child.parents.remove(this);
+    for (ARGState child : ARGStateAdjacency.snapshot(children)) {
+      assert ARGStateAdjacency.contains(child.parents, this);
+      child.parents = ARGStateAdjacency.remove(child.parents, this);
     }
-    children.clear();
+    children = null;
 
     // clear parents
-    for (ARGState parent : parents) {
-      assert (parent.children.contains(this));
-      parent.children.remove(this);
+    for (ARGState parent : ARGStateAdjacency.snapshot(parents)) {
+      assert ARGStateAdjacency.contains(parent.children, this);
+      parent.children = ARGStateAdjacency.remove(parent.children, this);
     }
-    parents.clear();
+    parents = null;
   }
 
   /**
@@ -501,19 +536,19 @@ public class ARGState extends AbstractSingleWrapperState
     assert !this.equals(replacement) : "Don't replace ARGState " + this + " with itself";
 
     // copy children
-    for (ARGState child : children) {
-      assert child.parents.contains(this) : "Inconsistent ARG at " + this;
-      child.parents.remove(this);
+    for (ARGState child : ARGStateAdjacency.snapshot(children)) {
+      assert ARGStateAdjacency.contains(child.parents, this) : "Inconsistent ARG at " + this;
+      child.parents = ARGStateAdjacency.remove(child.parents, this);
       child.addParent(replacement);
     }
-    children.clear();
+    children = null;
 
-    for (ARGState parent : parents) {
-      assert parent.children.contains(this) : "Inconsistent ARG at " + this;
-      parent.children.remove(this);
+    for (ARGState parent : ARGStateAdjacency.snapshot(parents)) {
+      assert ARGStateAdjacency.contains(parent.children, this) : "Inconsistent ARG at " + this;
+      parent.children = ARGStateAdjacency.remove(parent.children, this);
       replacement.addParent(parent);
     }
-    parents.clear();
+    parents = null;
 
     if (mCoveredByThis != null) {
       if (replacement.mCoveredByThis == null) {
@@ -567,12 +602,12 @@ public class ARGState extends AbstractSingleWrapperState
     assert !destroyed : "Don't use destroyed ARGState " + this;
 
     // Manually enforce set semantics.
-    if (parents.contains(pOtherParent)) {
-      assert pOtherParent.children.contains(this);
-      parents.remove(pOtherParent);
-      pOtherParent.children.remove(this);
+    if (ARGStateAdjacency.contains(parents, pOtherParent)) {
+      assert ARGStateAdjacency.contains(pOtherParent.children, this);
+      parents = ARGStateAdjacency.remove(parents, pOtherParent);
+      pOtherParent.children = ARGStateAdjacency.remove(pOtherParent.children, this);
     } else {
-      assert !pOtherParent.children.contains(this) : "Problem detected!";
+      assert !ARGStateAdjacency.contains(pOtherParent.children, this) : "Problem detected!";
     }
   }
 }
@@ -0,0 +1,117 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Iterators;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Helper methods for the compact representation of the parents and children of an {@link
+ * ARGState}. A set of states is stored in a single field, which is null for the empty set, the
+ * state itself for a set with one element, and an array without duplicates for larger sets.
+ *
+ * <p>Most states in an ARG have one parent and one or two children, so this avoids a list object
+ * and its backing array for each of the two sets of each state. Arrays are never modified after
+ * they were stored (copy on write), such that iterating over the states is safe while the set is
+ * changed. Changing a large set is linear in its size.
+ */
+final class ARGStateAdjacency {
+
+  private ARGStateAdjacency() {}
+
+  static int size(@Nullable Object pStates) {
+    if (pStates == null) {
+      return 0;
+    } else if (pStates instanceof ARGState) {
+      return 1;
+    } else {
+      return ((ARGState[]) pStates).length;
+    }
+  }
+
+  static boolean contains(@Nullable Object pStates, ARGState pState) {
+    if (pStates == null) {
+      return false;
+    } else if (pStates instanceof ARGState) {
+      return pStates == pState;
+    } else {
+      for (ARGState state : (ARGState[]) pStates) {
+        if (state == pState) {
+          return true;
+        }
+      }
+      return false;
+    }
+  }
+
+  /** Returns the representation of the given set with the given state, which must not be in it. */
+  static Object add(@Nullable Object pStates, ARGState pState) {
+    assert !contains(pStates, pState);
+    if (pStates == null) {
+      return pState;
+    } else if (pStates instanceof ARGState) {
+      return new ARGState[] {(ARGState) pStates, pState};
+    } else {
+      ARGState[] states = (ARGState[]) pStates;
+      ARGState[] result = Arrays.copyOf(states, states.length + 1);
+      result[states.length] = pState;
+      return result;
+    }
+  }
+
+  /** Returns the representation of the given set without the given state. */
+  static @Nullable Object remove(@Nullable Object pStates, ARGState pState) {
+    if (pStates == null) {
+      return null;
+    } else if (pStates instanceof ARGState) {
+      return pStates == pState ? null : pStates;
+    }
+
+    ARGState[] states = (ARGState[]) pStates;
+    int index = 0;
+    while (index < states.length && states[index] != pState) {
+      index++;
+    }
+    if (index == states.length) {
+      return pStates;
+    } else if (states.length == 2) {
+      return states[1 - index];
+    }
+    ARGState[] result = new ARGState[states.length - 1];
+    System.arraycopy(states, 0, result, 0, index);
+    System.arraycopy(states, index + 1, result, index, result.length - index);
+    return result;
+  }
+
+  static Iterator<ARGState> iterator(@Nullable Object pStates) {
+    if (pStates == null) {
+      return Collections.emptyIterator();
+    } else if (pStates instanceof ARGState) {
+      return Iterators.singletonIterator((ARGState) pStates);
+    } else {
+      return Iterators.forArray((ARGState[]) pStates);
+    }
+  }
+
+  /** Returns an unmodifiable list of the states that is not affected by later changes. */
+  static List<ARGState> snapshot(@Nullable Object pStates) {
+    if (pStates == null) {
+      return ImmutableList.of();
+    } else if (pStates instanceof ARGState) {
+      return ImmutableList.of((ARGState) pStates);
+    } else {
+      return Collections.unmodifiableList(Arrays.asList((ARGState[]) pStates));
+    }
+  }
+}
@@ -0,0 +1,139 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.arg;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableList;
+import java.util.Iterator;
+import java.util.List;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ARGStateAdjacencyTest {
+
+  private ARGState a;
+  private ARGState b;
+  private ARGState c;
+  private ARGState d;
+
+  @Before
+  public void setUp() {
+    a = new ARGState(null, null);
+    b = new ARGState(null, null);
+    c = new ARGState(null, null);
+    d = new ARGState(null, null);
+  }
+
+  private static void assertStates(@Nullable Object pStates, ARGState... pExpected) {
+    assertThat(ARGStateAdjacency.size(pStates)).isEqualTo(pExpected.length);
+    assertThat(ImmutableList.copyOf(ARGStateAdjacency.iterator(pStates)))
+        .containsExactlyElementsIn(pExpected)
+        .inOrder();
+    assertThat(ARGStateAdjacency.snapshot(pStates)).containsExactlyElementsIn(pExpected).inOrder();
+    for (ARGState state : pExpected) {
+      assertThat(ARGStateAdjacency.contains(pStates, state)).isTrue();
+    }
+  }
+
+  @Test
+  public void testEmpty() {
+    assertStates(null);
+    assertThat(ARGStateAdjacency.contains(null, a)).isFalse();
+    assertThat(ARGStateAdjacency.remove(null, a)).isNull();
+  }
+
+  @Test
+  public void testAdd() {
+    Object states = ARGStateAdjacency.add(null, a);
+    assertThat(states).isSameInstanceAs(a);
+    assertStates(states, a);
+    assertThat(ARGStateAdjacency.contains(states, b)).isFalse();
+
+    states = ARGStateAdjacency.add(states, b);
+    assertStates(states, a, b);
+    assertThat(ARGStateAdjacency.contains(states, c)).isFalse();
+
+    states = ARGStateAdjacency.add(states, c);
+    assertStates(states, a, b, c);
+    assertThat(ARGStateAdjacency.contains(states, d)).isFalse();
+  }
+
+  @Test
+  public void testRemoveFromTwoAndOne() {
+    Object states = ARGStateAdjacency.add(ARGStateAdjacency.add(null, a), b);
+
+    // 2 -> 1, in both possible ways
+    Object withoutA = ARGStateAdjacency.remove(states, a);
+    assertThat(withoutA).isSameInstanceAs(b);
+    assertStates(withoutA, b);
+    Object withoutB = ARGStateAdjacency.remove(states, b);
+    assertThat(withoutB).isSameInstanceAs(a);
+    assertStates(withoutB, a);
+
+    // 1 -> 0
+    assertThat(ARGStateAdjacency.remove(withoutA, b)).isNull();
+  }
+
+  @Test
+  public void testRemoveFromMany() {
+    Object states =
+        ARGStateAdjacency.add(ARGStateAdjacency.add(ARGStateAdjacency.add(null, a), b), c);
+
+    assertStates(ARGStateAdjacency.remove(states, a), b, c);
+    assertStates(ARGStateAdjacency.remove(states, b), a, c);
+    assertStates(ARGStateAdjacency.remove(states, c), a, b);
+  }
+
+  @Test
+  public void testRemoveAbsent() {
+    Object one = ARGStateAdjacency.add(null, a);
+    assertThat(ARGStateAdjacency.remove(one, b)).isSameInstanceAs(one);
+
+    Object two = ARGStateAdjacency.add(one, b);
+    assertThat(ARGStateAdjacency.remove(two, c)).isSameInstanceAs(two);
+    assertStates(two, a, b);
+
+    Object three = ARGStateAdjacency.add(two, c);
+    assertThat(ARGStateAdjacency.remove(three, d)).isSameInstanceAs(three);
+    assertStates(three, a, b, c);
+  }
+
+  @Test
+  public void testCopyOnWrite() {
+    Object states = ARGStateAdjacency.add(ARGStateAdjacency.add(null, a), b);
+    Iterator<ARGState> iterator = ARGStateAdjacency.iterator(states);
+    List<ARGState> snapshot = ARGStateAdjacency.snapshot(states);
+
+    Object changed = ARGStateAdjacency.remove(ARGStateAdjacency.add(states, c), a);
+
+    assertStates(changed, b, c);
+    // the old representation is not affected
+    assertStates(states, a, b);
+    assertThat(snapshot).containsExactly(a, b).inOrder();
+    assertThat(ImmutableList.copyOf(iterator)).containsExactly(a, b).inOrder();
+  }
+
+  @Test
+  public void testParentsAndChildrenOfStates() {
+    ARGState child = new ARGState(null, a);
+    child.addParent(b);
+
+    assertThat(child.getParents()).containsExactly(a, b).inOrder();
+    assertThat(a.getChildren()).containsExactly(child);
+    assertThat(b.getChildren()).containsExactly(child);
+
+    child.removeFromARG();
+
+    assertThat(child.getParents()).isEmpty();
+    assertThat(a.getChildren()).isEmpty();
+    assertThat(b.getChildren()).isEmpty();
+  }
+}
@@ -118,7 +118,9 @@ public class CEXExporter {
       cexFilter =
           CounterexampleFilter.createCounterexampleFilter(config, pLogger, cpa, cexFilterClasses);
       harnessExporter = new HarnessExporter(config, pLogger, cfa);
-      testExporter = new TestCaseExporter(cfa, logger, config);
+      // counterexamples are exported after the analysis, so background writers would only add
+      // threads that are never stopped, and there is nothing to do in parallel to them
+      testExporter = new TestCaseExporter(cfa, logger, config, false);
     } else {
       cexFilter = null;
       harnessExporter = null;
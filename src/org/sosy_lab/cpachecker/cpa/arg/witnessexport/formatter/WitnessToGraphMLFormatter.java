@@ -8,10 +8,16 @@
 
 package org.sosy_lab.cpachecker.cpa.arg.witnessexport.formatter;
 
+import static com.google.common.base.Preconditions.checkState;
 import static com.google.common.base.Strings.isNullOrEmpty;
 
+import com.google.common.collect.Maps;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import javax.xml.parsers.ParserConfigurationException;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.core.interfaces.Property;
@@ -19,23 +25,68 @@ import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Edge;
 import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Witness;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.ElementType;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder.GraphMlWriter;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
 import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
-import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeType;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
 import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
-import org.w3c.dom.Element;
 
-public class WitnessToGraphMLFormatter extends WitnessToOutputFormatter<Element> {
+/**
+ * Writes a witness as GraphML. Nodes and edges are written to the output while the witness graph
+ * is traversed, such that no representation of the whole document is kept in memory.
+ */
+public class WitnessToGraphMLFormatter
+    extends WitnessToOutputFormatter<WitnessToGraphMLFormatter.NodeData> {
 
-  private GraphMlBuilder doc;
+  /** The data of a node that is not yet written, because more data may be added to it. */
+  static final class NodeData {
+
+    private final String id;
+    private final List<Map.Entry<KeyDef, String>> data = new ArrayList<>(2);
+    private boolean written = false;
+
+    private NodeData(String pId) {
+      id = pId;
+    }
+
+    private void add(KeyDef pKey, String pValue) {
+      checkState(!written, "Node %s was already written", id);
+      data.add(Maps.immutableEntry(pKey, pValue));
+    }
+  }
+
+  /**
+   * If not null, this instance does not write anything and only collects the keys that are used
+   * by the nodes and edges of the witness.
+   */
+  private final @Nullable Set<KeyDef> usedKeys;
+
+  private @Nullable GraphMlWriter writer;
+
+  /** The most recently created node, which is written as soon as the next element begins. */
+  private @Nullable NodeData pendingNode;
+
+  /** Nodes whose data depend on their entering edges and can only be written at the end. */
+  private List<NodeData> delayedNodes;
 
   public WitnessToGraphMLFormatter(Witness pWitness) {
+    this(pWitness, null);
+  }
+
+  private WitnessToGraphMLFormatter(Witness pWitness, @Nullable Set<KeyDef> pUsedKeys) {
     super(pWitness);
+    usedKeys = pUsedKeys;
   }
 
   @Override
   protected void initialize(Appendable pTarget) throws IOException {
+    pendingNode = null;
+    delayedNodes = new ArrayList<>();
+    if (usedKeys != null) {
+      return;
+    }
+
+    GraphMlBuilder doc;
     try {
       doc =
           new GraphMlBuilder(
@@ -46,54 +97,111 @@ public class WitnessToGraphMLFormatter extends WitnessToOutputFormatter<Element>
     } catch (ParserConfigurationException e) {
       throw new IOException(e);
     }
+    writer = doc.startWriting(pTarget, getUsedKeys(pTarget));
+  }
+
+  /**
+   * Returns the keys that are used by the nodes and edges of the witness. Key definitions precede
+   * the graph, so the witness is traversed once without writing anything to find them. Defining
+   * exactly the used keys keeps the output identical to a document that is built completely before
+   * it is written.
+   */
+  private Set<KeyDef> getUsedKeys(Appendable pTarget) throws IOException {
+    WitnessToGraphMLFormatter keyCollector =
+        new WitnessToGraphMLFormatter(witness, EnumSet.noneOf(KeyDef.class));
+    keyCollector.appendTo(pTarget);
+    return keyCollector.usedKeys;
   }
 
   @Override
   protected void finish(Appendable pTarget) throws IOException {
-    doc.appendTo(pTarget);
+    writePendingNode();
+    for (NodeData node : delayedNodes) {
+      write(node);
+    }
+    if (writer != null) {
+      writer.finish();
+      writer = null;
+    }
+    delayedNodes = null;
   }
 
   @Override
-  protected Element createNewNode(String pNodeId, Appendable pTarget) {
-    final Element result = doc.createNodeElement(pNodeId, NodeType.ONPATH);
+  protected NodeData createNewNode(String pNodeId, Appendable pTarget) throws IOException {
+    writePendingNode();
+    final NodeData result = new NodeData(pNodeId);
     if (witness.getWitnessOptions().exportNodeLabel()) {
       // add a printable label that for example is shown in yEd
-      doc.addDataElementChild(result, KeyDef.LABEL, pNodeId);
+      result.add(KeyDef.LABEL, pNodeId);
     }
     for (NodeFlag f : witness.getNodeFlags().get(pNodeId)) {
-      doc.addDataElementChild(result, f.key, "true");
+      result.add(f.key, "true");
     }
     for (Property violation : witness.getViolatedProperties().get(pNodeId)) {
-      doc.addDataElementChild(result, KeyDef.VIOLATEDPROPERTY, violation.toString());
+      result.add(KeyDef.VIOLATEDPROPERTY, violation.toString());
     }
     if (witness.hasQuasiInvariant(pNodeId)) {
       ExpressionTree<Object> tree = witness.getQuasiInvariant(pNodeId);
-      doc.addDataElementChild(result, KeyDef.INVARIANT, tree.toString());
+      result.add(KeyDef.INVARIANT, tree.toString());
+    }
+
+    if (witness.getEnteringEdges().get(pNodeId).stream()
+        .anyMatch(WitnessToGraphMLFormatter::hasNodeData)) {
+      delayedNodes.add(result);
+    } else {
+      pendingNode = result;
     }
     return result;
   }
 
+  private static boolean hasNodeData(Edge pEdge) {
+    return pEdge.getLabel().getMapping().keySet().stream()
+        .anyMatch(keyDef -> keyDef.keyFor.equals(ElementType.NODE));
+  }
+
   @Override
   protected void createNewEdge(
-      Edge pEdge, Element pSourceNode, Element pTargetNode, Appendable pTarget) {
-    final Element edge = doc.createEdgeElement(pEdge.getSource(), pEdge.getTarget());
+      Edge pEdge, NodeData pSourceNode, NodeData pTargetNode, Appendable pTarget)
+      throws IOException {
+    writePendingNode();
+    List<Map.Entry<KeyDef, String>> edgeData = new ArrayList<>();
     for (Map.Entry<KeyDef, String> entry : pEdge.getLabel().getMapping().entrySet()) {
       KeyDef keyDef = entry.getKey();
-      String value = entry.getValue();
       if (keyDef.keyFor.equals(ElementType.EDGE)) {
-        doc.addDataElementChild(edge, keyDef, value);
+        edgeData.add(entry);
       } else if (keyDef.keyFor.equals(ElementType.NODE)) {
-        doc.addDataElementChild(pTargetNode, keyDef, value);
+        pTargetNode.add(keyDef, entry.getValue());
       }
     }
+    if (usedKeys != null) {
+      edgeData.forEach(entry -> usedKeys.add(entry.getKey()));
+    } else {
+      writer.writeEdge(pEdge.getSource(), pEdge.getTarget(), edgeData);
+    }
   }
 
   @Override
   protected void addInvariantsData(
-      Element pNode, ExpressionTree<Object> pTree, @Nullable String pScope, Appendable pTarget) {
-    doc.addDataElementChild(pNode, KeyDef.INVARIANT, pTree.toString());
+      NodeData pNode, ExpressionTree<Object> pTree, @Nullable String pScope, Appendable pTarget) {
+    pNode.add(KeyDef.INVARIANT, pTree.toString());
     if (!isNullOrEmpty(pScope) && !pTree.equals(ExpressionTrees.getFalse())) {
-      doc.addDataElementChild(pNode, KeyDef.INVARIANTSCOPE, pScope);
+      pNode.add(KeyDef.INVARIANTSCOPE, pScope);
+    }
+  }
+
+  private void writePendingNode() throws IOException {
+    if (pendingNode != null) {
+      write(pendingNode);
+      pendingNode = null;
+    }
+  }
+
+  private void write(NodeData pNode) throws IOException {
+    if (usedKeys != null) {
+      pNode.data.forEach(entry -> usedKeys.add(entry.getKey()));
+    } else {
+      writer.writeNode(pNode.id, pNode.data);
     }
+    pNode.written = true;
   }
 }
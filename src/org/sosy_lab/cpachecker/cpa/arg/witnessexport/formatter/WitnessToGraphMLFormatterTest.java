@@ -0,0 +1,273 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.arg.witnessexport.formatter;
+
+import static com.google.common.base.Strings.isNullOrEmpty;
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
+import com.google.common.collect.LinkedListMultimap;
+import com.google.common.collect.ListMultimap;
+import java.io.IOException;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.xml.parsers.ParserConfigurationException;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.Language;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.core.interfaces.Property;
+import org.sosy_lab.cpachecker.core.specification.Specification;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Edge;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.TransitionCondition;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.Witness;
+import org.sosy_lab.cpachecker.cpa.arg.witnessexport.WitnessOptions;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.ElementType;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMlBuilder;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeType;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.WitnessType;
+import org.sosy_lab.cpachecker.util.automaton.VerificationTaskMetaData;
+import org.sosy_lab.cpachecker.util.expressions.ExpressionTree;
+import org.sosy_lab.cpachecker.util.expressions.ExpressionTrees;
+import org.sosy_lab.cpachecker.util.expressions.LeafExpression;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+import org.w3c.dom.Element;
+
+/**
+ * Checks that {@link WitnessToGraphMLFormatter}, which writes the witness while traversing it,
+ * produces the same output as building a DOM document of the complete witness and writing it
+ * afterwards.
+ */
+public class WitnessToGraphMLFormatterTest {
+
+  private static final Pattern CREATION_TIME =
+      Pattern.compile("<data key=\"creationtime\">[^<]*</data>");
+
+  private static final Property PROPERTY =
+      new Property() {
+        @Override
+        public String toString() {
+          return "unreach-call";
+        }
+      };
+
+  /** The formatter as it was before the output was streamed, for comparison. */
+  private static class DomFormatter extends WitnessToOutputFormatter<Element> {
+
+    private GraphMlBuilder doc;
+
+    private DomFormatter(Witness pWitness) {
+      super(pWitness);
+    }
+
+    @Override
+    protected void initialize(Appendable pTarget) throws IOException {
+      try {
+        doc =
+            new GraphMlBuilder(
+                witness.getWitnessType(),
+                witness.getOriginFile(),
+                witness.getCfa(),
+                witness.getMetaData());
+      } catch (ParserConfigurationException e) {
+        throw new IOException(e);
+      }
+    }
+
+    @Override
+    protected void finish(Appendable pTarget) throws IOException {
+      doc.appendTo(pTarget);
+    }
+
+    @Override
+    protected Element createNewNode(String pNodeId, Appendable pTarget) {
+      final Element result = doc.createNodeElement(pNodeId, NodeType.ONPATH);
+      if (witness.getWitnessOptions().exportNodeLabel()) {
+        doc.addDataElementChild(result, KeyDef.LABEL, pNodeId);
+      }
+      for (NodeFlag f : witness.getNodeFlags().get(pNodeId)) {
+        doc.addDataElementChild(result, f.key, "true");
+      }
+      for (Property violation : witness.getViolatedProperties().get(pNodeId)) {
+        doc.addDataElementChild(result, KeyDef.VIOLATEDPROPERTY, violation.toString());
+      }
+      if (witness.hasQuasiInvariant(pNodeId)) {
+        ExpressionTree<Object> tree = witness.getQuasiInvariant(pNodeId);
+        doc.addDataElementChild(result, KeyDef.INVARIANT, tree.toString());
+      }
+      return result;
+    }
+
+    @Override
+    protected void createNewEdge(
+        Edge pEdge, Element pSourceNode, Element pTargetNode, Appendable pTarget) {
+      final Element edge = doc.createEdgeElement(pEdge.getSource(), pEdge.getTarget());
+      for (Map.Entry<KeyDef, String> entry : pEdge.getLabel().getMapping().entrySet()) {
+        KeyDef keyDef = entry.getKey();
+        String value = entry.getValue();
+        if (keyDef.keyFor.equals(ElementType.EDGE)) {
+          doc.addDataElementChild(edge, keyDef, value);
+        } else if (keyDef.keyFor.equals(ElementType.NODE)) {
+          doc.addDataElementChild(pTargetNode, keyDef, value);
+        }
+      }
+    }
+
+    @Override
+    protected void addInvariantsData(
+        Element pNode, ExpressionTree<Object> pTree, @Nullable String pScope, Appendable pTarget) {
+      doc.addDataElementChild(pNode, KeyDef.INVARIANT, pTree.toString());
+      if (!isNullOrEmpty(pScope) && !pTree.equals(ExpressionTrees.getFalse())) {
+        doc.addDataElementChild(pNode, KeyDef.INVARIANTSCOPE, pScope);
+      }
+    }
+  }
+
+  private static TransitionCondition label(Object... keysAndValues) {
+    TransitionCondition result = TransitionCondition.empty();
+    for (int i = 0; i < keysAndValues.length; i += 2) {
+      result = result.putAndCopy((KeyDef) keysAndValues[i], (String) keysAndValues[i + 1]);
+    }
+    return result;
+  }
+
+  /**
+   * Creates a witness with a loop, invariants, a node whose invariant is false (such that its
+   * leaving edge with an otherwise unused key is not exported), and an edge with an empty value.
+   */
+  private static Witness createWitness(
+      WitnessOptions pOptions, TransitionCondition pLabelOfFirstEdge) throws Exception {
+    ImmutableList<Edge> edges =
+        ImmutableList.of(
+            new Edge("A0", "A1", pLabelOfFirstEdge),
+            new Edge("A0", "A2", label()),
+            new Edge("A1", "A3", label(KeyDef.STARTLINE, "5", KeyDef.ASSUMPTION, "x < 10;")),
+            new Edge("A2", "A3", label(KeyDef.ENDLINE, "7")),
+            new Edge("A3", "A1", label(KeyDef.STARTLINE, "6", KeyDef.ASSUMPTION, "")),
+            new Edge("A3", "A4", label(KeyDef.CONTROLCASE, "condition-false")));
+    ListMultimap<String, Edge> leavingEdges = LinkedListMultimap.create();
+    ListMultimap<String, Edge> enteringEdges = LinkedListMultimap.create();
+    for (Edge edge : edges) {
+      leavingEdges.put(edge.getSource(), edge);
+      enteringEdges.put(edge.getTarget(), edge);
+    }
+
+    CFA cfa = mock(CFA.class);
+    when(cfa.getLanguage()).thenReturn(Language.C);
+    when(cfa.getFileNames()).thenReturn(ImmutableList.of());
+    when(cfa.getMachineModel()).thenReturn(MachineModel.LINUX32);
+
+    return new Witness(
+        WitnessType.CORRECTNESS_WITNESS,
+        "test.c",
+        cfa,
+        new VerificationTaskMetaData(
+            TestDataTools.configurationForTest().build(), Specification.alwaysSatisfied()),
+        "A0",
+        leavingEdges,
+        enteringEdges,
+        pOptions,
+        ImmutableSetMultimap.of(
+            "A0", NodeFlag.ISENTRY, "A1", NodeFlag.ISCYCLEHEAD, "A4", NodeFlag.ISVIOLATION),
+        ImmutableListMultimap.of("A4", PROPERTY),
+        ImmutableMap.of(
+            "A1", LeafExpression.<Object>of("x >= 0"), "A2", ExpressionTrees.getFalse()),
+        ImmutableMap.of("A1", LeafExpression.<Object>of("x <= 10")),
+        ImmutableMap.of("A1", "main"),
+        ImmutableSet.of("A1", "A2"),
+        ImmutableListMultimap.of(),
+        ImmutableListMultimap.of());
+  }
+
+  private static WitnessOptions createOptions(Configuration pConfig)
+      throws InvalidConfigurationException {
+    WitnessOptions options = new WitnessOptions();
+    pConfig.inject(options);
+    return options;
+  }
+
+  private static String normalize(String pOutput) {
+    return CREATION_TIME.matcher(pOutput).replaceAll("<data key=\"creationtime\">TIME</data>");
+  }
+
+  private static String writeStreaming(Witness pWitness) throws IOException {
+    StringBuilder result = new StringBuilder();
+    new WitnessToGraphMLFormatter(pWitness).appendTo(result);
+    return normalize(result.toString());
+  }
+
+  private static String writeWithDom(Witness pWitness) throws IOException {
+    StringBuilder result = new StringBuilder();
+    new DomFormatter(pWitness).appendTo(result);
+    return normalize(result.toString());
+  }
+
+  private static final TransitionCondition FIRST_LABEL =
+      label(KeyDef.STARTLINE, "3", KeyDef.ASSUMPTION, "x == 0;", KeyDef.CONTROLCASE, "true");
+
+  @Test
+  public void testSameOutputAsDom() throws Exception {
+    Witness witness =
+        createWitness(createOptions(Configuration.defaultConfiguration()), FIRST_LABEL);
+
+    String output = writeStreaming(witness);
+
+    assertThat(output).isEqualTo(writeWithDom(witness));
+    // only keys that are actually used are defined
+    assertThat(output).doesNotContain("\"endline\"");
+    // writing twice gives the same output
+    assertThat(writeStreaming(witness)).isEqualTo(output);
+  }
+
+  @Test
+  public void testSameOutputAsDomWithNodeLabels() throws Exception {
+    WitnessOptions options =
+        createOptions(
+            Configuration.builder().setOption("cpa.arg.witness.exportNodeLabel", "true").build());
+    Witness witness = createWitness(options, FIRST_LABEL);
+
+    assertThat(writeStreaming(witness)).isEqualTo(writeWithDom(witness));
+  }
+
+  @Test
+  public void testNodeDataFromEnteringEdge() throws Exception {
+    // an edge with data for its target node, which is only known after the node was created
+    Witness witness =
+        createWitness(
+            createOptions(Configuration.defaultConfiguration()),
+            FIRST_LABEL.putAndCopy(KeyDef.NAMED, "x"));
+
+    // the node is written after all other nodes and edges, but with the same content
+    String domOutput = writeWithDom(witness);
+    Matcher node =
+        Pattern.compile("\n  <node id=\"A1\">.*?\n  </node>", Pattern.DOTALL).matcher(domOutput);
+    assertThat(node.find()).isTrue();
+    assertThat(node.group()).contains("<data key=\"named\">x</data>");
+    int endOfGraph = domOutput.indexOf("\n </graph>");
+    String expected =
+        domOutput.substring(0, node.start())
+            + domOutput.substring(node.end(), endOfGraph)
+            + node.group()
+            + domOutput.substring(endOfGraph);
+
+    assertThat(writeStreaming(witness)).isEqualTo(expected);
+  }
+}
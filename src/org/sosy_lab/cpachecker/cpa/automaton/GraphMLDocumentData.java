@@ -0,0 +1,319 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.WitnessParseException;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.GraphMLTag;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
+
+/**
+ * The relevant content of a GraphML witness: the graph with its nodes and edges, each with their
+ * attributes and data values.
+ *
+ * <p>The document is read with a streaming (StAX) parser, and only a compact representation of the
+ * graph, node, and edge elements is kept in memory. In contrast to a DOM representation, there
+ * are no objects for data elements, attributes, whitespace, or comments, and equal data keys are
+ * shared, which makes a huge difference for large witnesses.
+ */
+final class GraphMLDocumentData {
+
+  private static final String TOO_MANY_GRAPHS_ERROR_MESSAGE =
+      "The witness file must describe exactly one witness automaton.";
+
+  /**
+   * A graph, node, or edge element of a GraphML document, with its attributes and the values of
+   * its data children.
+   */
+  static final class GraphMLElement {
+
+    private final GraphMLTag tag;
+    private final ImmutableMap<String, String> attributes;
+
+    /** Keys and values of the data children, alternating and in document order. */
+    private final String[] data;
+
+    private GraphMLElement(
+        GraphMLTag pTag, ImmutableMap<String, String> pAttributes, List<String> pData) {
+      tag = checkNotNull(pTag);
+      attributes = checkNotNull(pAttributes);
+      data = pData.toArray(new String[0]);
+    }
+
+    @Nullable String getAttribute(String pName) {
+      return attributes.get(pName);
+    }
+
+    @Override
+    public String toString() {
+      return "<" + tag + " " + attributes + ">";
+    }
+  }
+
+  private final GraphMLElement graph;
+
+  private final ImmutableMap<String, GraphMLElement> idToNodeMap;
+
+  private final ImmutableList<GraphMLElement> transitions;
+
+  private GraphMLDocumentData(
+      GraphMLElement pGraph,
+      ImmutableMap<String, GraphMLElement> pIdToNodeMap,
+      ImmutableList<GraphMLElement> pTransitions) {
+    graph = pGraph;
+    idToNodeMap = pIdToNodeMap;
+    transitions = pTransitions;
+  }
+
+  /**
+   * Reads a GraphML document from the given stream.
+   *
+   * @param pInputStream the (uncompressed) input
+   * @param pGraphOnly whether nodes and edges can be skipped, because only the graph's data is of
+   *     interest
+   */
+  static GraphMLDocumentData read(InputStream pInputStream, boolean pGraphOnly)
+      throws WitnessParseException, IOException {
+    XMLInputFactory factory = XMLInputFactory.newInstance();
+    factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+
+    try {
+      XMLStreamReader reader = factory.createXMLStreamReader(pInputStream);
+      try {
+        return new DocumentReader(reader, pGraphOnly).read();
+      } finally {
+        reader.close();
+      }
+    } catch (XMLStreamException e) {
+      if (e.getNestedException() instanceof IOException) {
+        throw (IOException) e.getNestedException();
+      }
+      throw new WitnessParseException(e);
+    }
+  }
+
+  /** Single-use helper that keeps the state while reading a document. */
+  private static final class DocumentReader {
+
+    private final XMLStreamReader reader;
+    private final boolean graphOnly;
+
+    // data keys occur many times, we store each key only once
+    private final Map<String, String> keys = new HashMap<>();
+
+    private @Nullable GraphMLElement graph = null;
+    private final ImmutableMap.Builder<String, GraphMLElement> nodes = ImmutableMap.builder();
+    private final ImmutableList.Builder<GraphMLElement> edges = ImmutableList.builder();
+
+    private DocumentReader(XMLStreamReader pReader, boolean pGraphOnly) {
+      reader = pReader;
+      graphOnly = pGraphOnly;
+    }
+
+    private GraphMLDocumentData read() throws XMLStreamException, WitnessParseException {
+      while (reader.hasNext()) {
+        if (reader.next() == XMLStreamConstants.START_ELEMENT
+            && reader.getLocalName().equals(GraphMLTag.GRAPH.toString())) {
+          if (graph != null) {
+            throw new WitnessParseException(TOO_MANY_GRAPHS_ERROR_MESSAGE);
+          }
+          graph = readGraph();
+        }
+      }
+      if (graph == null) {
+        throw new WitnessParseException(TOO_MANY_GRAPHS_ERROR_MESSAGE);
+      }
+      return new GraphMLDocumentData(graph, nodes.build(), edges.build());
+    }
+
+    /** Reads the graph element at the current position including all its children. */
+    private GraphMLElement readGraph() throws XMLStreamException, WitnessParseException {
+      ImmutableMap<String, String> attributes = readAttributes();
+      List<String> data = new ArrayList<>();
+      while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+        String name = reader.getLocalName();
+        if (name.equals(GraphMLTag.DATA.toString())) {
+          readData(data);
+        } else if (!graphOnly && name.equals(GraphMLTag.NODE.toString())) {
+          GraphMLElement node = readElement(GraphMLTag.NODE);
+          String id = node.getAttribute("id");
+          if (id == null) {
+            throw new WitnessParseException("Every state needs an ID!");
+          }
+          nodes.put(id, node);
+        } else if (!graphOnly && name.equals(GraphMLTag.EDGE.toString())) {
+          edges.add(readElement(GraphMLTag.EDGE));
+        } else if (name.equals(GraphMLTag.GRAPH.toString())) {
+          throw new WitnessParseException(TOO_MANY_GRAPHS_ERROR_MESSAGE);
+        } else {
+          skipElement();
+        }
+      }
+      return new GraphMLElement(GraphMLTag.GRAPH, attributes, data);
+    }
+
+    /** Reads a node or edge element at the current position including its data children. */
+    private GraphMLElement readElement(GraphMLTag pTag)
+        throws XMLStreamException, WitnessParseException {
+      ImmutableMap<String, String> attributes = readAttributes();
+      List<String> data = new ArrayList<>();
+      while (reader.nextTag() == XMLStreamConstants.START_ELEMENT) {
+        if (reader.getLocalName().equals(GraphMLTag.DATA.toString())) {
+          readData(data);
+        } else if (reader.getLocalName().equals(GraphMLTag.GRAPH.toString())) {
+          throw new WitnessParseException(TOO_MANY_GRAPHS_ERROR_MESSAGE);
+        } else {
+          skipElement();
+        }
+      }
+      return new GraphMLElement(pTag, attributes, data);
+    }
+
+    /** Reads the data element at the current position and adds its key and value to the list. */
+    private void readData(List<String> pData) throws XMLStreamException, WitnessParseException {
+      String key = reader.getAttributeValue(null, "key");
+      if (key == null) {
+        throw new WitnessParseException("Every data element must have a key attribute!");
+      }
+      pData.add(keys.computeIfAbsent(key, k -> k));
+      pData.add(readTextContent());
+    }
+
+    private ImmutableMap<String, String> readAttributes() {
+      ImmutableMap.Builder<String, String> attributes =
+          ImmutableMap.builderWithExpectedSize(reader.getAttributeCount());
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+        attributes.put(reader.getAttributeLocalName(i), reader.getAttributeValue(i));
+      }
+      return attributes.build();
+    }
+
+    /**
+     * Returns the text of the element at the current position including the text of all nested
+     * elements (like {@link org.w3c.dom.Node#getTextContent()}), and moves to its end.
+     */
+    private String readTextContent() throws XMLStreamException {
+      StringBuilder text = new StringBuilder();
+      int depth = 1;
+      while (depth > 0) {
+        switch (reader.next()) {
+          case XMLStreamConstants.START_ELEMENT:
+            depth++;
+            break;
+          case XMLStreamConstants.END_ELEMENT:
+            depth--;
+            break;
+          case XMLStreamConstants.CHARACTERS:
+          case XMLStreamConstants.CDATA:
+          case XMLStreamConstants.SPACE:
+          case XMLStreamConstants.ENTITY_REFERENCE:
+            text.append(reader.getText());
+            break;
+          default:
+            // ignore comments and processing instructions
+        }
+      }
+      return text.toString();
+    }
+
+    private void skipElement() throws XMLStreamException {
+      int depth = 1;
+      while (depth > 0) {
+        int event = reader.next();
+        if (event == XMLStreamConstants.START_ELEMENT) {
+          depth++;
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+          depth--;
+        }
+      }
+    }
+  }
+
+  GraphMLElement getGraph() {
+    return graph;
+  }
+
+  ImmutableList<GraphMLElement> getTransitions() {
+    return transitions;
+  }
+
+  /** Returns the ids of all states in the document. */
+  Set<String> getStateIds() {
+    return idToNodeMap.keySet();
+  }
+
+  EnumSet<NodeFlag> getNodeFlags(GraphMLElement pStateNode) {
+    EnumSet<NodeFlag> result = EnumSet.noneOf(NodeFlag.class);
+    for (int i = 0; i < pStateNode.data.length; i += 2) {
+      NodeFlag flag = NodeFlag.getNodeFlagByKey(pStateNode.data[i]);
+      if (flag != null) {
+        result.add(flag);
+      }
+    }
+    return result;
+  }
+
+  static String getAttributeValue(
+      GraphMLElement of, String attributeName, String exceptionMessage)
+      throws WitnessParseException {
+    String attribute = of.getAttribute(attributeName);
+    if (attribute == null) {
+      throw new WitnessParseException(exceptionMessage);
+    }
+    return attribute;
+  }
+
+  @Nullable GraphMLElement getNodeWithId(String nodeId) {
+    return idToNodeMap.get(nodeId);
+  }
+
+  static Set<String> getDataOnNode(GraphMLElement node, final KeyDef dataKey) {
+    checkNotNull(node);
+    Set<String> result = new LinkedHashSet<>();
+    Set<String> alternative = null;
+    for (int i = 0; i < node.data.length; i += 2) {
+      String nodeKey = node.data[i];
+      if (nodeKey.equals(dataKey.id)) {
+        result.add(node.data[i + 1]);
+        alternative = null;
+      }
+      // Backwards-compatibility: type/graph-type
+      if (alternative == null
+          && result.isEmpty()
+          && dataKey.equals(KeyDef.WITNESS_TYPE)
+          && nodeKey.equals("type")) {
+        alternative = new LinkedHashSet<>();
+        alternative.add(node.data[i + 1]);
+      }
+    }
+    if (result.isEmpty() && alternative != null) {
+      return alternative;
+    }
+    return result;
+  }
+}
@@ -0,0 +1,177 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.automaton;
+
+import static com.google.common.truth.Truth.assertThat;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.base.Joiner;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.cpachecker.cpa.automaton.AutomatonGraphmlParser.WitnessParseException;
+import org.sosy_lab.cpachecker.cpa.automaton.GraphMLDocumentData.GraphMLElement;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.KeyDef;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.NodeFlag;
+import org.sosy_lab.cpachecker.util.automaton.AutomatonGraphmlCommon.WitnessType;
+
+public class GraphMLDocumentDataTest {
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private static String document(String... pGraphContent) {
+    return "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+        + "<graphml xmlns=\"http://graphml.graphdrawing.org/xmlns\">\n"
+        + "<key id=\"witness-type\" for=\"graph\" attr.name=\"witness-type\"/>\n"
+        + "<graph edgedefault=\"directed\">\n"
+        + Joiner.on('\n').join(pGraphContent)
+        + "\n</graph>\n</graphml>\n";
+  }
+
+  private static GraphMLDocumentData read(String pDocument, boolean pGraphOnly)
+      throws WitnessParseException, IOException {
+    return GraphMLDocumentData.read(
+        new ByteArrayInputStream(pDocument.getBytes(UTF_8)), pGraphOnly);
+  }
+
+  @Test
+  public void testNodesAndEdges() throws Exception {
+    GraphMLDocumentData doc =
+        read(
+            document(
+                "<data key=\"witness-type\">violation_witness</data>",
+                "<node id=\"N0\"><data key=\"entry\">true</data></node>",
+                "<!-- a comment between the elements -->",
+                "<node id=\"N1\"><data key=\"violation\">true</data></node>",
+                "<edge source=\"N0\" target=\"N1\">",
+                "  <data key=\"startline\">3</data>",
+                "  <data key=\"sourcecode\"><![CDATA[x < 1]]></data>",
+                "</edge>"),
+            false);
+
+    assertThat(GraphMLDocumentData.getDataOnNode(doc.getGraph(), KeyDef.WITNESS_TYPE))
+        .containsExactly("violation_witness");
+    assertThat(doc.getStateIds()).containsExactly("N0", "N1").inOrder();
+    assertThat(doc.getNodeFlags(doc.getNodeWithId("N0"))).containsExactly(NodeFlag.ISENTRY);
+    assertThat(doc.getNodeFlags(doc.getNodeWithId("N1"))).containsExactly(NodeFlag.ISVIOLATION);
+    assertThat(doc.getNodeWithId("N2")).isNull();
+
+    assertThat(doc.getTransitions()).hasSize(1);
+    GraphMLElement edge = doc.getTransitions().get(0);
+    assertThat(edge.getAttribute("source")).isEqualTo("N0");
+    assertThat(edge.getAttribute("target")).isEqualTo("N1");
+    assertThat(GraphMLDocumentData.getDataOnNode(edge, KeyDef.STARTLINE)).containsExactly("3");
+    assertThat(GraphMLDocumentData.getDataOnNode(edge, KeyDef.SOURCECODE))
+        .containsExactly("x < 1");
+  }
+
+  @Test
+  public void testGraphOnly() throws Exception {
+    GraphMLDocumentData doc =
+        read(
+            document(
+                "<node id=\"N0\"/>",
+                "<edge source=\"N0\" target=\"N0\"/>",
+                "<data key=\"witness-type\">correctness_witness</data>"),
+            true);
+
+    assertThat(GraphMLDocumentData.getDataOnNode(doc.getGraph(), KeyDef.WITNESS_TYPE))
+        .containsExactly("correctness_witness");
+    assertThat(doc.getStateIds()).isEmpty();
+    assertThat(doc.getTransitions()).isEmpty();
+  }
+
+  @Test
+  public void testNestedTextContent() throws Exception {
+    GraphMLDocumentData doc =
+        read(
+            document(
+                "<edge source=\"N0\" target=\"N0\">",
+                "<data key=\"sourcecode\">a<x>b<y>c</y></x>d&amp;e<!-- comment -->f</data>",
+                "</edge>"),
+            false);
+
+    GraphMLElement edge = doc.getTransitions().get(0);
+    assertThat(GraphMLDocumentData.getDataOnNode(edge, KeyDef.SOURCECODE))
+        .containsExactly("abcd&ef");
+  }
+
+  @Test
+  public void testBackwardsCompatibleWitnessType() throws Exception {
+    GraphMLElement graph =
+        read(document("<data key=\"type\">correctness_witness</data>"), true).getGraph();
+    assertThat(GraphMLDocumentData.getDataOnNode(graph, KeyDef.WITNESS_TYPE))
+        .containsExactly("correctness_witness");
+
+    // the old key is used only if the new key is not present, regardless of the order
+    graph =
+        read(
+                document(
+                    "<data key=\"type\">false_witness</data>",
+                    "<data key=\"witness-type\">correctness_witness</data>"),
+                true)
+            .getGraph();
+    assertThat(GraphMLDocumentData.getDataOnNode(graph, KeyDef.WITNESS_TYPE))
+        .containsExactly("correctness_witness");
+
+    graph =
+        read(
+                document(
+                    "<data key=\"witness-type\">correctness_witness</data>",
+                    "<data key=\"type\">false_witness</data>"),
+                true)
+            .getGraph();
+    assertThat(GraphMLDocumentData.getDataOnNode(graph, KeyDef.WITNESS_TYPE))
+        .containsExactly("correctness_witness");
+
+    // the fallback exists only for the witness type
+    graph = read(document("<data key=\"type\">x</data>"), true).getGraph();
+    assertThat(GraphMLDocumentData.getDataOnNode(graph, KeyDef.PRODUCER)).isEmpty();
+  }
+
+  @Test
+  public void testGzippedWitness() throws Exception {
+    Path file = tempFolder.newFile("witness.graphml.gz").toPath();
+    try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+      out.write(document("<data key=\"type\">correctness_witness</data>").getBytes(UTF_8));
+    }
+
+    assertThat(AutomatonGraphmlParser.getWitnessType(file))
+        .isEqualTo(WitnessType.CORRECTNESS_WITNESS);
+  }
+
+  @Test
+  public void testPlainWitness() throws Exception {
+    Path file = tempFolder.newFile("witness.graphml").toPath();
+    Files.write(
+        file, document("<data key=\"witness-type\">violation_witness</data>").getBytes(UTF_8));
+
+    assertThat(AutomatonGraphmlParser.getWitnessType(file))
+        .isEqualTo(WitnessType.VIOLATION_WITNESS);
+  }
+
+  @Test
+  public void testInvalidDocuments() {
+    assertThrows(
+        WitnessParseException.class,
+        () -> read(document("<graph edgedefault=\"directed\"/>"), false));
+    assertThrows(WitnessParseException.class, () -> read(document("<node/>"), false));
+    assertThrows(
+        WitnessParseException.class, () -> read(document("<data>violation_witness</data>"), true));
+    assertThrows(WitnessParseException.class, () -> read("<graphml></graphml>", false));
+    assertThrows(WitnessParseException.class, () -> read("<graphml><graph>", false));
+  }
+}
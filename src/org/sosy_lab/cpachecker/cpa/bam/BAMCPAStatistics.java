@@ -32,6 +32,8 @@ import org.sosy_lab.cpachecker.cfa.blocks.Block;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMContentionStatistics;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatHist;
 import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
@@ -76,6 +78,9 @@ class BAMCPAStatistics implements Statistics {
         }
       };
 
+  // only used by ParallelBAM with concurrent data structures
+  final BAMContentionStatistics contentionStats = new BAMContentionStatistics();
+
   @Option(secure = true, description = "file for exporting detailed statistics about blocks")
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path blockStatisticsFile = Paths.get("block_statistics.txt");
@@ -135,6 +140,13 @@ class BAMCPAStatistics implements Statistics {
     put(out, 1, spuriousCex);
     put(out, 1, preciseCex);
 
+    if (contentionStats.wasUsed()) {
+      out.println("\nConcurrent access to BAM data structures:");
+      for (AbstractStatValue stat : contentionStats.getStatistics()) {
+        put(out, 1, stat);
+      }
+    }
+
     writeBlockStatistics(out);
   }
 
@@ -13,6 +13,7 @@ import com.google.common.collect.Collections2;
 import com.google.common.collect.Iterables;
 import java.util.Collection;
 import java.util.Set;
+import java.util.function.Supplier;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.cfa.blocks.Block;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
@@ -45,6 +46,18 @@ public interface BAMCache extends Statistics {
    */
   BAMCacheEntry get(AbstractState stateKey, Precision precisionKey, Block context);
 
+  /**
+   * Return the entry for the given key. If there is no entry, create a new one with the
+   * reached-set from the given supplier and store it in the cache. For concurrent access, the check
+   * and the insertion are atomic, i.e., only one entry is created per key, even if several threads
+   * request the same missing entry at the same time.
+   */
+  BAMCacheEntry getOrCreate(
+      AbstractState stateKey,
+      Precision precisionKey,
+      Block context,
+      Supplier<ReachedSet> reachedSetSupplier);
+
   /** Return the root-state of the last analyzed block, based on the last cache-access. */
   @Deprecated // reason: last block is not deterministic in parallel context
   ARGState getLastAnalyzedBlock();
@@ -62,8 +75,9 @@ public interface BAMCache extends Statistics {
 
   class BAMCacheEntry {
     private final ReachedSet rs;
-    private Set<AbstractState> exitStates;
-    private ARGState rootOfBlock;
+    // volatile, because entries can be shared between threads in ParallelBAM
+    private volatile Set<AbstractState> exitStates;
+    private volatile ARGState rootOfBlock;
 
     protected BAMCacheEntry(ReachedSet pRs) {
       rs = Preconditions.checkNotNull(pRs);
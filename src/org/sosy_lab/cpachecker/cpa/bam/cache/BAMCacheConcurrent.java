@@ -0,0 +1,273 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import com.google.common.collect.Collections2;
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
+import org.sosy_lab.cpachecker.cpa.arg.ARGState;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+
+/**
+ * A BAM cache for concurrent access without a global lock, based on a {@link ConcurrentHashMap}.
+ * Lookups of existing entries are lock-free, and {@link #getOrCreate} creates at most one entry
+ * per key and calls the given supplier only for this entry. In contrast to {@link BAMCacheImpl},
+ * the iteration order of the cached reached-sets is not deterministic.
+ */
+@Options(prefix = "cpa.bam")
+public class BAMCacheConcurrent implements BAMCache {
+
+  @Option(secure=true, description = "If enabled, the reached set cache is analysed "
+      + "for each cache miss to find the cause of the miss.")
+  private boolean gatherCacheMissStatistics = false;
+
+  private final ConcurrentMap<CacheKey, BAMCacheEntry> preciseReachedCache =
+      new ConcurrentHashMap<>();
+
+  private volatile @Nullable BAMCacheEntry lastAnalyzedEntry = null;
+
+  private final Reducer reducer;
+  private final BAMContentionStatistics contentionStats;
+
+  private final StatCounter cacheMisses = new StatCounter("Number of cache misses");
+  private final StatCounter partialCacheHits = new StatCounter("Number of partial cache hits");
+  private final StatCounter fullCacheHits = new StatCounter("Number of full cache hits");
+
+  private final StatCounter abstractionCausedMisses =
+      new StatCounter("Number of abstraction caused misses");
+  private final StatCounter precisionCausedMisses =
+      new StatCounter("Number of precision caused misses");
+  private final StatCounter noSimilarCausedMisses =
+      new StatCounter("Number of misses with no similar elements");
+
+  public BAMCacheConcurrent(
+      Configuration pConfig, Reducer pReducer, BAMContentionStatistics pContentionStats)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    reducer = checkNotNull(pReducer);
+    contentionStats = checkNotNull(pContentionStats);
+  }
+
+  private CacheKey getKey(AbstractState stateKey, Precision precisionKey, Block context) {
+    return new CacheKey(
+        reducer.getHashCodeForState(stateKey, precisionKey), context, stateKey, precisionKey);
+  }
+
+  @Override
+  public BAMCacheEntry put(
+      AbstractState stateKey, Precision precisionKey, Block context, ReachedSet item) {
+    BAMCacheEntry entry = new BAMCacheEntry(item);
+    preciseReachedCache.put(getKey(stateKey, precisionKey, context), entry);
+    return entry;
+  }
+
+  @Override
+  public BAMCacheEntry get(AbstractState stateKey, Precision precisionKey, Block context) {
+    contentionStats.cacheLookups.inc();
+    CacheKey key = getKey(stateKey, precisionKey, context);
+    BAMCacheEntry entry = preciseReachedCache.get(key);
+    updateStatistics(key, entry);
+    return entry;
+  }
+
+  @Override
+  public BAMCacheEntry getOrCreate(
+      AbstractState stateKey,
+      Precision precisionKey,
+      Block context,
+      Supplier<ReachedSet> reachedSetSupplier) {
+    contentionStats.cacheLookups.inc();
+    CacheKey key = getKey(stateKey, precisionKey, context);
+
+    // fast path without locking
+    BAMCacheEntry entry = preciseReachedCache.get(key);
+    if (entry != null) {
+      updateStatistics(key, entry);
+      return entry;
+    }
+
+    updateStatistics(key, null);
+    // computeIfAbsent blocks while another thread updates the same bin of the map,
+    // so we measure how long it takes until we can create our entry or get the other one.
+    final long startOfUpdate = System.nanoTime();
+    final long[] startOfCreation = {0};
+    final boolean[] created = {false};
+    entry =
+        preciseReachedCache.computeIfAbsent(
+            key,
+            k -> {
+              startOfCreation[0] = System.nanoTime();
+              created[0] = true;
+              return new BAMCacheEntry(reachedSetSupplier.get());
+            });
+    if (created[0]) {
+      contentionStats.createdEntries.inc();
+      contentionStats.cacheWaitTime.add(startOfCreation[0] - startOfUpdate);
+    } else {
+      // another thread was faster and created the entry for us
+      contentionStats.concurrentlyCreatedEntries.inc();
+      contentionStats.cacheWaitTime.add(System.nanoTime() - startOfUpdate);
+    }
+    lastAnalyzedEntry = entry;
+    return entry;
+  }
+
+  private void updateStatistics(CacheKey key, @Nullable BAMCacheEntry entry) {
+    if (entry == null) {
+      cacheMisses.inc();
+      if (gatherCacheMissStatistics) {
+        findCacheMissCause(key);
+      }
+    } else {
+      lastAnalyzedEntry = entry;
+      if (entry.getExitStates() == null) {
+        partialCacheHits.inc();
+      } else {
+        fullCacheHits.inc();
+      }
+    }
+  }
+
+  /**
+   * Classify a cache miss like {@link BAMCacheImpl} does. The iteration over the cache is only
+   * weakly consistent, entries that are added concurrently may or may not be considered.
+   */
+  private void findCacheMissCause(CacheKey searchKey) {
+    for (CacheKey cacheKey : preciseReachedCache.keySet()) {
+      if (!searchKey.context.equals(cacheKey.context)) {
+        continue;
+      }
+
+      // searchKey != cacheKey, check whether it is the same if we ignore the precision
+      CacheKey ignorePrecisionSearchKey =
+          getKey(searchKey.stateKey, cacheKey.precisionKey, searchKey.context);
+      if (ignorePrecisionSearchKey.equals(cacheKey)) {
+        precisionCausedMisses.inc();
+        return;
+      }
+
+      // Precision was not the cause. Check abstraction.
+      CacheKey ignoreAbsSearchKey =
+          getKey(cacheKey.stateKey, searchKey.precisionKey, searchKey.context);
+      if (ignoreAbsSearchKey.equals(cacheKey)) {
+        abstractionCausedMisses.inc();
+        return;
+      }
+    }
+    noSimilarCausedMisses.inc();
+  }
+
+  @Override
+  @Deprecated
+  public ARGState getLastAnalyzedBlock() {
+    BAMCacheEntry entry = lastAnalyzedEntry;
+    return entry == null ? null : entry.getRootOfBlock();
+  }
+
+  @Override
+  public boolean containsPreciseKey(AbstractState stateKey, Precision precisionKey, Block context) {
+    return preciseReachedCache.containsKey(getKey(stateKey, precisionKey, context));
+  }
+
+  @Override
+  public Collection<ReachedSet> getAllCachedReachedStates() {
+    return Collections2.transform(preciseReachedCache.values(), BAMCacheEntry::getReachedSet);
+  }
+
+  @Override
+  public void clear() {
+    preciseReachedCache.clear();
+    lastAnalyzedEntry = null;
+  }
+
+  @Override
+  public void printStatistics(PrintStream out, Result pResult, UnmodifiableReachedSet pReached) {
+    StatisticsWriter writer =
+        StatisticsWriter.writingStatisticsTo(out)
+            .put("Number of cached reached-sets", preciseReachedCache.size())
+            .put(cacheMisses)
+            .put(partialCacheHits)
+            .put(fullCacheHits);
+    if (gatherCacheMissStatistics) {
+      writer
+          .beginLevel()
+          .put(abstractionCausedMisses)
+          .put(precisionCausedMisses)
+          .put(noSimilarCausedMisses);
+    }
+  }
+
+  @Override
+  public String getName() {
+    return "BAMCache";
+  }
+
+  private static final class CacheKey {
+
+    private final Object wrappedHash;
+    private final Block context;
+    private final int hashCode;
+
+    // only used for analyzing cache misses, not part of the identity of the key
+    private final AbstractState stateKey;
+    private final Precision precisionKey;
+
+    private CacheKey(
+        Object pWrappedHash, Block pContext, AbstractState pStateKey, Precision pPrecisionKey) {
+      wrappedHash = checkNotNull(pWrappedHash);
+      context = checkNotNull(pContext);
+      stateKey = pStateKey;
+      precisionKey = pPrecisionKey;
+      // the key is used at least twice for lookups, so we compute the hash only once
+      hashCode = wrappedHash.hashCode() * 17 + context.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object pObj) {
+      if (pObj == this) {
+        return true;
+      }
+      if (!(pObj instanceof CacheKey)) {
+        return false;
+      }
+      CacheKey other = (CacheKey) pObj;
+      return hashCode == other.hashCode
+          && context.equals(other.context)
+          && wrappedHash.equals(other.wrappedHash);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public String toString() {
+      return "CacheKey [wrappedHash=" + wrappedHash + ", context=" + context + "]";
+    }
+  }
+}
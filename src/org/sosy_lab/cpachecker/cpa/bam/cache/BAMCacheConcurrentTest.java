@@ -0,0 +1,144 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+
+public class BAMCacheConcurrentTest {
+
+  private static final int THREADS = 8;
+
+  private BAMContentionStatistics stats;
+  private BAMCacheConcurrent cache;
+
+  private Block block;
+  private Precision precision;
+
+  @Before
+  public void setUp() throws Exception {
+    Reducer reducer = mock(Reducer.class);
+    // the state itself is the key for the cache
+    when(reducer.getHashCodeForState(any(), any()))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    stats = new BAMContentionStatistics();
+    cache = new BAMCacheConcurrent(Configuration.defaultConfiguration(), reducer, stats);
+    block = mock(Block.class);
+    precision = mock(Precision.class);
+  }
+
+  @Test
+  public void testGetOrCreate() {
+    AbstractState state = mock(AbstractState.class);
+    ReachedSet reached = mock(ReachedSet.class);
+    AtomicInteger createdReachedSets = new AtomicInteger();
+
+    BAMCacheEntry entry =
+        cache.getOrCreate(
+            state,
+            precision,
+            block,
+            () -> {
+              createdReachedSets.incrementAndGet();
+              return reached;
+            });
+    assertThat(entry.getReachedSet()).isSameInstanceAs(reached);
+    assertThat(cache.getOrCreate(state, precision, block, () -> mock(ReachedSet.class)))
+        .isSameInstanceAs(entry);
+    assertThat(cache.get(state, precision, block)).isSameInstanceAs(entry);
+    assertThat(cache.containsPreciseKey(state, precision, block)).isTrue();
+
+    assertThat(createdReachedSets.get()).isEqualTo(1);
+    assertThat(stats.cacheLookups.getValue()).isEqualTo(3);
+    assertThat(stats.createdEntries.getValue()).isEqualTo(1);
+    assertThat(stats.concurrentlyCreatedEntries.getValue()).isEqualTo(0);
+    // only the update of the map is measured, not the lock-free lookups
+    assertThat(stats.cacheWaitTime.getUpdateCount()).isEqualTo(1);
+  }
+
+  @Test
+  public void testDifferentKeys() {
+    AbstractState state1 = mock(AbstractState.class);
+    AbstractState state2 = mock(AbstractState.class);
+
+    BAMCacheEntry entry1 =
+        cache.getOrCreate(state1, precision, block, () -> mock(ReachedSet.class));
+    BAMCacheEntry entry2 =
+        cache.getOrCreate(state2, precision, block, () -> mock(ReachedSet.class));
+    assertThat(entry2).isNotSameInstanceAs(entry1);
+    assertThat(cache.getAllCachedReachedStates())
+        .containsExactly(entry1.getReachedSet(), entry2.getReachedSet());
+    assertThat(stats.createdEntries.getValue()).isEqualTo(2);
+
+    cache.clear();
+    assertThat(cache.get(state1, precision, block)).isNull();
+    assertThat(cache.getAllCachedReachedStates()).isEmpty();
+  }
+
+  @Test
+  public void testConcurrentGetOrCreate() throws Exception {
+    AbstractState state = mock(AbstractState.class);
+    AtomicInteger createdReachedSets = new AtomicInteger();
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<BAMCacheEntry>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  barrier.await();
+                  return cache.getOrCreate(
+                      state,
+                      precision,
+                      block,
+                      () -> {
+                        createdReachedSets.incrementAndGet();
+                        return mock(ReachedSet.class);
+                      });
+                }));
+      }
+
+      BAMCacheEntry entry = futures.get(0).get();
+      for (Future<BAMCacheEntry> future : futures) {
+        assertThat(future.get()).isSameInstanceAs(entry);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // the supplier is called only once, no reached-set is dropped
+    assertThat(createdReachedSets.get()).isEqualTo(1);
+    assertThat(stats.cacheLookups.getValue()).isEqualTo(THREADS);
+    assertThat(stats.createdEntries.getValue()).isEqualTo(1);
+    // every thread that did not find the entry without locking was measured
+    assertThat(stats.cacheWaitTime.getUpdateCount())
+        .isEqualTo(stats.createdEntries.getValue() + stats.concurrentlyCreatedEntries.getValue());
+  }
+}
@@ -16,6 +16,7 @@ import java.io.PrintStream;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -110,6 +111,19 @@ public class BAMCacheImpl implements BAMCache {
     return entry;
   }
 
+  @Override
+  public BAMCacheEntry getOrCreate(
+      AbstractState stateKey,
+      Precision precisionKey,
+      Block context,
+      Supplier<ReachedSet> reachedSetSupplier) {
+    BAMCacheEntry entry = get(stateKey, precisionKey, context);
+    if (entry == null) {
+      entry = put(stateKey, precisionKey, context, reachedSetSupplier.get());
+    }
+    return entry;
+  }
+
   private BAMCacheEntry get0(
       final AbstractState stateKey, final Precision precisionKey, final Block context) {
 
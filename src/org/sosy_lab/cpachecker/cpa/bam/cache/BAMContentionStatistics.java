@@ -0,0 +1,93 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import com.google.common.collect.ImmutableList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import org.sosy_lab.common.time.TimeSpan;
+import org.sosy_lab.cpachecker.util.statistics.AbstractStatValue;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
+
+/**
+ * Statistics about concurrent accesses to {@link BAMCacheConcurrent} and {@link
+ * BAMDataManagerConcurrent}. All values are thread-safe and do not introduce additional locks.
+ */
+public final class BAMContentionStatistics {
+
+  final StatCounter cacheLookups = new StatCounter("Number of cache lookups");
+  final StatCounter createdEntries = new StatCounter("Number of atomically created cache entries");
+  final StatCounter concurrentlyCreatedEntries =
+      new StatCounter("Number of cache misses resolved by another thread");
+  final StatWaitTime cacheWaitTime =
+      new StatWaitTime("Time blocked in atomic updates of the cache");
+  final StatCounter overriddenReachedSets =
+      new StatCounter("Number of concurrently overridden block reached-sets");
+  final StatCounter replacedStates = new StatCounter("Number of replaced expanded states");
+
+  public ImmutableList<AbstractStatValue> getStatistics() {
+    return ImmutableList.of(
+        cacheLookups,
+        createdEntries,
+        concurrentlyCreatedEntries,
+        cacheWaitTime,
+        overriddenReachedSets,
+        replacedStates);
+  }
+
+  public boolean wasUsed() {
+    return cacheLookups.getValue() > 0;
+  }
+
+  /**
+   * Sum and maximum of time intervals that are measured by the caller, e.g., the time a thread is
+   * blocked in {@link java.util.concurrent.ConcurrentHashMap#computeIfAbsent} because another
+   * thread holds the lock for the same bin.
+   */
+  static final class StatWaitTime extends AbstractStatValue {
+
+    private final LongAdder sumNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder intervals = new LongAdder();
+
+    private StatWaitTime(String pTitle) {
+      super(StatKind.SUM, pTitle);
+    }
+
+    void add(long pNanos) {
+      sumNanos.add(pNanos);
+      maxNanos.accumulate(pNanos);
+      intervals.increment();
+    }
+
+    TimeSpan getSumTime() {
+      return TimeSpan.ofNanos(sumNanos.sum());
+    }
+
+    TimeSpan getMaxTime() {
+      return TimeSpan.ofNanos(maxNanos.get());
+    }
+
+    @Override
+    public int getUpdateCount() {
+      return intervals.intValue();
+    }
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%s (Max: %s), (#intervals = %d)",
+          getSumTime().formatAs(TimeUnit.SECONDS),
+          getMaxTime().formatAs(TimeUnit.SECONDS),
+          getUpdateCount());
+    }
+  }
+}
@@ -35,6 +35,14 @@ public interface BAMDataManager {
   BAMCacheEntry createAndRegisterNewReachedSet(
       AbstractState initialState, Precision initialPrecision, Block context);
 
+  /**
+   * Return the cache entry for the given block-entry state, or create a new reached-set with the
+   * given state as root and register it in the cache, if there is no such entry. Both steps are
+   * done atomically, such that concurrent analyses of the same block share one reached-set.
+   */
+  BAMCacheEntry getOrCreateAndRegisterReachedSet(
+      AbstractState initialState, Precision initialPrecision, Block context);
+
   ReachedSetFactory getReachedSetFactory();
 
   /**
@@ -0,0 +1,174 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.bam.cache;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.blocks.Block;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.Precision;
+import org.sosy_lab.cpachecker.core.interfaces.Reducer;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSet;
+import org.sosy_lab.cpachecker.core.reachedset.ReachedSetFactory;
+import org.sosy_lab.cpachecker.cpa.bam.cache.BAMCache.BAMCacheEntry;
+
+public class BAMDataManagerConcurrentTest {
+
+  private static final int THREADS = 8;
+
+  private BAMContentionStatistics stats;
+  private BAMDataManagerConcurrent data;
+
+  private Block block;
+  private Precision precision;
+
+  @Before
+  public void setUp() throws Exception {
+    Reducer reducer = mock(Reducer.class);
+    when(reducer.getHashCodeForState(any(), any()))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+    ReachedSetFactory reachedSetFactory = mock(ReachedSetFactory.class);
+    when(reachedSetFactory.create()).thenAnswer(invocation -> mock(ReachedSet.class));
+    stats = new BAMContentionStatistics();
+    data =
+        new BAMDataManagerConcurrent(
+            new BAMCacheConcurrent(Configuration.defaultConfiguration(), reducer, stats),
+            reachedSetFactory,
+            LogManager.createTestLogManager(),
+            stats);
+    block = mock(Block.class);
+    precision = mock(Precision.class);
+  }
+
+  private static ReachedSet reachedSetWithStates(AbstractState pFirstState, AbstractState pState) {
+    ReachedSet reached = mock(ReachedSet.class);
+    when(reached.getFirstState()).thenReturn(pFirstState);
+    when(reached.contains(pState)).thenReturn(true);
+    return reached;
+  }
+
+  @Test
+  public void testGetOrCreateAndRegisterReachedSet() {
+    AbstractState initialState = mock(AbstractState.class);
+
+    BAMCacheEntry entry = data.getOrCreateAndRegisterReachedSet(initialState, precision, block);
+    verify(entry.getReachedSet()).add(initialState, precision);
+    assertThat(data.getOrCreateAndRegisterReachedSet(initialState, precision, block))
+        .isSameInstanceAs(entry);
+    assertThat(data.getCache().get(initialState, precision, block)).isSameInstanceAs(entry);
+    assertThat(stats.createdEntries.getValue()).isEqualTo(1);
+  }
+
+  @Test
+  public void testExpandedStates() {
+    Block innerBlock = mock(Block.class);
+    AbstractState reduced = mock(AbstractState.class);
+    AbstractState expanded1 = mock(AbstractState.class);
+    AbstractState expanded2 = mock(AbstractState.class);
+    AbstractState replacement = mock(AbstractState.class);
+
+    data.registerExpandedState(expanded1, precision, reduced, innerBlock);
+    data.registerExpandedState(expanded2, precision, expanded1, block);
+
+    assertThat(data.getInnermostState(expanded2)).isSameInstanceAs(reduced);
+    assertThat(data.getExpandedStatesList(expanded2))
+        .containsExactly(expanded1, expanded2)
+        .inOrder();
+    assertThat(data.alreadyReturnedFromSameBlock(expanded2, innerBlock)).isTrue();
+    assertThat(data.alreadyReturnedFromSameBlock(expanded1, block)).isFalse();
+    assertThat(data.getReducedStateForExpandedState(expanded1)).isSameInstanceAs(reduced);
+    assertThat(data.getInnerBlockForExpandedState(expanded1)).isSameInstanceAs(innerBlock);
+    assertThat(data.getExpandedPrecisionForState(expanded1)).isSameInstanceAs(precision);
+
+    data.replaceStateInCaches(expanded1, replacement, true);
+    assertThat(data.hasExpandedState(expanded1)).isFalse();
+    assertThat(data.getReducedStateForExpandedState(replacement)).isSameInstanceAs(reduced);
+    assertThat(stats.replacedStates.getValue()).isEqualTo(1);
+  }
+
+  @Test
+  public void testOverrideReachedSet() {
+    AbstractState initialState = mock(AbstractState.class);
+    AbstractState reducedState = mock(AbstractState.class);
+    AbstractState exitState = mock(AbstractState.class);
+    ReachedSet reached1 = reachedSetWithStates(reducedState, exitState);
+    ReachedSet reached2 = reachedSetWithStates(reducedState, exitState);
+
+    data.registerInitialState(initialState, exitState, reached1);
+    data.registerInitialState(initialState, exitState, reached1);
+    assertThat(stats.overriddenReachedSets.getValue()).isEqualTo(0);
+
+    data.registerInitialState(initialState, exitState, reached2);
+    assertThat(stats.overriddenReachedSets.getValue()).isEqualTo(1);
+    assertThat(data.getReachedSetForInitialState(initialState, exitState))
+        .isSameInstanceAs(reached2);
+    assertThat(data.getNonReducedInitialStates(reducedState)).containsExactly(initialState);
+  }
+
+  @Test
+  public void testConcurrentRegisterInitialState() throws Exception {
+    AbstractState reducedState = mock(AbstractState.class);
+    List<AbstractState> initialStates = new ArrayList<>();
+    List<AbstractState> exitStates = new ArrayList<>();
+    List<ReachedSet> reachedSets = new ArrayList<>();
+    for (int i = 0; i < THREADS; i++) {
+      // two threads at a time use the same initial state
+      initialStates.add(i % 2 == 0 ? mock(AbstractState.class) : initialStates.get(i - 1));
+      exitStates.add(mock(AbstractState.class));
+      reachedSets.add(reachedSetWithStates(reducedState, exitStates.get(i)));
+    }
+    CyclicBarrier barrier = new CyclicBarrier(THREADS);
+
+    ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < THREADS; i++) {
+        final int index = i;
+        futures.add(
+            executor.submit(
+                () -> {
+                  barrier.await();
+                  data.registerInitialState(
+                      initialStates.get(index), exitStates.get(index), reachedSets.get(index));
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // no registration was lost
+    for (int i = 0; i < THREADS; i++) {
+      assertThat(data.hasInitialState(initialStates.get(i))).isTrue();
+      assertThat(data.getReachedSetForInitialState(initialStates.get(i), exitStates.get(i)))
+          .isSameInstanceAs(reachedSets.get(i));
+    }
+    assertThat(data.getNonReducedInitialStates(reducedState))
+        .containsExactlyElementsIn(ImmutableSet.copyOf(initialStates));
+    assertThat(stats.overriddenReachedSets.getValue()).isEqualTo(0);
+  }
+}
@@ -127,6 +127,20 @@ public class BAMDataManagerImpl implements BAMDataManager {
     return bamCache.put(initialState, initialPrecision, context, reached);
   }
 
+  @Override
+  public BAMCacheEntry getOrCreateAndRegisterReachedSet(
+      AbstractState initialState, Precision initialPrecision, Block context) {
+    return bamCache.getOrCreate(
+        initialState,
+        initialPrecision,
+        context,
+        () -> {
+          final ReachedSet reached = reachedSetFactory.create();
+          reached.add(initialState, initialPrecision);
+          return reached;
+        });
+  }
+
   @Override
   public ReachedSetFactory getReachedSetFactory() {
     return reachedSetFactory;
@@ -45,6 +45,14 @@ public class BAMDataManagerSynchronized implements BAMDataManager {
     }
   }
 
+  @Override
+  public BAMCacheEntry getOrCreateAndRegisterReachedSet(
+      AbstractState pInitialState, Precision pInitialPrecision, Block pContext) {
+    synchronized (this) {
+      return manager.getOrCreateAndRegisterReachedSet(pInitialState, pInitialPrecision, pContext);
+    }
+  }
+
   @Override
   public ReachedSetFactory getReachedSetFactory() {
     synchronized (this) {
@@ -0,0 +1,171 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+import org.sosy_lab.java_smt.api.SolverContext.ProverOptions;
+
+/**
+ * Keeps long-lived prover environments for abstraction computations, one per abstraction
+ * location. Successive abstraction computations at the same location often share most of their
+ * input formula (e.g., the same abstraction of the predecessor block and a common prefix of the
+ * path formula), so instead of asserting the whole formula in a fresh environment, only those
+ * conjuncts are asserted that are not already on the stack of the environment.
+ *
+ * <p>Each stack level of an environment holds a set of conjuncts. When preparing the environment
+ * for a new formula, all levels whose conjuncts are all part of the new formula are kept, the
+ * first level that contains a conjunct that is not part of the new formula is popped together
+ * with all levels above it, and the remaining conjuncts are pushed as one new level.
+ *
+ * <p>To bound the resources held by the solver, at most a configurable number of environments is
+ * kept, the least-recently used one is closed if necessary.
+ */
+final class IncrementalAbstractionProvers implements AutoCloseable {
+
+  private static final class ProverStack {
+
+    private final ProverEnvironment prover;
+    private final Deque<Set<BooleanFormula>> levels = new ArrayDeque<>();
+
+    private ProverStack(ProverEnvironment pProver) {
+      prover = pProver;
+    }
+  }
+
+  private final Solver solver;
+  private final BooleanFormulaManagerView bfmgr;
+  private final Map<CFANode, ProverStack> provers;
+
+  private @Nullable ProverStack current = null;
+
+  // statistics
+  int proversCreated = 0;
+  int proversReused = 0;
+  int proversEvicted = 0;
+  int reusedAssertions = 0; // conjuncts that were already on the stack
+  int addedAssertions = 0; // conjuncts that needed to be pushed
+  int poppedAssertions = 0; // conjuncts that needed to be removed from the stack
+
+  IncrementalAbstractionProvers(Solver pSolver, int pMaxProvers) {
+    checkArgument(pMaxProvers > 0);
+    solver = pSolver;
+    bfmgr = pSolver.getFormulaManager().getBooleanFormulaManager();
+    provers =
+        new LinkedHashMap<>(16, 0.75f, /* accessOrder= */ true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<CFANode, ProverStack> pEldest) {
+            if (size() > pMaxProvers) {
+              pEldest.getValue().prover.close();
+              proversEvicted++;
+              return true;
+            }
+            return false;
+          }
+        };
+  }
+
+  /**
+   * Return a prover environment for the given location that has exactly the given formula on its
+   * stack. Further formulas may be pushed by the caller, but they need to be popped before the
+   * next call to this method or to {@link #release(boolean)}.
+   *
+   * <p>Each call needs to be followed by a call to {@link #release(boolean)}.
+   */
+  ProverEnvironment prepare(CFANode pLocation, BooleanFormula pFormula)
+      throws InterruptedException {
+    checkState(current == null, "prover environment was not released");
+
+    ProverStack stack = provers.get(pLocation);
+    if (stack == null) {
+      stack = new ProverStack(solver.newProverEnvironment(ProverOptions.GENERATE_ALL_SAT));
+      provers.put(pLocation, stack);
+      proversCreated++;
+    } else {
+      proversReused++;
+    }
+    current = stack;
+
+    Set<BooleanFormula> conjuncts = bfmgr.toConjunctionArgs(pFormula, true);
+    Set<BooleanFormula> missing = Sets.newLinkedHashSet(conjuncts);
+
+    // keep all levels from the bottom that contain only relevant conjuncts
+    int keptLevels = 0;
+    for (Iterator<Set<BooleanFormula>> it = stack.levels.descendingIterator(); it.hasNext(); ) {
+      Set<BooleanFormula> level = it.next();
+      if (!conjuncts.containsAll(level)) {
+        break;
+      }
+      missing.removeAll(level);
+      reusedAssertions += level.size();
+      keptLevels++;
+    }
+
+    while (stack.levels.size() > keptLevels) {
+      poppedAssertions += stack.levels.pop().size();
+      stack.prover.pop();
+    }
+
+    if (!missing.isEmpty()) {
+      stack.prover.push(bfmgr.and(missing));
+      stack.levels.push(ImmutableSet.copyOf(missing));
+      addedAssertions += missing.size();
+    }
+    return stack.prover;
+  }
+
+  /**
+   * Finish using the environment returned by the last call to {@link #prepare(CFANode,
+   * BooleanFormula)}.
+   *
+   * <p>If the last call to {@link #prepare(CFANode, BooleanFormula)} failed before an environment
+   * was selected, nothing needs to be released and this method does nothing, such that it can be
+   * called in a finally block without hiding the original exception.
+   *
+   * @param pSuccess Whether the environment was used successfully and is in a clean state. If
+   *     not, it is closed and a new one will be created when necessary.
+   */
+  void release(boolean pSuccess) {
+    if (current == null) {
+      return;
+    }
+    ProverStack stack = current;
+    current = null;
+    if (!pSuccess) {
+      provers.values().remove(stack);
+      stack.prover.close();
+    }
+  }
+
+  @Override
+  public void close() {
+    for (ProverStack stack : provers.values()) {
+      stack.prover.close();
+    }
+    provers.clear();
+    current = null;
+  }
+}
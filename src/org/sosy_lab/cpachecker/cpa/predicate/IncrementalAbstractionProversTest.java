@@ -0,0 +1,138 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.predicate;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.ProverEnvironment;
+
+public class IncrementalAbstractionProversTest extends SolverViewBasedTest0 {
+
+  private IncrementalAbstractionProvers provers;
+
+  private CFANode location1;
+  private CFANode location2;
+
+  private BooleanFormula a;
+  private BooleanFormula b;
+  private BooleanFormula notA;
+
+  @Before
+  public void setUp() {
+    provers = new IncrementalAbstractionProvers(solver, 2);
+    location1 = CFANode.newDummyCFANode("loc1");
+    location2 = CFANode.newDummyCFANode("loc2");
+    a = imgrv.equal(imgrv.makeVariable("x"), imgrv.makeNumber(1));
+    b = imgrv.equal(imgrv.makeVariable("y"), imgrv.makeNumber(2));
+    notA = bmgrv.not(a);
+  }
+
+  @After
+  public void closeProvers() {
+    provers.close();
+  }
+
+  private boolean isUnsat(CFANode pLocation, BooleanFormula pFormula) throws Exception {
+    boolean success = false;
+    try {
+      ProverEnvironment prover = provers.prepare(pLocation, pFormula);
+      boolean result = prover.isUnsat();
+      success = true;
+      return result;
+    } finally {
+      provers.release(success);
+    }
+  }
+
+  @Test
+  public void testReuseAcrossAbstractions() throws Exception {
+    assertThat(isUnsat(location1, bmgrv.and(a, b))).isFalse();
+    assertThat(provers.proversCreated).isEqualTo(1);
+    assertThat(provers.addedAssertions).isEqualTo(2);
+
+    // a and b stay on the stack, only the new conjunct is pushed
+    assertThat(isUnsat(location1, bmgrv.and(a, b, notA))).isTrue();
+    assertThat(provers.proversCreated).isEqualTo(1);
+    assertThat(provers.proversReused).isEqualTo(1);
+    assertThat(provers.reusedAssertions).isEqualTo(2);
+    assertThat(provers.addedAssertions).isEqualTo(3);
+
+    // the level with the contradicting conjunct is popped again
+    assertThat(isUnsat(location1, bmgrv.and(a, b))).isFalse();
+    assertThat(provers.proversReused).isEqualTo(2);
+    assertThat(provers.reusedAssertions).isEqualTo(4);
+    assertThat(provers.poppedAssertions).isEqualTo(1);
+    assertThat(provers.addedAssertions).isEqualTo(3);
+
+    // a level with a conjunct that is not part of the new formula is popped
+    assertThat(isUnsat(location1, b)).isFalse();
+    assertThat(provers.poppedAssertions).isEqualTo(3);
+    assertThat(provers.addedAssertions).isEqualTo(4);
+  }
+
+  @Test
+  public void testSeparateProversPerLocation() throws Exception {
+    assertThat(isUnsat(location1, bmgrv.and(a, notA))).isTrue();
+    assertThat(isUnsat(location2, a)).isFalse();
+    assertThat(provers.proversCreated).isEqualTo(2);
+    assertThat(provers.proversReused).isEqualTo(0);
+  }
+
+  @Test
+  public void testEviction() throws Exception {
+    CFANode location3 = CFANode.newDummyCFANode("loc3");
+    isUnsat(location1, a);
+    isUnsat(location2, a);
+    isUnsat(location1, a);
+    // evicts the least-recently used prover of location2
+    isUnsat(location3, a);
+    assertThat(provers.proversEvicted).isEqualTo(1);
+
+    isUnsat(location1, a);
+    isUnsat(location2, a);
+    assertThat(provers.proversCreated).isEqualTo(4);
+    assertThat(provers.proversReused).isEqualTo(2);
+  }
+
+  @Test
+  public void testReleaseAfterFailure() throws Exception {
+    provers.prepare(location1, a);
+    provers.release(false);
+
+    // the prover was closed and is not reused
+    assertThat(isUnsat(location1, a)).isFalse();
+    assertThat(provers.proversCreated).isEqualTo(2);
+    assertThat(provers.proversReused).isEqualTo(0);
+    assertThat(provers.addedAssertions).isEqualTo(2);
+  }
+
+  @Test
+  public void testReleaseWithoutPrepare() throws Exception {
+    // e.g., in a finally block after prepare() failed
+    provers.release(false);
+    provers.release(true);
+
+    assertThat(isUnsat(location1, a)).isFalse();
+    assertThat(provers.proversCreated).isEqualTo(1);
+  }
+
+  @Test
+  public void testPrepareWithoutRelease() throws Exception {
+    provers.prepare(location1, a);
+    assertThrows(IllegalStateException.class, () -> provers.prepare(location2, a));
+    provers.release(true);
+  }
+}
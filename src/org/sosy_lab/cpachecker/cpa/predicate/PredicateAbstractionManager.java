@@ -10,15 +10,18 @@ package org.sosy_lab.cpachecker.cpa.predicate;
 
 import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Predicates.equalTo;
+import static org.sosy_lab.cpachecker.util.statistics.StatisticsUtils.valueWithPercentage;
 
 import com.google.common.base.Functions;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.cache.Cache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
@@ -26,7 +29,6 @@ import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -61,6 +63,7 @@ import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionFormula;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionManager;
 import org.sosy_lab.cpachecker.util.predicates.AbstractionPredicate;
+import org.sosy_lab.cpachecker.util.predicates.BoundedCaches;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
@@ -126,6 +129,7 @@ public class PredicateAbstractionManager {
   private final Solver solver;
   private final InvariantSupplier invariantSupplier;
   private final @Nullable InductiveWeakeningManager weakeningManager;
+  private final @Nullable IncrementalAbstractionProvers incrementalProvers;
   private final ShutdownNotifier shutdownNotifier;
 
   private static final Set<Integer> noAbstractionReuse = ImmutableSet.of();
@@ -162,6 +166,40 @@ public class PredicateAbstractionManager {
   @Option(secure=true, name = "abs.useCache", description = "use caching of abstractions")
   private boolean useCache = true;
 
+  @Option(
+      secure = true,
+      name = "abs.maxCacheSize",
+      description =
+          "maximum number of entries in the cache for abstractions and in the cache for"
+              + " cartesian abstractions, least-recently used entries are evicted first"
+              + " (-1 for unbounded caches)")
+  private long maxCacheSize = -1;
+
+  @Option(
+      secure = true,
+      name = "abs.softCache",
+      description =
+          "let the garbage collector evict entries of the caches for abstractions"
+              + " if memory runs low (uses soft references)")
+  private boolean softCache = false;
+
+  @Option(
+      secure = true,
+      name = "abstraction.incremental",
+      description =
+          "Keep a long-lived solver environment for each abstraction location and only add"
+              + " those parts of the formula to its stack that are not yet present"
+              + " from the previous abstraction computation at the same location.")
+  private boolean incrementalAbstraction = false;
+
+  @Option(
+      secure = true,
+      name = "abstraction.incrementalMaxProvers",
+      description =
+          "maximum number of solver environments that are kept for incremental abstraction,"
+              + " the least-recently used one is closed if there are more")
+  private int incrementalMaxProvers = 100;
+
   @Option(secure=true, name="refinement.splitItpAtoms",
       description="split each arithmetic equality into two inequalities when extracting predicates from interpolants")
   private boolean splitItpAtoms = false;
@@ -178,7 +216,7 @@ public class PredicateAbstractionManager {
 
   private boolean abstractionReuseDisabledBecauseOfAmbiguity = false;
 
-  private final Map<Pair<BooleanFormula, ImmutableSet<BooleanFormula>>, AbstractionFormula>
+  private final Cache<Pair<BooleanFormula, ImmutableSet<BooleanFormula>>, AbstractionFormula>
       abstractionCache;
 
   // Cache for satisfiability queries: if formula is contained, it is unsat
@@ -187,7 +225,7 @@ public class PredicateAbstractionManager {
   //cache for cartesian abstraction queries. For each predicate, the values
   // are -1: predicate is false, 0: predicate is don't care,
   // 1: predicate is true
-  private final Map<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
+  private final Cache<Pair<BooleanFormula, AbstractionPredicate>, Byte> cartesianAbstractionCache;
 
   public PredicateAbstractionManager(
       AbstractionManager pAmgr,
@@ -224,8 +262,23 @@ public class PredicateAbstractionManager {
       weakeningManager = null;
     }
 
+    if (incrementalAbstraction) {
+      if (incrementalMaxProvers <= 0) {
+        throw new InvalidConfigurationException(
+            "Invalid maximum number " + incrementalMaxProvers + " of incremental provers");
+      }
+      incrementalProvers = new IncrementalAbstractionProvers(pSolver, incrementalMaxProvers);
+    } else {
+      incrementalProvers = null;
+    }
+
+    if (maxCacheSize < -1) {
+      throw new InvalidConfigurationException(
+          "Invalid maximum size " + maxCacheSize + " for abstraction caches");
+    }
+
     if (useCache) {
-      abstractionCache = new HashMap<>();
+      abstractionCache = newCache();
       unsatisfiabilityCache = new HashSet<>();
     } else {
       abstractionCache = null;
@@ -233,7 +286,7 @@ public class PredicateAbstractionManager {
     }
 
     if (useCache && (abstractionType != AbstractionType.BOOLEAN)) {
-      cartesianAbstractionCache = new HashMap<>();
+      cartesianAbstractionCache = newCache();
     } else {
       cartesianAbstractionCache = null;
     }
@@ -241,6 +294,40 @@ public class PredicateAbstractionManager {
     abstractionStorage = new PredicateAbstractionsStorage(reuseAbstractionsFrom, logger, fmgr, null);
   }
 
+  private <K, V> Cache<K, V> newCache() {
+    return BoundedCaches.newCache(maxCacheSize, softCache);
+  }
+
+  void printCacheStatistics(PrintStream out) {
+    if (abstractionCache != null) {
+      BoundedCaches.printCacheStatistics(out, "Cache for abstractions", abstractionCache);
+    }
+    if (cartesianAbstractionCache != null) {
+      BoundedCaches.printCacheStatistics(
+          out, "Cache for cartesian abs", cartesianAbstractionCache);
+    }
+  }
+
+  void printIncrementalAbstractionStatistics(PrintStream out) {
+    if (incrementalProvers != null) {
+      IncrementalAbstractionProvers inc = incrementalProvers;
+      int totalAssertions = inc.reusedAssertions + inc.addedAssertions;
+      out.println("Number of incremental abstractions:       " + (inc.proversCreated + inc.proversReused));
+      out.println("  Times solver environment was reused:    " + valueWithPercentage(inc.proversReused, inc.proversCreated + inc.proversReused));
+      out.println("  Times solver environment was evicted:   " + inc.proversEvicted);
+      out.println("  Number of reused assertions:            " + valueWithPercentage(inc.reusedAssertions, totalAssertions));
+      out.println("  Number of rebuilt assertions:           " + valueWithPercentage(inc.addedAssertions, totalAssertions));
+      out.println("  Number of popped assertions:            " + inc.poppedAssertions);
+    }
+  }
+
+  /** Close the solver environments that are kept for incremental abstraction. */
+  void close() {
+    if (incrementalProvers != null) {
+      incrementalProvers.close();
+    }
+  }
+
   /**
    * Compute an abstraction of a single boolean formula.
    * @param f The formula to be abstracted. Needs to be instantiated
@@ -278,7 +365,7 @@ public class PredicateAbstractionManager {
 
   public void clear() {
     if (useCache) {
-      abstractionCache.clear();
+      abstractionCache.invalidateAll();
       unsatisfiabilityCache.clear();
     }
   }
@@ -353,7 +440,7 @@ public class PredicateAbstractionManager {
           Collections3.transformedImmutableSetCopy(
               remainingPredicates, pred -> instantiator.apply(pred.getSymbolicAtom()));
       absKey = Pair.of(f, instantiatedPreds);
-      AbstractionFormula result = abstractionCache.get(absKey);
+      AbstractionFormula result = abstractionCache.getIfPresent(absKey);
 
       if (result != null) {
         // create new abstraction object to have a unique abstraction id
@@ -418,7 +505,8 @@ public class PredicateAbstractionManager {
       abs = rmgr.makeAnd(abs, buildCartesianAbstractionUsingWeakening(f, ssa, remainingPredicates));
 
     } else {
-      abs = rmgr.makeAnd(abs, computeAbstraction(f, remainingPredicates, instantiator));
+      abs =
+          rmgr.makeAnd(abs, computeAbstraction(location, f, remainingPredicates, instantiator));
     }
 
     AbstractionFormula result = makeAbstractionFormula(abs, ssa, pathFormula);
@@ -479,7 +567,7 @@ public class PredicateAbstractionManager {
     final Collection<AbstractionPredicate> predicates =
         getRelevantPredicates(pPredicates, pF, dummyInstantiator);
 
-    Region abs = computeAbstraction(pF, predicates, dummyInstantiator);
+    Region abs = computeAbstraction(null, pF, predicates, dummyInstantiator);
 
     BooleanFormula symbolicAbs = amgr.convertRegionToFormula(abs);
 
@@ -732,6 +820,7 @@ public class PredicateAbstractionManager {
   /**
    * Actually compute an abstraction of a formula, without fancy caching etc.
    *
+   * @param location The abstraction location, used for incremental abstraction if not null.
    * @param f The formula to be abstracted.
    * @param remainingPredicates The set of predicates.
    *     Each predicate that is handled will be removed from the set.
@@ -740,61 +829,92 @@ public class PredicateAbstractionManager {
    * @return An over-approximation of f using the predicates from remainingPredicates.
    */
   private Region computeAbstraction(
+      final @Nullable CFANode location,
       final BooleanFormula f,
       final Collection<AbstractionPredicate> remainingPredicates,
       final Function<BooleanFormula, BooleanFormula> instantiator)
       throws SolverException, InterruptedException {
+    if (incrementalProvers == null || location == null) {
+      try (ProverEnvironment thmProver =
+          solver.newProverEnvironment(ProverOptions.GENERATE_ALL_SAT)) {
+        thmProver.push(f);
+        return computeAbstraction(thmProver, f, remainingPredicates, instantiator, false);
+      }
+    }
+
+    boolean success = false;
+    try {
+      ProverEnvironment thmProver = incrementalProvers.prepare(location, f);
+      Region abs = computeAbstraction(thmProver, f, remainingPredicates, instantiator, true);
+      success = true;
+      return abs;
+    } finally {
+      // on exceptions the state of the solver stack is unknown, so it cannot be reused
+      incrementalProvers.release(success);
+    }
+  }
+
+  /**
+   * Compute an abstraction of a formula that is already on the stack of the given prover.
+   *
+   * @param cleanUp Whether the prover needs to be left with the same stack as given.
+   */
+  private Region computeAbstraction(
+      final ProverEnvironment thmProver,
+      final BooleanFormula f,
+      final Collection<AbstractionPredicate> remainingPredicates,
+      final Function<BooleanFormula, BooleanFormula> instantiator,
+      final boolean cleanUp)
+      throws SolverException, InterruptedException {
     Region abs = rmgr.makeTrue();
 
-    try (ProverEnvironment thmProver =
-        solver.newProverEnvironment(ProverOptions.GENERATE_ALL_SAT)) {
-      thmProver.push(f);
+    if (remainingPredicates.isEmpty()) {
+      stats.numSatCheckAbstractions++;
+
+      stats.abstractionSolveTime.start();
+      boolean feasibility;
+      try {
+        feasibility = !thmProver.isUnsat();
+      } finally {
+        stats.abstractionSolveTime.stop();
+      }
 
-      if (remainingPredicates.isEmpty()) {
-        stats.numSatCheckAbstractions++;
+      if (!feasibility) {
+        abs = rmgr.makeFalse();
+      }
 
-        stats.abstractionSolveTime.start();
-        boolean feasibility;
+    } else {
+      if (abstractionType != AbstractionType.BOOLEAN) {
+        // First do cartesian abstraction if desired
+        stats.cartesianAbstractionTime.start();
         try {
-          feasibility = !thmProver.isUnsat();
+          abs =
+              rmgr.makeAnd(
+                  abs,
+                  computeCartesianAbstraction(f, thmProver, remainingPredicates, instantiator));
         } finally {
-          stats.abstractionSolveTime.stop();
-        }
-
-        if (!feasibility) {
-          abs = rmgr.makeFalse();
+          stats.cartesianAbstractionTime.stop();
         }
+      }
 
-      } else {
-        if (abstractionType != AbstractionType.BOOLEAN) {
-          // First do cartesian abstraction if desired
-          stats.cartesianAbstractionTime.start();
-          try {
-            abs =
-                rmgr.makeAnd(
-                    abs,
-                    computeCartesianAbstraction(f, thmProver, remainingPredicates, instantiator));
-          } finally {
-            stats.cartesianAbstractionTime.stop();
-          }
+      if (abstractionType != AbstractionType.CARTESIAN && !remainingPredicates.isEmpty()) {
+        // Last do boolean abstraction if desired and necessary
+        stats.numBooleanAbsPredicates += remainingPredicates.size();
+        stats.booleanAbstractionTime.start();
+        try {
+          abs =
+              rmgr.makeAnd(
+                  abs,
+                  computeBooleanAbstraction(
+                      thmProver, remainingPredicates, instantiator, cleanUp));
+        } finally {
+          stats.booleanAbstractionTime.stop();
         }
 
-        if (abstractionType != AbstractionType.CARTESIAN && !remainingPredicates.isEmpty()) {
-          // Last do boolean abstraction if desired and necessary
-          stats.numBooleanAbsPredicates += remainingPredicates.size();
-          stats.booleanAbstractionTime.start();
-          try {
-            abs =
-                rmgr.makeAnd(
-                    abs, computeBooleanAbstraction(thmProver, remainingPredicates, instantiator));
-          } finally {
-            stats.booleanAbstractionTime.stop();
-          }
-
-          // Warning:
-          // buildBooleanAbstraction() does not clean up thmProver, so do not use it here.
-          // remainingPredicates is now empty.
-        }
+        // Warning:
+        // buildBooleanAbstraction() does not clean up thmProver unless requested,
+        // so do not use it here.
+        // remainingPredicates is now empty.
       }
     }
     return abs;
@@ -843,8 +963,9 @@ public class PredicateAbstractionManager {
       while (predicateIt.hasNext()) {
         final AbstractionPredicate p = predicateIt.next();
         Pair<BooleanFormula, AbstractionPredicate> cacheKey = Pair.of(f, p);
-        if (useCache && cartesianAbstractionCache.containsKey(cacheKey)) {
-          byte predVal = cartesianAbstractionCache.get(cacheKey);
+        Byte cachedPredVal = useCache ? cartesianAbstractionCache.getIfPresent(cacheKey) : null;
+        if (cachedPredVal != null) {
+          byte predVal = cachedPredVal;
           stats.numCartesianAbsPredicatesCached++;
 
           stats.abstractionEnumTime.getCurentInnerTimer().start();
@@ -978,12 +1099,14 @@ public class PredicateAbstractionManager {
    *    Each predicate that is handled will be removed from the set
    *    (and Boolean abstraction handles all predicates so the set is empty afterwards!).
    * @param instantiator A function that will be applied to instantiate each abstraction predicate.
+   * @param cleanUp Whether the formulas pushed onto the solver stack should be removed again.
    * @return A over-approximation of f.
    */
   private Region computeBooleanAbstraction(
       final ProverEnvironment thmProver,
       final Collection<AbstractionPredicate> predicates,
-      final Function<BooleanFormula, BooleanFormula> instantiator)
+      final Function<BooleanFormula, BooleanFormula> instantiator,
+      final boolean cleanUp)
       throws InterruptedException, SolverException {
 
     // build the definition of the predicates, and instantiate them
@@ -1010,8 +1133,10 @@ public class PredicateAbstractionManager {
     AllSatCallbackImpl callback = new AllSatCallbackImpl();
     Region result = thmProver.allSat(callback, predVars);
 
-    // pop() is actually costly sometimes, and we delete the environment anyway
-    // thmProver.pop();
+    // pop() is actually costly sometimes, so only do it if the environment is reused
+    if (cleanUp) {
+      thmProver.pop();
+    }
 
     // update statistics
     int numModels = callback.getCount();
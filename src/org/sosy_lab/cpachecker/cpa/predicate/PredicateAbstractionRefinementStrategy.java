@@ -37,6 +37,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.FileOption.Type;
@@ -53,6 +54,7 @@ import org.sosy_lab.cpachecker.core.defaults.precision.VariableTrackingPrecision
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
+import org.sosy_lab.cpachecker.core.reachedset.ArtifactExchange.Endpoint;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGState;
@@ -146,6 +148,9 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
 
   private boolean atomicPredicates = false;
 
+  // for sharing predicates with other analyses that run in parallel
+  private @Nullable Endpoint<String> predicateExchange = null;
+
   protected final LogManager logger;
   private final FormulaManagerView fmgr;
   private final BooleanFormulaManagerView bfmgr;
@@ -170,6 +175,11 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
   private StatInt simplifyVariablesBefore = new StatInt(StatKind.SUM, "Variables Before");
   private StatInt simplifyVariablesAfter = new StatInt(StatKind.SUM, "Variables After");
 
+  private StatInt receivedPredicates =
+      new StatInt(StatKind.SUM, "Number of preds received from other analyses");
+  private StatCounter rejectedPredicates =
+      new StatCounter("Number of received preds that could not be parsed");
+
   private class Stats implements Statistics {
     @Override
     public String getName() {
@@ -202,6 +212,10 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
       w0.put(numberOfRefinementsWithStrategy2)
         .ifUpdatedAtLeastOnce(itpSimplification)
           .put(irrelevantPredsInItp);
+
+      if (predicateExchange != null) {
+        w0.put(receivedPredicates).put(rejectedPredicates);
+      }
     }
   }
 
@@ -235,6 +249,14 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
     this.atomicPredicates = pAtomicPredicates;
   }
 
+  /**
+   * Share the predicates found by this strategy with other analyses that run in parallel, and use
+   * the predicates found by them.
+   */
+  final void setPredicateExchange(Endpoint<String> pPredicateExchange) {
+    predicateExchange = pPredicateExchange;
+  }
+
   @Override
   protected final void startRefinementOfPath() {
     checkState(newPredicates == null);
@@ -400,6 +422,10 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
 
     PredicatePrecision newPrecision = addPredicatesToPrecision(basePrecision);
 
+    if (predicateExchange != null) {
+      newPrecision = exchangePredicates(newPrecision);
+    }
+
     logger.log(Level.ALL, "Predicate map now is", newPrecision);
     logger.log(Level.ALL, "Difference of predicates is", newPrecision.subtract(basePrecision));
 
@@ -503,6 +529,38 @@ public class PredicateAbstractionRefinementStrategy extends RefinementStrategy
     return newPrecision;
   }
 
+  /**
+   * Publish the new predicates of the current refinement, and add the predicates that other
+   * analyses have published since the last refinement to the given precision. The latter are
+   * added at the location where the other analysis found them, regardless of the configured
+   * predicate sharing.
+   */
+  private PredicatePrecision exchangePredicates(PredicatePrecision pPrecision) {
+    ImmutableSetMultimap.Builder<CFANode, String> ownPredicates = ImmutableSetMultimap.builder();
+    for (Map.Entry<LocationInstance, AbstractionPredicate> entry : newPredicates.entries()) {
+      BooleanFormula atom = entry.getValue().getSymbolicAtom();
+      if (!bfmgr.isFalse(atom)) {
+        ownPredicates.put(entry.getKey().getLocation(), fmgr.dumpFormula(atom).toString());
+      }
+    }
+    predicateExchange.publish(ownPredicates.build());
+
+    List<Map.Entry<CFANode, AbstractionPredicate>> foreignPredicates = new ArrayList<>();
+    for (Map.Entry<CFANode, String> entry : predicateExchange.poll().entries()) {
+      try {
+        BooleanFormula atom = fmgr.parse(entry.getValue());
+        foreignPredicates.add(
+            Maps.immutableEntry(entry.getKey(), predAbsMgr.getPredicateFor(atom)));
+      } catch (IllegalArgumentException e) {
+        // other analysis uses a different encoding of the program, e.g., bitvectors
+        logger.logDebugException(e, "Ignoring predicate from other analysis");
+        rejectedPredicates.inc();
+      }
+    }
+    receivedPredicates.setNextValue(foreignPredicates.size());
+    return pPrecision.addLocalPredicates(foreignPredicates);
+  }
+
   private PredicatePrecision extractPredicatePrecision(Precision oldPrecision) throws IllegalStateException {
     PredicatePrecision oldPredicatePrecision = Precisions.extractPrecisionByType(oldPrecision, PredicatePrecision.class);
     checkState(
@@ -263,6 +263,8 @@ class PredicateCPAStatistics implements Statistics {
                 + valueWithPercentage(as.numInductivePathFormulaCacheUsed, as.numCallsAbstraction));
       }
     }
+    amgr.printCacheStatistics(out);
+    amgr.printIncrementalAbstractionStatistics(out);
 
     if (statistics.satCheckTimer.getNumberOfIntervals() > 0) {
       out.println("Number of satisfiability checks:   " + statistics.satCheckTimer.getNumberOfIntervals());
@@ -27,11 +27,14 @@ public abstract class PredicateRefiner implements Refiner {
       throws InvalidConfigurationException {
     PredicateCPA predicateCpa =
         CPAs.retrieveCPAOrFail(pCpa, PredicateCPA.class, PredicateRefiner.class);
-    RefinementStrategy strategy = new PredicateAbstractionRefinementStrategy(
+    PredicateAbstractionRefinementStrategy strategy = new PredicateAbstractionRefinementStrategy(
         predicateCpa.getConfiguration(),
         predicateCpa.getLogger(),
         predicateCpa.getPredicateManager(),
         predicateCpa.getSolver());
+    predicateCpa
+        .getArtifactExchange()
+        .ifPresent(exchange -> strategy.setPredicateExchange(exchange.connectToPredicates()));
 
     return new PredicateCPARefinerFactory(pCpa).create(strategy);
   }
@@ -41,10 +41,24 @@ public abstract class SMGAbstractionFinder {
     seqLengthIncomparableThreshold = pSeqLengthIncomparableThreshold;
   }
 
-  public abstract Set<SMGAbstractionCandidate> traverse(
+  public Set<SMGAbstractionCandidate> traverse(
       UnmodifiableCLangSMG pSmg,
       UnmodifiableSMGState pSMGState,
       Set<SMGAbstractionBlock> abstractionBlocks)
+      throws SMGInconsistentException {
+    return traverse(pSmg, pSMGState, abstractionBlocks, pSmg.getHeapObjects());
+  }
+
+  /**
+   * Search for abstraction candidates that start at the given heap objects. Traversing disjoint
+   * sets of objects that are not connected by pointers yields disjoint sets of candidates, and
+   * these traversals only read the SMG, such that they can be done in parallel.
+   */
+  public abstract Set<SMGAbstractionCandidate> traverse(
+      UnmodifiableCLangSMG pSmg,
+      UnmodifiableSMGState pSMGState,
+      Set<SMGAbstractionBlock> abstractionBlocks,
+      Iterable<SMGObject> pStartObjects)
       throws SMGInconsistentException;
 
   protected boolean isSubSmgSeperate(
@@ -9,20 +9,42 @@
 package org.sosy_lab.cpachecker.cpa.smg;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.Futures;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.CLangSMG;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGNullObject;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.SMGObject;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.dll.SMGDoublyLinkedListFinder;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.object.sll.SMGSingleLinkedListFinder;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 
 public class SMGAbstractionManager {
 
+  public static final ThreadSafeTimerContainer dllFinderTimer =
+      new ThreadSafeTimerContainer("Time for searching DLL candidates");
+  public static final ThreadSafeTimerContainer sllFinderTimer =
+      new ThreadSafeTimerContainer("Time for searching SLL candidates");
+
   private final LogManager logger;
   private final CLangSMG smg;
   private final SMGState smgState;
@@ -30,6 +52,7 @@ public class SMGAbstractionManager {
   private final Set<SMGAbstractionBlock> blocks;
   private final SMGDoublyLinkedListFinder dllCandidateFinder;
   private final SMGSingleLinkedListFinder sllCandidateFinder;
+  private final boolean parallel;
 
   @VisibleForTesting
   public SMGAbstractionManager(LogManager pLogger, CLangSMG pSMG, SMGState pSMGstate) {
@@ -39,25 +62,118 @@ public class SMGAbstractionManager {
     blocks = ImmutableSet.of();
     dllCandidateFinder = new SMGDoublyLinkedListFinder();
     sllCandidateFinder = new SMGSingleLinkedListFinder();
+    parallel = false;
   }
 
   public SMGAbstractionManager(LogManager pLogger, CLangSMG pSMG, SMGState pSMGstate,
-      Set<SMGAbstractionBlock> pBlocks, int equalSeq, int entailSeq, int incSeq) {
+      Set<SMGAbstractionBlock> pBlocks, int equalSeq, int entailSeq, int incSeq,
+      boolean pParallel) {
     smg = pSMG;
     smgState = pSMGstate;
     logger = pLogger;
     blocks = pBlocks;
     dllCandidateFinder = new SMGDoublyLinkedListFinder(equalSeq, entailSeq, incSeq);
     sllCandidateFinder = new SMGSingleLinkedListFinder(equalSeq, entailSeq, incSeq);
+    parallel = pParallel;
   }
 
-  private List<SMGAbstractionCandidate> getCandidates() throws SMGInconsistentException {
+  @VisibleForTesting
+  List<SMGAbstractionCandidate> getCandidates() throws SMGInconsistentException {
+    if (parallel) {
+      return getCandidatesInParallel();
+    }
     return ImmutableList.<SMGAbstractionCandidate>builder()
-        .addAll(dllCandidateFinder.traverse(smg, smgState, blocks))
-        .addAll(sllCandidateFinder.traverse(smg, smgState, blocks))
+        .addAll(traverse(dllCandidateFinder, dllFinderTimer, smg.getHeapObjects()))
+        .addAll(traverse(sllCandidateFinder, sllFinderTimer, smg.getHeapObjects()))
         .build();
   }
 
+  private Set<SMGAbstractionCandidate> traverse(
+      SMGAbstractionFinder pFinder,
+      ThreadSafeTimerContainer pTimer,
+      Iterable<SMGObject> pStartObjects)
+      throws SMGInconsistentException {
+    TimerWrapper timer = pTimer.getNewTimer();
+    timer.start();
+    try {
+      return pFinder.traverse(smg, smgState, blocks, pStartObjects);
+    } finally {
+      timer.stop();
+    }
+  }
+
+  /**
+   * Search for candidates with one task per finder and per connected heap component. The finders
+   * only read the SMG, and the joins of sub-SMGs that they compute work on copies of it.
+   */
+  private List<SMGAbstractionCandidate> getCandidatesInParallel()
+      throws SMGInconsistentException {
+    List<Callable<Set<SMGAbstractionCandidate>>> tasks = new ArrayList<>();
+    for (Set<SMGObject> component : getHeapComponents()) {
+      tasks.add(() -> traverse(dllCandidateFinder, dllFinderTimer, component));
+      tasks.add(() -> traverse(sllCandidateFinder, sllFinderTimer, component));
+    }
+
+    ImmutableList.Builder<SMGAbstractionCandidate> candidates = ImmutableList.builder();
+    List<Future<Set<SMGAbstractionCandidate>>> results = ForkJoinPool.commonPool().invokeAll(tasks);
+    for (Future<Set<SMGAbstractionCandidate>> result : results) {
+      try {
+        candidates.addAll(Futures.getDone(result));
+      } catch (ExecutionException e) {
+        Throwables.throwIfInstanceOf(e.getCause(), SMGInconsistentException.class);
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new AssertionError(e);
+      }
+    }
+    return candidates.build();
+  }
+
+  /**
+   * Partition the heap objects into sets of objects that are (transitively) connected by pointers,
+   * in either direction and possibly via non-heap objects. A search for candidates that starts in
+   * one such set never reaches an object of another set.
+   */
+  private Collection<Set<SMGObject>> getHeapComponents() {
+    Map<SMGObject, SMGObject> representatives = new HashMap<>();
+    for (SMGEdgeHasValue hve : smg.getHVEdges()) {
+      if (smg.isPointer(hve.getValue())) {
+        SMGObject target = smg.getPointer(hve.getValue()).getObject();
+        if (target.equals(SMGNullObject.INSTANCE)) {
+          // NULL is never part of a list and would connect nearly everything
+          continue;
+        }
+        SMGObject sourceRepresentative = getRepresentative(representatives, hve.getObject());
+        SMGObject targetRepresentative = getRepresentative(representatives, target);
+        if (!sourceRepresentative.equals(targetRepresentative)) {
+          representatives.put(sourceRepresentative, targetRepresentative);
+        }
+      }
+    }
+
+    Map<SMGObject, Set<SMGObject>> components = new LinkedHashMap<>();
+    for (SMGObject object : smg.getHeapObjects()) {
+      components
+          .computeIfAbsent(
+              getRepresentative(representatives, object), k -> new LinkedHashSet<>())
+          .add(object);
+    }
+    return components.values();
+  }
+
+  private static SMGObject getRepresentative(
+      Map<SMGObject, SMGObject> pRepresentatives, SMGObject pObject) {
+    SMGObject current = pObject;
+    SMGObject next;
+    while ((next = pRepresentatives.get(current)) != null) {
+      current = next;
+    }
+    // path compression
+    if (!current.equals(pObject)) {
+      pRepresentatives.put(pObject, current);
+    }
+    return current;
+  }
+
   private SMGAbstractionCandidate getBestCandidate(
       List<SMGAbstractionCandidate> abstractionCandidates) {
     return Collections.max(
@@ -10,7 +10,10 @@ package org.sosy_lab.cpachecker.cpa.smg;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Iterables;
+import com.google.common.collect.Lists;
+import java.util.List;
 import org.junit.Before;
 import org.junit.Test;
 import org.sosy_lab.common.configuration.Configuration;
@@ -34,12 +37,16 @@ public class SMGAbstractionManagerTest {
   @Before
   public void setUp() {
     smg = new CLangSMG(MachineModel.LINUX64);
+    addList("pointer", 20);
+  }
 
-    SMGRegion globalVar = new SMGRegion(64, "pointer");
+  /** Adds a singly-linked list of the given length that is pointed to by a global variable. */
+  private void addList(String pGlobalName, int pLength) {
+    SMGRegion globalVar = new SMGRegion(64, pGlobalName);
 
     SMGRegion next = null;
-    for (int i = 0; i < 20; i++) {
-      SMGRegion node = new SMGRegion(128, "node " + i);
+    for (int i = 0; i < pLength; i++) {
+      SMGRegion node = new SMGRegion(128, pGlobalName + " node " + i);
       SMGEdgeHasValue hv;
       smg.addHeapObject(node);
       if (next != null) {
@@ -88,4 +95,32 @@ public class SMGAbstractionManagerTest {
     SMGObject segment = pt.getObject();
     assertThat(segment.isAbstract()).isTrue();
   }
+
+  @Test
+  public void testParallelCandidatesEqualSequential()
+      throws SMGInconsistentException, InvalidConfigurationException {
+    // lists that are not connected are searched in separate tasks
+    addList("other", 5);
+    addList("third", 12);
+    LogManager logger = LogManager.createTestLogManager();
+    SMGState dummyState =
+        new SMGState(
+            logger, MachineModel.LINUX32, new SMGOptions(Configuration.defaultConfiguration()));
+
+    List<SMGAbstractionCandidate> sequential =
+        new SMGAbstractionManager(logger, smg, dummyState, ImmutableSet.of(), 2, 2, 2, false)
+            .getCandidates();
+    List<SMGAbstractionCandidate> parallel =
+        new SMGAbstractionManager(logger, smg, dummyState, ImmutableSet.of(), 2, 2, 2, true)
+            .getCandidates();
+
+    assertThat(sequential).isNotEmpty();
+    assertThat(Lists.transform(parallel, SMGAbstractionManagerTest::describe))
+        .containsExactlyElementsIn(
+            Lists.transform(sequential, SMGAbstractionManagerTest::describe));
+  }
+
+  private static String describe(SMGAbstractionCandidate pCandidate) {
+    return pCandidate + " with score " + pCandidate.getScore();
+  }
 }
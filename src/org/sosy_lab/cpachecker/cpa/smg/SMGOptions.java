@@ -153,6 +153,13 @@ public class SMGOptions {
       description = "with this option enabled, heap abstraction will be enabled.")
   private boolean enableHeapAbstraction = false;
 
+  @Option(
+      secure = true,
+      description =
+          "search for heap abstraction candidates in parallel, separately for each kind of list"
+              + " and for each set of heap objects that are connected by pointers")
+  private boolean parallelHeapAbstraction = false;
+
   @Option(
       secure = true,
       name = "memoryErrors",
@@ -293,6 +300,10 @@ public class SMGOptions {
     return enableHeapAbstraction;
   }
 
+  public boolean isParallelHeapAbstraction() {
+    return parallelHeapAbstraction;
+  }
+
   public boolean isMemoryErrorTarget() {
     return memoryErrors;
   }
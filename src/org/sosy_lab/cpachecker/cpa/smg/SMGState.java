@@ -1411,7 +1411,8 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     }
 
     if (options.isHeapAbstractionEnabled()) {
-      SMGJoin join = new SMGJoin(heap, reachedState.getHeap(), this, reachedState);
+      // the join is irrelevant as soon as it is incomparable
+      SMGJoin join = new SMGJoin(heap, reachedState.getHeap(), this, reachedState, true);
 
       if (!join.isDefined()) {
         return false;
@@ -1874,7 +1875,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     }
       logger.logf(
           Level.FINER, "SymValue1 %s %s SymValue2 %s AddPredicate: %s", pV1, temp, pV2, pEdge);
-      getPathPredicateRelation().addRelation(pV1, pCType1, pV2, pCType2, temp);
+      heap.addPathPredicateRelation(pV1, pCType1, pV2, pCType2, temp);
   }
 }
 
@@ -1890,7 +1891,7 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
       }
       logger.logf(
           Level.FINER, "SymValue %s %s; ExplValue %s; AddPredicate: %s", pV1, temp, pV2, pEdge);
-      getPathPredicateRelation().addExplicitRelation(pV1, pCType1, pV2, pCType2, temp);
+      heap.addPathPredicateRelation(pV1, pCType1, pV2, pCType2, temp);
     }
   }
 
@@ -1906,9 +1907,8 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
       logger.log(Level.FINER, "Add Error Predicate: SymValue  ",
           pSymbolicValue, " ; ExplValue", " ",
           pExplicitValue, "; on edge: ", pEdge);
-      getErrorPredicateRelation()
-          .addExplicitRelation(
-              pSymbolicValue, pCType1, pExplicitValue, pCType2, BinaryOperator.GREATER_THAN);
+      heap.addErrorPredicateRelation(
+          pSymbolicValue, pCType1, pExplicitValue, pCType2, BinaryOperator.GREATER_THAN);
     }
   }
 
@@ -2053,9 +2053,13 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
     final SMGAbstractionManager manager;
     boolean usesHeapInterpolation = true; // TODO do we need this flag?
     if (usesHeapInterpolation) {
-      manager = new SMGAbstractionManager(logger, heap, this, blocks, 2, 2, 2);
+      manager =
+          new SMGAbstractionManager(
+              logger, heap, this, blocks, 2, 2, 2, options.isParallelHeapAbstraction());
     } else {
-      manager = new SMGAbstractionManager(logger, heap, this, blocks, 2, 2, 3);
+      manager =
+          new SMGAbstractionManager(
+              logger, heap, this, blocks, 2, 2, 3, options.isParallelHeapAbstraction());
     }
     boolean change = manager.execute();
     performConsistencyCheck(SMGRuntimeCheck.HALF);
@@ -2080,7 +2084,9 @@ public class SMGState implements UnmodifiableSMGState, AbstractQueryableState, G
 
   public SMGAbstractionCandidate executeHeapAbstractionOneStep(Set<SMGAbstractionBlock> pResult)
       throws SMGInconsistentException {
-    SMGAbstractionManager manager = new SMGAbstractionManager(logger, heap, this, pResult, 2, 2, 2);
+    SMGAbstractionManager manager =
+        new SMGAbstractionManager(
+            logger, heap, this, pResult, 2, 2, 2, options.isParallelHeapAbstraction());
     SMGAbstractionCandidate result = manager.executeOneStep();
     performConsistencyCheck(SMGRuntimeCheck.HALF);
     return result;
@@ -30,6 +30,8 @@ public class SMGStatistics implements Statistics {
     put(pOut, 1, SMGIsLessOrEqual.heapTimer);
     put(pOut, 0, abstractions);
     put(pOut, 0, totalAbstraction);
+    put(pOut, 1, SMGAbstractionManager.dllFinderTimer);
+    put(pOut, 1, SMGAbstractionManager.sllFinderTimer);
   }
 
   @Override
@@ -61,6 +61,12 @@ public class CLangSMG extends SMG implements UnmodifiableCLangSMG {
    */
   private PersistentSet<SMGObject> heap_objects;
 
+  /**
+   * An order-independent hash of the ids of all objects in {@link #heap_objects}, maintained on
+   * every change of the heap objects. See {@link #getHeapObjectsFingerprint()}.
+   */
+  private long heapObjectsFingerprint;
+
   /**
    * A container for global objects
    */
@@ -98,7 +104,8 @@ public class CLangSMG extends SMG implements UnmodifiableCLangSMG {
     super(pMachineModel);
     global_objects = PathCopyingPersistentTreeMap.of();
     heap_objects = PersistentSet.of();
-    heap_objects = heap_objects.addAndCopy(SMGNullObject.INSTANCE);
+    heapObjectsFingerprint = 0;
+    addToHeapObjects(SMGNullObject.INSTANCE);
   }
 
   /**
@@ -113,6 +120,7 @@ public class CLangSMG extends SMG implements UnmodifiableCLangSMG {
 
     stack_objects = pHeap.stack_objects;
     heap_objects = pHeap.heap_objects;
+    heapObjectsFingerprint = pHeap.heapObjectsFingerprint;
     global_objects = pHeap.global_objects;
   }
 
@@ -135,10 +143,30 @@ public class CLangSMG extends SMG implements UnmodifiableCLangSMG {
     if (CLangSMG.performChecks() && heap_objects.contains(pObject)) {
       throw new IllegalArgumentException("Heap object already in the SMG: [" + pObject + "]");
     }
-    heap_objects = heap_objects.addAndCopy(pObject);
+    addToHeapObjects(pObject);
     addObject(pObject);
   }
 
+  private void addToHeapObjects(SMGObject pObject) {
+    if (!heap_objects.contains(pObject)) {
+      heap_objects = heap_objects.addAndCopy(pObject);
+      heapObjectsFingerprint += fingerprintOf(pObject);
+    }
+  }
+
+  private void removeFromHeapObjects(SMGObject pObject) {
+    if (heap_objects.contains(pObject)) {
+      heap_objects = heap_objects.removeAndCopy(pObject);
+      heapObjectsFingerprint -= fingerprintOf(pObject);
+    }
+  }
+
+  private static long fingerprintOf(SMGObject pObject) {
+    // spread the bits of the id, such that sums for different sets of objects rarely collide
+    long hash = pObject.getId() * 0x9E3779B97F4A7C15L;
+    return hash ^ (hash >>> 29);
+  }
+
   /**
    * Add a global object to the SMG
    *
@@ -414,6 +442,11 @@ public class CLangSMG extends SMG implements UnmodifiableCLangSMG {
     return heap_objects;
   }
 
+  @Override
+  public long getHeapObjectsFingerprint() {
+    return heapObjectsFingerprint;
+  }
+
   /**
    * Constant.
    *
@@ -459,7 +492,7 @@ public class CLangSMG extends SMG implements UnmodifiableCLangSMG {
   }
 
   public final void markHeapObjectDeletedAndRemoveEdges(SMGObject pObject) {
-    heap_objects = heap_objects.removeAndCopy(pObject);
+    removeFromHeapObjects(pObject);
     markObjectDeletedAndRemoveEdges(pObject);
   }
 
@@ -605,6 +638,7 @@ public class CLangSMG extends SMG implements UnmodifiableCLangSMG {
   public void clearObjects() {
     global_objects = PathCopyingPersistentTreeMap.of();
     heap_objects = PersistentSet.of();
+    heapObjectsFingerprint = 0;
     super.clearObjects();
 
     // clear objects, but keep functions on the stack
@@ -621,7 +655,7 @@ public class CLangSMG extends SMG implements UnmodifiableCLangSMG {
     stack_objects = newStack;
 
     /*May not remove null object.*/
-    heap_objects = heap_objects.addAndCopy(SMGNullObject.INSTANCE);
+    addToHeapObjects(SMGNullObject.INSTANCE);
   }
 
   public void removeGlobalVariableAndEdges(String pVariable) {
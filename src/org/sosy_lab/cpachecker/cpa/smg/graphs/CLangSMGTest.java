@@ -285,6 +285,28 @@ public class CLangSMGTest {
     assertThat(smg.getHeapObjects()).hasSize(4);
   }
 
+  @Test
+  public void CLangSMGheapObjectsFingerprintTest() {
+    SMGRegion obj1 = new SMGRegion(64, "heap1");
+    SMGRegion obj2 = new SMGRegion(64, "heap2");
+    CLangSMG smg1 = getNewCLangSMG64();
+    CLangSMG smg2 = getNewCLangSMG64();
+    assertThat(smg1.getHeapObjectsFingerprint()).isEqualTo(smg2.getHeapObjectsFingerprint());
+
+    smg1.addHeapObject(obj1);
+    smg1.addHeapObject(obj2);
+    smg2.addHeapObject(obj2);
+    assertThat(smg1.getHeapObjectsFingerprint()).isNotEqualTo(smg2.getHeapObjectsFingerprint());
+
+    CLangSMG copy = smg2.copyOf();
+    copy.addHeapObject(obj1);
+    assertThat(copy.getHeapObjectsFingerprint()).isEqualTo(smg1.getHeapObjectsFingerprint());
+    assertThat(smg2.getHeapObjectsFingerprint()).isNotEqualTo(smg1.getHeapObjectsFingerprint());
+
+    copy.markHeapObjectDeletedAndRemoveEdges(obj1);
+    assertThat(copy.getHeapObjectsFingerprint()).isEqualTo(smg2.getHeapObjectsFingerprint());
+  }
+
   @Test
   public void CLangSMGgetGlobalObjectsTest() {
     CLangSMG smg = getNewCLangSMG64();
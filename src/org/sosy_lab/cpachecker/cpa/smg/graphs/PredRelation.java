@@ -8,116 +8,153 @@
 
 package org.sosy_lab.cpachecker.cpa.smg.graphs;
 
-import com.google.common.collect.HashMultimap;
-import com.google.common.collect.SetMultimap;
+import com.google.common.collect.ComparisonChain;
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
+import java.util.List;
 import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Set;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
+import org.sosy_lab.common.collect.PersistentMap;
 import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGExplicitValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGKnownAddressValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGSymbolicValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.value.SMGValue;
-import org.sosy_lab.cpachecker.util.Pair;
+import org.sosy_lab.cpachecker.cpa.smg.util.PersistentMultimap;
 
+/**
+ * Relations between symbolic values and between symbolic and explicit values. Implemented as
+ * immutable (persistent) data structure, such that copies share their data and modifications
+ * allocate only proportionally to the changed part.
+ */
 public final class PredRelation {
+
+  private static final PredRelation EMPTY =
+      new PredRelation(
+          PersistentMultimap.of(),
+          PersistentMultimap.of(),
+          PersistentMultimap.of(),
+          PathCopyingPersistentTreeMap.of());
+
   /** The Multimap is used as Bi-Map, i.e. each pair (K,V) is also inserted as pair (V,K). */
-  private final SetMultimap<Pair<SMGValue, SMGValue>, SymbolicRelation> smgValuesRelation =
-      HashMultimap.create();
-
-  private final SetMultimap<SMGValue, SMGValue> smgValuesDependency = HashMultimap.create();
-  private final SetMultimap<SMGValue, ExplicitRelation> smgExplicitValueRelation =
-      HashMultimap.create();
-  private final Map<SMGValue, Integer> smgValueSizeInBits = new HashMap<>();
-
-  /** Copy PredRelation */
-  public void putAll(PredRelation pPred) {
-    smgValuesRelation.putAll(pPred.smgValuesRelation);
-    smgValuesDependency.putAll(pPred.smgValuesDependency);
-    smgExplicitValueRelation.putAll(pPred.smgExplicitValueRelation);
-    smgValueSizeInBits.putAll(pPred.smgValueSizeInBits);
+  private final PersistentMultimap<ValuePair, SymbolicRelation> smgValuesRelation;
+
+  private final PersistentMultimap<SMGValue, SMGValue> smgValuesDependency;
+  private final PersistentMultimap<SMGValue, ExplicitRelation> smgExplicitValueRelation;
+  private final PersistentMap<SMGValue, Integer> smgValueSizeInBits;
+
+  private PredRelation(
+      PersistentMultimap<ValuePair, SymbolicRelation> pValuesRelation,
+      PersistentMultimap<SMGValue, SMGValue> pValuesDependency,
+      PersistentMultimap<SMGValue, ExplicitRelation> pExplicitValueRelation,
+      PersistentMap<SMGValue, Integer> pValueSizeInBits) {
+    smgValuesRelation = pValuesRelation;
+    smgValuesDependency = pValuesDependency;
+    smgExplicitValueRelation = pExplicitValueRelation;
+    smgValueSizeInBits = pValueSizeInBits;
+  }
+
+  public static PredRelation of() {
+    return EMPTY;
   }
 
-  public void addRelation(SMGSymbolicValue pOne, int pCType1,
-                          SMGSymbolicValue pTwo, int pCType2,
-                          BinaryOperator pOperator) {
+  public PredRelation addRelationAndCopy(
+      SMGSymbolicValue pOne, int pCType1, SMGSymbolicValue pTwo, int pCType2,
+      BinaryOperator pOperator) {
     // TODO: track address values
     if (!pOne.isUnknown()
         && !pTwo.isUnknown()
         && !(pOne instanceof SMGKnownAddressValue)
         && !(pTwo instanceof SMGKnownAddressValue)) {
-      addRelation(pOne, pTwo, pOperator);
-      addValueSize(pOne, pCType1);
-      addValueSize(pTwo, pCType2);
+      return addRelationAndCopy(pOne, pTwo, pOperator)
+          .addValueSizeAndCopy(pOne, pCType1)
+          .addValueSizeAndCopy(pTwo, pCType2);
     }
+    return this;
   }
 
-  private void addValueSize(SMGValue pValue, Integer pCType2) {
-    if (!smgValueSizeInBits.containsKey(pValue)) {
-      smgValueSizeInBits.put(pValue, pCType2);
+  private PredRelation addValueSizeAndCopy(SMGValue pValue, @Nullable Integer pCType) {
+    if (pCType == null || smgValueSizeInBits.containsKey(pValue)) {
+      return this;
     }
+    return new PredRelation(
+        smgValuesRelation,
+        smgValuesDependency,
+        smgExplicitValueRelation,
+        smgValueSizeInBits.putAndCopy(pValue, pCType));
   }
 
-  public void addRelation(SMGValue pOne, SMGValue pTwo, BinaryOperator pOperator) {
+  public PredRelation addRelationAndCopy(SMGValue pOne, SMGValue pTwo, BinaryOperator pOperator) {
     SymbolicRelation relation = new SymbolicRelation(pOne, pTwo, pOperator);
-    if (!smgValuesDependency.containsEntry(pOne, pTwo)) {
-      smgValuesRelation.put(Pair.of(pOne, pTwo), relation);
-      smgValuesRelation.put(Pair.of(pTwo, pOne), relation);
-      smgValuesDependency.put(pOne, pTwo);
-      smgValuesDependency.put(pTwo, pOne);
-    } else {
-      if (!smgValuesRelation.containsEntry(Pair.of(pOne, pTwo), relation)) {
-        smgValuesRelation.put(Pair.of(pOne, pTwo), relation);
-        smgValuesRelation.put(Pair.of(pTwo, pOne), relation);
-      }
+    if (smgValuesRelation.contains(new ValuePair(pOne, pTwo), relation)) {
+      return this;
     }
+    return new PredRelation(
+        smgValuesRelation
+            .putAndCopy(new ValuePair(pOne, pTwo), relation)
+            .putAndCopy(new ValuePair(pTwo, pOne), relation),
+        smgValuesDependency.putAndCopy(pOne, pTwo).putAndCopy(pTwo, pOne),
+        smgExplicitValueRelation,
+        smgValueSizeInBits);
   }
 
-  public void addExplicitRelation(SMGSymbolicValue pSymbolicValue, Integer pCType1,
-                                  SMGExplicitValue pExplicitValue, Integer pCType2,
-                                  BinaryOperator pOp) {
+  public PredRelation addExplicitRelationAndCopy(
+      SMGSymbolicValue pSymbolicValue, Integer pCType1,
+      SMGExplicitValue pExplicitValue, Integer pCType2,
+      BinaryOperator pOp) {
     assert(pCType1.equals(pCType2));
-    addExplicitRelation(pSymbolicValue, pExplicitValue, pOp);
-    addValueSize(pSymbolicValue, pCType1);
+    return addExplicitRelationAndCopy(pSymbolicValue, pExplicitValue, pOp)
+        .addValueSizeAndCopy(pSymbolicValue, pCType1);
   }
 
-  public void addExplicitRelation(
+  public PredRelation addExplicitRelationAndCopy(
       SMGValue pSymbolicValue, SMGExplicitValue pExplicitValue, BinaryOperator pOp) {
     ExplicitRelation relation = new ExplicitRelation(pSymbolicValue, pExplicitValue, pOp);
-    if (!smgExplicitValueRelation.containsEntry(pSymbolicValue, relation)) {
-      smgExplicitValueRelation.put(pSymbolicValue, relation);
+    if (smgExplicitValueRelation.contains(pSymbolicValue, relation)) {
+      return this;
     }
+    return new PredRelation(
+        smgValuesRelation,
+        smgValuesDependency,
+        smgExplicitValueRelation.putAndCopy(pSymbolicValue, relation),
+        smgValueSizeInBits);
   }
 
-  public void removeValue(SMGValue pValue) {
-    for (SMGValue pOposit : smgValuesDependency.removeAll(pValue)) {
-
-      smgValuesDependency.remove(pOposit, pValue);
-
-      smgValuesRelation.removeAll(Pair.of(pOposit, pValue));
-      smgValuesRelation.removeAll(Pair.of(pValue, pOposit));
+  public PredRelation removeValueAndCopy(SMGValue pValue) {
+    PersistentMultimap<ValuePair, SymbolicRelation> valuesRelation = smgValuesRelation;
+    PersistentMultimap<SMGValue, SMGValue> valuesDependency =
+        smgValuesDependency.removeAndCopy(pValue);
+    for (SMGValue pOposit : smgValuesDependency.get(pValue)) {
+      valuesDependency = valuesDependency.removeAndCopy(pOposit, pValue);
+      valuesRelation =
+          valuesRelation
+              .removeAndCopy(new ValuePair(pOposit, pValue))
+              .removeAndCopy(new ValuePair(pValue, pOposit));
     }
-    smgExplicitValueRelation.removeAll(pValue);
-    smgValueSizeInBits.remove(pValue);
+    return new PredRelation(
+        valuesRelation,
+        valuesDependency,
+        smgExplicitValueRelation.removeAndCopy(pValue),
+        smgValueSizeInBits.removeAndCopy(pValue));
   }
 
   /** replace the old value with a fresh value. */
-  public void replace(SMGValue fresh, SMGValue old) {
-    for (SMGValue relatedValue : smgValuesDependency.removeAll(old)) {
-      smgValuesDependency.remove(relatedValue, old);
-      smgValuesRelation.removeAll(Pair.of(old, relatedValue));
-        //TODO: modify predicates on merge values
-      smgValuesRelation.removeAll(Pair.of(relatedValue, old));
-    }
-    for (ExplicitRelation explicitRelation: smgExplicitValueRelation.removeAll(old)) {
-      addExplicitRelation(fresh, explicitRelation.explicitValue, explicitRelation.getOperator());
-      addValueSize(fresh, getSymbolicSize(old));
+  public PredRelation replaceAndCopy(SMGValue fresh, SMGValue old) {
+    //TODO: modify predicates on merge values
+    PredRelation result = removeValueAndCopy(old);
+    for (ExplicitRelation explicitRelation : smgExplicitValueRelation.get(old)) {
+      result =
+          result
+              .addExplicitRelationAndCopy(
+                  fresh, explicitRelation.explicitValue, explicitRelation.getOperator())
+              .addValueSizeAndCopy(fresh, getSymbolicSize(old));
     }
-    smgValueSizeInBits.remove(old);
+    return result;
   }
 
   public Integer getSymbolicSize(SMGValue pSymbolic) {
@@ -127,12 +164,13 @@ public final class PredRelation {
   /** Returns closure list of symbolic values which affects pRelation */
   public Set<SMGValue> closureDependencyFor(PredRelation pRelation) {
     Set<SMGValue> toAdd = new HashSet<>();
-    for (Entry<SMGValue, SMGValue> entry : pRelation.smgValuesDependency.entries()) {
+    for (Entry<SMGValue, ImmutableSet<SMGValue>> entry : pRelation.smgValuesDependency.entries()) {
       SMGValue key = entry.getKey();
-      SMGValue value = entry.getValue();
-      if (key.compareTo(value) > 0) {
-        toAdd.add(key);
-        toAdd.add(value);
+      for (SMGValue value : entry.getValue()) {
+        if (key.compareTo(value) > 0) {
+          toAdd.add(key);
+          toAdd.add(value);
+        }
       }
     }
     Set<SMGValue> result = new HashSet<>();
@@ -149,7 +187,7 @@ public final class PredRelation {
   }
 
   public boolean isEmpty() {
-    return smgExplicitValueRelation.isEmpty() && smgValuesRelation.isEmpty();
+    return smgExplicitValueRelation.size() == 0 && smgValuesRelation.size() == 0;
   }
 
   @Override
@@ -164,7 +202,7 @@ public final class PredRelation {
       return false;
     }
     PredRelation other = (PredRelation) obj;
-    return other.smgValuesRelation != null && smgValuesRelation.equals(other.smgValuesRelation);
+    return smgValuesRelation.equals(other.smgValuesRelation);
   }
 
   @Override
@@ -180,30 +218,79 @@ public final class PredRelation {
     return smgExplicitValueRelation.values();
   }
 
-  public Set<Entry<Pair<SMGValue, SMGValue>, SymbolicRelation>> getValuesRelations() {
-    return smgValuesRelation.entries();
+  /**
+   * Returns all relations between symbolic values. Each relation is contained only once, although
+   * it is stored for both directions.
+   */
+  public Collection<SymbolicRelation> getValuesRelations() {
+    List<SymbolicRelation> result = new ArrayList<>();
+    for (Entry<ValuePair, ImmutableSet<SymbolicRelation>> entry : smgValuesRelation.entries()) {
+      if (entry.getKey().second.compareTo(entry.getKey().first) > 0) {
+        result.addAll(entry.getValue());
+      }
+    }
+    return result;
   }
 
   public boolean isLessOrEqual(PredRelation pPathPredicateRelation) {
-    if (smgValuesDependency.size() > pPathPredicateRelation.smgValuesDependency.size()) {
-      return false;
+    return containsAll(pPathPredicateRelation.smgValuesDependency, smgValuesDependency)
+        && containsAll(pPathPredicateRelation.smgExplicitValueRelation, smgExplicitValueRelation)
+        && containsAll(pPathPredicateRelation.smgValuesRelation, smgValuesRelation);
+  }
+
+  private static <K, V> boolean containsAll(
+      PersistentMultimap<K, V> pContaining, PersistentMultimap<K, V> pContained) {
+    if (pContaining == pContained) {
+      return true;
     }
-    if (smgExplicitValueRelation.size() > pPathPredicateRelation.smgExplicitValueRelation.size()) {
-      return false;
+    for (Entry<K, ImmutableSet<V>> entry : pContained.entries()) {
+      if (!pContaining.get(entry.getKey()).containsAll(entry.getValue())) {
+        return false;
+      }
     }
-    if (smgValuesRelation.size() > pPathPredicateRelation.smgValuesDependency.size()) {
-      return false;
+    return true;
+  }
+
+  /** An ordered pair of values, used as key for the symbolic relations. */
+  private static final class ValuePair implements Comparable<ValuePair> {
+
+    private final SMGValue first;
+    private final SMGValue second;
+
+    private ValuePair(SMGValue pFirst, SMGValue pSecond) {
+      first = pFirst;
+      second = pSecond;
     }
-    if (!pPathPredicateRelation.smgValuesDependency.entries().containsAll(smgValuesDependency.entries())) {
-      return false;
+
+    @Override
+    public int compareTo(ValuePair pOther) {
+      return ComparisonChain.start()
+          .compare(first, pOther.first)
+          .compare(second, pOther.second)
+          .result();
     }
-    if (!pPathPredicateRelation.smgExplicitValueRelation.entries().containsAll(smgExplicitValueRelation.entries())) {
-      return false;
+
+    @Override
+    public boolean equals(Object pOther) {
+      if (this == pOther) {
+        return true;
+      }
+      if (!(pOther instanceof ValuePair)) {
+        return false;
+      }
+      ValuePair other = (ValuePair) pOther;
+      return first.equals(other.first) && second.equals(other.second);
     }
-    if (!pPathPredicateRelation.smgValuesRelation.entries().containsAll(smgValuesRelation.entries())) {
-      return false;
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(first, second);
+    }
+
+    @Override
+    public String toString() {
+      return "(" + first + ", " + second + ")";
     }
-    return true;
   }
 
   static public class SymbolicRelation {
@@ -313,10 +400,4 @@ public final class PredRelation {
           '}';
     }
   }
-
-  public void clear() {
-    smgExplicitValueRelation.clear();
-    smgValuesDependency.clear();
-    smgValuesRelation.clear();
-  }
 }
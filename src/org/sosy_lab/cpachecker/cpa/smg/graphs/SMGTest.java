@@ -14,6 +14,7 @@ import java.util.TreeMap;
 import org.junit.Before;
 import org.junit.Test;
 import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.ast.c.CBinaryExpression.BinaryOperator;
 import org.sosy_lab.cpachecker.cfa.types.MachineModel;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgeHasValue;
 import org.sosy_lab.cpachecker.cpa.smg.graphs.edge.SMGEdgePointsTo;
@@ -484,4 +485,24 @@ public class SMGTest {
     assertThat(nr.neq_exists(one, three)).isFalse();
     assertThat(nr.neq_exists(two, three)).isFalse();
   }
+
+  @Test
+  public void predRelationCopyTest() {
+    SMGValue one = SMGKnownSymValue.of();
+    SMGValue two = SMGKnownSymValue.of();
+    SMGValue three = SMGKnownSymValue.of();
+
+    PredRelation pr = PredRelation.of().addRelationAndCopy(one, two, BinaryOperator.LESS_THAN);
+    PredRelation copy = pr.addRelationAndCopy(two, three, BinaryOperator.NOT_EQUALS);
+
+    assertThat(pr.getValuesRelations()).hasSize(1);
+    assertThat(copy.getValuesRelations()).hasSize(2);
+    assertThat(pr.isLessOrEqual(copy)).isTrue();
+    assertThat(copy.isLessOrEqual(pr)).isFalse();
+
+    PredRelation removed = copy.removeValueAndCopy(three);
+    assertThat(removed).isEqualTo(pr);
+    assertThat(copy.getValuesRelations()).hasSize(2);
+    assertThat(removed.removeValueAndCopy(one).isEmpty()).isTrue();
+  }
 }
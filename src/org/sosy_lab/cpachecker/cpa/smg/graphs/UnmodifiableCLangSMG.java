@@ -39,6 +39,13 @@ public interface UnmodifiableCLangSMG extends UnmodifiableSMG {
   /** return a unmodifiable view on all SMG-objects on the heap. */
   PersistentSet<SMGObject> getHeapObjects();
 
+  /**
+   * Returns a fingerprint of the set of heap objects, which is updated incrementally when heap
+   * objects are added or removed. SMGs with the same heap objects have the same fingerprint, thus
+   * different fingerprints allow to cheaply detect different heaps without comparing them.
+   */
+  long getHeapObjectsFingerprint();
+
   /** check whether an object is part of the heap. */
   boolean isHeapObject(SMGObject object);
 
@@ -66,6 +66,11 @@ public class SMGIsLessOrEqual {
         return false;
       }
 
+      // the heaps are compared object by object below, thus the sets of heap objects must be equal
+      if (pSMG1.getHeapObjectsFingerprint() != pSMG2.getHeapObjectsFingerprint()) {
+        return false;
+      }
+
       if (pSMG1.getStackFrames().size() != pSMG2.getStackFrames().size()) {
         return false;
       }
@@ -59,6 +59,26 @@ public final class SMGJoin {
       UnmodifiableSMGState pStateOfSmg1,
       UnmodifiableSMGState pStateOfSmg2)
       throws SMGInconsistentException {
+    this(opSMG1, opSMG2, pStateOfSmg1, pStateOfSmg2, false);
+  }
+
+  /**
+   * Algorithm 10 from FIT-TR-2012-04.
+   *
+   * @param opSMG1 left SMG for the join.
+   * @param opSMG2 right SMG for the join.
+   * @param pStateOfSmg1 state containing the left SMG, can be NULL for testing only.
+   * @param pStateOfSmg2 state containing the right SMG, can be NULL for testing only.
+   * @param pAbortIfIncomparable whether to stop as soon as the status is {@link
+   *     SMGJoinStatus#INCOMPARABLE}, e.g., for a coverage check. An aborted join is not defined.
+   */
+  public SMGJoin(
+      UnmodifiableCLangSMG opSMG1,
+      UnmodifiableCLangSMG opSMG2,
+      UnmodifiableSMGState pStateOfSmg1,
+      UnmodifiableSMGState pStateOfSmg2,
+      boolean pAbortIfIncomparable)
+      throws SMGInconsistentException {
 
     smg = new CLangSMG(opSMG1.getMachineModel());
 
@@ -69,6 +89,9 @@ public final class SMGJoin {
     // FIT-TR-2012-04, Alg 10, line 2
     SMGJoinStatus tmpStatus2 = joinStackVariables(opSMG1.getStackFrames(), opSMG2.getStackFrames());
     status = status.updateWith(tmpStatus2);
+    if (isAborted(pAbortIfIncomparable)) {
+      return;
+    }
 
     // FIT-TR-2012-04, Alg 10, line 3
     // join heap for globally pointed objects, global variable names are already joined
@@ -76,7 +99,8 @@ public final class SMGJoin {
       SMGObject globalInSMG1 = opSMG1.getGlobalObjects().get(entry.getKey());
       SMGObject globalInSMG2 = opSMG2.getGlobalObjects().get(entry.getKey());
       SMGObject destinationGlobal = mapping1.get(globalInSMG1);
-      SMGJoinSubSMGs jss = new SMGJoinSubSMGs(status, opSMG1, opSMG2, smg, mapping1, mapping2, levelMap, globalInSMG1, globalInSMG2, destinationGlobal, 0,false, pStateOfSmg1, pStateOfSmg2);
+      SMGJoinSubSMGs jss = new SMGJoinSubSMGs(status, opSMG1, opSMG2, smg, mapping1, mapping2, levelMap, globalInSMG1, globalInSMG2, destinationGlobal, 0,false, pStateOfSmg1, pStateOfSmg2,
+          pAbortIfIncomparable);
       status = jss.getStatus();
       if (!jss.isDefined()) {
         return;
@@ -97,7 +121,8 @@ public final class SMGJoin {
         SMGObject localInSMG1 = frameInSMG1.getVariable(localVar);
         SMGObject localInSMG2 = frameInSMG2.getVariable(localVar);
         SMGObject destinationLocal = mapping1.get(localInSMG1);
-        SMGJoinSubSMGs jss = new SMGJoinSubSMGs(status, opSMG1, opSMG2, smg, mapping1, mapping2, levelMap, localInSMG1, localInSMG2, destinationLocal, 0, false, pStateOfSmg1, pStateOfSmg2);
+        SMGJoinSubSMGs jss = new SMGJoinSubSMGs(status, opSMG1, opSMG2, smg, mapping1, mapping2, levelMap, localInSMG1, localInSMG2, destinationLocal, 0, false, pStateOfSmg1, pStateOfSmg2,
+            pAbortIfIncomparable);
         status = jss.getStatus();
         if (!jss.isDefined()) {
           return;
@@ -113,7 +138,8 @@ public final class SMGJoin {
         mapping2.map(returnObjectInSmg2, destinationLocal);
         SMGJoinSubSMGs jss =
             new SMGJoinSubSMGs(status, opSMG1, opSMG2, smg, mapping1, mapping2, levelMap, returnObjectInSmg1,
-                returnObjectInSmg2, destinationLocal, 0, false, pStateOfSmg1, pStateOfSmg2);
+                returnObjectInSmg2, destinationLocal, 0, false, pStateOfSmg1, pStateOfSmg2,
+                pAbortIfIncomparable);
         status = jss.getStatus();
         if (!jss.isDefined()) {
           return;
@@ -154,6 +180,10 @@ public final class SMGJoin {
     }
   }
 
+  private boolean isAborted(boolean pAbortIfIncomparable) {
+    return pAbortIfIncomparable && status == SMGJoinStatus.INCOMPARABLE;
+  }
+
   /**
    * searches for common global variables and copies them over into a new SMG.
    *
@@ -0,0 +1,86 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.smg.join;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cpa.smg.SMGInconsistentException;
+import org.sosy_lab.cpachecker.cpa.smg.SMGOptions;
+import org.sosy_lab.cpachecker.cpa.smg.SMGState;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.CLangSMG;
+import org.sosy_lab.cpachecker.cpa.smg.graphs.object.sll.TestHelpers;
+
+/**
+ * Microbenchmark for {@link SMGJoin} and {@link SMGIsLessOrEqual} on heaps that consist of several
+ * singly-linked lists reachable from global variables.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SMGJoinBenchmark {
+
+  private static final int NODE_SIZE = 128;
+  private static final int NEXT_OFFSET = 64;
+
+  @Param({"4"})
+  public int lists;
+
+  @Param({"5", "50"})
+  public int listLength;
+
+  private SMGState dummyState;
+  private CLangSMG smg1;
+  private CLangSMG smg2;
+
+  @Setup
+  public void createHeaps() throws Exception {
+    dummyState =
+        new SMGState(
+            LogManager.createNullLogManager(),
+            MachineModel.LINUX64,
+            new SMGOptions(Configuration.defaultConfiguration()));
+    smg1 = new CLangSMG(MachineModel.LINUX64);
+    smg2 = new CLangSMG(MachineModel.LINUX64);
+    for (int i = 0; i < lists; i++) {
+      TestHelpers.createGlobalList(smg1, listLength, NODE_SIZE, NEXT_OFFSET, "list" + i);
+      TestHelpers.createGlobalList(smg2, listLength, NODE_SIZE, NEXT_OFFSET, "list" + i);
+    }
+  }
+
+  @Benchmark
+  public SMGJoinStatus join() throws SMGInconsistentException {
+    return new SMGJoin(smg1, smg2, dummyState, dummyState).getStatus();
+  }
+
+  @Benchmark
+  public boolean isLessOrEqual() throws SMGInconsistentException {
+    return SMGIsLessOrEqual.isLessOrEqual(smg1, smg2);
+  }
+
+  @Benchmark
+  public CLangSMG copy() {
+    return smg1.copyOf();
+  }
+}
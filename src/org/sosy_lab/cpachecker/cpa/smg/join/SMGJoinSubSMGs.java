@@ -42,7 +42,13 @@ final class SMGJoinSubSMGs {
   private final SMGNodeMapping mapping2;
   private final List<SMGGenericAbstractionCandidate> subSmgAbstractionCandidates;
 
-  /** Algorithm 4 from FIT-TR-2012-04. */
+  /**
+   * Algorithm 4 from FIT-TR-2012-04.
+   *
+   * <p>If pAbortIfIncomparable is set, the join of the sub-SMGs (including the joins of all
+   * sub-SMGs that are reachable from it) stops and is not defined as soon as its status is {@link
+   * SMGJoinStatus#INCOMPARABLE}.
+   */
   public SMGJoinSubSMGs(
       SMGJoinStatus initialStatus,
       UnmodifiableSMG pSMG1,
@@ -57,7 +63,8 @@ final class SMGJoinSubSMGs {
       int pLDiff,
       boolean identicalInputSmg,
       UnmodifiableSMGState pSmgState1,
-      UnmodifiableSMGState pSmgState2)
+      UnmodifiableSMGState pSmgState2,
+      boolean pAbortIfIncomparable)
       throws SMGInconsistentException {
 
     // Algorithm 4 from FIT-TR-2012-04, line 1
@@ -74,6 +81,10 @@ final class SMGJoinSubSMGs {
       SMGJoinFields.checkResultConsistency(inputSMG1, inputSMG2, pObj1, pObj2);
     }
 
+    if (pAbortIfIncomparable && status == SMGJoinStatus.INCOMPARABLE) {
+      return;
+    }
+
     /*
      * After joinFields, the objects have identical set of fields. Therefore, to iterate
      * over them, it is sufficient to loop over HV set in the first SMG, and just
@@ -135,9 +146,15 @@ final class SMGJoinSubSMGs {
               value2Level,
               prevLevel,
               pSmgState1,
-              pSmgState2);
+              pSmgState2,
+              pAbortIfIncomparable);
       status = joinValues.getStatus();
 
+      if (pAbortIfIncomparable && status == SMGJoinStatus.INCOMPARABLE) {
+        defined = false;
+        return;
+      }
+
       /* If the join of the values is not defined and can't be
        * recovered through abstraction, the join fails.*/
       if (!joinValues.isDefined() && !joinValues.isRecoverable()) {
@@ -100,7 +100,8 @@ final class SMGJoinTargetObjects {
       int ldiff,
       boolean identicalInputSmgs,
       UnmodifiableSMGState pSmgState1,
-      UnmodifiableSMGState pSmgState2)
+      UnmodifiableSMGState pSmgState2,
+      boolean pAbortIfIncomparable)
       throws SMGInconsistentException {
 
     inputSMG1 = pSMG1;
@@ -186,7 +187,8 @@ final class SMGJoinTargetObjects {
     // Algorithm 6 from FIT-TR-2012-04, line 14
     SMGJoinSubSMGs jss = new SMGJoinSubSMGs(status, inputSMG1, inputSMG2, destSMG,
         mapping1, mapping2, pLevelMapping,
-        target1, target2, newObject, ldiff, identicalInputSmgs, pSmgState1, pSmgState2);
+        target1, target2, newObject, ldiff, identicalInputSmgs, pSmgState1, pSmgState2,
+        pAbortIfIncomparable);
 
     if (jss.isDefined()) {
       defined = true;
@@ -61,7 +61,7 @@ public class SMGJoinTargetObjectsTest {
     smg2.addValue(value2);
     smg2.addPointsToEdge(pt2);
 
-    SMGJoinTargetObjects jto = new SMGJoinTargetObjects(SMGJoinStatus.EQUAL, smg1, smg2, destSMG, mapping1, mapping2, SMGLevelMapping.createDefaultLevelMap(), value1, value2, 0,0, 0, false, null, null);
+    SMGJoinTargetObjects jto = new SMGJoinTargetObjects(SMGJoinStatus.EQUAL, smg1, smg2, destSMG, mapping1, mapping2, SMGLevelMapping.createDefaultLevelMap(), value1, value2, 0,0, 0, false, null, null, false);
     assertThat(jto.mapping2.get(obj2)).isSameInstanceAs(jto.mapping1.get(obj1));
     // TODO investigate why they should not be the same, regions are immutable
     // Assert.assertNotSame(jto.mapping1.get(obj1), obj1);
@@ -93,7 +93,8 @@ public class SMGJoinTargetObjectsTest {
             0,
             false,
             null,
-            null);
+            null,
+            false);
     assertThat(jto.isDefined()).isFalse();
     assertThat(jto.isRecoverable()).isTrue();
   }
@@ -112,7 +113,7 @@ public class SMGJoinTargetObjectsTest {
     smg2.addPointsToEdge(pt2null);
 
     SMGJoinTargetObjects jto = new SMGJoinTargetObjects(SMGJoinStatus.EQUAL, smg1, smg2, null, null,
-        null, SMGLevelMapping.createDefaultLevelMap(), value1, value2, 0, 0, 0, false, null, null);
+        null, SMGLevelMapping.createDefaultLevelMap(), value1, value2, 0, 0, 0, false, null, null, false);
 
     assertThat(jto.isDefined()).isFalse();
     assertThat(jto.isRecoverable()).isTrue();
@@ -138,7 +139,7 @@ public class SMGJoinTargetObjectsTest {
             new SMGNodeMapping(mapping2),
             value1,
             value2);
-    SMGJoinTargetObjects jto = new SMGJoinTargetObjects(SMGJoinStatus.EQUAL, smg1, smg2, destSMG, mapping1, mapping2, SMGLevelMapping.createDefaultLevelMap(), value1, value2, 0, 0, 0, false, null, null);
+    SMGJoinTargetObjects jto = new SMGJoinTargetObjects(SMGJoinStatus.EQUAL, smg1, smg2, destSMG, mapping1, mapping2, SMGLevelMapping.createDefaultLevelMap(), value1, value2, 0, 0, 0, false, null, null, false);
     assertThat(jto.isDefined()).isTrue();
     assertThat(jto.getStatus()).isEqualTo(SMGJoinStatus.EQUAL);
     assertThat(jto.getInputSMG1()).isSameInstanceAs(smg1);
@@ -168,7 +169,7 @@ public class SMGJoinTargetObjectsTest {
     // SMGMapTargetAddress mta = new SMGMapTargetAddress(new SMG(smg1), new SMG(smg2), new SMG(destSMG),
     //                                                  new SMGNodeMapping(mapping1), new SMGNodeMapping(mapping2),
     //                                                  value1, value2);
-    SMGJoinTargetObjects jto = new SMGJoinTargetObjects(SMGJoinStatus.EQUAL, smg1, smg2, destSMG, mapping1, mapping2, SMGLevelMapping.createDefaultLevelMap(), value1, value2, 0, 0, 0, false, null, null);
+    SMGJoinTargetObjects jto = new SMGJoinTargetObjects(SMGJoinStatus.EQUAL, smg1, smg2, destSMG, mapping1, mapping2, SMGLevelMapping.createDefaultLevelMap(), value1, value2, 0, 0, 0, false, null, null, false);
     assertThat(jto.isDefined()).isTrue();
     assertThat(jto.getStatus()).isEqualTo(SMGJoinStatus.EQUAL);
     assertThat(jto.getInputSMG1()).isSameInstanceAs(smg1);
@@ -201,6 +201,38 @@ public class SMGJoinTest {
     assertObjectCounts(resultSMG, 1, 1, 0);
   }
 
+  @Test
+  public void abortIncomparableJoinTest() throws SMGInconsistentException {
+    smg1.addGlobalObject(new SMGRegion(64, "left"));
+    smg2.addGlobalObject(new SMGRegion(64, "right"));
+
+    SMGJoin join = new SMGJoin(smg1, smg2, dummyState, dummyState);
+    assertThat(join.isDefined()).isTrue();
+    assertThat(join.getStatus()).isEqualTo(SMGJoinStatus.INCOMPARABLE);
+
+    SMGJoin abortedJoin = new SMGJoin(smg1, smg2, dummyState, dummyState, true);
+    assertThat(abortedJoin.isDefined()).isFalse();
+    assertThat(abortedJoin.getStatus()).isEqualTo(SMGJoinStatus.INCOMPARABLE);
+  }
+
+  @Test
+  public void abortIncomparableJoinOfHeapTest() throws SMGInconsistentException {
+    Pair<SMGRegion, SMGRegion> global = addGlobalWithoutValueToBoth("global", 64);
+    Pair<SMGRegion, SMGRegion> heap = addHeapWithoutValueToBoth("heap", 64);
+    addPointerValueToBoth(global, 0, 5, 64, heap, 0);
+    // the heap objects are only incomparable in the nested join of the sub-SMGs
+    smg1.addHasValueEdge(new SMGEdgeHasValue(32, 0, heap.getFirst(), SMGZeroValue.INSTANCE));
+    smg2.addHasValueEdge(new SMGEdgeHasValue(32, 32, heap.getSecond(), SMGZeroValue.INSTANCE));
+
+    SMGJoin join = new SMGJoin(smg1, smg2, dummyState, dummyState);
+    assertThat(join.isDefined()).isTrue();
+    assertThat(join.getStatus()).isEqualTo(SMGJoinStatus.INCOMPARABLE);
+
+    SMGJoin abortedJoin = new SMGJoin(smg1, smg2, dummyState, dummyState, true);
+    assertThat(abortedJoin.isDefined()).isFalse();
+    assertThat(abortedJoin.getStatus()).isEqualTo(SMGJoinStatus.INCOMPARABLE);
+  }
+
   @Test
   public void simpleLocalVarJoinTest() throws SMGInconsistentException {
     String varName = "variableName";
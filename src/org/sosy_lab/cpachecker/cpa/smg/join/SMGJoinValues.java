@@ -51,6 +51,7 @@ final class SMGJoinValues {
 
   private final UnmodifiableSMGState smgState1;
   private final UnmodifiableSMGState smgState2;
+  private final boolean abortIfIncomparable;
 
   private List<SMGGenericAbstractionCandidate> abstractionCandidates;
   private boolean recoverable;
@@ -211,7 +212,8 @@ final class SMGJoinValues {
             ldiff,
             identicalInputSmg,
             smgState1,
-            smgState2);
+            smgState2,
+            abortIfIncomparable);
     if (jto.isDefined()) {
       status = jto.getStatus();
       inputSMG1 = jto.getInputSMG1();
@@ -252,7 +254,8 @@ final class SMGJoinValues {
       int levelV2,
       int pPrevDestLevel,
       UnmodifiableSMGState pStateOfSmg1,
-      UnmodifiableSMGState pStateOfSmg2)
+      UnmodifiableSMGState pStateOfSmg2,
+      boolean pAbortIfIncomparable)
       throws SMGInconsistentException {
     mapping1 = pMapping1;
     mapping2 = pMapping2;
@@ -262,6 +265,7 @@ final class SMGJoinValues {
     destSMG = pDestSMG;
     smgState1 = pStateOfSmg1;
     smgState2 = pStateOfSmg2;
+    abortIfIncomparable = pAbortIfIncomparable;
 
     // Algorithm 5 from FIT-TR-2012-04, line 1, change: only for identical SMGs
     if (identicalInputSmg && joinValuesIdentical(pValue1, pValue2)) {
@@ -561,7 +565,8 @@ final class SMGJoinValues {
             pLevelV2,
             pPrevDestLevel,
             smgState1,
-            smgState2);
+            smgState2,
+            abortIfIncomparable);
 
     SMGValue newAddressFromOptionalObject;
 
@@ -818,7 +823,8 @@ final class SMGJoinValues {
             pLevelV2,
             pPrevDestLevel,
             smgState1,
-            smgState2);
+            smgState2,
+            abortIfIncomparable);
 
     SMGValue newAddressFromOptionalObject;
 
@@ -1000,7 +1006,8 @@ final class SMGJoinValues {
               level2,
               pPrevDestLevel,
               smgState1,
-              smgState2);
+              smgState2,
+              abortIfIncomparable);
 
       if(jv.isDefined()) {
 
@@ -1076,7 +1083,8 @@ final class SMGJoinValues {
             level2,
             pPrevDestLevel,
             smgState1,
-            smgState2);
+            smgState2,
+            abortIfIncomparable);
 
     SMGValue newAdressFromDLS;
 
@@ -1258,7 +1266,8 @@ final class SMGJoinValues {
               level2,
               pPrevDestLevel,
               smgState1,
-              smgState2);
+              smgState2,
+              abortIfIncomparable);
 
       if(jv.isDefined()) {
 
@@ -1328,7 +1337,8 @@ final class SMGJoinValues {
             level2,
             pPrevDestLevel,
             smgState1,
-            smgState2);
+            smgState2,
+            abortIfIncomparable);
 
     SMGValue newAdressFromDLS;
 
@@ -19,6 +19,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.logging.Level;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -49,6 +50,8 @@ import org.sosy_lab.cpachecker.core.interfaces.Statistics;
 import org.sosy_lab.cpachecker.core.interfaces.StatisticsProvider;
 import org.sosy_lab.cpachecker.core.interfaces.StopOperator;
 import org.sosy_lab.cpachecker.core.interfaces.pcc.ProofChecker.ProofCheckerCPA;
+import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ArtifactExchange;
 import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisPrecisionAdjustment.PrecAdjustmentOptions;
 import org.sosy_lab.cpachecker.cpa.value.ValueAnalysisPrecisionAdjustment.PrecAdjustmentStatistics;
@@ -115,6 +118,7 @@ public class ValueAnalysisCPA extends AbstractCPA
   private final LogManager logger;
   private final ShutdownNotifier shutdownNotifier;
   private final CFA cfa;
+  private final Optional<ArtifactExchange> artifactExchange;
 
   private boolean refineablePrecisionSet = false;
   private ValueAnalysisConcreteErrorPathAllocator errorPathAllocator;
@@ -128,12 +132,14 @@ public class ValueAnalysisCPA extends AbstractCPA
   private SymbolicStatistics symbolicStats;
 
   private ValueAnalysisCPA(Configuration config, LogManager logger,
-      ShutdownNotifier pShutdownNotifier, CFA cfa) throws InvalidConfigurationException {
+      ShutdownNotifier pShutdownNotifier, CFA cfa, AggregatedReachedSets pAggregatedReachedSets)
+      throws InvalidConfigurationException {
     super(DelegateAbstractDomain.<ValueAnalysisState>getInstance(), null);
     this.config           = config;
     this.logger           = logger;
     this.shutdownNotifier = pShutdownNotifier;
     this.cfa              = cfa;
+    artifactExchange = pAggregatedReachedSets.getArtifactExchange();
 
     config.inject(this, ValueAnalysisCPA.class);
 
@@ -298,6 +304,11 @@ public class ValueAnalysisCPA extends AbstractCPA
     return cfa;
   }
 
+  /** The exchange for artifacts shared with other analyses that run in parallel, if any. */
+  public Optional<ArtifactExchange> getArtifactExchange() {
+    return artifactExchange;
+  }
+
   @Override
   public Reducer getReducer() {
     return new ValueAnalysisReducer();
@@ -0,0 +1,94 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.value;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.cpa.value.type.NumericValue;
+import org.sosy_lab.cpachecker.util.states.MemoryLocation;
+
+/**
+ * Microbenchmark for the lattice operations of {@link ValueAnalysisState}, which are executed by
+ * the merge and stop operators for every successor.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValueAnalysisStateBenchmark {
+
+  /** Number of tracked variables per state. */
+  @Param({"10", "100", "1000"})
+  public int size;
+
+  /** Every n-th variable has a different value in the second state. */
+  @Param({"10"})
+  public int differenceEvery;
+
+  private ValueAnalysisState state;
+  private ValueAnalysisState equalState;
+  private ValueAnalysisState differentState;
+
+  @Setup
+  public void createStates() {
+    state = new ValueAnalysisState(MachineModel.LINUX64);
+    equalState = new ValueAnalysisState(MachineModel.LINUX64);
+    differentState = new ValueAnalysisState(MachineModel.LINUX64);
+
+    for (int i = 0; i < size; i++) {
+      MemoryLocation location = MemoryLocation.valueOf("main", "var" + i);
+      state.assignConstant(location, new NumericValue(i), CNumericTypes.INT);
+      equalState.assignConstant(location, new NumericValue(i), CNumericTypes.INT);
+      int value = i % differenceEvery == 0 ? -i - 1 : i;
+      differentState.assignConstant(location, new NumericValue(value), CNumericTypes.INT);
+    }
+  }
+
+  @Benchmark
+  public ValueAnalysisState joinEqual() {
+    return state.join(equalState);
+  }
+
+  @Benchmark
+  public ValueAnalysisState joinDifferent() {
+    return state.join(differentState);
+  }
+
+  @Benchmark
+  public boolean isLessOrEqualEqual() {
+    return state.isLessOrEqual(equalState);
+  }
+
+  @Benchmark
+  public boolean isLessOrEqualDifferent() {
+    return state.isLessOrEqual(differentState);
+  }
+
+  @Benchmark
+  public ValueAnalysisState copyAndAssign() {
+    ValueAnalysisState copy = ValueAnalysisState.copyOf(state);
+    copy.assignConstant(
+        MemoryLocation.valueOf("main", "var0"), new NumericValue(-1), CNumericTypes.INT);
+    return copy;
+  }
+}
@@ -15,8 +15,10 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Predicates;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSetMultimap;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
 import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import java.io.PrintStream;
@@ -33,6 +35,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.TreeSet;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -41,12 +44,14 @@ import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
 import org.sosy_lab.cpachecker.core.counterexample.CFAPathWithAssumptions;
 import org.sosy_lab.cpachecker.core.defaults.precision.VariableTrackingPrecision;
 import org.sosy_lab.cpachecker.core.interfaces.ConfigurableProgramAnalysis;
 import org.sosy_lab.cpachecker.core.interfaces.Precision;
 import org.sosy_lab.cpachecker.core.interfaces.Refiner;
+import org.sosy_lab.cpachecker.core.reachedset.ArtifactExchange.Endpoint;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.arg.ARGBasedRefiner;
 import org.sosy_lab.cpachecker.cpa.arg.ARGReachedSet;
@@ -72,6 +77,8 @@ import org.sosy_lab.cpachecker.util.refinement.PathExtractor;
 import org.sosy_lab.cpachecker.util.refinement.StrongestPostOperator;
 import org.sosy_lab.cpachecker.util.states.MemoryLocation;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.cpachecker.util.statistics.StatInt;
+import org.sosy_lab.cpachecker.util.statistics.StatKind;
 import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
 
 @Options(prefix = "cpa.value.refinement")
@@ -125,9 +132,14 @@ public class ValueAnalysisRefiner
 
   private final ShutdownNotifier shutdownNotifier;
 
+  // for sharing precisions with other analyses that run in parallel
+  private @Nullable Endpoint<MemoryLocation> precisionExchange = null;
+
   // Statistics
   private final StatCounter rootRelocations = new StatCounter("Number of root relocations");
   private final StatCounter repeatedRefinements = new StatCounter("Number of similar, repeated refinements");
+  private final StatInt receivedIncrements =
+      new StatInt(StatKind.SUM, "Number of precision increments received from other analyses");
 
   public static Refiner create(final ConfigurableProgramAnalysis pCpa)
       throws InvalidConfigurationException {
@@ -155,14 +167,20 @@ public class ValueAnalysisRefiner
         new ValueAnalysisPrefixProvider(
             logger, cfa, config, valueAnalysisCpa.getShutdownNotifier());
 
-    return new ValueAnalysisRefiner(checker,
-        strongestPostOp,
-        new PathExtractor(logger, config),
-        prefixProvider,
-        config,
-        logger,
-        valueAnalysisCpa.getShutdownNotifier(),
-        cfa);
+    ValueAnalysisRefiner refiner =
+        new ValueAnalysisRefiner(
+            checker,
+            strongestPostOp,
+            new PathExtractor(logger, config),
+            prefixProvider,
+            config,
+            logger,
+            valueAnalysisCpa.getShutdownNotifier(),
+            cfa);
+    valueAnalysisCpa
+        .getArtifactExchange()
+        .ifPresent(exchange -> refiner.setPrecisionExchange(exchange.connectToValuePrecisions()));
+    return refiner;
   }
 
   ValueAnalysisRefiner(
@@ -189,6 +207,32 @@ public class ValueAnalysisRefiner
     checker = pFeasibilityChecker;
     concreteErrorPathAllocator = new ValueAnalysisConcreteErrorPathAllocator(pConfig, logger, pCfa.getMachineModel());
     shutdownNotifier = pShutdownNotifier;
+
+    enableParallelRefinement(
+        () -> {
+          StrongestPostOperator<ValueAnalysisState> strongestPostOp =
+              new ValueAnalysisStrongestPostOperator(pLogger, pConfig, pCfa);
+          ValueAnalysisFeasibilityChecker feasibilityChecker =
+              new ValueAnalysisFeasibilityChecker(strongestPostOp, pLogger, pCfa, pConfig);
+          return Pair.of(
+              feasibilityChecker,
+              new ValueAnalysisPathInterpolator(
+                  feasibilityChecker,
+                  strongestPostOp,
+                  new ValueAnalysisPrefixProvider(pLogger, pCfa, pConfig, pShutdownNotifier),
+                  pConfig,
+                  pLogger,
+                  pShutdownNotifier,
+                  pCfa));
+        });
+  }
+
+  /**
+   * Share the precision increments found by this refiner with other analyses that run in
+   * parallel, and use the increments found by them.
+   */
+  final void setPrecisionExchange(Endpoint<MemoryLocation> pPrecisionExchange) {
+    precisionExchange = pPrecisionExchange;
   }
 
   @Override
@@ -199,6 +243,13 @@ public class ValueAnalysisRefiner
     final UnmodifiableReachedSet reached = pReached.asReachedSet();
     final boolean predicatePrecisionIsAvailable = isPredicatePrecisionAvailable(reached);
 
+    // increments published by other analyses since the last refinement are added to all roots
+    Multimap<CFANode, MemoryLocation> foreignIncrement = ImmutableSetMultimap.of();
+    if (precisionExchange != null) {
+      foreignIncrement = precisionExchange.poll();
+      receivedIncrements.setNextValue(foreignIncrement.size());
+    }
+
     Map<ARGState, List<Precision>> refinementInformation = new LinkedHashMap<>();
     Collection<ARGState> refinementRoots = pInterpolationTree.obtainRefinementRoots(restartStrategy);
 
@@ -232,8 +283,13 @@ public class ValueAnalysisRefiner
       }
 
       // merge the value precisions of the subtree, and refine it
-      precisions.add(
-          basePrecision.withIncrement(pInterpolationTree.extractPrecisionIncrement(root)));
+      Multimap<CFANode, MemoryLocation> increment =
+          pInterpolationTree.extractPrecisionIncrement(root);
+      if (precisionExchange != null) {
+        precisionExchange.publish(increment);
+        increment.putAll(foreignIncrement);
+      }
+      precisions.add(basePrecision.withIncrement(increment));
 
       // merge the predicate precisions of the subtree, if available
       if (predicatePrecisionIsAvailable) {
@@ -430,6 +486,7 @@ public class ValueAnalysisRefiner
 
     writer.put(rootRelocations)
         .put(repeatedRefinements)
-        .put("Number of unique precision increments", previousRefinementIds.size());
+        .put("Number of unique precision increments", previousRefinementIds.size())
+        .putIf(precisionExchange != null, receivedIncrements);
   }
 }
@@ -0,0 +1,70 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.cpa.value.refiner;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+import org.junit.runners.Parameterized.Parameter;
+import org.junit.runners.Parameterized.Parameters;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.core.CPAcheckerResult.Result;
+import org.sosy_lab.cpachecker.util.test.CPATestRunner;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Checks that refining several error paths in parallel produces the same verdicts as refining one
+ * error path at a time.
+ */
+@RunWith(Parameterized.class)
+public class ValueAnalysisRefinerTest {
+
+  private static final String CONFIG_FILE = "config/valueAnalysis-Cegar.properties";
+
+  @Parameters(name = "{0}")
+  public static Object[][] getPrograms() {
+    return new Object[][] {
+      {"test/programs/simple/path_duplication.cil.c", Result.TRUE},
+      {"test/programs/simple/enum.c", Result.TRUE},
+      {"test/programs/induction/induction2.c", Result.TRUE},
+      {"test/programs/induction/induction1_BUG.c", Result.FALSE},
+      {"test/programs/simple/binary-or-optimization-1.c", Result.FALSE},
+    };
+  }
+
+  @Parameter(0)
+  public String program;
+
+  @Parameter(1)
+  public Result expected;
+
+  private Result check(int pParallelRefinementPaths) throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest()
+            .loadFromFile(CONFIG_FILE)
+            .setOption(
+                "cpa.value.refinement.parallelRefinementPaths",
+                Integer.toString(pParallelRefinementPaths))
+            .setOption("cpa.value.refinement.parallelRefinementThreads", "2")
+            .build();
+    return CPATestRunner.run(config, program).getCheckerResult().getResult();
+  }
+
+  @Test
+  public void testSequentialRefinement() throws Exception {
+    assertThat(check(1)).isEqualTo(expected);
+  }
+
+  @Test
+  public void testParallelRefinement() throws Exception {
+    assertThat(check(4)).isEqualTo(expected);
+  }
+}
@@ -25,6 +25,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.logging.Level;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import java.util.zip.ZipOutputStream;
@@ -97,7 +98,7 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
 
       try (final OutputStream fos = Files.newOutputStream(proofFile);
           final ZipOutputStream zos = new ZipOutputStream(fos)) {
-        zos.setLevel(9);
+        zos.setLevel(getProofCompressionLevel());
 
         ZipEntry ze = new ZipEntry(PROOF_ZIPENTRY_NAME);
         zos.putNextEntry(ze);
@@ -107,6 +108,7 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
         writeProofToStream(o, pReached);
         o.flush();
         zos.closeEntry();
+        zos.setLevel(Deflater.BEST_COMPRESSION);
 
         // write additional proof information
         int index = 0;
@@ -164,6 +166,14 @@ public abstract class AbstractStrategy implements PCCStrategy, StatisticsProvide
     proofStream.getFirst().close();
   }
 
+  /**
+   * Returns the compression level for the zip entry that contains the proof, strategies that
+   * compress the proof themselves may choose {@link Deflater#NO_COMPRESSION}.
+   */
+  protected int getProofCompressionLevel() {
+    return Deflater.BEST_COMPRESSION;
+  }
+
   /**
    * Hook for adding additional output in subclasses.
    *
@@ -20,6 +20,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
+import java.util.zip.Deflater;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -140,6 +141,13 @@ public class PartitionedReachedSetStrategy extends AbstractStrategy {
     ioHelper.writeProof(pOut, pReached);
   }
 
+  @Override
+  protected int getProofCompressionLevel() {
+    return ioHelper.writesCompressedPartitions()
+        ? Deflater.NO_COMPRESSION
+        : super.getProofCompressionLevel();
+  }
+
   @Override
   protected void readProofFromStream(ObjectInputStream pIn) throws ClassNotFoundException,
       InvalidConfigurationException, IOException {
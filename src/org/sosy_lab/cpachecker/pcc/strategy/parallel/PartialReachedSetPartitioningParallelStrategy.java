@@ -25,6 +25,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
+import java.util.zip.Deflater;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
@@ -132,6 +133,13 @@ public class PartialReachedSetPartitioningParallelStrategy extends AbstractStrat
     ioHelper.writeProof(pOut,pReached);
   }
 
+  @Override
+  protected int getProofCompressionLevel() {
+    return ioHelper.writesCompressedPartitions()
+        ? Deflater.NO_COMPRESSION
+        : super.getProofCompressionLevel();
+  }
+
   @Override
   protected void readProofFromStream(ObjectInputStream pIn) throws ClassNotFoundException,
       InvalidConfigurationException, IOException {
@@ -66,6 +66,7 @@ public class PartialReachedSetIOCheckingInterleavedStrategy extends AbstractStra
       throws InvalidConfigurationException {
     super(pConfig, pLogger, pProofFile);
     ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier);
+    ioHelper.checkPartitionsNotCompressed(getClass());
     cpa = pCpa;
     shutdownNotifier = pShutdownNotifier;
     addPCCStatistic(ioHelper.getPartitioningStatistc());
@@ -70,6 +70,8 @@ public class PartialReachedSetIOCheckingOnlyInterleavedCMCStrategy extends Abstr
     config = pConfig;
     logger = pLogger;
     shutdown = pShutdownNotifier;
+    // I/O helpers are created per proof part later, but unsupported options should fail early
+    new CMCPartitioningIOHelper(pConfig, pLogger, pShutdownNotifier);
   }
 
   @Override
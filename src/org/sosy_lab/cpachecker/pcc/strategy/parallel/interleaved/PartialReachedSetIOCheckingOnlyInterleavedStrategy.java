@@ -63,6 +63,7 @@ public class PartialReachedSetIOCheckingOnlyInterleavedStrategy extends Abstract
       throws InvalidConfigurationException {
     super(pConfig, pLogger, pProofFile);
     ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier);
+    ioHelper.checkPartitionsNotCompressed(getClass());
     cpa = pCpa;
     shutdownNotifier = pShutdownNotifier;
     addPCCStatistic(ioHelper.getPartitioningStatistc());
@@ -73,6 +73,7 @@ public class PartialReachedSetParallelIOCheckingInterleavedStrategy extends Abst
     cpa = pCpa;
 
     ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier);
+    ioHelper.checkPartitionsNotCompressed(getClass());
     numReadThreads = Math.min(numReadThreads, numThreads - 1);
     numReadThreads = Math.max(0, numReadThreads);
     addPCCStatistic(ioHelper.getPartitioningStatistc());
@@ -67,6 +67,7 @@ public class PartialReachedSetParallelReadingStrategy extends AbstractStrategy {
     super(pConfig, pLogger, pProofFile);
     pConfig.inject(this);
     ioHelper = new PartitioningIOHelper(pConfig, pLogger, pShutdownNotifier);
+    ioHelper.checkPartitionsNotCompressed(getClass());
     shutdownNotifier = pShutdownNotifier;
     cpa = pCpa;
     addPCCStatistic(ioHelper.getPartitioningStatistc());
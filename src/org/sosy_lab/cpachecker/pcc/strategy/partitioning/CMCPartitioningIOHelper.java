@@ -43,6 +43,10 @@ public class CMCPartitioningIOHelper extends PartitioningIOHelper{
       final ShutdownNotifier pShutdownNotifier, final Set<ARGState> pAutomatonStates,
       final Set<ARGState> pUnexploredStates, final @Nullable ARGState pRoot) throws InvalidConfigurationException {
     super(pConfig, pLogger, pShutdownNotifier, true);
+    if (writesCompressedPartitions()) {
+      throw new InvalidConfigurationException(
+          "Compressed partitions are not supported for proofs with CMC partitions.");
+    }
     automatonStates = pAutomatonStates;
     unexploredStates = pUnexploredStates;
     if(pRoot != null) {
@@ -0,0 +1,217 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+
+import com.google.common.base.Throwables;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A container for the partitions of a certificate, in which every partition is serialized and
+ * compressed on its own. An index with the number of states, the length, and a checksum of each
+ * partition precedes the partitions. Thus partitions can be serialized in parallel, and they can
+ * be deserialized independently of each other and only when they are needed.
+ *
+ * <p>The container is kept in memory in its compressed form after reading it.
+ */
+final class CompressedPartitionContainer {
+
+  private static final int MAGIC = 0x50434350; // "PCCP"
+  private static final int VERSION = 1;
+
+  /** Serializes a single partition. */
+  @FunctionalInterface
+  interface PartitionSerializer {
+
+    /**
+     * Write the partition with the given index.
+     *
+     * @return the number of states in the partition
+     */
+    int write(int pIndex, ObjectOutputStream pOut) throws IOException;
+  }
+
+  /** Deserializes a single partition. */
+  @FunctionalInterface
+  interface PartitionDeserializer<T> {
+    T read(ObjectInputStream pIn) throws IOException, ClassNotFoundException;
+  }
+
+  private static final class SerializedPartition {
+    private final int numStates;
+    private final byte[] data;
+
+    private SerializedPartition(int pNumStates, byte[] pData) {
+      numStates = pNumStates;
+      data = pData;
+    }
+  }
+
+  private final int[] numStates;
+  private final int[] offsets;
+  private final long[] checksums;
+  private final byte[] data;
+
+  private CompressedPartitionContainer(
+      int[] pNumStates, int[] pOffsets, long[] pChecksums, byte[] pData) {
+    numStates = pNumStates;
+    offsets = pOffsets;
+    checksums = pChecksums;
+    data = pData;
+  }
+
+  /**
+   * Serialize the given number of partitions with the given serializer and write the container.
+   *
+   * @param pThreads the number of threads that serialize partitions concurrently, more than one
+   *     thread should be used only if the serialization of the abstract states is thread-safe
+   */
+  static void write(
+      DataOutput pOut, int pNumPartitions, PartitionSerializer pSerializer, int pThreads)
+      throws IOException, InterruptedException {
+    checkArgument(pThreads > 0);
+    List<SerializedPartition> partitions = new ArrayList<>(pNumPartitions);
+
+    if (pThreads == 1) {
+      for (int i = 0; i < pNumPartitions; i++) {
+        partitions.add(serialize(i, pSerializer));
+      }
+
+    } else {
+      ExecutorService executor = Executors.newFixedThreadPool(pThreads);
+      try {
+        List<Future<SerializedPartition>> futures = new ArrayList<>(pNumPartitions);
+        for (int i = 0; i < pNumPartitions; i++) {
+          final int index = i;
+          futures.add(executor.submit(() -> serialize(index, pSerializer)));
+        }
+        for (Future<SerializedPartition> future : futures) {
+          try {
+            partitions.add(future.get());
+          } catch (ExecutionException e) {
+            Throwables.throwIfInstanceOf(e.getCause(), IOException.class);
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new AssertionError(e);
+          }
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+    }
+
+    pOut.writeInt(MAGIC);
+    pOut.writeInt(VERSION);
+    pOut.writeInt(pNumPartitions);
+    for (SerializedPartition partition : partitions) {
+      CRC32 checksum = new CRC32();
+      checksum.update(partition.data);
+      pOut.writeInt(partition.numStates);
+      pOut.writeInt(partition.data.length);
+      pOut.writeLong(checksum.getValue());
+    }
+    for (SerializedPartition partition : partitions) {
+      pOut.write(partition.data);
+    }
+  }
+
+  private static SerializedPartition serialize(int pIndex, PartitionSerializer pSerializer)
+      throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    int states;
+    try (ObjectOutputStream out = new ObjectOutputStream(new DeflaterOutputStream(bytes))) {
+      states = pSerializer.write(pIndex, out);
+    }
+    return new SerializedPartition(states, bytes.toByteArray());
+  }
+
+  /** Read a container, but do not yet deserialize its partitions. */
+  static CompressedPartitionContainer read(DataInput pIn) throws IOException {
+    if (pIn.readInt() != MAGIC || pIn.readInt() != VERSION) {
+      throw new IOException("Unsupported format of certificate partitions");
+    }
+    int numPartitions = pIn.readInt();
+    if (numPartitions < 0) {
+      throw new IOException("Invalid number of certificate partitions " + numPartitions);
+    }
+
+    int[] numStates = new int[numPartitions];
+    int[] offsets = new int[numPartitions + 1];
+    long[] checksums = new long[numPartitions];
+    for (int i = 0; i < numPartitions; i++) {
+      numStates[i] = pIn.readInt();
+      int length = pIn.readInt();
+      if (length < 0 || offsets[i] > Integer.MAX_VALUE - length) {
+        throw new IOException("Invalid length of certificate partition " + i);
+      }
+      offsets[i + 1] = offsets[i] + length;
+      checksums[i] = pIn.readLong();
+    }
+
+    byte[] data = new byte[offsets[numPartitions]];
+    pIn.readFully(data);
+    return new CompressedPartitionContainer(numStates, offsets, checksums, data);
+  }
+
+  int getNumPartitions() {
+    return numStates.length;
+  }
+
+  int getNumStates(int pIndex) {
+    checkElementIndex(pIndex, numStates.length);
+    return numStates[pIndex];
+  }
+
+  int getTotalNumStates() {
+    int result = 0;
+    for (int states : numStates) {
+      result += states;
+    }
+    return result;
+  }
+
+  /**
+   * Check and deserialize a single partition. This method can be called concurrently for
+   * different partitions.
+   */
+  <T> T readPartition(int pIndex, PartitionDeserializer<T> pDeserializer)
+      throws IOException, ClassNotFoundException {
+    checkElementIndex(pIndex, numStates.length);
+    int offset = offsets[pIndex];
+    int length = offsets[pIndex + 1] - offset;
+
+    CRC32 checksum = new CRC32();
+    checksum.update(data, offset, length);
+    if (checksum.getValue() != checksums[pIndex]) {
+      throw new IOException("Checksum of certificate partition " + pIndex + " does not match");
+    }
+
+    try (ObjectInputStream in =
+        new ObjectInputStream(
+            new InflaterInputStream(new ByteArrayInputStream(data, offset, length)))) {
+      return pDeserializer.read(in);
+    }
+  }
+}
@@ -0,0 +1,137 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import org.junit.Test;
+
+public class CompressedPartitionContainerTest {
+
+  private static final int NUM_PARTITIONS = 5;
+
+  /** Partition i consists of i+1 strings. */
+  private static byte[] writeContainer(int pThreads) throws IOException, InterruptedException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      CompressedPartitionContainer.write(
+          out,
+          NUM_PARTITIONS,
+          (index, partitionOut) -> {
+            partitionOut.writeInt(index + 1);
+            for (int i = 0; i <= index; i++) {
+              partitionOut.writeObject("partition " + index + " state " + i);
+            }
+            return index + 1;
+          },
+          pThreads);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static CompressedPartitionContainer readContainer(byte[] pBytes) throws IOException {
+    return CompressedPartitionContainer.read(
+        new DataInputStream(new ByteArrayInputStream(pBytes)));
+  }
+
+  private static String[] readPartition(CompressedPartitionContainer pContainer, int pIndex)
+      throws IOException, ClassNotFoundException {
+    return pContainer.readPartition(
+        pIndex,
+        in -> {
+          String[] states = new String[in.readInt()];
+          for (int i = 0; i < states.length; i++) {
+            states[i] = (String) in.readObject();
+          }
+          return states;
+        });
+  }
+
+  private static void checkContent(CompressedPartitionContainer pContainer)
+      throws IOException, ClassNotFoundException {
+    assertThat(pContainer.getNumPartitions()).isEqualTo(NUM_PARTITIONS);
+    assertThat(pContainer.getTotalNumStates()).isEqualTo(15);
+    // partitions can be read independently of each other and in any order
+    for (int index = NUM_PARTITIONS - 1; index >= 0; index--) {
+      assertThat(pContainer.getNumStates(index)).isEqualTo(index + 1);
+      String[] states = readPartition(pContainer, index);
+      assertThat(states).hasLength(index + 1);
+      assertThat(states[index]).isEqualTo("partition " + index + " state " + index);
+    }
+  }
+
+  @Test
+  public void testRoundTrip() throws Exception {
+    checkContent(readContainer(writeContainer(1)));
+  }
+
+  @Test
+  public void testRoundTripWithThreads() throws Exception {
+    byte[] written = writeContainer(3);
+
+    checkContent(readContainer(written));
+    assertThat(written).isEqualTo(writeContainer(1));
+  }
+
+  @Test
+  public void testEmpty() throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(bytes)) {
+      CompressedPartitionContainer.write(out, 0, (index, partitionOut) -> 0, 1);
+    }
+
+    CompressedPartitionContainer container = readContainer(bytes.toByteArray());
+    assertThat(container.getNumPartitions()).isEqualTo(0);
+    assertThat(container.getTotalNumStates()).isEqualTo(0);
+  }
+
+  @Test
+  public void testBadChecksum() throws Exception {
+    byte[] bytes = writeContainer(1);
+    // the last byte belongs to the last partition
+    bytes[bytes.length - 1]++;
+
+    CompressedPartitionContainer container = readContainer(bytes);
+    assertThrows(IOException.class, () -> readPartition(container, NUM_PARTITIONS - 1));
+    // other partitions are still available
+    assertThat(readPartition(container, 0)).asList().containsExactly("partition 0 state 0");
+  }
+
+  @Test
+  public void testBadVersion() throws Exception {
+    byte[] bytes = writeContainer(1);
+    // the version is an int directly after the magic int
+    bytes[2 * Integer.BYTES - 1]++;
+
+    assertThrows(IOException.class, () -> readContainer(bytes));
+  }
+
+  @Test
+  public void testBadMagic() throws Exception {
+    byte[] bytes = writeContainer(1);
+    bytes[0]++;
+
+    assertThrows(IOException.class, () -> readContainer(bytes));
+  }
+
+  @Test
+  public void testTruncated() throws Exception {
+    byte[] bytes = writeContainer(1);
+    byte[] truncated = new byte[bytes.length - 1];
+    System.arraycopy(bytes, 0, truncated, 0, truncated.length);
+
+    assertThrows(IOException.class, () -> readContainer(truncated));
+  }
+}
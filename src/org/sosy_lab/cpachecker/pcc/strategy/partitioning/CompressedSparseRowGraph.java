@@ -0,0 +1,288 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.Arrays;
+import java.util.List;
+import org.sosy_lab.cpachecker.pcc.strategy.partialcertificate.PartialReachedSetDirectedGraph;
+
+/**
+ * An undirected graph with node and edge weights in compressed sparse row (CSR) representation.
+ * The neighbors of node i are stored in {@code targets[offsets[i]]} to {@code
+ * targets[offsets[i+1]-1]}, and {@code edgeWeights} contains the weight of each of these edges.
+ * Every edge is stored once for each of its end nodes, there are no self-loops, and parallel
+ * edges are merged into a single edge whose weight is the sum of their weights.
+ *
+ * <p>In contrast to {@link org.sosy_lab.cpachecker.pcc.strategy.partialcertificate.WeightedGraph}
+ * there are no objects for nodes and edges, which keeps large graphs small and cache-friendly.
+ */
+final class CompressedSparseRowGraph {
+
+  private final int[] nodeWeights;
+  private final int[] offsets;
+  private final int[] targets;
+  private final int[] edgeWeights;
+  private final long totalNodeWeight;
+
+  private CompressedSparseRowGraph(
+      int[] pNodeWeights, int[] pOffsets, int[] pTargets, int[] pEdgeWeights) {
+    checkArgument(pOffsets.length == pNodeWeights.length + 1);
+    checkArgument(pTargets.length == pEdgeWeights.length);
+    checkArgument(pOffsets[pNodeWeights.length] == pTargets.length);
+    nodeWeights = pNodeWeights;
+    offsets = pOffsets;
+    targets = pTargets;
+    edgeWeights = pEdgeWeights;
+    long weight = 0;
+    for (int nodeWeight : pNodeWeights) {
+      weight += nodeWeight;
+    }
+    totalNodeWeight = weight;
+  }
+
+  /** Create a graph with unit weights from the (directed) edges of the given graph. */
+  static CompressedSparseRowGraph fromDirectedGraph(PartialReachedSetDirectedGraph pGraph) {
+    List<? extends List<Integer>> adjacencyList = pGraph.getAdjacencyList();
+    int numEdges = 0;
+    for (List<Integer> successors : adjacencyList) {
+      numEdges += successors.size();
+    }
+    int[] sources = new int[numEdges];
+    int[] destinations = new int[numEdges];
+    int edge = 0;
+    for (int node = 0; node < adjacencyList.size(); node++) {
+      for (Integer successor : adjacencyList.get(node)) {
+        sources[edge] = node;
+        destinations[edge] = successor;
+        edge++;
+      }
+    }
+    return fromEdges(pGraph.getNumNodes(), sources, destinations);
+  }
+
+  /**
+   * Create a graph with unit node weights from the given edges. The direction of the edges is
+   * ignored, and an edge that occurs several times (in any direction) gets as weight the number of
+   * its occurrences.
+   *
+   * @param pNumNodes the number of nodes
+   * @param pSources the start node of each edge
+   * @param pDestinations the end node of each edge
+   */
+  static CompressedSparseRowGraph fromEdges(int pNumNodes, int[] pSources, int[] pDestinations) {
+    checkArgument(pSources.length == pDestinations.length);
+    int[] nodeWeights = new int[pNumNodes];
+    Arrays.fill(nodeWeights, 1);
+
+    // store every edge for both end nodes, sort the neighbors of each node, and merge duplicates
+    int[] degrees = new int[pNumNodes + 1];
+    for (int i = 0; i < pSources.length; i++) {
+      if (pSources[i] != pDestinations[i]) {
+        degrees[pSources[i] + 1]++;
+        degrees[pDestinations[i] + 1]++;
+      }
+    }
+    for (int node = 0; node < pNumNodes; node++) {
+      degrees[node + 1] += degrees[node];
+    }
+    int[] allTargets = new int[degrees[pNumNodes]];
+    int[] nextPosition = Arrays.copyOf(degrees, pNumNodes);
+    for (int i = 0; i < pSources.length; i++) {
+      if (pSources[i] != pDestinations[i]) {
+        allTargets[nextPosition[pSources[i]]++] = pDestinations[i];
+        allTargets[nextPosition[pDestinations[i]]++] = pSources[i];
+      }
+    }
+
+    int[] offsets = new int[pNumNodes + 1];
+    int[] targets = new int[allTargets.length];
+    int[] edgeWeights = new int[allTargets.length];
+    int numEdges = 0;
+    for (int node = 0; node < pNumNodes; node++) {
+      offsets[node] = numEdges;
+      Arrays.sort(allTargets, degrees[node], degrees[node + 1]);
+      for (int i = degrees[node]; i < degrees[node + 1]; i++) {
+        if (numEdges > offsets[node] && targets[numEdges - 1] == allTargets[i]) {
+          edgeWeights[numEdges - 1]++;
+        } else {
+          targets[numEdges] = allTargets[i];
+          edgeWeights[numEdges] = 1;
+          numEdges++;
+        }
+      }
+    }
+    offsets[pNumNodes] = numEdges;
+
+    return new CompressedSparseRowGraph(
+        nodeWeights,
+        offsets,
+        Arrays.copyOf(targets, numEdges),
+        Arrays.copyOf(edgeWeights, numEdges));
+  }
+
+  int getNumNodes() {
+    return nodeWeights.length;
+  }
+
+  long getTotalNodeWeight() {
+    return totalNodeWeight;
+  }
+
+  int getNodeWeight(int pNode) {
+    return nodeWeights[pNode];
+  }
+
+  /** Returns the index of the first edge of the given node. */
+  int getFirstEdge(int pNode) {
+    return offsets[pNode];
+  }
+
+  /** Returns the index after the last edge of the given node. */
+  int getEndOfEdges(int pNode) {
+    return offsets[pNode + 1];
+  }
+
+  int getEdgeTarget(int pEdge) {
+    return targets[pEdge];
+  }
+
+  int getEdgeWeight(int pEdge) {
+    return edgeWeights[pEdge];
+  }
+
+  /**
+   * Create the graph in which all nodes with the same coarse id are contracted into a single node.
+   * Node weights and the weights of parallel edges are summed up, and edges between contracted
+   * nodes are removed.
+   *
+   * @param pCoarseIds maps every node of this graph to its node in the coarse graph
+   * @param pNumCoarseNodes the number of nodes of the coarse graph, all coarse ids must be smaller
+   * @param pExecutor the executor that computes the edges of the coarse nodes in parallel
+   */
+  CompressedSparseRowGraph contract(
+      int[] pCoarseIds, int pNumCoarseNodes, ParallelRangeExecutor pExecutor)
+      throws InterruptedException {
+    checkArgument(pCoarseIds.length == getNumNodes());
+
+    // members of each coarse node, computed by counting sort
+    int[] memberOffsets = new int[pNumCoarseNodes + 1];
+    for (int coarseId : pCoarseIds) {
+      memberOffsets[coarseId + 1]++;
+    }
+    for (int coarseNode = 0; coarseNode < pNumCoarseNodes; coarseNode++) {
+      memberOffsets[coarseNode + 1] += memberOffsets[coarseNode];
+    }
+    int[] members = new int[pCoarseIds.length];
+    int[] nextPosition = Arrays.copyOf(memberOffsets, pNumCoarseNodes);
+    for (int node = 0; node < pCoarseIds.length; node++) {
+      members[nextPosition[pCoarseIds[node]]++] = node;
+    }
+
+    // compute the edges of each chunk of coarse nodes into a separate buffer,
+    // and copy them into the final arrays once the offsets of the coarse nodes are known
+    int[] coarseNodeWeights = new int[pNumCoarseNodes];
+    int[] coarseOffsets = new int[pNumCoarseNodes + 1];
+    int numChunks = pExecutor.getNumChunks(pNumCoarseNodes);
+    int[][] chunkTargets = new int[numChunks][];
+    int[][] chunkEdgeWeights = new int[numChunks][];
+    pExecutor.forEachChunk(
+        pNumCoarseNodes,
+        (chunk, from, to) ->
+            contractChunk(
+                pCoarseIds,
+                members,
+                memberOffsets,
+                from,
+                to,
+                coarseNodeWeights,
+                coarseOffsets,
+                chunkTargets,
+                chunkEdgeWeights,
+                chunk));
+
+    // coarseOffsets contains the degree of each coarse node at the index after the node
+    for (int coarseNode = 0; coarseNode < pNumCoarseNodes; coarseNode++) {
+      coarseOffsets[coarseNode + 1] += coarseOffsets[coarseNode];
+    }
+    int[] coarseTargets = new int[coarseOffsets[pNumCoarseNodes]];
+    int[] coarseEdgeWeights = new int[coarseOffsets[pNumCoarseNodes]];
+    pExecutor.forEachChunk(
+        pNumCoarseNodes,
+        (chunk, from, to) -> {
+          int start = coarseOffsets[from];
+          int length = coarseOffsets[to] - start;
+          System.arraycopy(chunkTargets[chunk], 0, coarseTargets, start, length);
+          System.arraycopy(chunkEdgeWeights[chunk], 0, coarseEdgeWeights, start, length);
+        });
+
+    return new CompressedSparseRowGraph(
+        coarseNodeWeights, coarseOffsets, coarseTargets, coarseEdgeWeights);
+  }
+
+  private void contractChunk(
+      int[] pCoarseIds,
+      int[] pMembers,
+      int[] pMemberOffsets,
+      int pFrom,
+      int pTo,
+      int[] pCoarseNodeWeights,
+      int[] pCoarseDegrees,
+      int[][] pChunkTargets,
+      int[][] pChunkEdgeWeights,
+      int pChunk) {
+    // the number of edges of the members is an upper bound for the number of coarse edges
+    int maxEdges = 0;
+    for (int i = pMemberOffsets[pFrom]; i < pMemberOffsets[pTo]; i++) {
+      maxEdges += offsets[pMembers[i] + 1] - offsets[pMembers[i]];
+    }
+    int[] chunkTargets = new int[maxEdges];
+    int[] chunkEdgeWeights = new int[maxEdges];
+    int numEdges = 0;
+
+    // target and weight of each edge, packed such that sorting groups edges by target
+    long[] edges = new long[16];
+    for (int coarseNode = pFrom; coarseNode < pTo; coarseNode++) {
+      int weight = 0;
+      int count = 0;
+      for (int i = pMemberOffsets[coarseNode]; i < pMemberOffsets[coarseNode + 1]; i++) {
+        int node = pMembers[i];
+        weight += nodeWeights[node];
+        if (edges.length < count + offsets[node + 1] - offsets[node]) {
+          edges = Arrays.copyOf(edges, 2 * (count + offsets[node + 1] - offsets[node]));
+        }
+        for (int edge = offsets[node]; edge < offsets[node + 1]; edge++) {
+          int coarseTarget = pCoarseIds[targets[edge]];
+          if (coarseTarget != coarseNode) {
+            edges[count++] = ((long) coarseTarget << 32) | edgeWeights[edge];
+          }
+        }
+      }
+      pCoarseNodeWeights[coarseNode] = weight;
+
+      Arrays.sort(edges, 0, count);
+      int firstEdge = numEdges;
+      for (int i = 0; i < count; i++) {
+        int coarseTarget = (int) (edges[i] >>> 32);
+        int edgeWeight = (int) edges[i];
+        if (numEdges > firstEdge && chunkTargets[numEdges - 1] == coarseTarget) {
+          chunkEdgeWeights[numEdges - 1] += edgeWeight;
+        } else {
+          chunkTargets[numEdges] = coarseTarget;
+          chunkEdgeWeights[numEdges] = edgeWeight;
+          numEdges++;
+        }
+      }
+      pCoarseDegrees[coarseNode + 1] = numEdges - firstEdge;
+    }
+    pChunkTargets[pChunk] = chunkTargets;
+    pChunkEdgeWeights[pChunk] = chunkEdgeWeights;
+  }
+}
@@ -27,7 +27,8 @@ public class GraphPartitionerFactory {
     BEST_FIRST,
     FM,
     FM_K_WAY,
-    MULTILEVEL
+    MULTILEVEL,
+    PARALLEL_MULTILEVEL
   }
 
   public static BalancedGraphPartitioner createPartitioner(
@@ -50,6 +51,8 @@ public class GraphPartitionerFactory {
       return new FiducciaMattheysesKWayBalancedGraphPartitioner(pConfig, pLogger);
     case MULTILEVEL:
       return new MultilevelBalancedGraphPartitioner(pConfig, pLogger);
+    case PARALLEL_MULTILEVEL:
+      return new ParallelMultilevelBalancedGraphPartitioner(pConfig, pLogger, pShutdownNotifier);
     default: // RANDOM
       return new RandomBalancedGraphPartitioner();
     }
@@ -0,0 +1,480 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.DoubleOption;
+import org.sosy_lab.common.configuration.IntegerOption;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.core.interfaces.pcc.BalancedGraphPartitioner;
+import org.sosy_lab.cpachecker.pcc.strategy.partialcertificate.PartialReachedSetDirectedGraph;
+
+/**
+ * Multilevel graph partitioning on a {@link CompressedSparseRowGraph}, in which coarsening,
+ * projection, and refinement run in parallel.
+ *
+ * <p>The graph is coarsened by contracting a matching that is computed in rounds: each unmatched
+ * node proposes its heaviest edge to an unmatched neighbor, and mutual proposals are matched.
+ * Remaining nodes that have the same heaviest neighbor are matched with each other. The coarsest
+ * graph is partitioned by splitting a breadth-first order into parts of equal weight.
+ * During uncoarsening, the partitioning is refined by moving boundary nodes to the neighboring
+ * partition with the highest gain, as long as the partitions stay balanced. In order to avoid that
+ * adjacent nodes swap their partitions, nodes move only to partitions with a higher index in even
+ * rounds, and only to partitions with a lower index in odd rounds. Moves are computed in parallel
+ * and applied in a fixed order, so the result does not depend on the number of threads.
+ */
+@Options(prefix = "pcc.partitioning.parallelMultilevel")
+public class ParallelMultilevelBalancedGraphPartitioner implements BalancedGraphPartitioner {
+
+  /** Coarsening stops when the graph has at most this number of nodes per partition. */
+  private static final int COARSEST_NODES_PER_PARTITION = 20;
+
+  /** Coarsening stops when contracting a matching removes less than this fraction of nodes. */
+  private static final double MIN_COARSENING_RATIO = 0.05;
+
+  private static final int MATCHING_ROUNDS = 3;
+
+  @Option(
+      secure = true,
+      description =
+          "Number of threads used by the parallel multilevel partitioner."
+              + " The value 0 uses one thread per available processor.")
+  @IntegerOption(min = 0)
+  private int threads = 0;
+
+  @Option(
+      secure = true,
+      description =
+          "Allowed imbalance of the parallel multilevel partitioner, i.e., partitions may be"
+              + " larger than the average partition by this fraction.")
+  @DoubleOption(min = 0)
+  private double imbalance = 0.03;
+
+  @Option(
+      secure = true,
+      description =
+          "Maximal number of refinement rounds on each level of the parallel multilevel"
+              + " partitioner.")
+  @IntegerOption(min = 0)
+  private int refinementRounds = 10;
+
+  private final LogManager logger;
+  private final ShutdownNotifier shutdownNotifier;
+
+  public ParallelMultilevelBalancedGraphPartitioner(
+      Configuration pConfig, LogManager pLogger, ShutdownNotifier pShutdownNotifier)
+      throws InvalidConfigurationException {
+    pConfig.inject(this);
+    logger = pLogger;
+    shutdownNotifier = pShutdownNotifier;
+    if (threads == 0) {
+      threads = Runtime.getRuntime().availableProcessors();
+    }
+  }
+
+  @Override
+  public List<Set<Integer>> computePartitioning(
+      int pNumPartitions, PartialReachedSetDirectedGraph pGraph) throws InterruptedException {
+    checkArgument(
+        pNumPartitions > 0 && pGraph != null,
+        "Partitioning must contain at least 1 partition. Graph may not be null.");
+    int[] partitionOfNode =
+        computePartitioning(pNumPartitions, CompressedSparseRowGraph.fromDirectedGraph(pGraph));
+
+    List<Set<Integer>> partitioning = new ArrayList<>(pNumPartitions);
+    for (int i = 0; i < pNumPartitions; i++) {
+      partitioning.add(new HashSet<>());
+    }
+    for (int node = 0; node < partitionOfNode.length; node++) {
+      partitioning.get(partitionOfNode[node]).add(node);
+    }
+    // empty partitions may slow down proof checking phase
+    partitioning.removeIf(Set::isEmpty);
+    return partitioning;
+  }
+
+  /**
+   * Compute a partitioning of the given graph.
+   *
+   * @return the partition of every node
+   */
+  int[] computePartitioning(int pNumPartitions, CompressedSparseRowGraph pGraph)
+      throws InterruptedException {
+    int numNodes = pGraph.getNumNodes();
+    if (pNumPartitions == 1) {
+      return new int[numNodes];
+    }
+    if (pNumPartitions >= numNodes) {
+      int[] partitionOfNode = new int[numNodes];
+      Arrays.setAll(partitionOfNode, node -> node);
+      return partitionOfNode;
+    }
+
+    long totalWeight = pGraph.getTotalNodeWeight();
+    int maxNodeWeight =
+        (int) Math.max(1, totalWeight / ((long) COARSEST_NODES_PER_PARTITION * pNumPartitions));
+    long maxPartitionWeight =
+        (long) Math.ceil((1 + imbalance) * totalWeight / pNumPartitions) + maxNodeWeight;
+
+    try (ParallelRangeExecutor executor = new ParallelRangeExecutor(threads)) {
+      Deque<CompressedSparseRowGraph> levels = new ArrayDeque<>();
+      Deque<int[]> coarseIds = new ArrayDeque<>();
+
+      // coarsening phase
+      CompressedSparseRowGraph graph = pGraph;
+      while (graph.getNumNodes() > COARSEST_NODES_PER_PARTITION * pNumPartitions) {
+        shutdownNotifier.shutdownIfNecessary();
+        int[] coarseIdOfNode = new int[graph.getNumNodes()];
+        int numCoarseNodes = computeMatching(graph, maxNodeWeight, coarseIdOfNode, executor);
+        if (numCoarseNodes > (1 - MIN_COARSENING_RATIO) * graph.getNumNodes()) {
+          break;
+        }
+        levels.push(graph);
+        coarseIds.push(coarseIdOfNode);
+        graph = graph.contract(coarseIdOfNode, numCoarseNodes, executor);
+        logger.logf(
+            Level.FINE,
+            "[Parallel multilevel] Coarsened graph to %d nodes on level %d",
+            graph.getNumNodes(),
+            levels.size());
+      }
+
+      // initial partitioning and uncoarsening phase
+      int[] partitionOfNode = computeInitialPartitioning(graph, pNumPartitions);
+      refine(graph, partitionOfNode, pNumPartitions, maxPartitionWeight, executor);
+      while (!levels.isEmpty()) {
+        shutdownNotifier.shutdownIfNecessary();
+        graph = levels.pop();
+        int[] coarseIdOfNode = coarseIds.pop();
+        int[] coarsePartitionOfNode = partitionOfNode;
+        int[] finePartitionOfNode = new int[graph.getNumNodes()];
+        executor.forEachChunk(
+            finePartitionOfNode.length,
+            (chunk, from, to) -> {
+              for (int node = from; node < to; node++) {
+                finePartitionOfNode[node] = coarsePartitionOfNode[coarseIdOfNode[node]];
+              }
+            });
+        partitionOfNode = finePartitionOfNode;
+        refine(graph, partitionOfNode, pNumPartitions, maxPartitionWeight, executor);
+        logger.logf(
+            Level.FINE,
+            "[Parallel multilevel] Refined partitioning of graph with %d nodes",
+            graph.getNumNodes());
+      }
+      return partitionOfNode;
+    }
+  }
+
+  /**
+   * Compute a matching in rounds, in which every unmatched node proposes to its unmatched neighbor
+   * with the heaviest edge, and mutual proposals are matched. Finally, remaining nodes with a
+   * common neighbor are matched with each other (two-hop matching), so the result is not strictly
+   * a matching of the graph.
+   *
+   * @param pCoarseIdOfNode filled with the coarse node of every node
+   * @return the number of coarse nodes
+   */
+  private int computeMatching(
+      CompressedSparseRowGraph pGraph,
+      int pMaxNodeWeight,
+      int[] pCoarseIdOfNode,
+      ParallelRangeExecutor pExecutor)
+      throws InterruptedException {
+    int numNodes = pGraph.getNumNodes();
+    int[] match = new int[numNodes];
+    Arrays.fill(match, -1);
+    int[] proposal = new int[numNodes];
+
+    for (int round = 0; round < MATCHING_ROUNDS; round++) {
+      pExecutor.forEachChunk(
+          numNodes,
+          (chunk, from, to) -> {
+            for (int node = from; node < to; node++) {
+              if (match[node] < 0) {
+                proposal[node] = getHeaviestNeighbor(pGraph, node, match, pMaxNodeWeight);
+              } else {
+                proposal[node] = -1;
+              }
+            }
+          });
+      pExecutor.forEachChunk(
+          numNodes,
+          (chunk, from, to) -> {
+            for (int node = from; node < to; node++) {
+              int partner = proposal[node];
+              if (partner >= 0 && proposal[partner] == node) {
+                match[node] = partner;
+              }
+            }
+          });
+    }
+
+    // Nodes around a hub cannot be matched with the hub once it is matched, which stalls the
+    // coarsening of star-like graphs. Thus remaining nodes are matched with other remaining nodes
+    // that have the same heaviest neighbor.
+    pExecutor.forEachChunk(
+        numNodes,
+        (chunk, from, to) -> {
+          for (int node = from; node < to; node++) {
+            if (match[node] < 0) {
+              proposal[node] = getHeaviestNeighbor(pGraph, node, null, Integer.MAX_VALUE);
+            } else {
+              proposal[node] = -1;
+            }
+          }
+        });
+    int[] waitingAtNeighbor = new int[numNodes];
+    Arrays.fill(waitingAtNeighbor, -1);
+    for (int node = 0; node < numNodes; node++) {
+      int neighbor = proposal[node];
+      if (neighbor < 0) {
+        continue;
+      }
+      int partner = waitingAtNeighbor[neighbor];
+      if (partner >= 0
+          && pGraph.getNodeWeight(node) + pGraph.getNodeWeight(partner) <= pMaxNodeWeight) {
+        match[node] = partner;
+        match[partner] = node;
+        waitingAtNeighbor[neighbor] = -1;
+      } else {
+        waitingAtNeighbor[neighbor] = node;
+      }
+    }
+
+    // number the coarse nodes in the order of their first member
+    int numCoarseNodes = 0;
+    for (int node = 0; node < numNodes; node++) {
+      if (match[node] < 0 || match[node] > node) {
+        pCoarseIdOfNode[node] = numCoarseNodes++;
+      } else {
+        pCoarseIdOfNode[node] = pCoarseIdOfNode[match[node]];
+      }
+    }
+    return numCoarseNodes;
+  }
+
+  /**
+   * Returns the neighbor with the heaviest edge to the given node, among all neighbors that are
+   * not yet matched (if pMatch is given) and that are light enough to be contracted with the node.
+   */
+  private static int getHeaviestNeighbor(
+      CompressedSparseRowGraph pGraph, int pNode, int @Nullable [] pMatch, int pMaxNodeWeight) {
+    int bestNeighbor = -1;
+    int bestWeight = 0;
+    int bestTieBreaker = 0;
+    int maxNeighborWeight = pMaxNodeWeight - pGraph.getNodeWeight(pNode);
+    for (int edge = pGraph.getFirstEdge(pNode); edge < pGraph.getEndOfEdges(pNode); edge++) {
+      int neighbor = pGraph.getEdgeTarget(edge);
+      if ((pMatch != null && pMatch[neighbor] >= 0)
+          || pGraph.getNodeWeight(neighbor) > maxNeighborWeight) {
+        continue;
+      }
+      int weight = pGraph.getEdgeWeight(edge);
+      // the tie breaker is symmetric, such that both end nodes prefer the same edges
+      int tieBreaker = hashEdge(pNode, neighbor);
+      if (weight > bestWeight || (weight == bestWeight && tieBreaker > bestTieBreaker)) {
+        bestNeighbor = neighbor;
+        bestWeight = weight;
+        bestTieBreaker = tieBreaker;
+      }
+    }
+    return bestNeighbor;
+  }
+
+  private static int hashEdge(int pNode1, int pNode2) {
+    long edge = ((long) Math.min(pNode1, pNode2) << 32) | Math.max(pNode1, pNode2);
+    long hash = edge * 0x9E3779B97F4A7C15L;
+    return (int) (hash >>> 33);
+  }
+
+  /**
+   * Split the nodes in breadth-first order into consecutive parts of (almost) equal weight, which
+   * keeps partitions mostly connected.
+   */
+  private static int[] computeInitialPartitioning(
+      CompressedSparseRowGraph pGraph, int pNumPartitions) {
+    int numNodes = pGraph.getNumNodes();
+    int[] order = new int[numNodes];
+    boolean[] visited = new boolean[numNodes];
+    int orderEnd = 0;
+    for (int start = 0; start < numNodes; start++) {
+      if (visited[start]) {
+        continue;
+      }
+      visited[start] = true;
+      order[orderEnd++] = start;
+      for (int next = orderEnd - 1; next < orderEnd; next++) {
+        int node = order[next];
+        for (int edge = pGraph.getFirstEdge(node); edge < pGraph.getEndOfEdges(node); edge++) {
+          int neighbor = pGraph.getEdgeTarget(edge);
+          if (!visited[neighbor]) {
+            visited[neighbor] = true;
+            order[orderEnd++] = neighbor;
+          }
+        }
+      }
+    }
+
+    int[] partitionOfNode = new int[numNodes];
+    long totalWeight = pGraph.getTotalNodeWeight();
+    long weightBefore = 0;
+    for (int node : order) {
+      int weight = pGraph.getNodeWeight(node);
+      // assign the node according to the position of its center
+      long center = 2 * weightBefore + weight;
+      partitionOfNode[node] =
+          (int) Math.min(pNumPartitions - 1, center * pNumPartitions / (2 * totalWeight));
+      weightBefore += weight;
+    }
+    return partitionOfNode;
+  }
+
+  private void refine(
+      CompressedSparseRowGraph pGraph,
+      int[] pPartitionOfNode,
+      int pNumPartitions,
+      long pMaxPartitionWeight,
+      ParallelRangeExecutor pExecutor)
+      throws InterruptedException {
+    int numNodes = pGraph.getNumNodes();
+    long[] partitionWeights = new long[pNumPartitions];
+    for (int node = 0; node < numNodes; node++) {
+      partitionWeights[pPartitionOfNode[node]] += pGraph.getNodeWeight(node);
+    }
+    // partitions must not become too light either, otherwise they could become empty
+    long minPartitionWeight =
+        2 * pGraph.getTotalNodeWeight() / pNumPartitions - pMaxPartitionWeight;
+    int[] targetPartition = new int[numNodes];
+    // a node only needs to be considered again if a neighbor moved in one of the last two rounds,
+    // i.e., in both directions
+    int[] activeUntilRound = new int[numNodes];
+    Arrays.fill(activeUntilRound, 2);
+
+    int roundsWithoutMoves = 0;
+    for (int round = 0; round < 2 * refinementRounds && roundsWithoutMoves < 2; round++) {
+      shutdownNotifier.shutdownIfNecessary();
+      final int currentRound = round;
+      final boolean upwards = round % 2 == 0;
+      pExecutor.forEachChunk(
+          numNodes,
+          (chunk, from, to) -> {
+            int[] connectivity = new int[pNumPartitions];
+            int[] adjacentPartitions = new int[pNumPartitions];
+            for (int node = from; node < to; node++) {
+              if (activeUntilRound[node] <= currentRound) {
+                targetPartition[node] = -1;
+                continue;
+              }
+              targetPartition[node] =
+                  computeBestMove(
+                      pGraph,
+                      node,
+                      pPartitionOfNode,
+                      partitionWeights,
+                      minPartitionWeight,
+                      pMaxPartitionWeight,
+                      upwards,
+                      connectivity,
+                      adjacentPartitions);
+            }
+          });
+
+      // apply moves in a fixed order, such that partitions stay balanced
+      int moves = 0;
+      for (int node = 0; node < numNodes; node++) {
+        int target = targetPartition[node];
+        if (target >= 0) {
+          int weight = pGraph.getNodeWeight(node);
+          if (partitionWeights[target] + weight <= pMaxPartitionWeight
+              && partitionWeights[pPartitionOfNode[node]] - weight >= minPartitionWeight) {
+            partitionWeights[pPartitionOfNode[node]] -= weight;
+            partitionWeights[target] += weight;
+            pPartitionOfNode[node] = target;
+            moves++;
+            activeUntilRound[node] = round + 3;
+            for (int edge = pGraph.getFirstEdge(node); edge < pGraph.getEndOfEdges(node); edge++) {
+              activeUntilRound[pGraph.getEdgeTarget(edge)] = round + 3;
+            }
+          }
+        }
+      }
+      roundsWithoutMoves = moves == 0 ? roundsWithoutMoves + 1 : 0;
+    }
+  }
+
+  /**
+   * Returns the partition to which the node should move, or -1. A node moves if this reduces the
+   * edge cut, or if it improves the balance without increasing the edge cut.
+   */
+  private static int computeBestMove(
+      CompressedSparseRowGraph pGraph,
+      int pNode,
+      int[] pPartitionOfNode,
+      long[] pPartitionWeights,
+      long pMinPartitionWeight,
+      long pMaxPartitionWeight,
+      boolean pUpwards,
+      int[] pConnectivity,
+      int[] pAdjacentPartitions) {
+    int partition = pPartitionOfNode[pNode];
+    int weight = pGraph.getNodeWeight(pNode);
+    if (pPartitionWeights[partition] - weight < pMinPartitionWeight) {
+      return -1;
+    }
+
+    int numAdjacentPartitions = 0;
+    for (int edge = pGraph.getFirstEdge(pNode); edge < pGraph.getEndOfEdges(pNode); edge++) {
+      int neighborPartition = pPartitionOfNode[pGraph.getEdgeTarget(edge)];
+      if (pConnectivity[neighborPartition] == 0) {
+        pAdjacentPartitions[numAdjacentPartitions++] = neighborPartition;
+      }
+      pConnectivity[neighborPartition] += pGraph.getEdgeWeight(edge);
+    }
+
+    int internalWeight = pConnectivity[partition];
+    int bestPartition = -1;
+    int bestGain = 0;
+    for (int i = 0; i < numAdjacentPartitions; i++) {
+      int candidate = pAdjacentPartitions[i];
+      int connection = pConnectivity[candidate];
+      pConnectivity[candidate] = 0;
+      if (candidate == partition
+          || (pUpwards ? candidate < partition : candidate > partition)
+          || pPartitionWeights[candidate] + weight > pMaxPartitionWeight) {
+        continue;
+      }
+      int gain = connection - internalWeight;
+      if (gain > bestGain
+          || (gain == bestGain
+              && (bestPartition >= 0
+                  ? pPartitionWeights[candidate] < pPartitionWeights[bestPartition]
+                  : pPartitionWeights[candidate] + weight < pPartitionWeights[partition]))) {
+        bestPartition = candidate;
+        bestGain = gain;
+      }
+    }
+    return bestPartition;
+  }
+}
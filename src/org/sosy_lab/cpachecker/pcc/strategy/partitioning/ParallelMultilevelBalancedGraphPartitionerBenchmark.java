@@ -0,0 +1,106 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.pcc.strategy.partialcertificate.WeightedEdge;
+import org.sosy_lab.cpachecker.pcc.strategy.partialcertificate.WeightedGraph;
+import org.sosy_lab.cpachecker.pcc.strategy.partialcertificate.WeightedNode;
+
+/**
+ * Microbenchmark that compares {@link ParallelMultilevelBalancedGraphPartitioner} with {@link
+ * MultilevelBalancedGraphPartitioner} on graphs that are shaped like ARGs: a tree in which most
+ * nodes are close to their parent in exploration order, plus some edges to covering states.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelMultilevelBalancedGraphPartitionerBenchmark {
+
+  private static final int PARENT_WINDOW = 64;
+  private static final double COVERAGE_EDGE_RATIO = 0.1;
+
+  @Param({"100000"})
+  public int nodes;
+
+  @Param({"64"})
+  public int partitions;
+
+  @Param({"1", "4"})
+  public int threads;
+
+  private int[] sources;
+  private int[] destinations;
+
+  private ParallelMultilevelBalancedGraphPartitioner parallelPartitioner;
+  private MultilevelBalancedGraphPartitioner multilevelPartitioner;
+
+  @Setup
+  public void createGraph() throws Exception {
+    Random random = new Random(0);
+    int numCoverageEdges = (int) (nodes * COVERAGE_EDGE_RATIO);
+    sources = new int[nodes - 1 + numCoverageEdges];
+    destinations = new int[sources.length];
+    for (int node = 1; node < nodes; node++) {
+      sources[node - 1] = Math.max(0, node - 1 - random.nextInt(PARENT_WINDOW));
+      destinations[node - 1] = node;
+    }
+    for (int i = nodes - 1; i < sources.length; i++) {
+      sources[i] = random.nextInt(nodes);
+      destinations[i] = (sources[i] + 1 + random.nextInt(nodes - 1)) % nodes;
+    }
+
+    Configuration config =
+        Configuration.builder()
+            .setOption("pcc.partitioning.parallelMultilevel.threads", Integer.toString(threads))
+            .build();
+    LogManager logger = LogManager.createNullLogManager();
+    parallelPartitioner =
+        new ParallelMultilevelBalancedGraphPartitioner(
+            config, logger, ShutdownNotifier.createDummy());
+    multilevelPartitioner = new MultilevelBalancedGraphPartitioner(config, logger);
+  }
+
+  @Benchmark
+  public int[] parallelMultilevel() throws InterruptedException {
+    return parallelPartitioner.computePartitioning(
+        partitions, CompressedSparseRowGraph.fromEdges(nodes, sources, destinations));
+  }
+
+  @Benchmark
+  public List<Set<Integer>> multilevel() throws InterruptedException {
+    WeightedGraph graph = new WeightedGraph(nodes);
+    for (int i = 0; i < sources.length; i++) {
+      graph.addEdge(
+          new WeightedEdge(
+              new WeightedNode(sources[i], 1), new WeightedNode(destinations[i], 1), 1));
+    }
+    return multilevelPartitioner.computePartitioning(partitions, graph);
+  }
+}
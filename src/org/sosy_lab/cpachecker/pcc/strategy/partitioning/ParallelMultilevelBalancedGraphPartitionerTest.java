@@ -0,0 +1,129 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import java.util.Random;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.log.LogManager;
+
+public class ParallelMultilevelBalancedGraphPartitionerTest {
+
+  private static ParallelMultilevelBalancedGraphPartitioner createPartitioner(
+      int pThreads, double pImbalance) throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("pcc.partitioning.parallelMultilevel.threads", Integer.toString(pThreads))
+            .setOption(
+                "pcc.partitioning.parallelMultilevel.imbalance", Double.toString(pImbalance))
+            .build();
+    return new ParallelMultilevelBalancedGraphPartitioner(
+        config, LogManager.createTestLogManager(), ShutdownNotifier.createDummy());
+  }
+
+  /**
+   * Create a graph that is shaped like an ARG: a tree in which most nodes are close to their
+   * parent, plus some edges to covering states.
+   */
+  private static CompressedSparseRowGraph createGraph(int pNumNodes, long pSeed) {
+    Random random = new Random(pSeed);
+    int numCoverageEdges = pNumNodes / 10;
+    int[] sources = new int[pNumNodes - 1 + numCoverageEdges];
+    int[] destinations = new int[sources.length];
+    for (int node = 1; node < pNumNodes; node++) {
+      sources[node - 1] = Math.max(0, node - 1 - random.nextInt(64));
+      destinations[node - 1] = node;
+    }
+    for (int i = pNumNodes - 1; i < sources.length; i++) {
+      sources[i] = random.nextInt(pNumNodes);
+      destinations[i] = (sources[i] + 1 + random.nextInt(pNumNodes - 1)) % pNumNodes;
+    }
+    return CompressedSparseRowGraph.fromEdges(pNumNodes, sources, destinations);
+  }
+
+  private static int[] getPartitionSizes(int[] pPartitionOfNode, int pNumPartitions) {
+    int[] sizes = new int[pNumPartitions];
+    for (int partition : pPartitionOfNode) {
+      assertThat(partition).isAtLeast(0);
+      assertThat(partition).isLessThan(pNumPartitions);
+      sizes[partition]++;
+    }
+    return sizes;
+  }
+
+  @Test
+  public void testEveryNodeIsAssigned() throws Exception {
+    int numNodes = 10000;
+    int numPartitions = 16;
+
+    int[] partitionOfNode =
+        createPartitioner(1, 0.03)
+            .computePartitioning(numPartitions, createGraph(numNodes, 0));
+
+    assertThat(partitionOfNode).hasLength(numNodes);
+    for (int size : getPartitionSizes(partitionOfNode, numPartitions)) {
+      assertThat(size).isGreaterThan(0);
+    }
+  }
+
+  @Test
+  public void testImbalance() throws Exception {
+    int numNodes = 20000;
+    int numPartitions = 10;
+
+    for (double imbalance : new double[] {0, 0.03, 0.2}) {
+      int[] partitionOfNode =
+          createPartitioner(2, imbalance)
+              .computePartitioning(numPartitions, createGraph(numNodes, 1));
+
+      // partitions may exceed the allowed weight by at most the weight of the heaviest coarse node
+      int maxCoarseNodeWeight = Math.max(1, numNodes / (20 * numPartitions));
+      long bound =
+          (long) Math.ceil((1 + imbalance) * numNodes / numPartitions) + maxCoarseNodeWeight;
+      for (int size : getPartitionSizes(partitionOfNode, numPartitions)) {
+        assertThat((long) size).isAtMost(bound);
+      }
+    }
+  }
+
+  @Test
+  public void testDeterministicAcrossThreads() throws Exception {
+    // large enough such that loops are split into several chunks
+    CompressedSparseRowGraph graph = createGraph(50000, 2);
+    int numPartitions = 32;
+
+    int[] expected = createPartitioner(1, 0.03).computePartitioning(numPartitions, graph);
+    for (int threads : new int[] {2, 3, 8}) {
+      assertThat(createPartitioner(threads, 0.03).computePartitioning(numPartitions, graph))
+          .isEqualTo(expected);
+    }
+  }
+
+  @Test
+  public void testFewNodes() throws Exception {
+    CompressedSparseRowGraph graph = createGraph(5, 3);
+    ParallelMultilevelBalancedGraphPartitioner partitioner = createPartitioner(1, 0.03);
+
+    assertThat(partitioner.computePartitioning(1, graph)).asList().containsExactly(0, 0, 0, 0, 0);
+    assertThat(partitioner.computePartitioning(8, graph))
+        .asList()
+        .containsExactly(0, 1, 2, 3, 4)
+        .inOrder();
+  }
+
+  @Test
+  public void testNegativeImbalanceRejected() {
+    assertThrows(InvalidConfigurationException.class, () -> createPartitioner(1, -0.5));
+  }
+}
@@ -0,0 +1,98 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.pcc.strategy.partitioning;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.base.Throwables;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Executes loops over a range of indices by splitting the range into consecutive chunks that are
+ * processed by a fixed number of threads. With a single thread, the loop is executed directly in
+ * the current thread.
+ *
+ * <p>The chunks only depend on the size of the range and the number of threads, so two loops over
+ * ranges of the same size see the same chunks.
+ */
+final class ParallelRangeExecutor implements AutoCloseable {
+
+  private static final int MIN_CHUNK_SIZE = 1024;
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  /** The body of a loop over the indices from pFrom (inclusive) to pTo (exclusive). */
+  @FunctionalInterface
+  interface RangeTask {
+    void run(int pChunk, int pFrom, int pTo);
+  }
+
+  private final int threads;
+  private final @Nullable ExecutorService executor;
+
+  ParallelRangeExecutor(int pThreads) {
+    checkArgument(pThreads > 0);
+    threads = pThreads;
+    executor = pThreads > 1 ? Executors.newFixedThreadPool(pThreads) : null;
+  }
+
+  int getNumChunks(int pSize) {
+    if (executor == null || pSize < 2 * MIN_CHUNK_SIZE) {
+      return 1;
+    }
+    return Math.min(threads * CHUNKS_PER_THREAD, pSize / MIN_CHUNK_SIZE);
+  }
+
+  /** Returns the first index of the given chunk, or pSize for pChunk == pNumChunks. */
+  static int getChunkStart(int pSize, int pNumChunks, int pChunk) {
+    return (int) ((long) pSize * pChunk / pNumChunks);
+  }
+
+  /** Run the given task for all chunks of the range from 0 to pSize and wait for them. */
+  void forEachChunk(int pSize, RangeTask pTask) throws InterruptedException {
+    int numChunks = getNumChunks(pSize);
+    if (numChunks == 1) {
+      pTask.run(0, 0, pSize);
+      return;
+    }
+
+    List<Callable<Void>> tasks = new ArrayList<>(numChunks);
+    for (int i = 0; i < numChunks; i++) {
+      final int chunk = i;
+      final int from = getChunkStart(pSize, numChunks, chunk);
+      final int to = getChunkStart(pSize, numChunks, chunk + 1);
+      tasks.add(
+          () -> {
+            pTask.run(chunk, from, to);
+            return null;
+          });
+    }
+    for (Future<Void> future : executor.invokeAll(tasks)) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        Throwables.throwIfUnchecked(e.getCause());
+        throw new AssertionError(e);
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    if (executor != null) {
+      executor.shutdownNow();
+    }
+  }
+}
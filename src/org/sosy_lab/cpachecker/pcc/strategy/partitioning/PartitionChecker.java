@@ -27,7 +27,6 @@ import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.AbstractStates;
 
-import com.google.common.base.Preconditions;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 
@@ -64,7 +63,11 @@ public class PartitionChecker {
   public void checkPartition(int pIndex){
     Multimap<CFANode, AbstractState> statesPerLocation = HashMultimap.create();
     Pair<AbstractState[], AbstractState[]> partition = ioHelper.getPartition(pIndex);
-    Preconditions.checkNotNull(partition);
+    if (partition == null) {
+      logger.log(Level.SEVERE, "Checking failed, partition", pIndex, "is not available");
+      partitionHelper.abortCheckingPreparation();
+      return;
+    }
 
     // add nodes of partition
     for (AbstractState internalNode : partition.getFirst()) {
@@ -15,6 +15,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.locks.Lock;
@@ -22,6 +23,7 @@ import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -52,6 +54,23 @@ public class PartitioningIOHelper {
   @Option(secure=true, description = "Heuristic for computing partitioning of proof (partial reached set).")
   private PartitioningHeuristics partitioningStrategy = PartitioningHeuristics.RANDOM;
 
+  @Option(
+      secure = true,
+      description =
+          "Write each partition of the proof as a separately compressed block behind an index of"
+              + " all partitions. Partitions are then only deserialized when they are checked."
+              + " Strategies that read partitions while checking do not support this format.")
+  private boolean compressPartitions = false;
+
+  @Option(
+      secure = true,
+      description =
+          "Number of threads that serialize and compress partitions if compressPartitions is"
+              + " enabled. More than one thread may only be used if the serialization of the"
+              + " abstract states in the proof is thread-safe.")
+  @IntegerOption(min = 1)
+  private int serializationThreads = 1;
+
   private final LogManager logger;
   private final PartialReachedConstructionAlgorithm partialConstructor;
   private final BalancedGraphPartitioner partitioner;
@@ -60,6 +79,7 @@ public class PartitioningIOHelper {
   private List<Pair<AbstractState[], AbstractState[]>> partitions;
   private Statistics currentGraphStatistics;
   private ProofStatesInfoCollector infoCollector;
+  private @Nullable CompressedPartitionContainer compressedPartitions;
 
   public PartitioningIOHelper(final Configuration pConfig, final LogManager pLogger,
       final ShutdownNotifier pShutdownNotifier) throws InvalidConfigurationException {
@@ -83,13 +103,52 @@ public class PartitioningIOHelper {
     return numPartitions;
   }
 
+  /**
+   * Returns whether partitions are written in the compressed format (see {@link
+   * CompressedPartitionContainer}), which should not be compressed again.
+   */
+  public boolean writesCompressedPartitions() {
+    return compressPartitions;
+  }
+
+  /**
+   * Reject the compressed format for strategies that write every partition into a separate zip
+   * entry and read these entries while checking, because the compressed format contains all
+   * partitions in a single block.
+   */
+  public void checkPartitionsNotCompressed(Class<?> pStrategy)
+      throws InvalidConfigurationException {
+    if (compressPartitions) {
+      throw new InvalidConfigurationException(
+          "Compressed partitions (option pcc.partitioning.compressPartitions) are not supported by "
+              + pStrategy.getSimpleName()
+              + ".");
+    }
+  }
+
   public @Nullable Pair<AbstractState[], AbstractState[]> getPartition(int pIndex) {
     if (0<=pIndex && pIndex<numPartitions && pIndex<partitions.size()) {
-      return partitions.get(pIndex);
+      Pair<AbstractState[], AbstractState[]> partition = partitions.get(pIndex);
+      if (partition == null && compressedPartitions != null) {
+        partition = loadCompressedPartition(pIndex);
+      }
+      return partition;
     }
     return null;
   }
 
+  private @Nullable Pair<AbstractState[], AbstractState[]> loadCompressedPartition(int pIndex) {
+    try {
+      Pair<AbstractState[], AbstractState[]> partition =
+          compressedPartitions.readPartition(pIndex, this::readPartitionContent);
+      partitions.set(pIndex, partition);
+      return partition;
+    } catch (IOException | ClassNotFoundException e) {
+      logger.logUserException(Level.SEVERE, e, "Cannot read partition " + pIndex + " of proof");
+      return null;
+    }
+  }
+
   public void constructInternalProofRepresentation(final UnmodifiableReachedSet pReached)
       throws InvalidConfigurationException, InterruptedException {
     saveInternalProof(pReached.size(), computePartialReachedSetAndPartition(pReached));
@@ -101,6 +160,7 @@ public class PartitioningIOHelper {
 
     numPartitions = pPartitionDescription.getSecond().size();
     partitions = new ArrayList<>(numPartitions);
+    compressedPartitions = null;
 
     for (Set<Integer> partition : pPartitionDescription.getSecond()) {
       partitions.add(Pair.of(pPartitionDescription.getFirst().getSetNodes(partition, false), pPartitionDescription
@@ -164,6 +224,7 @@ public class PartitioningIOHelper {
       savedReachedSetSize = pIn.readInt();
       numPartitions = pIn.readInt();
       partitions = new ArrayList<>(numPartitions);
+      compressedPartitions = null;
     } else {
       pIn.readInt();
       pIn.readInt();
@@ -173,6 +234,17 @@ public class PartitioningIOHelper {
   public void readProof(final ObjectInputStream pIn, final PCStrategyStatistics pStats) throws IOException,
       ClassNotFoundException {
     readMetadata(pIn, true);
+    if (compressPartitions) {
+      // partitions are deserialized on demand, possibly by several checking threads
+      compressedPartitions = CompressedPartitionContainer.read(pIn);
+      if (compressedPartitions.getNumPartitions() != numPartitions) {
+        throw new IOException("Number of partitions in proof does not match its metadata");
+      }
+      partitions =
+          Collections.synchronizedList(new ArrayList<>(Collections.nCopies(numPartitions, null)));
+      pStats.increaseProofSize(compressedPartitions.getTotalNumStates());
+      return;
+    }
     for (int i = 0; i < numPartitions; i++) {
       readPartition(pIn, pStats);
     }
@@ -213,6 +285,23 @@ public class PartitioningIOHelper {
         computePartialReachedSetAndPartition(pReached);
 
     writeMetadata(pOut, pReached.size(), partitionDescription.getSecond().size());
+    if (compressPartitions) {
+      final PartialReachedSetDirectedGraph graph = partitionDescription.getFirst();
+      final List<Set<Integer>> partitionNodes = partitionDescription.getSecond();
+      CompressedPartitionContainer.write(
+          pOut,
+          partitionNodes.size(),
+          (index, out) -> {
+            logger.log(Level.FINER, "Write partition");
+            AbstractState[] nodes = graph.getSetNodes(partitionNodes.get(index), false);
+            AbstractState[] adjacentNodes =
+                graph.getSuccessorNodesOutsideSet(partitionNodes.get(index), false);
+            writePartition(out, nodes, adjacentNodes);
+            return nodes.length + adjacentNodes.length;
+          },
+          serializationThreads);
+      return;
+    }
     for (Set<Integer> partition : partitionDescription.getSecond()) {
       writePartition(pOut, partition, partitionDescription.getFirst());
     }
@@ -271,6 +360,10 @@ public class PartitioningIOHelper {
       int maxP=0, maxO=0, minP=Integer.MAX_VALUE, minO = Integer.MAX_VALUE, totalO = 0, totalS = 0, current;
 
       for (Pair<AbstractState[], AbstractState[]> partition : partitions) {
+        if (partition == null) {
+          // compressed partition that was not yet loaded
+          continue;
+        }
         current = partition.getSecond().length;
         maxO=Math.max(maxO, current);
         minO=Math.min(minO, current);
@@ -35,7 +35,7 @@ public class ProofStatesInfoCollector implements Statistics {
     pConfig.inject(this);
   }
 
-  public void addInfoForStates(final AbstractState[] partialProofStates) {
+  public synchronized void addInfoForStates(final AbstractState[] partialProofStates) {
     numProofStates += partialProofStates.length;
 
     if (collectValueAnalysisStateInfo) {
@@ -8,6 +8,7 @@
 
 package org.sosy_lab.cpachecker.util;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.FluentIterable.from;
 import static org.sosy_lab.cpachecker.util.CFAUtils.hasBackWardsEdges;
@@ -133,6 +134,24 @@ public final class LoopStructure implements Serializable {
                                 .build();
     }
 
+    private Loop(ImmutableSet<CFANode> pLoopHeads, ImmutableSortedSet<CFANode> pNodes) {
+      checkArgument(!pLoopHeads.isEmpty(), "Loop without loop head");
+      checkArgument(pNodes.containsAll(pLoopHeads), "Loop head outside of loop");
+      loopHeads = pLoopHeads;
+      nodes = pNodes;
+    }
+
+    /**
+     * Create a loop from previously computed loop heads and nodes, e.g., when reading a CFA that
+     * was written by another process. Use {@link LoopStructure#getLoopStructure(MutableCFA)} for
+     * computing the loops of a CFA.
+     */
+    public static Loop of(Set<CFANode> pLoopHeads, Set<CFANode> pNodes) {
+      return new Loop(
+          ImmutableSet.copyOf(pLoopHeads),
+          ImmutableSortedSet.<CFANode>naturalOrder().addAll(pNodes).build());
+    }
+
     private void computeSets() {
       if (innerLoopEdges != null) {
         assert incomingEdges != null;
@@ -309,6 +328,16 @@ public final class LoopStructure implements Serializable {
     loops = pLoops;
   }
 
+  /**
+   * Create the loop structure from previously computed loops, e.g., when reading a CFA that was
+   * written by another process.
+   *
+   * @param pLoops The loops of each function.
+   */
+  public static LoopStructure of(ImmutableListMultimap<String, Loop> pLoops) {
+    return new LoopStructure(checkNotNull(pLoops));
+  }
+
   /**
    * Get the total number of loops in the program.
    */
@@ -41,12 +41,9 @@ import java.util.Set;
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.OutputKeys;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.TransformerFactory;
-import javax.xml.transform.dom.DOMSource;
-import javax.xml.transform.stream.StreamResult;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.cpachecker.cfa.CFA;
 import org.sosy_lab.cpachecker.cfa.ast.AAssignment;
@@ -98,6 +95,7 @@ import org.sosy_lab.cpachecker.util.CFAUtils;
 import org.w3c.dom.DOMException;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 
 public class AutomatonGraphmlCommon {
@@ -473,38 +471,174 @@ public class AutomatonGraphmlCommon {
       childOf.appendChild(result);
     }
 
+    /**
+     * Write the document to the given target. The document is serialized in a streaming fashion
+     * without building an intermediate representation of the output, and the key definitions that
+     * were collected while building the document are written before the graph.
+     */
     public void appendTo(Appendable pTarget) throws IOException {
-      Node root = doc.getFirstChild();
-      Node insertionLocation = root.getFirstChild();
-      for (Node graphMLKeyDefNode : Iterables
-          .consumingIterable(keyDefsToAppend.values())) {
-        while (insertionLocation != null
-            && insertionLocation.getNodeName().equals(GraphMLTag.KEY.toString())) {
-          insertionLocation = insertionLocation.getNextSibling();
-        }
-        root.insertBefore(graphMLKeyDefNode, insertionLocation);
+      startWriting(pTarget, ImmutableSet.of()).finish();
+    }
+
+    /**
+     * Start writing the document to the given target, such that further nodes and edges can be
+     * written directly with the returned {@link GraphMlWriter} instead of being kept in memory as
+     * part of this builder. Because key definitions precede the graph, all keys that are used by
+     * the nodes and edges that are written later need to be given here.
+     */
+    public GraphMlWriter startWriting(Appendable pTarget, Iterable<KeyDef> pKeys)
+        throws IOException {
+      for (KeyDef key : pKeys) {
+        defineKey(key);
       }
-
       try {
         pTarget.append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"no\"?>\n");
 
-        TransformerFactory tf = TransformerFactory.newInstance();
-        Transformer transformer = tf.newTransformer();
-        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
-        transformer.setOutputProperty(OutputKeys.METHOD, "xml");
-        transformer.setOutputProperty(OutputKeys.INDENT, "yes");
-        transformer.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "1");
-        transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
-
-        transformer.transform(new DOMSource(doc), new StreamResult(CharStreams.asWriter(pTarget)));
-      } catch (TransformerException ex) {
-        if (ex.getException() instanceof IOException) {
-          throw (IOException) ex.getException();
+        XMLStreamWriter out =
+            XMLOutputFactory.newInstance().createXMLStreamWriter(CharStreams.asWriter(pTarget));
+        Element root = doc.getDocumentElement();
+        writeStartElement(out, root, false);
+        for (Node keyDef : keyDefsToAppend.values()) {
+          writeNode(out, keyDef, 1);
+        }
+        out.writeCharacters("\n ");
+        writeStartElement(out, graph, false);
+        for (Node child = graph.getFirstChild(); child != null; child = child.getNextSibling()) {
+          writeNode(out, child, 2);
+        }
+        return new GraphMlWriter(out);
+      } catch (XMLStreamException ex) {
+        throw handleXMLStreamException(ex);
+      }
+    }
+
+    /**
+     * Writes nodes and edges of a GraphML document directly to the output, after the document was
+     * started with {@link GraphMlBuilder#startWriting(Appendable, Iterable)}. Call {@link
+     * #finish()} after the last node and edge.
+     */
+    public final class GraphMlWriter {
+
+      private final XMLStreamWriter out;
+
+      private GraphMlWriter(XMLStreamWriter pOut) {
+        out = pOut;
+      }
+
+      public void writeNode(String pNodeId, Iterable<Map.Entry<KeyDef, String>> pData)
+          throws IOException {
+        try {
+          out.writeCharacters("\n  ");
+          writeElement(GraphMLTag.NODE, pData, "id", pNodeId);
+        } catch (XMLStreamException ex) {
+          throw handleXMLStreamException(ex);
+        }
+      }
+
+      public void writeEdge(
+          String pSource, String pTarget, Iterable<Map.Entry<KeyDef, String>> pData)
+          throws IOException {
+        try {
+          out.writeCharacters("\n  ");
+          writeElement(GraphMLTag.EDGE, pData, "source", pSource, "target", pTarget);
+        } catch (XMLStreamException ex) {
+          throw handleXMLStreamException(ex);
+        }
+      }
+
+      private void writeElement(
+          GraphMLTag pTag, Iterable<Map.Entry<KeyDef, String>> pData, String... pAttributes)
+          throws XMLStreamException {
+        boolean empty = Iterables.isEmpty(pData);
+        if (empty) {
+          out.writeEmptyElement(pTag.toString());
+        } else {
+          out.writeStartElement(pTag.toString());
+        }
+        for (int i = 0; i < pAttributes.length; i += 2) {
+          out.writeAttribute(pAttributes[i], pAttributes[i + 1]);
+        }
+        if (!empty) {
+          for (Map.Entry<KeyDef, String> data : pData) {
+            Preconditions.checkArgument(
+                definedKeys.contains(data.getKey()),
+                "Key %s was not given when starting to write the document",
+                data.getKey());
+            out.writeCharacters("\n   ");
+            // like for elements of the DOM, where an empty text does not create a child
+            if (data.getValue().isEmpty()) {
+              out.writeEmptyElement(GraphMLTag.DATA.toString());
+              out.writeAttribute("key", data.getKey().id);
+            } else {
+              out.writeStartElement(GraphMLTag.DATA.toString());
+              out.writeAttribute("key", data.getKey().id);
+              out.writeCharacters(data.getValue());
+              out.writeEndElement();
+            }
+          }
+          out.writeCharacters("\n  ");
+          out.writeEndElement();
+        }
+      }
+
+      /** Closes the graph and the document and flushes the output. */
+      public void finish() throws IOException {
+        try {
+          out.writeCharacters("\n ");
+          out.writeEndElement();
+          out.writeCharacters("\n");
+          out.writeEndElement();
+          out.writeCharacters("\n");
+          out.flush();
+        } catch (XMLStreamException ex) {
+          throw handleXMLStreamException(ex);
+        }
+      }
+    }
+
+    private static IOException handleXMLStreamException(XMLStreamException pException) {
+      if (pException.getNestedException() instanceof IOException) {
+        return (IOException) pException.getNestedException();
+      }
+      throw new RuntimeException("Error while writing witness.", pException);
+    }
+
+    /** Write an element with one space of indentation per level, like an indenting transformer. */
+    private static void writeNode(XMLStreamWriter pOut, Node pNode, int pDepth)
+        throws XMLStreamException {
+      if (pNode.getNodeType() != Node.ELEMENT_NODE) {
+        return;
+      }
+      pOut.writeCharacters("\n" + " ".repeat(pDepth));
+      Node firstChild = pNode.getFirstChild();
+      writeStartElement(pOut, (Element) pNode, firstChild == null);
+      if (firstChild == null) {
+        return;
+      }
+      if (firstChild.getNextSibling() == null && firstChild.getNodeType() == Node.TEXT_NODE) {
+        pOut.writeCharacters(firstChild.getNodeValue());
+      } else {
+        for (Node child = firstChild; child != null; child = child.getNextSibling()) {
+          writeNode(pOut, child, pDepth + 1);
         }
-        throw new RuntimeException("Error while writing witness.", ex);
+        pOut.writeCharacters("\n" + " ".repeat(pDepth));
       }
+      pOut.writeEndElement();
     }
 
+    private static void writeStartElement(XMLStreamWriter pOut, Element pElement, boolean pEmpty)
+        throws XMLStreamException {
+      if (pEmpty) {
+        pOut.writeEmptyElement(pElement.getTagName());
+      } else {
+        pOut.writeStartElement(pElement.getTagName());
+      }
+      NamedNodeMap attributes = pElement.getAttributes();
+      for (int i = 0; i < attributes.getLength(); i++) {
+        Node attribute = attributes.item(i);
+        pOut.writeAttribute(attribute.getNodeName(), attribute.getNodeValue());
+      }
+    }
   }
 
   public static boolean handleAsEpsilonEdge(CFAEdge pEdge, CFAEdgeWithAdditionalInfo
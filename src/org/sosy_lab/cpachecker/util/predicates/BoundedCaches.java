@@ -0,0 +1,59 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.io.PrintStream;
+
+/**
+ * Utilities for the optionally bounded caches of formula operations, e.g., for path formulas and
+ * abstractions.
+ */
+public final class BoundedCaches {
+
+  private BoundedCaches() {}
+
+  /**
+   * Create a new cache that records statistics.
+   *
+   * @param pMaximumSize The maximum number of entries, least-recently used entries are evicted
+   *     first, or -1 for an unbounded cache.
+   * @param pSoftValues Whether the garbage collector may evict entries under memory pressure.
+   */
+  public static <K, V> Cache<K, V> newCache(long pMaximumSize, boolean pSoftValues) {
+    checkArgument(pMaximumSize >= -1, "Invalid maximum cache size %s", pMaximumSize);
+    CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+    if (pMaximumSize >= 0) {
+      builder.maximumSize(pMaximumSize);
+    }
+    if (pSoftValues) {
+      builder.softValues();
+    }
+    return builder.build();
+  }
+
+  /** Print one line of statistics for the given cache, if it was used at all. */
+  public static void printCacheStatistics(PrintStream pOut, String pName, Cache<?, ?> pCache) {
+    CacheStats stats = pCache.stats();
+    if (stats.requestCount() > 0) {
+      pOut.println(
+          String.format(
+              "%-36s %d hits, %d misses, %d evictions, %d entries",
+              pName + ":",
+              stats.hitCount(),
+              stats.missCount(),
+              stats.evictionCount(),
+              pCache.size()));
+    }
+  }
+}
@@ -251,7 +251,7 @@ public final class InterpolationManager {
         itpStrategy = new NestedInterpolation(pLogger, pShutdownNotifier, fmgr);
         break;
       case TREE_CPACHECKER:
-        itpStrategy = new TreeInterpolation(pLogger, pShutdownNotifier, fmgr);
+        itpStrategy = new TreeInterpolation(pLogger, pShutdownNotifier, fmgr, config);
         break;
       case TREE:
         itpStrategy = new TreeInterpolationWithSolver(pLogger, pShutdownNotifier, fmgr);
@@ -15,6 +15,10 @@ import java.util.ArrayList;
 import java.util.Deque;
 import java.util.List;
 import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.common.configuration.Option;
+import org.sosy_lab.common.configuration.Options;
 import org.sosy_lab.common.log.LogManager;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.util.Pair;
@@ -25,16 +29,30 @@ import org.sosy_lab.java_smt.api.BooleanFormula;
 import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
 import org.sosy_lab.java_smt.api.SolverException;
 
+@Options(prefix = "cpa.predicate.refinement")
 public class TreeInterpolation extends AbstractTreeInterpolation {
 
+  @Option(
+      secure = true,
+      description =
+          "For TREE_CPACHECKER: compute all tree interpolants with the same prover and keep the"
+              + " formulas that are shared by consecutive interpolation queries on the solver"
+              + " stack, instead of asserting all formulas on a new prover for each interpolant.")
+  private boolean incrementalTreeInterpolation = false;
+
   /**
    * This strategy is similar to "Tree Interpolation in Vampire*" from Blanc et al. In comparison to
    * the paper, we directly use the post-order-sorted formula-list instead of the tree. This is
    * easier to implement.
    */
   public TreeInterpolation(
-      LogManager pLogger, ShutdownNotifier pShutdownNotifier, FormulaManagerView pFmgr) {
+      LogManager pLogger,
+      ShutdownNotifier pShutdownNotifier,
+      FormulaManagerView pFmgr,
+      Configuration pConfig)
+      throws InvalidConfigurationException {
     super(pLogger, pShutdownNotifier, pFmgr);
+    pConfig.inject(this);
   }
 
   @Override
@@ -44,57 +62,98 @@ public class TreeInterpolation extends AbstractTreeInterpolation {
       throws InterruptedException, SolverException {
     final Pair<List<Triple<BooleanFormula, AbstractState, T>>, ImmutableIntArray> p =
         buildTreeStructure(formulasWithStatesAndGroupdIds);
+    final List<Triple<BooleanFormula, AbstractState, T>> formulas = p.getFirst();
     final ImmutableList.Builder<BooleanFormula> itps =
-        ImmutableList.builderWithExpectedSize(p.getFirst().size());
+        ImmutableList.builderWithExpectedSize(formulas.size());
     final Deque<Pair<BooleanFormula, Integer>> itpStack = new ArrayDeque<>();
-    for (int positionOfA = 0; positionOfA < p.getFirst().size() - 1; positionOfA++) {
-      itps.add(getTreeInterpolant(interpolator, itpStack, p.getFirst(), p.getSecond(), positionOfA));
+
+    if (incrementalTreeInterpolation) {
+      try (final InterpolatingProverEnvironment<T> itpProver = interpolator.newEnvironment()) {
+        // The formulas after positionOfA are part of partition B. We push them in reverse order,
+        // such that the formula that moves to partition A in the next query is on top of them.
+        for (int i = formulas.size() - 1; i > 0; i--) {
+          itpProver.push(formulas.get(i).getFirst());
+        }
+        for (int positionOfA = 0; positionOfA < formulas.size() - 1; positionOfA++) {
+          itps.add(
+              getTreeInterpolant(
+                  itpProver, itpStack, formulas, p.getSecond(), positionOfA, true));
+          itpProver.pop(); // formula at positionOfA+1
+        }
+      }
+
+    } else {
+      for (int positionOfA = 0; positionOfA < formulas.size() - 1; positionOfA++) {
+        // use a new prover, because we use several distinct interpolation-queries
+        try (final InterpolatingProverEnvironment<T> itpProver = interpolator.newEnvironment()) {
+          itps.add(
+              getTreeInterpolant(
+                  itpProver, itpStack, formulas, p.getSecond(), positionOfA, false));
+        }
+      }
     }
     return flattenTreeItps(formulasWithStatesAndGroupdIds, itps.build());
   }
 
+  /**
+   * Compute the interpolant for the node at positionOfA.
+   *
+   * @param laterFormulasAsserted whether the formulas after the node are already asserted on the
+   *     given prover. In this case, all formulas that are pushed by this method are removed again
+   *     before it returns. Otherwise, the formulas after the node are pushed after all others.
+   */
   private <T> BooleanFormula getTreeInterpolant(
-      final InterpolationManager.Interpolator<T> interpolator,
+      final InterpolatingProverEnvironment<T> itpProver,
       final Deque<Pair<BooleanFormula, Integer>> itpStack,
       final List<Triple<BooleanFormula, AbstractState, T>> formulas,
       final ImmutableIntArray startOfSubTree,
-      final int positionOfA)
+      final int positionOfA,
+      final boolean laterFormulasAsserted)
       throws SolverException, InterruptedException {
+    final int currentSubtree = startOfSubTree.get(positionOfA);
 
-    // use a new prover, because we use several distinct interpolation-queries
-    try (final InterpolatingProverEnvironment<T> itpProver = interpolator.newEnvironment()) {
-      final int currentSubtree = startOfSubTree.get(positionOfA);
-
-      // build partitions A and B
-      final List<T> A = new ArrayList<>();
-      final List<T> B = new ArrayList<>();
-      while(!itpStack.isEmpty() && currentSubtree <= itpStack.peekLast().getSecond()) {
-        A.add(itpProver.push(itpStack.pollLast().getFirst()));
-      }
-      A.add(itpProver.push(formulas.get(positionOfA).getFirst()));
+    // build partitions A and B
+    final List<T> A = new ArrayList<>();
+    while(!itpStack.isEmpty() && currentSubtree <= itpStack.peekLast().getSecond()) {
+      A.add(itpProver.push(itpStack.pollLast().getFirst()));
+    }
+    A.add(itpProver.push(formulas.get(positionOfA).getFirst()));
 
-      assert itpStack.isEmpty() == (currentSubtree == 0) :
-              "empty stack is only allowed, if we are in the left-most branch" +
-                      startOfSubTree + "@" + positionOfA + "=" + currentSubtree + " vs " + itpStack.size();
+    assert itpStack.isEmpty() == (currentSubtree == 0)
+        : "empty stack is only allowed, if we are in the left-most branch"
+            + startOfSubTree
+            + "@"
+            + positionOfA
+            + "="
+            + currentSubtree
+            + " vs "
+            + itpStack.size();
 
-      // build partition B
-      for (Pair<BooleanFormula, Integer> externalChild : itpStack) {
-        B.add(itpProver.push(externalChild.getFirst()));
-      }
+    // build partition B
+    for (Pair<BooleanFormula, Integer> externalChild : itpStack) {
+      itpProver.push(externalChild.getFirst());
+    }
+    if (!laterFormulasAsserted) {
       for (int i = positionOfA + 1; i < formulas.size(); i++) {
-        B.add(itpProver.push(formulas.get(i).getFirst()));
+        itpProver.push(formulas.get(i).getFirst());
       }
+    }
 
-      final boolean check = itpProver.isUnsat();
-      assert check : "asserted formulas should be UNSAT";
+    final boolean check = itpProver.isUnsat();
+    assert check : "asserted formulas should be UNSAT";
 
-      // get interpolant via Craig interpolation
-      assert !A.isEmpty() && !B.isEmpty();
-      final BooleanFormula interpolant = itpProver.getInterpolant(A);
+    // get interpolant via Craig interpolation
+    assert !A.isEmpty() && positionOfA < formulas.size() - 1;
+    final BooleanFormula interpolant = itpProver.getInterpolant(A);
 
-      // update the stack for further computation
-      itpStack.addLast(Pair.of(interpolant, currentSubtree));
-      return interpolant;
+    if (laterFormulasAsserted) {
+      for (int i = 0; i < A.size() + itpStack.size(); i++) {
+        itpProver.pop();
+      }
     }
+
+    // update the stack for further computation
+    itpStack.addLast(Pair.of(interpolant, currentSubtree));
+    return interpolant;
   }
 }
@@ -0,0 +1,141 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.interpolation.strategy;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.cpachecker.cfa.ast.FileLocation;
+import org.sosy_lab.cpachecker.cfa.ast.c.CFunctionDeclaration;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.cfa.model.FunctionExitNode;
+import org.sosy_lab.cpachecker.cfa.model.c.CFunctionEntryNode;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
+import org.sosy_lab.cpachecker.core.interfaces.AbstractStateWithLocation;
+import org.sosy_lab.cpachecker.util.Triple;
+import org.sosy_lab.cpachecker.util.predicates.interpolation.InterpolationManager.Interpolator;
+import org.sosy_lab.cpachecker.util.predicates.smt.SolverViewBasedTest0;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+import org.sosy_lab.java_smt.api.InterpolatingProverEnvironment;
+import org.sosy_lab.java_smt.api.NumeralFormula.IntegerFormula;
+
+public class TreeInterpolationTest extends SolverViewBasedTest0 {
+
+  private Interpolator<Object> interpolator;
+
+  @Before
+  @SuppressWarnings("unchecked")
+  public void setUpInterpolator() {
+    interpolator = mock(Interpolator.class);
+    when(interpolator.newEnvironment())
+        .thenAnswer(
+            invocation ->
+                (InterpolatingProverEnvironment<Object>)
+                    solver.newProverEnvironmentWithInterpolation());
+  }
+
+  private static AbstractState stateAt(CFANode pNode) {
+    AbstractStateWithLocation state = mock(AbstractStateWithLocation.class);
+    when(state.getLocationNode()).thenReturn(pNode);
+    return state;
+  }
+
+  private static CFunctionEntryNode createFunction() {
+    FunctionExitNode exit = new FunctionExitNode(CFunctionDeclaration.DUMMY);
+    CFunctionEntryNode entry =
+        new CFunctionEntryNode(
+            FileLocation.DUMMY, CFunctionDeclaration.DUMMY, exit, Optional.empty());
+    exit.setEntryNode(entry);
+    return entry;
+  }
+
+  private IntegerFormula var(String pName) {
+    return imgrv.makeVariable(pName);
+  }
+
+  private BooleanFormula eq(String pVar, int pValue) {
+    return imgrv.equal(var(pVar), imgrv.makeNumber(pValue));
+  }
+
+  private BooleanFormula eq(String pVar, String pOtherVar) {
+    return imgrv.equal(var(pVar), var(pOtherVar));
+  }
+
+  /**
+   * A path through main that calls two functions f and g, which results in a tree with two
+   * subtrees. All values are determined by constants, such that each interpolant is unique up to
+   * equivalence.
+   */
+  private List<Triple<BooleanFormula, AbstractState, Object>> createPath() {
+    CFANode main = CFANode.newDummyCFANode("main");
+    CFunctionEntryNode f = createFunction();
+    CFunctionEntryNode g = createFunction();
+    CFANode inF = CFANode.newDummyCFANode("f");
+    CFANode inG = CFANode.newDummyCFANode("g");
+
+    List<CFANode> nodes =
+        ImmutableList.of(main, f, inF, f.getExitNode(), main, g, inG, g.getExitNode(), main);
+    List<BooleanFormula> formulas =
+        ImmutableList.of(
+            eq("a", 1),
+            eq("p", "a"),
+            eq("r", 2),
+            eq("y", "r"),
+            imgrv.equal(var("b"), imgrv.add(var("y"), var("a"))),
+            eq("q", "b"),
+            eq("s", 4),
+            eq("z", "s"),
+            bmgrv.not(imgrv.equal(imgrv.add(var("b"), var("z")), imgrv.makeNumber(7))));
+
+    ImmutableList.Builder<Triple<BooleanFormula, AbstractState, Object>> result =
+        ImmutableList.builder();
+    for (int i = 0; i < nodes.size(); i++) {
+      result.add(Triple.of(formulas.get(i), stateAt(nodes.get(i)), i));
+    }
+    return result.build();
+  }
+
+  private List<BooleanFormula> getInterpolants(
+      boolean pIncremental, List<Triple<BooleanFormula, AbstractState, Object>> pPath)
+      throws Exception {
+    Configuration itpConfig =
+        Configuration.builder()
+            .copyFrom(config)
+            .setOption(
+                "cpa.predicate.refinement.incrementalTreeInterpolation",
+                Boolean.toString(pIncremental))
+            .build();
+    TreeInterpolation strategy =
+        new TreeInterpolation(logger, ShutdownNotifier.createDummy(), mgrv, itpConfig);
+    return strategy.getInterpolants(interpolator, pPath);
+  }
+
+  @Test
+  public void testIncrementalEqualsNonIncremental() throws Exception {
+    List<Triple<BooleanFormula, AbstractState, Object>> path = createPath();
+
+    List<BooleanFormula> expected = getInterpolants(false, path);
+    List<BooleanFormula> actual = getInterpolants(true, path);
+
+    assertThat(actual).hasSize(path.size() - 1);
+    assertThat(expected).hasSize(path.size() - 1);
+    for (int i = 0; i < expected.size(); i++) {
+      assertThat(solver.isUnsat(bmgrv.not(bmgrv.equivalence(actual.get(i), expected.get(i)))))
+          .isTrue();
+    }
+  }
+}
@@ -14,6 +14,8 @@ import static org.sosy_lab.cpachecker.util.AbstractStates.extractReportedFormula
 
 import com.google.common.collect.ImmutableCollection;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.SetMultimap;
 import com.google.common.collect.Sets;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -28,12 +30,16 @@ import org.sosy_lab.common.collect.Collections3;
 import org.sosy_lab.cpachecker.cfa.model.CFANode;
 import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.core.algorithm.bmc.candidateinvariants.CandidateInvariant;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.InvariantSupplier;
 import org.sosy_lab.cpachecker.core.algorithm.invariants.LazyLocationMapping;
 import org.sosy_lab.cpachecker.core.interfaces.AbstractState;
 import org.sosy_lab.cpachecker.core.reachedset.AggregatedReachedSets;
+import org.sosy_lab.cpachecker.core.reachedset.ArtifactExchange;
+import org.sosy_lab.cpachecker.core.reachedset.ArtifactExchange.Endpoint;
 import org.sosy_lab.cpachecker.core.reachedset.UnmodifiableReachedSet;
 import org.sosy_lab.cpachecker.cpa.callstack.CallstackStateEqualsWrapper;
+import org.sosy_lab.cpachecker.exceptions.CPATransferException;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormula;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManager;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap;
@@ -53,8 +59,15 @@ public class FormulaInvariantsSupplier implements InvariantSupplier {
   private final Map<UnmodifiableReachedSet, ReachedSetBasedFormulaSupplier>
       singleInvariantSuppliers = new HashMap<>();
 
+  // invariants confirmed by other analyses that run in parallel
+  private final Optional<Endpoint<CandidateInvariant>> invariantExchange;
+  private final SetMultimap<CFANode, CandidateInvariant> exchangedInvariants =
+      LinkedHashMultimap.create();
+
   public FormulaInvariantsSupplier(AggregatedReachedSets pAggregated) {
     aggregatedReached = pAggregated;
+    invariantExchange =
+        pAggregated.getArtifactExchange().map(ArtifactExchange::connectToInvariants);
     updateInvariants(); // at initialization we want to update the invariants the first time
   }
 
@@ -66,10 +79,24 @@ public class FormulaInvariantsSupplier implements InvariantSupplier {
       PathFormulaManager pPfmgr,
       @Nullable PathFormula pContext)
       throws InterruptedException {
-    return lastInvariantSupplier.getInvariantFor(pNode, pCallstackInfo, pFmgr, pPfmgr, pContext);
+    BooleanFormula invariant =
+        lastInvariantSupplier.getInvariantFor(pNode, pCallstackInfo, pFmgr, pPfmgr, pContext);
+
+    BooleanFormulaManager bfmgr = pFmgr.getBooleanFormulaManager();
+    for (CandidateInvariant exchangedInvariant : exchangedInvariants.get(pNode)) {
+      try {
+        invariant =
+            bfmgr.and(invariant, exchangedInvariant.getFormula(pFmgr, pPfmgr, pContext));
+      } catch (CPATransferException e) {
+        // invariant cannot be expressed in the encoding of this analysis, just ignore it
+      }
+    }
+    return invariant;
   }
 
   public void updateInvariants() {
+    invariantExchange.ifPresent(exchange -> exchangedInvariants.putAll(exchange.poll()));
+
     Set<UnmodifiableReachedSet> tmp = aggregatedReached.snapShot();
     if (!tmp.equals(lastUsedReachedSets)) {
       // if we have a former aggregated supplier we do only replace the changed parts
@@ -0,0 +1,127 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.Charset;
+import org.junit.Before;
+import org.junit.Test;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.InvalidConfigurationException;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+public class CachingPathFormulaManagerTest {
+
+  private PathFormulaManager delegate;
+
+  @Before
+  public void setUp() throws InterruptedException {
+    delegate = mock(PathFormulaManager.class);
+    when(delegate.makeEmptyPathFormula()).thenReturn(pathFormula(0));
+    when(delegate.makeEmptyPathFormula(any())).thenAnswer(invocation -> pathFormula(0));
+    when(delegate.makeOr(any(), any())).thenAnswer(invocation -> pathFormula(1));
+  }
+
+  private static PathFormula pathFormula(int pLength) {
+    return new PathFormula(
+        mock(BooleanFormula.class),
+        SSAMap.emptySSAMap(),
+        PointerTargetSet.emptyPointerTargetSet(),
+        pLength);
+  }
+
+  private CachingPathFormulaManager createManager(long pMaximumSize)
+      throws InvalidConfigurationException {
+    Configuration config =
+        Configuration.builder()
+            .setOption("cpa.predicate.pathFormulaCache.maximumSize", Long.toString(pMaximumSize))
+            .build();
+    return new CachingPathFormulaManager(delegate, config);
+  }
+
+  private static String getStatistics(CachingPathFormulaManager pManager) {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    pManager.printStatistics(new PrintStream(out, true, Charset.defaultCharset()));
+    return out.toString(Charset.defaultCharset());
+  }
+
+  @Test
+  public void testUnbounded() throws Exception {
+    CachingPathFormulaManager manager = createManager(-1);
+    PathFormula f1 = pathFormula(1);
+    PathFormula f2 = pathFormula(2);
+    PathFormula f3 = pathFormula(3);
+
+    PathFormula result = manager.makeEmptyPathFormula(f1);
+    manager.makeEmptyPathFormula(f2);
+    manager.makeEmptyPathFormula(f3);
+    assertThat(manager.makeEmptyPathFormula(f1)).isSameInstanceAs(result);
+
+    verify(delegate, times(3)).makeEmptyPathFormula(any());
+    assertThat(getStatistics(manager)).contains("1 hits, 3 misses, 0 evictions, 3 entries");
+  }
+
+  @Test
+  public void testBounded() throws Exception {
+    CachingPathFormulaManager manager = createManager(2);
+    PathFormula f1 = pathFormula(1);
+    PathFormula f2 = pathFormula(2);
+    PathFormula f3 = pathFormula(3);
+
+    manager.makeEmptyPathFormula(f1);
+    manager.makeEmptyPathFormula(f2);
+    manager.makeEmptyPathFormula(f3); // evicts the least-recently used entry for f1
+    manager.makeEmptyPathFormula(f3);
+    manager.makeEmptyPathFormula(f1);
+
+    verify(delegate, times(4)).makeEmptyPathFormula(any());
+    assertThat(getStatistics(manager)).contains("1 hits, 4 misses, 2 evictions, 2 entries");
+  }
+
+  @Test
+  public void testSizeZeroDisablesCaching() throws Exception {
+    CachingPathFormulaManager manager = createManager(0);
+    PathFormula f1 = pathFormula(1);
+
+    manager.makeEmptyPathFormula(f1);
+    manager.makeEmptyPathFormula(f1);
+
+    verify(delegate, times(2)).makeEmptyPathFormula(any());
+  }
+
+  @Test
+  public void testInvalidSize() {
+    assertThrows(InvalidConfigurationException.class, () -> createManager(-2));
+  }
+
+  @Test
+  public void testOrIndependentOfOrder() throws Exception {
+    CachingPathFormulaManager manager = createManager(-1);
+    PathFormula f1 = pathFormula(1);
+    PathFormula f2 = pathFormula(2);
+
+    PathFormula result = manager.makeOr(f1, f2);
+    assertThat(manager.makeOr(f2, f1)).isSameInstanceAs(result);
+    assertThat(manager.makeOr(f1, f2)).isSameInstanceAs(result);
+
+    verify(delegate, times(1)).makeOr(any(), any());
+    // each miss is counted once
+    assertThat(getStatistics(manager)).contains("2 hits, 1 misses, 0 evictions, 1 entries");
+  }
+}
@@ -0,0 +1,135 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sosy_lab.common.ShutdownNotifier;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.model.CFAEdge;
+import org.sosy_lab.cpachecker.cfa.model.CFANode;
+import org.sosy_lab.cpachecker.core.AnalysisDirection;
+import org.sosy_lab.cpachecker.util.predicates.smt.Solver;
+import org.sosy_lab.cpachecker.util.test.TestDataTools;
+
+/**
+ * Microbenchmark for {@link PathFormulaManagerImpl#makeAnd(PathFormula, CFAEdge)}, for merging
+ * path formulas with {@link PathFormulaManagerImpl#makeOr(PathFormula, PathFormula)} (which uses
+ * {@link SSAMapMerger}), and for {@link SSAMap#merge}.
+ *
+ * <p>The input is a generated straight-line program with a configurable number of variables, each
+ * of which is assigned several times. SMTInterpol is used as solver because it is available on
+ * all platforms.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PathFormulaManagerImplBenchmark {
+
+  @Param({"10", "100"})
+  public int variables;
+
+  @Param({"SMTINTERPOL"})
+  public String solver;
+
+  private Solver smtSolver;
+  private PathFormulaManager pfmgr;
+
+  private List<CFAEdge> path;
+  private PathFormula prefixFormula;
+  private PathFormula fullFormula;
+
+  @Setup
+  public void setup() throws Exception {
+    Configuration config =
+        TestDataTools.configurationForTest().setOption("solver.solver", solver).build();
+    LogManager logger = LogManager.createNullLogManager();
+    ShutdownNotifier shutdownNotifier = ShutdownNotifier.createDummy();
+
+    CFA cfa = TestDataTools.makeCFA(config, generateProgram());
+    smtSolver = Solver.create(config, logger, shutdownNotifier);
+    pfmgr =
+        new PathFormulaManagerImpl(
+            smtSolver.getFormulaManager(),
+            config,
+            logger,
+            shutdownNotifier,
+            cfa,
+            AnalysisDirection.FORWARD);
+
+    path = new ArrayList<>();
+    CFANode node = cfa.getMainFunction();
+    while (node.getNumLeavingEdges() == 1) {
+      CFAEdge edge = node.getLeavingEdge(0);
+      path.add(edge);
+      node = edge.getSuccessor();
+    }
+
+    prefixFormula = pfmgr.makeFormulaForPath(path.subList(0, path.size() / 2));
+    fullFormula = pfmgr.makeFormulaForPath(path);
+  }
+
+  private String[] generateProgram() {
+    List<String> lines = new ArrayList<>();
+    lines.add("int main() {");
+    for (int i = 0; i < variables; i++) {
+      lines.add("  int x" + i + " = " + i + ";");
+    }
+    for (int round = 0; round < 3; round++) {
+      for (int i = 1; i < variables; i++) {
+        lines.add("  x" + i + " = x" + i + " + x" + (i - 1) + ";");
+      }
+    }
+    lines.add("  return x0;");
+    lines.add("}");
+    return lines.toArray(new String[0]);
+  }
+
+  @TearDown
+  public void closeSolver() {
+    smtSolver.close();
+  }
+
+  @Benchmark
+  public PathFormula makeAnd() throws Exception {
+    PathFormula result = pfmgr.makeEmptyPathFormula();
+    for (CFAEdge edge : path) {
+      result = pfmgr.makeAnd(result, edge);
+    }
+    return result;
+  }
+
+  @Benchmark
+  public PathFormula makeOr() throws Exception {
+    return pfmgr.makeOr(prefixFormula, fullFormula);
+  }
+
+  @Benchmark
+  public SSAMap mergeSSAMaps() {
+    return SSAMap.merge(prefixFormula.getSsa(), fullFormula.getSsa(), new ArrayList<>());
+  }
+}
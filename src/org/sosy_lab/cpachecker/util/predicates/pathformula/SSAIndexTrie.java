@@ -0,0 +1,395 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Arrays;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.cpachecker.cfa.types.c.CType;
+
+/**
+ * Persistent map from non-negative int keys to a pair of a positive SSA index and a {@link CType},
+ * implemented as bitmap-compressed array-mapped trie with path copying. The keys are expected to
+ * be dense (e.g., ids from {@link VariableNameInterner}), such that the trie stays shallow and
+ * iteration in key order is cheap.
+ *
+ * <p>Lookups and updates do not allocate any boxed values, and updates copy only the (compressed)
+ * nodes on the path from the root to the key. Merging two tries shares all subtrees that are
+ * identical in both tries.
+ *
+ * <p>An index of 0 is used internally for absent keys, thus only positive indices can be stored.
+ */
+final class SSAIndexTrie {
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private static final Object[] NO_CHILDREN = new Object[0];
+  private static final int[] NO_INDICES = new int[0];
+
+  /** Callback for all entries of a trie, called in ascending key order. */
+  interface EntryVisitor {
+    void visit(int key, int index, CType type);
+  }
+
+  /**
+   * Callback for all keys that have differing entries in two merged tries, called in ascending
+   * key order. Absent entries are given as index 0 and type null.
+   */
+  interface DifferenceVisitor {
+    void visit(
+        int key,
+        int leftIndex,
+        @Nullable CType leftType,
+        int rightIndex,
+        @Nullable CType rightType);
+  }
+
+  /**
+   * A node of the trie. Inner nodes store their child nodes in {@link #children} and have no
+   * {@link #indices}, leaf nodes store the types in {@link #children} and the SSA indices in
+   * {@link #indices}. Only slots that are set in the {@link #bitmap} are stored.
+   */
+  private static final class Node {
+
+    private static final Node EMPTY_LEAF = new Node(0, NO_CHILDREN, NO_INDICES);
+    private static final Node EMPTY_INNER = new Node(0, NO_CHILDREN, null);
+
+    private final int bitmap;
+    private final Object[] children;
+    private final int @Nullable [] indices;
+
+    private Node(int pBitmap, Object[] pChildren, int @Nullable [] pIndices) {
+      bitmap = pBitmap;
+      children = pChildren;
+      indices = pIndices;
+    }
+
+    private static Node empty(int shift) {
+      return shift == 0 ? EMPTY_LEAF : EMPTY_INNER;
+    }
+
+    private boolean isEmpty() {
+      return bitmap == 0;
+    }
+  }
+
+  private static final SSAIndexTrie EMPTY = new SSAIndexTrie(Node.EMPTY_LEAF, 0);
+
+  private final Node root;
+
+  /** The number of bits the key is shifted right for selecting a slot in the root node. */
+  private final int shift;
+
+  private SSAIndexTrie(Node pRoot, int pShift) {
+    root = pRoot;
+    shift = pShift;
+  }
+
+  static SSAIndexTrie of() {
+    return EMPTY;
+  }
+
+  boolean isEmpty() {
+    return root.isEmpty();
+  }
+
+  private static int bit(int key, int shift) {
+    return 1 << ((key >>> shift) & MASK);
+  }
+
+  private static int position(int bitmap, int bit) {
+    return Integer.bitCount(bitmap & (bit - 1));
+  }
+
+  /** Returns whether a trie whose root uses the given shift can store the given key. */
+  private static boolean canStore(int key, int shift) {
+    return shift + BITS >= Integer.SIZE - 1 || (key >>> (shift + BITS)) == 0;
+  }
+
+  /** Returns the leaf node for the given key, or null. The key's slot may be absent. */
+  private @Nullable Node findLeaf(int key) {
+    if (key < 0 || !canStore(key, shift)) {
+      return null;
+    }
+    Node node = root;
+    for (int s = shift; s > 0; s -= BITS) {
+      int bit = bit(key, s);
+      if ((node.bitmap & bit) == 0) {
+        return null;
+      }
+      node = (Node) node.children[position(node.bitmap, bit)];
+    }
+    return node;
+  }
+
+  /** Returns the index stored for the key, or 0 if there is none. */
+  int getIndex(int key) {
+    Node leaf = findLeaf(key);
+    if (leaf == null) {
+      return 0;
+    }
+    int bit = bit(key, 0);
+    return (leaf.bitmap & bit) == 0 ? 0 : leaf.indices[position(leaf.bitmap, bit)];
+  }
+
+  /** Returns the type stored for the key, or null if there is none. */
+  @Nullable CType getType(int key) {
+    Node leaf = findLeaf(key);
+    if (leaf == null) {
+      return null;
+    }
+    int bit = bit(key, 0);
+    return (leaf.bitmap & bit) == 0 ? null : (CType) leaf.children[position(leaf.bitmap, bit)];
+  }
+
+  /** Returns a trie where the given key is mapped to the given index and type. */
+  SSAIndexTrie put(int key, int index, CType type) {
+    checkArgument(key >= 0);
+    checkArgument(index > 0);
+    checkNotNull(type);
+
+    Node newRoot = root;
+    int newShift = shift;
+    while (!canStore(key, newShift)) {
+      // the existing entries have only zero bits above the current shift
+      newRoot = newRoot.isEmpty() ? Node.EMPTY_INNER : new Node(1, new Object[] {newRoot}, null);
+      newShift += BITS;
+    }
+    newRoot = put(newRoot, newShift, key, index, type);
+    return newRoot == root ? this : new SSAIndexTrie(newRoot, newShift);
+  }
+
+  private static Node put(Node node, int shift, int key, int index, CType type) {
+    int bit = bit(key, shift);
+    int pos = position(node.bitmap, bit);
+    boolean present = (node.bitmap & bit) != 0;
+
+    if (shift == 0) {
+      if (!present) {
+        return new Node(
+            node.bitmap | bit, insert(node.children, pos, type), insert(node.indices, pos, index));
+      }
+      if (node.indices[pos] == index && node.children[pos] == type) {
+        return node;
+      }
+      Object[] types = node.children.clone();
+      int[] indices = node.indices.clone();
+      types[pos] = type;
+      indices[pos] = index;
+      return new Node(node.bitmap, types, indices);
+    }
+
+    Node child = present ? (Node) node.children[pos] : Node.empty(shift - BITS);
+    Node newChild = put(child, shift - BITS, key, index, type);
+    if (!present) {
+      return new Node(node.bitmap | bit, insert(node.children, pos, newChild), null);
+    }
+    if (newChild == child) {
+      return node;
+    }
+    Object[] children = node.children.clone();
+    children[pos] = newChild;
+    return new Node(node.bitmap, children, null);
+  }
+
+  /** Returns a trie without an entry for the given key. */
+  SSAIndexTrie remove(int key) {
+    if (findLeaf(key) == null) {
+      return this;
+    }
+    Node newRoot = remove(root, shift, key);
+    return newRoot == root ? this : new SSAIndexTrie(newRoot, shift);
+  }
+
+  private static Node remove(Node node, int shift, int key) {
+    int bit = bit(key, shift);
+    if ((node.bitmap & bit) == 0) {
+      return node;
+    }
+    int pos = position(node.bitmap, bit);
+
+    if (shift == 0) {
+      return new Node(node.bitmap & ~bit, remove(node.children, pos), remove(node.indices, pos));
+    }
+
+    Node child = (Node) node.children[pos];
+    Node newChild = remove(child, shift - BITS, key);
+    if (newChild == child) {
+      return node;
+    } else if (newChild.isEmpty()) {
+      return new Node(node.bitmap & ~bit, remove(node.children, pos), null);
+    }
+    Object[] children = node.children.clone();
+    children[pos] = newChild;
+    return new Node(node.bitmap, children, null);
+  }
+
+  /** Visits all entries in ascending key order. */
+  void forEach(EntryVisitor visitor) {
+    forEach(root, shift, 0, visitor);
+  }
+
+  private static void forEach(Node node, int shift, int prefix, EntryVisitor visitor) {
+    int pos = 0;
+    for (int rest = node.bitmap; rest != 0; rest &= rest - 1, pos++) {
+      int key = prefix | (Integer.numberOfTrailingZeros(rest) << shift);
+      if (shift == 0) {
+        visitor.visit(key, node.indices[pos], (CType) node.children[pos]);
+      } else {
+        forEach((Node) node.children[pos], shift - BITS, key, visitor);
+      }
+    }
+  }
+
+  /**
+   * Returns the root of this trie such that its shift is at least the given shift. This is done
+   * by adding nodes that have only the first slot set, or by using an empty root.
+   */
+  private Node rootWithShift(int pShift) {
+    Node node = root;
+    for (int s = shift; s < pShift; s += BITS) {
+      node = node.isEmpty() ? Node.EMPTY_INNER : new Node(1, new Object[] {node}, null);
+    }
+    return node;
+  }
+
+  /**
+   * Merges two tries. For keys that are present in both tries, the maximum index and the type of
+   * the left trie is used. All keys with differing entries (including keys that are present in
+   * only one trie) are given to the visitor. Subtrees that are identical in both tries are shared
+   * and not traversed.
+   */
+  static SSAIndexTrie merge(SSAIndexTrie t1, SSAIndexTrie t2, DifferenceVisitor visitor) {
+    if (t1.root == t2.root && t1.shift == t2.shift) {
+      return t1;
+    }
+    int shift = Math.max(t1.shift, t2.shift);
+    Node root1 = t1.rootWithShift(shift);
+    Node root2 = t2.rootWithShift(shift);
+    Node newRoot = merge(root1, root2, shift, 0, visitor);
+    if (newRoot == root1 && shift == t1.shift) {
+      return t1;
+    } else if (newRoot == root2 && shift == t2.shift) {
+      return t2;
+    }
+    return new SSAIndexTrie(newRoot, shift);
+  }
+
+  private static Node merge(Node n1, Node n2, int shift, int prefix, DifferenceVisitor visitor) {
+    if (n1 == n2) {
+      return n1;
+    } else if (n1.isEmpty()) {
+      forEach(n2, shift, prefix, (key, index, type) -> visitor.visit(key, 0, null, index, type));
+      return n2;
+    } else if (n2.isEmpty()) {
+      forEach(n1, shift, prefix, (key, index, type) -> visitor.visit(key, index, type, 0, null));
+      return n1;
+    }
+
+    final int bitmap = n1.bitmap | n2.bitmap;
+    final Object[] children = new Object[Integer.bitCount(bitmap)];
+    final int[] indices = shift == 0 ? new int[children.length] : null;
+    boolean equalToLeft = bitmap == n1.bitmap;
+    boolean equalToRight = bitmap == n2.bitmap;
+
+    int pos = 0;
+    for (int rest = bitmap; rest != 0; rest &= rest - 1, pos++) {
+      int bit = rest & -rest;
+      int key = prefix | (Integer.numberOfTrailingZeros(bit) << shift);
+      boolean inLeft = (n1.bitmap & bit) != 0;
+      boolean inRight = (n2.bitmap & bit) != 0;
+      int pos1 = position(n1.bitmap, bit);
+      int pos2 = position(n2.bitmap, bit);
+
+      if (shift == 0) {
+        int index1 = inLeft ? n1.indices[pos1] : 0;
+        int index2 = inRight ? n2.indices[pos2] : 0;
+        CType type1 = inLeft ? (CType) n1.children[pos1] : null;
+        CType type2 = inRight ? (CType) n2.children[pos2] : null;
+        if (index1 != index2 || type1 != type2) {
+          visitor.visit(key, index1, type1, index2, type2);
+        }
+        indices[pos] = Math.max(index1, index2);
+        children[pos] = type1 != null ? type1 : type2;
+        equalToLeft &= indices[pos] == index1 && children[pos] == type1;
+        equalToRight &= indices[pos] == index2 && children[pos] == type2;
+
+      } else {
+        Node child1 = inLeft ? (Node) n1.children[pos1] : Node.empty(shift - BITS);
+        Node child2 = inRight ? (Node) n2.children[pos2] : Node.empty(shift - BITS);
+        Node merged = merge(child1, child2, shift - BITS, key, visitor);
+        children[pos] = merged;
+        equalToLeft &= merged == child1;
+        equalToRight &= merged == child2;
+      }
+    }
+
+    if (equalToLeft) {
+      return n1;
+    } else if (equalToRight) {
+      return n2;
+    }
+    return new Node(bitmap, children, indices);
+  }
+
+  /** Returns whether both tries contain the same keys with the same indices (ignoring types). */
+  static boolean equalIndices(SSAIndexTrie t1, SSAIndexTrie t2) {
+    int shift = Math.max(t1.shift, t2.shift);
+    return equalIndices(t1.rootWithShift(shift), t2.rootWithShift(shift), shift);
+  }
+
+  private static boolean equalIndices(Node n1, Node n2, int shift) {
+    if (n1 == n2) {
+      return true;
+    } else if (n1.bitmap != n2.bitmap) {
+      return false;
+    } else if (shift == 0) {
+      return Arrays.equals(n1.indices, n2.indices);
+    }
+    for (int i = 0; i < n1.children.length; i++) {
+      if (!equalIndices((Node) n1.children[i], (Node) n2.children[i], shift - BITS)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static Object[] insert(Object[] array, int pos, Object value) {
+    Object[] result = new Object[array.length + 1];
+    System.arraycopy(array, 0, result, 0, pos);
+    result[pos] = value;
+    System.arraycopy(array, pos, result, pos + 1, array.length - pos);
+    return result;
+  }
+
+  private static int[] insert(int[] array, int pos, int value) {
+    int[] result = new int[array.length + 1];
+    System.arraycopy(array, 0, result, 0, pos);
+    result[pos] = value;
+    System.arraycopy(array, pos, result, pos + 1, array.length - pos);
+    return result;
+  }
+
+  private static Object[] remove(Object[] array, int pos) {
+    Object[] result = new Object[array.length - 1];
+    System.arraycopy(array, 0, result, 0, pos);
+    System.arraycopy(array, pos + 1, result, pos, array.length - pos - 1);
+    return result;
+  }
+
+  private static int[] remove(int[] array, int pos) {
+    int[] result = new int[array.length - 1];
+    System.arraycopy(array, 0, result, 0, pos);
+    System.arraycopy(array, pos + 1, result, pos, array.length - pos - 1);
+    return result;
+  }
+}
@@ -0,0 +1,81 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+
+public class SSAIndexTrieTest {
+
+  private static Map<Integer, Integer> entries(SSAIndexTrie trie) {
+    Map<Integer, Integer> result = new LinkedHashMap<>();
+    trie.forEach((key, index, type) -> result.put(key, index));
+    return result;
+  }
+
+  @Test
+  public void testPutAndRemove() {
+    SSAIndexTrie trie =
+        SSAIndexTrie.of()
+            .put(4711, 3, CNumericTypes.INT)
+            .put(1, 1, CNumericTypes.INT)
+            .put(33, 2, CNumericTypes.CHAR);
+
+    assertThat(trie.getIndex(1)).isEqualTo(1);
+    assertThat(trie.getIndex(33)).isEqualTo(2);
+    assertThat(trie.getIndex(4711)).isEqualTo(3);
+    assertThat(trie.getIndex(2)).isEqualTo(0);
+    assertThat(trie.getIndex(1 << 20)).isEqualTo(0);
+    assertThat(trie.getType(33)).isEqualTo(CNumericTypes.CHAR);
+    assertThat(entries(trie)).containsExactly(1, 1, 33, 2, 4711, 3).inOrder();
+
+    SSAIndexTrie removed = trie.remove(33).remove(4711).remove(4712);
+    assertThat(entries(removed)).containsExactly(1, 1);
+    assertThat(entries(trie)).containsExactly(1, 1, 33, 2, 4711, 3).inOrder();
+    assertThat(SSAIndexTrie.equalIndices(removed, SSAIndexTrie.of().put(1, 1, CNumericTypes.INT)))
+        .isTrue();
+    assertThat(removed.remove(1).isEmpty()).isTrue();
+  }
+
+  @Test
+  public void testMerge() {
+    SSAIndexTrie common = SSAIndexTrie.of().put(1, 1, CNumericTypes.INT);
+    SSAIndexTrie left = common.put(2, 5, CNumericTypes.INT).put(100, 1, CNumericTypes.INT);
+    SSAIndexTrie right = common.put(2, 3, CNumericTypes.INT).put(3, 2, CNumericTypes.INT);
+
+    List<String> differences = new ArrayList<>();
+    SSAIndexTrie merged =
+        SSAIndexTrie.merge(
+            left,
+            right,
+            (key, leftIndex, leftType, rightIndex, rightType) ->
+                differences.add(key + ":" + leftIndex + ":" + rightIndex));
+
+    assertThat(entries(merged)).containsExactly(1, 1, 2, 5, 3, 2, 100, 1).inOrder();
+    assertThat(differences).containsExactly("2:5:3", "3:0:2", "100:1:0").inOrder();
+  }
+
+  @Test
+  public void testMergeSharesIdenticalTries() {
+    SSAIndexTrie big = SSAIndexTrie.of().put(1, 1, CNumericTypes.INT).put(2, 2, CNumericTypes.INT);
+    SSAIndexTrie small = SSAIndexTrie.of().put(2, 2, CNumericTypes.INT);
+
+    SSAIndexTrie merged =
+        SSAIndexTrie.merge(
+            big, small, (key, leftIndex, leftType, rightIndex, rightType) -> {});
+
+    assertThat(merged).isSameInstanceAs(big);
+  }
+}
@@ -10,17 +10,24 @@ package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static com.google.common.base.Preconditions.checkArgument;
 
-import com.google.common.base.Equivalence;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
+import com.google.common.collect.ForwardingNavigableSet;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSortedSet;
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.AbstractMap.SimpleImmutableEntry;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
 import java.util.NavigableSet;
+import java.util.TreeMap;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.collect.MapsDifference;
-import org.sosy_lab.common.collect.PathCopyingPersistentTreeMap;
-import org.sosy_lab.common.collect.PersistentSortedMap;
-import org.sosy_lab.common.collect.PersistentSortedMaps;
 import org.sosy_lab.common.collect.PersistentSortedMaps.MergeConflictHandler;
 import org.sosy_lab.cpachecker.cfa.types.c.CComplexType;
 import org.sosy_lab.cpachecker.cfa.types.c.CComplexType.ComplexTypeKind;
@@ -28,11 +35,16 @@ import org.sosy_lab.cpachecker.cfa.types.c.CElaboratedType;
 import org.sosy_lab.cpachecker.cfa.types.c.CFunctionType;
 import org.sosy_lab.cpachecker.cfa.types.c.CPointerType;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
-import org.sosy_lab.cpachecker.cfa.types.c.CTypes;
 
 /**
  * Maps a variable name to its latest "SSA index", that should be used when
  * referring to that variable.
+ *
+ * <p>Variable names are interned to dense int ids (cf. {@link VariableNameInterner}),
+ * which are only valid together with the interner that is referenced by the SSAMap,
+ * and the index and type of each variable are stored together in a persistent
+ * int-keyed trie (cf. {@link SSAIndexTrie}), such that lookups and updates
+ * neither compare strings nor allocate boxed integers.
  */
 public class SSAMap implements Serializable {
 
@@ -82,9 +94,8 @@ public class SSAMap implements Serializable {
   public static class SSAMapBuilder {
 
     private SSAMap ssa;
-    private PersistentSortedMap<String, Integer> vars; // Do not update without updating varsHashCode!
+    private SSAIndexTrie vars; // Do not update without updating varsHashCode!
     private FreshValueProvider freshValueProvider;
-    private PersistentSortedMap<String, CType> varTypes;
 
     // Instead of computing vars.hashCode(),
     // we calculate the hashCode ourselves incrementally
@@ -95,43 +106,42 @@ public class SSAMap implements Serializable {
       this.ssa = ssa;
       this.vars = ssa.vars;
       this.freshValueProvider = ssa.freshValueProvider;
-
-      this.varTypes = ssa.varTypes;
       this.varsHashCode = ssa.varsHashCode;
     }
 
     public int getIndex(String variable) {
-      return SSAMap.getIndex(variable, vars, ssa.defaultValue);
+      return SSAMap.getIndex(variable, vars, ssa.interner, ssa.defaultValue);
     }
 
     public int getFreshIndex(String variable) {
       return freshValueProvider.getFreshValue(variable,
-          SSAMap.getIndex(variable, vars, ssa.defaultValue));
+          SSAMap.getIndex(variable, vars, ssa.interner, ssa.defaultValue));
     }
 
     public CType getType(String name) {
-      return varTypes.get(name);
+      return SSAMap.getType(name, vars, ssa.interner);
     }
 
     @SuppressWarnings("CheckReturnValue")
     public SSAMapBuilder setIndex(String name, CType type, int idx) {
       Preconditions.checkArgument(idx > 0, "Indices need to be positive for this SSAMap implementation:", name, type, idx);
-      int oldIdx = getIndex(name);
+      int id = ssa.interner.getOrCreateId(name);
+      int storedIdx = vars.getIndex(id);
+      int oldIdx = storedIdx == 0 ? ssa.defaultValue : storedIdx;
       Preconditions.checkArgument(idx >= oldIdx, "SSAMap updates need to be strictly monotone:", name, type, idx);
 
       type = type.getCanonicalType();
       assert !(type instanceof CFunctionType) : "Variable " + name + " has function type " + type;
-      CType oldType = varTypes.get(name);
+      CType oldType = vars.getType(id);
       if (oldType != null) {
         TYPE_CONFLICT_CHECKER.resolveConflict(name, oldType, type);
-      } else {
-        varTypes = varTypes.putAndCopy(name, type);
+        type = oldType;
       }
 
       if (idx > oldIdx || idx == ssa.defaultValue) {
-        vars = vars.putAndCopy(name, idx);
-        if (oldIdx != ssa.defaultValue) {
-          varsHashCode -= mapEntryHashCode(name, oldIdx);
+        vars = vars.put(id, idx, type);
+        if (storedIdx != 0) {
+          varsHashCode -= mapEntryHashCode(name, storedIdx);
         }
         varsHashCode += mapEntryHashCode(name, idx);
       }
@@ -146,17 +156,18 @@ public class SSAMap implements Serializable {
     public SSAMapBuilder deleteVariable(String variable) {
       int index = getIndex(variable);
       if (index != ssa.defaultValue) {
-        vars = vars.removeAndCopy(variable);
+        vars = vars.remove(ssa.interner.getId(variable));
         varsHashCode -= mapEntryHashCode(variable, index);
-
-        varTypes = varTypes.removeAndCopy(variable);
       }
 
       return this;
     }
 
     public NavigableSet<String> allVariables() {
-      return varTypes.keySet();
+      if (vars == ssa.vars) {
+        return ssa.allVariables();
+      }
+      return new VariableSet(vars, ssa.interner);
     }
 
     /**
@@ -167,115 +178,212 @@ public class SSAMap implements Serializable {
         return ssa;
       }
 
-      ssa = new SSAMap(vars, freshValueProvider, varsHashCode, varTypes, ssa.defaultValue);
+      ssa = new SSAMap(vars, freshValueProvider, varsHashCode, ssa.defaultValue, ssa.interner);
       return ssa;
     }
+  }
 
-    /**
-     * Not-null safe copy of {@link SimpleImmutableEntry#hashCode()}
-     * for Object-to-int maps.
-     */
-    private static int mapEntryHashCode(Object key, int value) {
-      return key.hashCode() ^ value;
-    }
+  /**
+   * Not-null safe copy of {@link SimpleImmutableEntry#hashCode()}
+   * for Object-to-int maps.
+   */
+  private static int mapEntryHashCode(Object key, int value) {
+    return key.hashCode() ^ value;
   }
 
-  private static final SSAMap EMPTY_SSA_MAP = new SSAMap(
-      PathCopyingPersistentTreeMap.of(),
-      new FreshValueProvider(),
-      0,
-      PathCopyingPersistentTreeMap.of());
+  static SSAMap createEmptySSAMap(VariableNameInterner pInterner) {
+    return new SSAMap(
+        SSAIndexTrie.of(), new FreshValueProvider(), 0, DEFAULT_DEFAULT_IDX, pInterner);
+  }
 
   /**
    * Returns an empty immutable SSAMap.
    */
   public static SSAMap emptySSAMap() {
-    return EMPTY_SSA_MAP;
+    return VariableNameInterner.current().getEmptySSAMap();
   }
 
   public SSAMap withDefault(final int pDefaultValue) {
-    return new SSAMap(this.vars, this.freshValueProvider, this.varsHashCode, this.varTypes, pDefaultValue);
+    return new SSAMap(
+        this.vars, this.freshValueProvider, this.varsHashCode, pDefaultValue, this.interner);
+  }
+
+  /**
+   * A variable for which two merged SSAMaps have different indices.
+   * Missing indices are represented as 0.
+   */
+  public static final class IndexDifference {
+
+    private final String name;
+    private final CType type;
+    private final int leftIndex;
+    private final int rightIndex;
+
+    private IndexDifference(String pName, CType pType, int pLeftIndex, int pRightIndex) {
+      name = pName;
+      type = pType;
+      leftIndex = pLeftIndex;
+      rightIndex = pRightIndex;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /** The type of the variable in the merged SSAMap. */
+    public CType getType() {
+      return type;
+    }
+
+    /** The index in the first SSAMap, or 0 if the variable is not contained. */
+    public int getLeftIndex() {
+      return leftIndex;
+    }
+
+    /** The index in the second SSAMap, or 0 if the variable is not contained. */
+    public int getRightIndex() {
+      return rightIndex;
+    }
+
+    @Override
+    public String toString() {
+      return name + ": " + leftIndex + " vs. " + rightIndex;
+    }
+  }
+
+  /**
+   * Receives the differing entries while two tries are merged,
+   * checks their types, and updates the hashCode of the result.
+   */
+  private static class MergeVisitor implements SSAIndexTrie.DifferenceVisitor {
+
+    private final List<IndexDifference> differences;
+    private final VariableNameInterner interner;
+    private int varsHashCode;
+
+    private MergeVisitor(
+        List<IndexDifference> pDifferences, VariableNameInterner pInterner, int pLeftHashCode) {
+      differences = pDifferences;
+      interner = pInterner;
+      varsHashCode = pLeftHashCode;
+    }
+
+    @Override
+    public void visit(
+        int id,
+        int leftIndex,
+        @Nullable CType leftType,
+        int rightIndex,
+        @Nullable CType rightType) {
+      String name = interner.getName(id);
+      if (leftType != null && rightType != null && !leftType.equals(rightType)) {
+        // types in SSAMaps are always canonical
+        TYPE_CONFLICT_CHECKER.resolveConflict(name, leftType, rightType);
+      }
+      if (leftIndex == rightIndex) {
+        return;
+      }
+
+      if (rightIndex > leftIndex) {
+        if (leftIndex != 0) {
+          varsHashCode -= mapEntryHashCode(name, leftIndex);
+        }
+        varsHashCode += mapEntryHashCode(name, rightIndex);
+      }
+      differences.add(
+          new IndexDifference(
+              name, leftType != null ? leftType : rightType, leftIndex, rightIndex));
+    }
   }
 
   /**
    * Creates an unmodifiable SSAMap that contains all indices from two SSAMaps.
    * If there are conflicting indices, the maximum of both is used.
-   * Further returns a list with all variables for which different indices
-   * were found, together with the two conflicting indices.
+   * Further adds all variables for which different indices were found,
+   * together with the two conflicting indices, to the given list
+   * (sorted by variable name).
    */
-  public static SSAMap merge(
-      SSAMap s1, SSAMap s2, MapsDifference.Visitor<String, Integer> collectDifferences) {
+  public static SSAMap merge(SSAMap s1, SSAMap s2, List<IndexDifference> collectDifferences) {
     // This method uses some optimizations to avoid work when parts of both SSAMaps
     // are equal. These checks use == instead of equals() because it is much faster
-    // and we create sets lazily (so when they are not identical, they are
-    // probably not equal, too).
-    // We don't bother checking the vars set for emptiness, because this will
-    // probably never be the case on a merge.
+    // and we create tries lazily (so when they are not identical, they are
+    // probably not equal, too). Identical subtrees of both tries are not traversed.
 
     checkArgument(s1.defaultValue == s2.defaultValue);
-    PersistentSortedMap<String, Integer> vars;
-    FreshValueProvider freshValueProvider;
-    int defaultIndex;
+    // all existing SSAMaps share the same interner, cf. VariableNameInterner
+    checkArgument(s1.interner == s2.interner);
     if (s1.vars == s2.vars && s1.freshValueProvider == s2.freshValueProvider) {
       // both are absolutely identical
       return s1;
-
-    } else {
-      vars =
-          PersistentSortedMaps.merge(
-              s1.vars,
-              s2.vars,
-              Equivalence.equals(),
-              PersistentSortedMaps.getMaximumMergeConflictHandler(),
-              collectDifferences);
-      freshValueProvider = s1.freshValueProvider.merge(s2.freshValueProvider);
-      defaultIndex = s1.defaultValue;
     }
 
-    PersistentSortedMap<String, CType> varTypes =
-        PersistentSortedMaps.merge(
-            s1.varTypes,
-            s2.varTypes,
-            CTypes.canonicalTypeEquivalence(),
-            TYPE_CONFLICT_CHECKER,
-            MapsDifference.ignoreMapsDifference());
+    List<IndexDifference> differences = new ArrayList<>();
+    MergeVisitor visitor = new MergeVisitor(differences, s1.interner, s1.varsHashCode);
+    SSAIndexTrie vars = SSAIndexTrie.merge(s1.vars, s2.vars, visitor);
+    FreshValueProvider freshValueProvider = s1.freshValueProvider.merge(s2.freshValueProvider);
+
+    // the trie is ordered by ids, but users expect a deterministic order of variables
+    differences.sort(Comparator.comparing(IndexDifference::getName));
+    collectDifferences.addAll(differences);
 
-    return new SSAMap(vars, freshValueProvider, 0, varTypes, defaultIndex);
+    if (vars == s1.vars && freshValueProvider == s1.freshValueProvider) {
+      return s1;
+    }
+    return new SSAMap(
+        vars, freshValueProvider, visitor.varsHashCode, s1.defaultValue, s1.interner);
   }
 
-  private final PersistentSortedMap<String, Integer> vars;
+  /**
+   * Creates an unmodifiable SSAMap that contains all indices from two SSAMaps.
+   * If there are conflicting indices, the maximum of both is used.
+   * Further returns a list with all variables for which different indices
+   * were found, together with the two conflicting indices.
+   *
+   * <p>Prefer {@link #merge(SSAMap, SSAMap, List)}, which does not box indices.
+   */
+  public static SSAMap merge(
+      SSAMap s1, SSAMap s2, MapsDifference.Visitor<String, Integer> collectDifferences) {
+    List<IndexDifference> differences = new ArrayList<>();
+    SSAMap result = merge(s1, s2, differences);
+    for (IndexDifference difference : differences) {
+      if (difference.leftIndex == 0) {
+        collectDifferences.rightValueOnly(difference.name, difference.rightIndex);
+      } else if (difference.rightIndex == 0) {
+        collectDifferences.leftValueOnly(difference.name, difference.leftIndex);
+      } else {
+        collectDifferences.differingValues(
+            difference.name, difference.leftIndex, difference.rightIndex);
+      }
+    }
+    return result;
+  }
+
+  private final SSAIndexTrie vars;
   private final FreshValueProvider freshValueProvider;
-  private final PersistentSortedMap<String, CType> varTypes;
+
+  // the interner for the ids in vars, keeps it alive as long as this map exists
+  private final VariableNameInterner interner;
 
   // Cache hashCode of potentially big map
   private final int varsHashCode;
 
-  private SSAMap(PersistentSortedMap<String, Integer> vars,
+  // Lazily created
+  private transient @Nullable VariableSet allVariables = null;
+
+  private SSAMap(SSAIndexTrie vars,
                  FreshValueProvider freshValueProvider,
                  int varsHashCode,
-                 PersistentSortedMap<String, CType> varTypes,
-                 int defaultSSAIdx) {
+                 int defaultSSAIdx,
+                 VariableNameInterner interner) {
     this.vars = vars;
     this.freshValueProvider = freshValueProvider;
-    this.varTypes = varTypes;
-
-    if (varsHashCode == 0) {
-      this.varsHashCode = vars.hashCode();
-    } else {
-      this.varsHashCode = varsHashCode;
-      assert varsHashCode == vars.hashCode();
-    }
+    this.varsHashCode = varsHashCode;
+    this.interner = interner;
+    assert varsHashCode == computeHashCode(vars, interner);
 
     defaultValue = defaultSSAIdx;
   }
 
-  private SSAMap(PersistentSortedMap<String, Integer> vars,
-                 FreshValueProvider freshValueProvider,
-                 int varsHashCode,
-                 PersistentSortedMap<String, CType> varTypes) {
-    this(vars, freshValueProvider, varsHashCode, varTypes, DEFAULT_DEFAULT_IDX);
-  }
-
   /**
    * Returns a SSAMapBuilder that is initialized with the current SSAMap.
    */
@@ -283,36 +391,108 @@ public class SSAMap implements Serializable {
     return new SSAMapBuilder(this);
   }
 
-  private static int getIndex(String variable, Map<String, Integer> vars, int defaultValue) {
-    Integer value = vars.get(variable);
-    if (value == null) {
+  private static int computeHashCode(SSAIndexTrie vars, VariableNameInterner interner) {
+    int[] hashCode = {0};
+    vars.forEach(
+        (id, index, type) -> hashCode[0] += mapEntryHashCode(interner.getName(id), index));
+    return hashCode[0];
+  }
+
+  private static int getIndex(
+      String variable, SSAIndexTrie vars, VariableNameInterner interner, int defaultValue) {
+    int id = interner.getId(variable);
+    int value = id < 0 ? 0 : vars.getIndex(id);
+    if (value == 0) {
       return defaultValue;
     }
     return value;
   }
 
+  private static @Nullable CType getType(
+      String variable, SSAIndexTrie vars, VariableNameInterner interner) {
+    int id = interner.getId(variable);
+    return id < 0 ? null : vars.getType(id);
+  }
+
+  private static boolean containsVariable(
+      String variable, SSAIndexTrie vars, VariableNameInterner interner) {
+    int id = interner.getId(variable);
+    return id >= 0 && vars.getIndex(id) != 0;
+  }
+
   /** Returns index of the variable in the map, or the [defaultValue]. */
   public int getIndex(String variable) {
-    return getIndex(variable, vars, defaultValue);
+    return getIndex(variable, vars, interner, defaultValue);
   }
 
   public boolean containsVariable(String variable) {
-    return vars.containsKey(variable);
+    return containsVariable(variable, vars, interner);
   }
 
   public CType getType(String name) {
-    return varTypes.get(name);
+    return getType(name, vars, interner);
   }
 
   public NavigableSet<String> allVariables() {
-    return vars.keySet();
+    VariableSet result = allVariables;
+    if (result == null) {
+      result = new VariableSet(vars, interner);
+      allVariables = result;
+    }
+    return result;
+  }
+
+  /**
+   * Unmodifiable set of the variables of a trie. Creating it is cheap, and membership tests are
+   * answered by the trie. The sorted set of names is only computed (once) for operations that need
+   * it, like iteration.
+   */
+  private static final class VariableSet extends ForwardingNavigableSet<String> {
+
+    private final SSAIndexTrie vars;
+    private final VariableNameInterner interner;
+    private @Nullable ImmutableSortedSet<String> sortedNames = null;
+
+    private VariableSet(SSAIndexTrie pVars, VariableNameInterner pInterner) {
+      vars = pVars;
+      interner = pInterner;
+    }
+
+    @Override
+    protected NavigableSet<String> delegate() {
+      ImmutableSortedSet<String> result = sortedNames;
+      if (result == null) {
+        ImmutableSortedSet.Builder<String> builder = ImmutableSortedSet.naturalOrder();
+        vars.forEach((id, index, type) -> builder.add(interner.getName(id)));
+        result = builder.build();
+        sortedNames = result;
+      }
+      return result;
+    }
+
+    @Override
+    public boolean contains(@Nullable Object pObject) {
+      return pObject instanceof String && containsVariable((String) pObject, vars, interner);
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> pCollection) {
+      return standardContainsAll(pCollection);
+    }
+
+    @Override
+    public boolean isEmpty() {
+      return vars.isEmpty();
+    }
   }
 
-  private static final Joiner joiner = Joiner.on(" ");
+  private static final Joiner joiner = Joiner.on(" ").withKeyValueSeparator("=");
 
   @Override
   public String toString() {
-    return joiner.join(vars.entrySet());
+    TreeMap<String, Integer> sortedVars = new TreeMap<>();
+    vars.forEach((id, index, type) -> sortedVars.put(interner.getName(id), index));
+    return joiner.join(sortedVars);
   }
 
   @Override
@@ -330,8 +510,64 @@ public class SSAMap implements Serializable {
       SSAMap other = (SSAMap)obj;
       // Do a few cheap checks before the expensive ones.
       return varsHashCode == other.varsHashCode
-          && vars.equals(other.vars)
+          && interner == other.interner
+          && SSAIndexTrie.equalIndices(vars, other.vars)
           && freshValueProvider.equals(other.freshValueProvider);
     }
   }
+
+  private Object writeReplace() {
+    return new SerializationProxy(this);
+  }
+
+  /**
+   * javadoc to remove unused parameter warning
+   *
+   * @param in the input stream
+   */
+  @SuppressWarnings("UnusedVariable") // parameter is required by API
+  private void readObject(ObjectInputStream in) throws IOException {
+    throw new InvalidObjectException("Proxy required");
+  }
+
+  /** Stores variable names instead of ids, because ids are not stable across JVMs. */
+  private static class SerializationProxy implements Serializable {
+
+    private static final long serialVersionUID = 4397016391398476209L;
+
+    private final List<String> names;
+    private final List<Integer> indices;
+    private final List<CType> types;
+    private final FreshValueProvider freshValueProvider;
+    private final int defaultValue;
+
+    private SerializationProxy(SSAMap ssa) {
+      ImmutableList.Builder<String> namesBuilder = ImmutableList.builder();
+      ImmutableList.Builder<Integer> indicesBuilder = ImmutableList.builder();
+      ImmutableList.Builder<CType> typesBuilder = ImmutableList.builder();
+      ssa.vars.forEach(
+          (id, index, type) -> {
+            namesBuilder.add(ssa.interner.getName(id));
+            indicesBuilder.add(index);
+            typesBuilder.add(type);
+          });
+      names = namesBuilder.build();
+      indices = indicesBuilder.build();
+      types = typesBuilder.build();
+      freshValueProvider = ssa.freshValueProvider;
+      defaultValue = ssa.defaultValue;
+    }
+
+    private Object readResolve() {
+      VariableNameInterner interner = VariableNameInterner.current();
+      SSAIndexTrie vars = SSAIndexTrie.of();
+      int varsHashCode = 0;
+      for (int i = 0; i < names.size(); i++) {
+        String name = names.get(i);
+        vars = vars.put(interner.getOrCreateId(name), indices.get(i), types.get(i));
+        varsHashCode += mapEntryHashCode(name, indices.get(i));
+      }
+      return new SSAMap(vars, freshValueProvider, varsHashCode, defaultValue, interner);
+    }
+  }
 }
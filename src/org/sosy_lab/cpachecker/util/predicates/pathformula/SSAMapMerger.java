@@ -9,12 +9,11 @@
 package org.sosy_lab.cpachecker.util.predicates.pathformula;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static org.sosy_lab.common.collect.MapsDifference.collectMapsDifferenceTo;
 import static org.sosy_lab.cpachecker.util.predicates.pathformula.PathFormulaManagerImpl.NONDET_FLAG_VARIABLE;
 
 import org.sosy_lab.common.ShutdownNotifier;
-import org.sosy_lab.common.collect.MapsDifference;
 import org.sosy_lab.cpachecker.cfa.types.c.CType;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.IndexDifference;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.ctoformula.CtoFormulaConverter;
 import org.sosy_lab.cpachecker.util.predicates.pathformula.pointeraliasing.PointerTargetSet;
 import org.sosy_lab.cpachecker.util.predicates.smt.BooleanFormulaManagerView;
@@ -70,18 +69,19 @@ public class SSAMapMerger {
       final SSAMap ssa2,
       final PointerTargetSet pts2)
       throws InterruptedException {
-    final List<MapsDifference.Entry<String, Integer>> symbolDifferences = new ArrayList<>();
-    final SSAMap resultSSA = SSAMap.merge(ssa1, ssa2, collectMapsDifferenceTo(symbolDifferences));
+    final List<IndexDifference> symbolDifferences = new ArrayList<>();
+    final SSAMap resultSSA = SSAMap.merge(ssa1, ssa2, symbolDifferences);
 
     BooleanFormula mergeFormula1 = bfmgr.makeTrue();
     BooleanFormula mergeFormula2 = bfmgr.makeTrue();
 
-    for (final MapsDifference.Entry<String, Integer> symbolDifference : symbolDifferences) {
+    for (final IndexDifference symbolDifference : symbolDifferences) {
       shutdownNotifier.shutdownIfNecessary();
-      final String symbolName = symbolDifference.getKey();
-      final CType symbolType = resultSSA.getType(symbolName);
-      final int index1 = symbolDifference.getLeftValue().orElse(1);
-      final int index2 = symbolDifference.getRightValue().orElse(1);
+      final String symbolName = symbolDifference.getName();
+      final CType symbolType = symbolDifference.getType();
+      // missing indices are 0, but need to be treated as 1
+      final int index1 = Math.max(symbolDifference.getLeftIndex(), 1);
+      final int index2 = Math.max(symbolDifference.getRightIndex(), 1);
 
       assert symbolName != null;
       if (index1 > index2 && index1 > 1) {
@@ -151,18 +151,19 @@ public class SSAMapMerger {
       final PointerTargetSet pts1,
       final SSAMap ssa2)
       throws InterruptedException {
-    final List<MapsDifference.Entry<String, Integer>> symbolDifferences = new ArrayList<>();
-    final SSAMap resultSSA = SSAMap.merge(ssa1, ssa2, collectMapsDifferenceTo(symbolDifferences));
+    final List<IndexDifference> symbolDifferences = new ArrayList<>();
+    SSAMap.merge(ssa1, ssa2, symbolDifferences);
 
     List<BooleanFormula> mergeFormula = new ArrayList<>();
     mergeFormula.add(pFormula);
 
-    for (final MapsDifference.Entry<String, Integer> symbolDifference : symbolDifferences) {
+    for (final IndexDifference symbolDifference : symbolDifferences) {
       shutdownNotifier.shutdownIfNecessary();
-      final String symbolName = symbolDifference.getKey();
-      final CType symbolType = resultSSA.getType(symbolName);
-      final int index1 = symbolDifference.getLeftValue().orElse(1);
-      final int index2 = symbolDifference.getRightValue().orElse(1);
+      final String symbolName = symbolDifference.getName();
+      final CType symbolType = symbolDifference.getType();
+      // missing indices are 0, but need to be treated as 1
+      final int index1 = Math.max(symbolDifference.getLeftIndex(), 1);
+      final int index2 = Math.max(symbolDifference.getRightIndex(), 1);
 
       assert symbolName != null;
       if (index1 > index2 && index1 > 1) {
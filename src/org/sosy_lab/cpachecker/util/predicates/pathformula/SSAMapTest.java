@@ -0,0 +1,141 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.testing.EqualsTester;
+import com.google.common.testing.GcFinalization;
+import com.google.common.testing.SerializableTester;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableSet;
+import org.junit.Test;
+import org.sosy_lab.cpachecker.cfa.types.c.CNumericTypes;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.IndexDifference;
+import org.sosy_lab.cpachecker.util.predicates.pathformula.SSAMap.SSAMapBuilder;
+
+public class SSAMapTest {
+
+  private static SSAMap ssaMap(Object... namesAndIndices) {
+    SSAMapBuilder builder = SSAMap.emptySSAMap().builder();
+    for (int i = 0; i < namesAndIndices.length; i += 2) {
+      String name = (String) namesAndIndices[i];
+      builder.setIndex(name, CNumericTypes.INT, (int) namesAndIndices[i + 1]);
+    }
+    return builder.build();
+  }
+
+  @Test
+  public void testEquals() {
+    new EqualsTester()
+        .addEqualityGroup(SSAMap.emptySSAMap(), ssaMap())
+        .addEqualityGroup(ssaMap("a", 1, "b", 2), ssaMap("b", 2, "a", 1))
+        .addEqualityGroup(
+            ssaMap("a", 1, "b", 3),
+            ssaMap("a", 1, "b", 2).builder().setIndex("b", CNumericTypes.INT, 3).build())
+        .addEqualityGroup(ssaMap("a", 1))
+        .addEqualityGroup(
+            ssaMap("a", 1, "c", 1),
+            ssaMap("a", 1, "b", 2)
+                .builder()
+                .deleteVariable("b")
+                .setIndex("c", CNumericTypes.INT, 1)
+                .build())
+        .testEquals();
+  }
+
+  @Test
+  public void testHashCodeLikeMap() {
+    assertThat(ssaMap("x", 1, "y", 5, "z", 3).hashCode())
+        .isEqualTo(ImmutableMap.of("x", 1, "y", 5, "z", 3).hashCode());
+    assertThat(ssaMap("x", 1, "y", 5).builder().deleteVariable("y").build().hashCode())
+        .isEqualTo(ImmutableMap.of("x", 1).hashCode());
+  }
+
+  @Test
+  public void testMerge() {
+    SSAMap s1 = ssaMap("a", 1, "b", 4, "c", 2);
+    SSAMap s2 = ssaMap("b", 2, "c", 2, "d", 3);
+
+    List<IndexDifference> differences = new ArrayList<>();
+    SSAMap merged = SSAMap.merge(s1, s2, differences);
+
+    assertThat(merged).isEqualTo(ssaMap("a", 1, "b", 4, "c", 2, "d", 3));
+    assertThat(merged.hashCode()).isEqualTo(ssaMap("a", 1, "b", 4, "c", 2, "d", 3).hashCode());
+    assertThat(differences).hasSize(3);
+    assertThat(differences.get(0).toString()).isEqualTo("a: 1 vs. 0");
+    assertThat(differences.get(1).toString()).isEqualTo("b: 4 vs. 2");
+    assertThat(differences.get(2).toString()).isEqualTo("d: 0 vs. 3");
+  }
+
+  @Test
+  public void testSerializable() {
+    SSAMap ssa = ssaMap("a", 1, "b", 2, "serializationTestVariable", 7);
+
+    SSAMap copy = SerializableTester.reserializeAndAssert(ssa);
+
+    assertThat(copy.hashCode()).isEqualTo(ssa.hashCode());
+    assertThat(copy.getIndex("serializationTestVariable")).isEqualTo(7);
+    assertThat(copy.getType("b")).isEqualTo(CNumericTypes.INT);
+    assertThat(copy.allVariables()).containsExactly("a", "b", "serializationTestVariable");
+    SerializableTester.reserializeAndAssert(SSAMap.emptySSAMap());
+  }
+
+  @Test
+  public void testAllVariables() {
+    SSAMap ssa = ssaMap("c", 1, "a", 2, "b", 3);
+
+    assertThat(ssa.allVariables()).containsExactly("a", "b", "c").inOrder();
+    assertThat(ssa.allVariables()).contains("b");
+    assertThat(ssa.allVariables()).doesNotContain("neverUsedVariableInSSAMapTest");
+    assertThat(SSAMap.emptySSAMap().allVariables()).isEmpty();
+  }
+
+  @Test
+  public void testBuilderAllVariablesIsSnapshot() {
+    SSAMapBuilder builder = ssaMap("a", 1, "b", 2).builder();
+    NavigableSet<String> variables = builder.allVariables();
+
+    builder.setIndex("c", CNumericTypes.INT, 1).deleteVariable("a");
+
+    assertThat(variables).containsExactly("a", "b").inOrder();
+    assertThat(builder.allVariables()).containsExactly("b", "c").inOrder();
+  }
+
+  @Test
+  public void testInternerIsSharedWhileMapsExist() {
+    SSAMap ssa = ssaMap("sharedVariable", 1);
+
+    assertThat(SSAMap.emptySSAMap()).isSameInstanceAs(SSAMap.emptySSAMap());
+    SSAMap other = SSAMap.emptySSAMap().builder().setIndex("x", CNumericTypes.INT, 1).build();
+    assertThat(SSAMap.merge(ssa, other, new ArrayList<>()).allVariables())
+        .containsExactly("sharedVariable", "x");
+  }
+
+  @Test
+  public void testInternerIsReleased() {
+    WeakReference<VariableNameInterner> interner = createMapAndGetInterner();
+
+    // the variable names are not retained after all maps are gone
+    GcFinalization.awaitClear(interner);
+
+    SSAMap ssa = ssaMap("releasedVariable", 2);
+    assertThat(ssa.getIndex("releasedVariable")).isEqualTo(2);
+    assertThat(VariableNameInterner.current().size()).isEqualTo(1);
+  }
+
+  private static WeakReference<VariableNameInterner> createMapAndGetInterner() {
+    SSAMap ssa = ssaMap("releasedVariable", 1);
+    assertThat(ssa.getIndex("releasedVariable")).isEqualTo(1);
+    return new WeakReference<>(VariableNameInterner.current());
+  }
+}
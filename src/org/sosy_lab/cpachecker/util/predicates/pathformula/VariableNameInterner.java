@@ -0,0 +1,107 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.pathformula;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.lang.ref.WeakReference;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Mapping of variable names in {@link SSAMap}s to dense int ids. Ids are assigned in the order of
+ * first use and are valid as long as the interner exists.
+ *
+ * <p>Each {@link SSAMap} references the interner of its ids, and all SSAMaps share the {@link
+ * #current() current} interner, which is referenced only weakly from here. Thus the interner and
+ * all variable names in it can be garbage collected as soon as no SSAMap uses it anymore, e.g.,
+ * after an analysis has finished in a JVM that runs several analyses. The next SSAMap then starts
+ * with a new interner. As long as any SSAMap exists, its interner is the current one, so SSAMaps
+ * with different interners never meet (except for deserialized SSAMaps, which are converted to the
+ * current interner).
+ *
+ * <p>All methods are thread-safe, lookups of already known names do not lock and do not allocate.
+ */
+final class VariableNameInterner {
+
+  private static volatile WeakReference<VariableNameInterner> current = new WeakReference<>(null);
+
+  private final ConcurrentMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+  // Only modified while holding the lock of this object. Elements are written before the
+  // corresponding id is published via the map, so readers that know an id can see its name.
+  private volatile String[] names = new String[1024];
+  private int nextId = 0;
+
+  private final SSAMap emptySSAMap;
+
+  private VariableNameInterner() {
+    emptySSAMap = SSAMap.createEmptySSAMap(this);
+  }
+
+  /** Returns the interner that is used by all existing SSAMaps, or a new one if there are none. */
+  static VariableNameInterner current() {
+    VariableNameInterner interner = current.get();
+    return interner != null ? interner : createCurrent();
+  }
+
+  private static synchronized VariableNameInterner createCurrent() {
+    VariableNameInterner interner = current.get();
+    if (interner == null) {
+      interner = new VariableNameInterner();
+      current = new WeakReference<>(interner);
+    }
+    return interner;
+  }
+
+  /** Returns the empty SSAMap with this interner. */
+  SSAMap getEmptySSAMap() {
+    return emptySSAMap;
+  }
+
+  /** Returns the id of the given name, assigning a new id if the name was not seen before. */
+  int getOrCreateId(String name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    return createId(checkNotNull(name));
+  }
+
+  private synchronized int createId(String name) {
+    Integer id = ids.get(name);
+    if (id != null) {
+      return id;
+    }
+    int newId = nextId++;
+    if (newId == names.length) {
+      names = Arrays.copyOf(names, 2 * newId);
+    }
+    names[newId] = name;
+    ids.put(name, newId);
+    return newId;
+  }
+
+  /** Returns the id of the given name, or -1 if the name has no id yet. */
+  int getId(String name) {
+    Integer id = ids.get(name);
+    return id == null ? -1 : id;
+  }
+
+  /** Returns the name for an id that was returned by {@link #getOrCreateId(String)}. */
+  String getName(int id) {
+    return names[id];
+  }
+
+  /** Returns the number of names in this interner. */
+  int size() {
+    return ids.size();
+  }
+}
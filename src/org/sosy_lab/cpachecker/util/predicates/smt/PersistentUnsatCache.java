@@ -0,0 +1,288 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.util.statistics.StatCounter;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+/**
+ * A cache for results of satisfiability checks that is stored in a file and thus survives the
+ * current JVM. Several CPAchecker processes on the same machine can share one cache file.
+ *
+ * <p>Entries are content-addressed: the key of a query is a SHA-256 hash over the solver version,
+ * a digest of all solver options that may influence the result, and the SMT-LIB representation of
+ * all constraints of the query (sorted, such that the order of constraints does not matter). The
+ * file consists of a small header followed by fixed-size records of the hash and the result, and
+ * is only ever appended to. Appending is protected by an exclusive file lock. When a lookup misses
+ * and the file has grown since it was last read, the records written by other processes in the
+ * meantime are read. Incomplete records at the end of the file (e.g., from a process that was
+ * killed while writing) are ignored.
+ */
+final class PersistentUnsatCache implements AutoCloseable {
+
+  private static final byte[] MAGIC = "CPAUNSAT".getBytes(StandardCharsets.US_ASCII);
+  private static final int VERSION = 2;
+  private static final int HEADER_SIZE = MAGIC.length + Integer.BYTES;
+
+  private static final int HASH_SIZE = Hashing.sha256().bits() / Byte.SIZE;
+  private static final int RECORD_SIZE = HASH_SIZE + 1;
+
+  /** Number of records that are read from the file at once. */
+  private static final int READ_BATCH_SIZE = 4096;
+
+  private static final byte SAT = 0;
+  private static final byte UNSAT = 1;
+
+  private final FormulaManagerView fmgr;
+  private final String solverVersion;
+  private final HashCode solverOptionsDigest;
+  private final LogManager logger;
+
+  /**
+   * File locks are held by the JVM, not by a thread, and overlapping locks of the same JVM are
+   * forbidden. Thus solvers in the same JVM (e.g., in parallel portfolios) that share a cache file
+   * additionally need to synchronize on a common object.
+   */
+  private static final ConcurrentMap<Path, Object> jvmLocks = new ConcurrentHashMap<>();
+
+  private final Path file;
+  private final FileChannel channel;
+  private final Object jvmLock;
+
+  /** All entries known to this process, including those read from the file. */
+  private final Map<HashCode, Boolean> entries = new HashMap<>();
+
+  /** Position in the file up to which records were already read into {@link #entries}. */
+  private long readPosition = HEADER_SIZE;
+
+  final StatCounter hits = new StatCounter("Persistent cache hits");
+  final StatCounter misses = new StatCounter("Persistent cache misses");
+  final StatCounter loaded = new StatCounter("Persistent cache entries loaded from file");
+  final StatCounter written = new StatCounter("Persistent cache entries written to file");
+
+  PersistentUnsatCache(
+      Path pFile,
+      FormulaManagerView pFmgr,
+      String pSolverVersion,
+      String pSolverOptions,
+      LogManager pLogger)
+      throws IOException {
+    file = pFile;
+    jvmLock = jvmLocks.computeIfAbsent(file.toAbsolutePath().normalize(), k -> new Object());
+    fmgr = pFmgr;
+    solverVersion = pSolverVersion;
+    solverOptionsDigest = Hashing.sha256().hashString(pSolverOptions, StandardCharsets.UTF_8);
+    logger = pLogger;
+
+    Path parent = file.toAbsolutePath().getParent();
+    if (parent != null) {
+      Files.createDirectories(parent);
+    }
+    channel =
+        FileChannel.open(
+            file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    try {
+      initializeHeader();
+      readNewRecords();
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  private void initializeHeader() throws IOException {
+    synchronized (jvmLock) {
+      try (FileLock lock = channel.lock()) {
+        initializeHeader0();
+      }
+    }
+  }
+
+  private void initializeHeader0() throws IOException {
+    if (channel.size() == 0) {
+      ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+      header.put(MAGIC).putInt(VERSION).flip();
+      writeFully(header, 0);
+      return;
+    }
+
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    while (header.hasRemaining()) {
+      if (channel.read(header, header.position()) < 0) {
+        break;
+      }
+    }
+    header.flip();
+    byte[] magic = new byte[MAGIC.length];
+    if (header.remaining() < HEADER_SIZE) {
+      throw new IOException("File " + file + " is not a cache file for solver queries");
+    }
+    header.get(magic);
+    if (!ByteBuffer.wrap(magic).equals(ByteBuffer.wrap(MAGIC))) {
+      throw new IOException("File " + file + " is not a cache file for solver queries");
+    }
+    int version = header.getInt();
+    if (version != VERSION) {
+      throw new IOException(
+          String.format(
+              "Cache file %s has unsupported version %d (expected %d)", file, version, VERSION));
+    }
+  }
+
+  /** Read all complete records that were appended (by any process) since the last read. */
+  private void readNewRecords() throws IOException {
+    synchronized (jvmLock) {
+      try (FileLock lock = channel.lock(0, Long.MAX_VALUE, true)) {
+        readNewRecords0();
+      }
+    }
+  }
+
+  private void readNewRecords0() throws IOException {
+    long size = channel.size();
+    long available = (size - readPosition) / RECORD_SIZE * RECORD_SIZE;
+    ByteBuffer records =
+        ByteBuffer.allocate((int) Math.min(available, (long) READ_BATCH_SIZE * RECORD_SIZE));
+    byte[] hash = new byte[HASH_SIZE];
+    while (available > 0) {
+      records.clear().limit((int) Math.min(available, records.capacity()));
+      while (records.hasRemaining()) {
+        if (channel.read(records, readPosition + records.position()) < 0) {
+          throw new IOException("Cache file " + file + " was truncated");
+        }
+      }
+      records.flip();
+      while (records.remaining() >= RECORD_SIZE) {
+        records.get(hash);
+        byte result = records.get();
+        if (entries.put(HashCode.fromBytes(hash), result == UNSAT) == null) {
+          loaded.inc();
+        }
+      }
+      readPosition += records.limit();
+      available -= records.limit();
+    }
+  }
+
+  /** Whether the file contains complete records that were not yet read. */
+  private boolean hasNewRecords() throws IOException {
+    return channel.size() - readPosition >= RECORD_SIZE;
+  }
+
+  /** Compute the content-based key for a query consisting of the given constraints. */
+  HashCode computeKey(Collection<BooleanFormula> pConstraints) {
+    checkArgument(!pConstraints.isEmpty());
+    List<String> dumps = new ArrayList<>(pConstraints.size());
+    for (BooleanFormula constraint : pConstraints) {
+      dumps.add(fmgr.dumpFormula(constraint).toString());
+    }
+    dumps.sort(null);
+
+    Hasher hasher = Hashing.sha256().newHasher();
+    hasher.putString(solverVersion, StandardCharsets.UTF_8).putByte((byte) 0);
+    hasher.putBytes(solverOptionsDigest.asBytes());
+    for (String dump : dumps) {
+      hasher.putString(dump, StandardCharsets.UTF_8).putByte((byte) 0);
+    }
+    return hasher.hash();
+  }
+
+  /**
+   * Look up the result for a query.
+   *
+   * @return whether the query is unsatisfiable, or null if the result is not known
+   */
+  @Nullable Boolean get(HashCode pKey) {
+    Boolean result = entries.get(pKey);
+    if (result == null) {
+      // maybe another process has solved this query in the meantime
+      try {
+        if (hasNewRecords()) {
+          readNewRecords();
+        }
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not read from solver cache file");
+      }
+      result = entries.get(pKey);
+    }
+
+    if (result == null) {
+      misses.inc();
+    } else {
+      hits.inc();
+    }
+    return result;
+  }
+
+  /** Store the result of a query in the cache and in the file. */
+  void put(HashCode pKey, boolean pIsUnsat) {
+    checkState(channel.isOpen());
+    if (entries.put(pKey, pIsUnsat) != null) {
+      return;
+    }
+
+    ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE);
+    record.put(pKey.asBytes()).put(pIsUnsat ? UNSAT : SAT).flip();
+    synchronized (jvmLock) {
+      try (FileLock lock = channel.lock()) {
+        append(record);
+        written.inc();
+      } catch (IOException e) {
+        logger.logUserException(Level.WARNING, e, "Could not write to solver cache file");
+      }
+    }
+  }
+
+  private void append(ByteBuffer pRecord) throws IOException {
+    long size = channel.size();
+    // Ignore a trailing incomplete record, it would shift all following records otherwise.
+    long position = HEADER_SIZE + (size - HEADER_SIZE) / RECORD_SIZE * RECORD_SIZE;
+    writeFully(pRecord, position);
+  }
+
+  private void writeFully(ByteBuffer pBuffer, long pPosition) throws IOException {
+    long position = pPosition;
+    while (pBuffer.hasRemaining()) {
+      position += channel.write(pBuffer, position);
+    }
+  }
+
+  int size() {
+    return entries.size();
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
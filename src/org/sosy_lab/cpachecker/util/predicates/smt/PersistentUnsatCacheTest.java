@@ -0,0 +1,214 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.predicates.smt;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.junit.Assert.assertThrows;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.java_smt.api.BooleanFormula;
+
+public class PersistentUnsatCacheTest extends SolverViewBasedTest0 {
+
+  private static final String SOLVER_VERSION = "solver 1.0";
+  private static final String SOLVER_OPTIONS = "checkUFs=false\n";
+
+  private static final int HEADER_SIZE = 12;
+  private static final int RECORD_SIZE = 33;
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path file;
+
+  @Before
+  public void setUpFile() {
+    file = tempFolder.getRoot().toPath().resolve("unsat.cache");
+  }
+
+  private PersistentUnsatCache openCache(String pSolverOptions) throws IOException {
+    return new PersistentUnsatCache(file, mgrv, SOLVER_VERSION, pSolverOptions, logger);
+  }
+
+  private PersistentUnsatCache openCache() throws IOException {
+    return openCache(SOLVER_OPTIONS);
+  }
+
+  private static HashCode key(int i) {
+    return Hashing.sha256().hashInt(i);
+  }
+
+  @Test
+  public void testKeyIndependentOfOrder() throws IOException {
+    BooleanFormula a = imgrv.equal(imgrv.makeVariable("a"), imgrv.makeNumber(1));
+    BooleanFormula b = imgrv.equal(imgrv.makeVariable("b"), imgrv.makeNumber(2));
+    try (PersistentUnsatCache cache = openCache()) {
+      assertThat(cache.computeKey(ImmutableList.of(a, b)))
+          .isEqualTo(cache.computeKey(ImmutableList.of(b, a)));
+      assertThat(cache.computeKey(ImmutableList.of(a, b)))
+          .isNotEqualTo(cache.computeKey(ImmutableList.of(a)));
+    }
+  }
+
+  @Test
+  public void testKeyDependsOnSolverOptions() throws IOException {
+    ImmutableList<BooleanFormula> query =
+        ImmutableList.of(imgrv.equal(imgrv.makeVariable("a"), imgrv.makeNumber(1)));
+    HashCode key;
+    try (PersistentUnsatCache cache = openCache()) {
+      key = cache.computeKey(query);
+    }
+    try (PersistentUnsatCache cache = openCache()) {
+      assertThat(cache.computeKey(query)).isEqualTo(key);
+    }
+    try (PersistentUnsatCache cache = openCache("checkUFs=true\n")) {
+      assertThat(cache.computeKey(query)).isNotEqualTo(key);
+    }
+    try (PersistentUnsatCache cache =
+        openCache(SOLVER_OPTIONS + "solver.nonLinearArithmetic = USE\n")) {
+      assertThat(cache.computeKey(query)).isNotEqualTo(key);
+    }
+  }
+
+  @Test
+  public void testFileFormat() throws IOException {
+    try (PersistentUnsatCache cache = openCache()) {
+      cache.put(key(0), true);
+      cache.put(key(1), false);
+      cache.put(key(0), true); // already known, not written again
+    }
+
+    ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(file));
+    assertThat(content.remaining()).isEqualTo(HEADER_SIZE + 2 * RECORD_SIZE);
+    byte[] magic = new byte[8];
+    content.get(magic);
+    assertThat(new String(magic, StandardCharsets.US_ASCII)).isEqualTo("CPAUNSAT");
+    assertThat(content.getInt()).isEqualTo(2);
+    byte[] hash = new byte[32];
+    content.get(hash);
+    assertThat(HashCode.fromBytes(hash)).isEqualTo(key(0));
+    assertThat(content.get()).isEqualTo((byte) 1);
+    content.get(hash);
+    assertThat(HashCode.fromBytes(hash)).isEqualTo(key(1));
+    assertThat(content.get()).isEqualTo((byte) 0);
+  }
+
+  @Test
+  public void testSharedBetweenInstances() throws IOException {
+    try (PersistentUnsatCache first = openCache();
+        PersistentUnsatCache second = openCache()) {
+      first.put(key(0), true);
+      second.put(key(1), false);
+
+      // each instance reads what the other one has appended in the meantime
+      assertThat(second.get(key(0))).isTrue();
+      assertThat(first.get(key(1))).isFalse();
+      assertThat(first.get(key(2))).isNull();
+    }
+
+    try (PersistentUnsatCache reopened = openCache()) {
+      assertThat(reopened.size()).isEqualTo(2);
+      assertThat(reopened.get(key(0))).isTrue();
+      assertThat(reopened.get(key(1))).isFalse();
+    }
+  }
+
+  @Test
+  public void testConcurrentAppends() throws Exception {
+    final int writers = 4;
+    final int entriesPerWriter = 200;
+    ExecutorService executor = Executors.newFixedThreadPool(writers);
+    try {
+      List<Future<?>> results = new ArrayList<>();
+      for (int w = 0; w < writers; w++) {
+        final int offset = w * entriesPerWriter;
+        Callable<Void> task =
+            () -> {
+              try (PersistentUnsatCache cache = openCache()) {
+                for (int i = offset; i < offset + entriesPerWriter; i++) {
+                  cache.put(key(i), i % 2 == 0);
+                }
+              }
+              return null;
+            };
+        results.add(executor.submit(task));
+      }
+      for (Future<?> result : results) {
+        result.get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(Files.size(file))
+        .isEqualTo((long) HEADER_SIZE + writers * entriesPerWriter * RECORD_SIZE);
+    try (PersistentUnsatCache cache = openCache()) {
+      assertThat(cache.size()).isEqualTo(writers * entriesPerWriter);
+      for (int i = 0; i < writers * entriesPerWriter; i++) {
+        assertThat(cache.get(key(i))).isEqualTo(i % 2 == 0);
+      }
+    }
+  }
+
+  @Test
+  public void testIncompleteRecordIgnored() throws IOException {
+    try (PersistentUnsatCache cache = openCache()) {
+      cache.put(key(0), true);
+    }
+    // a process was killed while writing a record
+    Files.write(file, new byte[] {1, 2, 3}, StandardOpenOption.APPEND);
+
+    try (PersistentUnsatCache cache = openCache()) {
+      assertThat(cache.size()).isEqualTo(1);
+      cache.put(key(1), false);
+    }
+    try (PersistentUnsatCache cache = openCache()) {
+      assertThat(cache.size()).isEqualTo(2);
+      assertThat(cache.get(key(0))).isTrue();
+      assertThat(cache.get(key(1))).isFalse();
+    }
+  }
+
+  @Test
+  public void testRejectCorruptFile() throws IOException {
+    Files.write(file, "this is not a cache file".getBytes(StandardCharsets.US_ASCII));
+    assertThrows(IOException.class, () -> openCache());
+  }
+
+  @Test
+  public void testRejectTruncatedHeader() throws IOException {
+    Files.write(file, "CPAUN".getBytes(StandardCharsets.US_ASCII));
+    assertThrows(IOException.class, () -> openCache());
+  }
+
+  @Test
+  public void testRejectOtherVersion() throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    header.put("CPAUNSAT".getBytes(StandardCharsets.US_ASCII)).putInt(1);
+    Files.write(file, header.array());
+    assertThrows(IOException.class, () -> openCache());
+  }
+}
@@ -13,20 +13,27 @@ import static org.sosy_lab.cpachecker.util.statistics.StatisticsWriter.writingSt
 import static org.sosy_lab.java_smt.api.SolverContext.ProverOptions.GENERATE_UNSAT_CORE;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
 import com.google.common.base.Verify;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.hash.HashCode;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import java.io.IOException;
 import java.io.PrintStream;
+import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
 import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.ShutdownNotifier;
 import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -66,6 +73,21 @@ public final class Solver implements AutoCloseable {
 
   private static final String SOLVER_OPTION_NON_LINEAR_ARITHMETIC = "solver.nonLinearArithmetic";
 
+  /** Options with these prefixes may influence the results of satisfiability checks. */
+  private static final ImmutableList<String> RESULT_RELEVANT_OPTION_PREFIXES =
+      ImmutableList.of("solver.", "cpa.predicate.solver.");
+
+  /** Options with these prefixes only influence logging and caching and never the results. */
+  private static final ImmutableList<String> RESULT_IRRELEVANT_OPTION_PREFIXES =
+      ImmutableList.of(
+          "solver.persistentCache.",
+          "solver.enableLoggingInSolver",
+          "solver.logAllQueries",
+          "solver.logfile",
+          "solver.princess.logAllQueriesAsScala",
+          "solver.renameLogfileToAvoidConflicts",
+          "solver.useLogger");
+
   @Option(secure=true, name="checkUFs",
       description="improve sat-checks with additional constraints for UFs")
   private boolean checkUFs = false;
@@ -92,6 +114,20 @@ public final class Solver implements AutoCloseable {
               + "otherwise nothing is logged from the solver.")
   private boolean enableLoggingInSolver = false;
 
+  @Option(
+      secure = true,
+      name = "persistentCache.file",
+      description =
+          "File for caching results of satisfiability checks across several runs of CPAchecker."
+              + " The file can be shared by several concurrent CPAchecker processes,"
+              + " results are only reused if the solver, its version, and all solver options"
+              + " match. Computing the keys for this cache is not for free,"
+              + " so this is only worthwhile if the same queries are solved repeatedly."
+              + " Relative paths are resolved against the output directory, so for sharing"
+              + " the cache between runs an absolute path should be used.")
+  @FileOption(FileOption.Type.OUTPUT_FILE)
+  private @Nullable Path persistentCacheFile = null;
+
   private final @Nullable UFCheckingProverOptions ufCheckingProverOptions;
 
   private final FormulaManagerView fmgr;
@@ -115,6 +151,9 @@ public final class Solver implements AutoCloseable {
   private final Map<Object, Map<Set<BooleanFormula>, Boolean>>
       groupedUnsatCache = new HashMap<>();
 
+  /** Cache that is stored on disk and shared between runs, may be null. */
+  private final @Nullable PersistentUnsatCache persistentCache;
+
   private final LogManager logger;
 
   // stats
@@ -165,6 +204,8 @@ public final class Solver implements AutoCloseable {
     } else {
       ufCheckingProverOptions = null;
     }
+
+    persistentCache = createPersistentCache(config, pLogger);
   }
 
   /**
@@ -210,6 +251,44 @@ public final class Solver implements AutoCloseable {
     } else {
       ufCheckingProverOptions = null;
     }
+
+    persistentCache = createPersistentCache(pConfig, pLogger);
+  }
+
+  private @Nullable PersistentUnsatCache createPersistentCache(
+      Configuration pConfig, LogManager pLogger) {
+    if (persistentCacheFile == null) {
+      return null;
+    }
+    try {
+      return new PersistentUnsatCache(
+          persistentCacheFile,
+          fmgr,
+          solver + " " + solvingContext.getVersion(),
+          getResultRelevantOptions(pConfig),
+          pLogger);
+    } catch (IOException e) {
+      pLogger.logUserException(
+          Level.WARNING, e, "Could not open cache file for solver queries, cache is disabled");
+      return null;
+    }
+  }
+
+  /**
+   * Return all options that may influence the results of satisfiability checks, including
+   * solver-specific options and options of the solver wrappers like {@link #checkUFs}, such that
+   * they can be made part of the keys of the persistent cache.
+   */
+  private String getResultRelevantOptions(Configuration pConfig) {
+    StringBuilder options = new StringBuilder();
+    options.append("checkUFs=").append(checkUFs).append('\n');
+    for (String line : Splitter.on('\n').omitEmptyStrings().split(pConfig.asPropertiesString())) {
+      if (RESULT_RELEVANT_OPTION_PREFIXES.stream().anyMatch(line::startsWith)
+          && RESULT_IRRELEVANT_OPTION_PREFIXES.stream().noneMatch(line::startsWith)) {
+        options.append(line).append('\n');
+      }
+    }
+    return options.toString();
   }
 
   /**
@@ -302,6 +381,17 @@ public final class Solver implements AutoCloseable {
           .put("Sum time for allSat queries", stats.getSumTimeOfAllSatQueries().formatAs(TimeUnit.SECONDS))
           .put("Max time for allSat queries", stats.getMaxTimeOfAllSatQueries().formatAs(TimeUnit.SECONDS));
     }
+    if (persistentCache != null) {
+      pOut.println();
+      writingStatisticsTo(pOut)
+          .put("Statistics about persistent cache", "")
+          .beginLevel()
+          .put(persistentCache.hits)
+          .put(persistentCache.misses)
+          .put("Persistent cache size", persistentCache.size())
+          .put(persistentCache.loaded)
+          .put(persistentCache.written);
+    }
   }
 
   /**
@@ -400,11 +490,25 @@ public final class Solver implements AutoCloseable {
       return result;
     }
 
+    HashCode persistentKey = null;
+    if (persistentCache != null) {
+      persistentKey = persistentCache.computeKey(ImmutableList.of(f));
+      result = persistentCache.get(persistentKey);
+      if (result != null) {
+        cachedSatChecks++;
+        unsatCache.put(f, result);
+        return result;
+      }
+    }
+
     solverTime.start();
     try {
       result = isUnsatUncached(f);
 
       unsatCache.put(f, result);
+      if (persistentCache != null) {
+        persistentCache.put(persistentKey, result);
+      }
       return result;
 
     } finally {
@@ -457,6 +561,16 @@ public final class Solver implements AutoCloseable {
       }
     }
 
+    HashCode persistentKey = null;
+    if (persistentCache != null && !lemmas.isEmpty()) {
+      persistentKey = persistentCache.computeKey(lemmas);
+      Boolean result = persistentCache.get(persistentKey);
+      if (result != null) {
+        cachedSatChecks++;
+        return result;
+      }
+    }
+
     if (stored == null) {
       stored = new HashMap<>();
     } else {
@@ -475,7 +589,11 @@ public final class Solver implements AutoCloseable {
       for (BooleanFormula lemma : lemmas) {
         pe.addConstraint(lemma);
       }
-      if (pe.isUnsat()) {
+      boolean result = pe.isUnsat();
+      if (persistentKey != null) {
+        persistentCache.put(persistentKey, result);
+      }
+      if (result) {
         if (cacheUnsatCores) {
           stored.put(ImmutableSet.copyOf(pe.getUnsatCore()), true);
         } else {
@@ -556,6 +674,14 @@ public final class Solver implements AutoCloseable {
     // such that no exception gets lost and both managers get closed.
     // Taken from https://stackoverflow.com/questions/24705055/wrapping-multiple-autocloseables
     // Guava has Closer, but it does not yet support AutoCloseables.
+    if (persistentCache != null) {
+      try {
+        persistentCache.close();
+      } catch (IOException e) {
+        logger.logDebugException(e, "Could not close cache file for solver queries");
+      }
+    }
+
     Throwable t = null;
     try {
       solvingContext.close();
@@ -8,16 +8,30 @@
 
 package org.sosy_lab.cpachecker.util.refinement;
 
+import static com.google.common.base.Preconditions.checkState;
+
+import com.google.common.base.Throwables;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.errorprone.annotations.ForOverride;
 import java.io.PrintStream;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.logging.Level;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.sosy_lab.common.Classes.UnexpectedCheckedException;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
@@ -40,6 +54,8 @@ import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
 import org.sosy_lab.cpachecker.exceptions.CPAException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException;
 import org.sosy_lab.cpachecker.exceptions.RefinementFailedException.Reason;
+import org.sosy_lab.cpachecker.util.AbstractStates;
+import org.sosy_lab.cpachecker.util.Pair;
 import org.sosy_lab.cpachecker.util.statistics.StatCounter;
 import org.sosy_lab.cpachecker.util.statistics.StatInt;
 import org.sosy_lab.cpachecker.util.statistics.StatKind;
@@ -95,6 +111,23 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
       + " e.g., for supporting counterexample checks")
   private boolean addAssumptionsToCex = true;
 
+  @Option(
+      secure = true,
+      description =
+          "maximum number of error paths that are refined together in one refinement:"
+              + " if the given error path is infeasible, further target states in the ARG"
+              + " are checked and interpolated in parallel, and all resulting precision"
+              + " increments are applied in one update of the ARG"
+              + " (only supported by some refiners, e.g., of the value analysis)")
+  private int parallelRefinementPaths = 1;
+
+  @Option(
+      secure = true,
+      description =
+          "number of threads for refining several error paths in parallel"
+              + " (-1 for the number of available processors)")
+  private int parallelRefinementThreads = -1;
+
   protected final LogManager logger;
 
   private final PathInterpolator<I> interpolator;
@@ -107,10 +140,22 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
 
   private Set<Integer> previousErrorPathIds = new HashSet<>();
 
+  /** Idle components for parallel refinement, each worker thread takes one while it runs. */
+  private @Nullable BlockingQueue<Pair<FeasibilityChecker<S>, PathInterpolator<I>>> workers =
+      null;
+
+  private int parallelRefinementWorkers = 0;
+
   // statistics
   private final StatCounter refinementCounter = new StatCounter("Number of refinements");
   private final StatInt numberOfTargets = new StatInt(StatKind.SUM, "Number of targets found");
   private final StatTimer refinementTime = new StatTimer("Time for completing refinement");
+  private final StatInt additionalPaths =
+      new StatInt(StatKind.SUM, "Number of additionally checked error paths");
+  private final StatInt additionalSpuriousPaths =
+      new StatInt(StatKind.SUM, "Number of additionally refined error paths");
+  private final StatTimer parallelRefinementTime =
+      new StatTimer("Time for parallel feasibility checks and interpolation");
 
   protected GenericRefiner(
       final FeasibilityChecker<S> pFeasibilityChecker,
@@ -128,6 +173,48 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     interpolantManager = pInterpolantManager;
     checker = pFeasibilityChecker;
     pathExtractor = pPathExtractor;
+
+    if (parallelRefinementPaths < 1) {
+      throw new InvalidConfigurationException(
+          "Number of error paths for parallel refinement needs to be positive");
+    }
+    if (parallelRefinementThreads < 1 && parallelRefinementThreads != -1) {
+      throw new InvalidConfigurationException(
+          "Number of threads for parallel refinement can only be a positive number or -1");
+    }
+  }
+
+  /** Factory for independent components that are used by one thread during parallel refinement. */
+  @FunctionalInterface
+  protected interface RefinementComponentsFactory<S, I> {
+    Pair<FeasibilityChecker<S>, PathInterpolator<I>> create()
+        throws InvalidConfigurationException;
+  }
+
+  /**
+   * Subclasses that can create independent instances of their feasibility checker and path
+   * interpolator should call this method at the end of their constructor. Afterwards, several
+   * error paths are refined in parallel if requested by the user. The components created by the
+   * given factory must not share any mutable state with each other or with the components of this
+   * refiner.
+   */
+  protected final void enableParallelRefinement(RefinementComponentsFactory<S, I> pFactory)
+      throws InvalidConfigurationException {
+    checkState(workers == null);
+    if (parallelRefinementPaths <= 1) {
+      return;
+    }
+
+    int threads =
+        parallelRefinementThreads > 0
+            ? parallelRefinementThreads
+            : Runtime.getRuntime().availableProcessors();
+    threads = Math.min(threads, parallelRefinementPaths);
+    workers = new LinkedBlockingQueue<>();
+    for (int i = 0; i < threads; i++) {
+      workers.add(pFactory.create());
+    }
+    parallelRefinementWorkers = threads;
   }
 
   private boolean madeProgress(ARGPath path) {
@@ -183,7 +270,17 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     CounterexampleInfo cex = isPathFeasible(targetPathToUse);
 
     if (cex.isSpurious()) {
-      refineUsingInterpolants(pReached, obtainInterpolants(targetPathToUse));
+      if (workers == null) {
+        if (parallelRefinementPaths > 1 && refinementCounter.getValue() == 1) {
+          logger.log(
+              Level.WARNING,
+              getClass().getSimpleName(),
+              "does not support parallel refinement, refining only one error path at once.");
+        }
+        refineUsingInterpolants(pReached, obtainInterpolants(targetPathToUse));
+      } else {
+        refineUsingInterpolants(pReached, obtainInterpolantsInParallel(pReached, targetPathToUse));
+      }
     }
 
     refinementTime.stop();
@@ -210,6 +307,98 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     return interpolationTree;
   }
 
+  /**
+   * Compute interpolants for the given infeasible error path and for further error paths to other
+   * target states of the ARG. Each path is checked for feasibility and interpolated from the root
+   * by a separate worker thread. The interpolants of all infeasible paths are merged into one
+   * interpolation tree, feasible paths are ignored (they will be found again later).
+   */
+  private InterpolationTree<S, I> obtainInterpolantsInParallel(
+      final ARGReachedSet pReached, final ARGPath pTargetPath)
+      throws CPAException, InterruptedException {
+    List<ARGPath> paths = new ArrayList<>(parallelRefinementPaths);
+    paths.add(pTargetPath);
+    for (ARGState target :
+        AbstractStates.getTargetStates(pReached.asReachedSet()).filter(ARGState.class)) {
+      if (paths.size() >= parallelRefinementPaths) {
+        break;
+      }
+      if (!target.equals(pTargetPath.getLastState())) {
+        paths.add(ARGUtils.getOnePathTo(target));
+      }
+    }
+    additionalPaths.setNextValue(paths.size() - 1);
+
+    parallelRefinementTime.start();
+    // Refiners are never closed, so the threads only live during one refinement.
+    ExecutorService executor =
+        Executors.newFixedThreadPool(
+            Math.min(parallelRefinementWorkers, paths.size()),
+            new ThreadFactoryBuilder()
+                .setDaemon(true)
+                .setNameFormat("refinement-worker-%d")
+                .build());
+    List<Future<@Nullable Map<ARGState, I>>> results = new ArrayList<>(paths.size());
+    try {
+      for (int i = 0; i < paths.size(); i++) {
+        final ARGPath path = paths.get(i);
+        // the first path is already known to be infeasible
+        final boolean checkFeasibility = i > 0;
+        results.add(executor.submit(() -> checkAndInterpolate(path, checkFeasibility)));
+      }
+
+      List<ARGPath> spuriousPaths = new ArrayList<>(paths.size());
+      List<Map<ARGState, I>> interpolants = new ArrayList<>(paths.size());
+      for (int i = 0; i < paths.size(); i++) {
+        Map<ARGState, I> pathInterpolants = results.get(i).get();
+        if (pathInterpolants != null) {
+          spuriousPaths.add(paths.get(i));
+          interpolants.add(pathInterpolants);
+        }
+      }
+      additionalSpuriousPaths.setNextValue(spuriousPaths.size() - 1);
+
+      InterpolationTree<S, I> interpolationTree = createInterpolationTree(spuriousPaths);
+      for (Map<ARGState, I> pathInterpolants : interpolants) {
+        interpolationTree.addInterpolants(pathInterpolants);
+      }
+      exportTree(interpolationTree, "FINAL");
+      return interpolationTree;
+
+    } catch (ExecutionException e) {
+      Throwable t = e.getCause();
+      Throwables.propagateIfPossible(t, CPAException.class, InterruptedException.class);
+      throw new UnexpectedCheckedException("parallel refinement", t);
+
+    } finally {
+      for (Future<?> result : results) {
+        result.cancel(true);
+      }
+      executor.shutdownNow();
+      parallelRefinementTime.stop();
+    }
+  }
+
+  /**
+   * Run by worker threads: check an error path and interpolate it if it is infeasible.
+   *
+   * @return the interpolants for the path, or null if the path is feasible
+   */
+  private @Nullable Map<ARGState, I> checkAndInterpolate(ARGPath pPath, boolean pCheckFeasibility)
+      throws CPAException, InterruptedException {
+    Pair<FeasibilityChecker<S>, PathInterpolator<I>> components = workers.take();
+    try {
+      if (pCheckFeasibility && components.getFirst().isFeasible(pPath)) {
+        return null;
+      }
+      return components
+          .getSecond()
+          .performInterpolation(pPath, interpolantManager.createInitialInterpolant());
+    } finally {
+      workers.add(components);
+    }
+  }
+
   /**
    * This method creates the interpolation tree.
    */
@@ -321,6 +510,11 @@ public abstract class GenericRefiner<S extends ForgetfulState<?>, I extends Inte
     writer.put(refinementCounter)
         .put(numberOfTargets)
         .put(refinementTime);
+    if (workers != null) {
+      writer.put(additionalPaths)
+          .put(additionalSpuriousPaths)
+          .put(parallelRefinementTime);
+    }
     printAdditionalStatistics(pOut, pResult, pReached); //hook
   }
 
@@ -8,6 +8,7 @@
 
 package org.sosy_lab.cpachecker.util.testcase;
 
+import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Joiner;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Predicate;
@@ -15,6 +16,8 @@ import com.google.common.base.Predicates;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.errorprone.annotations.concurrent.GuardedBy;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
@@ -25,17 +28,25 @@ import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.BiPredicate;
 import java.util.logging.Level;
 import java.util.stream.Collectors;
-import org.sosy_lab.common.Appender;
+import org.checkerframework.checker.nullness.qual.Nullable;
 import org.sosy_lab.common.UniqueIdGenerator;
 import org.sosy_lab.common.configuration.Configuration;
 import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.IntegerOption;
 import org.sosy_lab.common.configuration.InvalidConfigurationException;
 import org.sosy_lab.common.configuration.Option;
 import org.sosy_lab.common.configuration.Options;
@@ -53,10 +64,14 @@ import org.sosy_lab.cpachecker.cpa.arg.ARGState;
 import org.sosy_lab.cpachecker.cpa.arg.path.ARGPath;
 import org.sosy_lab.cpachecker.util.BiPredicates;
 import org.sosy_lab.cpachecker.util.harness.HarnessExporter;
+import org.sosy_lab.cpachecker.util.statistics.StatTimer;
+import org.sosy_lab.cpachecker.util.statistics.StatisticsWriter;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer;
+import org.sosy_lab.cpachecker.util.statistics.ThreadSafeTimerContainer.TimerWrapper;
 import org.sosy_lab.cpachecker.util.testcase.TestVector.TargetTestVector;
 
 @Options(prefix = "testcase")
-public class TestCaseExporter {
+public class TestCaseExporter implements AutoCloseable {
 
   private enum FormatType {
     HARNESS,
@@ -98,7 +113,23 @@ public class TestCaseExporter {
   @FileOption(FileOption.Type.OUTPUT_FILE)
   private Path testCaseZip = null;
 
-  private static int testsWritten = 0;
+  @Option(
+      secure = true,
+      description =
+          "number of background threads that write test case files to disk,"
+              + " 0 writes each test case directly when it is found")
+  @IntegerOption(min = 0)
+  private int writerThreads = 0;
+
+  @Option(
+      secure = true,
+      description =
+          "maximal number of test case files that wait for the background writer threads"
+              + " before test generation blocks (only used if testcase.writerThreads > 0)")
+  @IntegerOption(min = 1)
+  private int writerQueueSize = 1000;
+
+  private static final AtomicInteger testsWritten = new AtomicInteger();
 
   private final CFA cfa;
   private final HarnessExporter harnessExporter;
@@ -106,8 +137,39 @@ public class TestCaseExporter {
 
   private final LogManager logger;
 
+  /** Files that wait for the background writers, or null if files are written directly. */
+  private final @Nullable BlockingQueue<TestCaseFile> pendingFiles;
+
+  /** The background writers, or null if they are currently not running. */
+  private @Nullable ExecutorService writers = null;
+
+  /** The number of files that were passed to the background writers and are not yet written. */
+  @GuardedBy("unfinishedFilesLock")
+  private int unfinishedFiles = 0;
+
+  private final Object unfinishedFilesLock = new Object();
+
+  /** Guards the zip file, which must not be opened by several threads at once. */
+  private final Object zipLock = new Object();
+
+  private final StatTimer queueWaitTime =
+      new StatTimer("Time waiting for test case writer threads");
+  private final ThreadSafeTimerContainer writeTime =
+      new ThreadSafeTimerContainer("Time for writing test case files");
+  private final AtomicInteger filesWritten = new AtomicInteger();
+
   public TestCaseExporter(CFA pCfa, LogManager pLogger, Configuration pConfig)
       throws InvalidConfigurationException {
+    this(pCfa, pLogger, pConfig, true);
+  }
+
+  /**
+   * Create an exporter, which writes test cases directly in the calling thread if
+   * pAllowWriterThreads is false, regardless of testcase.writerThreads.
+   */
+  public TestCaseExporter(
+      CFA pCfa, LogManager pLogger, Configuration pConfig, boolean pAllowWriterThreads)
+      throws InvalidConfigurationException {
     pConfig.inject(this);
     Preconditions.checkState(
         !isZippedTestCaseWritingEnabled() || testCaseZip != null,
@@ -117,54 +179,233 @@ public class TestCaseExporter {
     cfa = pCfa;
     harnessExporter = new HarnessExporter(pConfig, logger, pCfa);
     producerString = CPAchecker.getVersion(pConfig);
+
+    if (pAllowWriterThreads && writerThreads > 0 && areTestsEnabled()) {
+      pendingFiles = new ArrayBlockingQueue<>(writerQueueSize);
+    } else {
+      pendingFiles = null;
+    }
   }
 
   private static String printLineSeparated(List<String> pValues) {
     return Joiner.on("\n").join(pValues);
   }
 
+  /**
+   * Export the test cases for the given counterexample in all enabled formats.
+   *
+   * <p>The contents of the files are always computed in the calling thread, because they depend on
+   * the ARG. If background writers are enabled, they are started if necessary and the files are
+   * only passed to them. The files may not be written when this method returns, so {@link
+   * #waitForPendingTestCases()} or {@link #close()} needs to be called before the test cases are
+   * used.
+   */
   public void writeTestCaseFiles(
       final CounterexampleInfo pCex,
       Optional<SpecificationProperty> pSpec) {
-    // TODO check if this and openZipFS(), closeZipFS() are thread-safe
     if (areTestsEnabled()) {
       ARGPath targetPath = pCex.getTargetPath();
+      boolean isFirstTest = testsWritten.getAndIncrement() == 0;
+      List<TestCaseFile> files = new ArrayList<>(4);
 
       if (testHarnessFile != null) {
-        writeTestCase(
-            testHarnessFile.getPath(id.getFreshId()), targetPath, pCex, FormatType.HARNESS, pSpec);
+        renderTestCase(
+            testHarnessFile.getPath(id.getFreshId()), targetPath, pCex, FormatType.HARNESS, pSpec)
+            .ifPresent(files::add);
       }
 
       if (testValueFile != null) {
-        writeTestCase(
-            testValueFile.getPath(id.getFreshId()), targetPath, pCex, FormatType.PLAIN, pSpec);
+        renderTestCase(
+            testValueFile.getPath(id.getFreshId()), targetPath, pCex, FormatType.PLAIN, pSpec)
+            .ifPresent(files::add);
       }
 
       if (testXMLFile != null) {
         Path testCaseFile = testXMLFile.getPath(id.getFreshId());
-        if (isFirstTest()) {
-          writeTestCase(
+        if (isFirstTest) {
+          renderTestCase(
               testCaseFile.resolveSibling("metadata.xml"),
               targetPath,
               pCex,
               FormatType.METADATA,
-              pSpec);
+              pSpec)
+              .ifPresent(files::add);
         }
-        writeTestCase(testCaseFile, targetPath, pCex, FormatType.XML, pSpec);
+        renderTestCase(testCaseFile, targetPath, pCex, FormatType.XML, pSpec)
+            .ifPresent(files::add);
+      }
+
+      exportFiles(files);
+    }
+  }
+
+  @VisibleForTesting
+  void exportFiles(List<TestCaseFile> pFiles) {
+    if (pendingFiles == null) {
+      writeFiles(pFiles);
+    } else {
+      if (writers == null) {
+        startWriters();
       }
-      increaseTestsWritten();
+      passToWriters(pFiles);
     }
   }
 
-  private static void increaseTestsWritten() {
-    testsWritten++;
+  private void startWriters() {
+    // daemon threads, such that the JVM can exit if the analysis is terminated without close()
+    writers =
+        Executors.newFixedThreadPool(
+            writerThreads,
+            new ThreadFactoryBuilder().setDaemon(true).setNameFormat("testcase-writer-%d").build());
+    for (int i = 0; i < writerThreads; i++) {
+      writers.execute(this::writePendingFiles);
+    }
+    writers.shutdown();
   }
 
-  private static boolean isFirstTest() {
-    return testsWritten == 0;
+  private void passToWriters(List<TestCaseFile> pFiles) {
+    synchronized (unfinishedFilesLock) {
+      unfinishedFiles += pFiles.size();
+    }
+    queueWaitTime.start();
+    int passed = 0;
+    try {
+      for (TestCaseFile file : pFiles) {
+        pendingFiles.put(file);
+        passed++;
+      }
+    } catch (InterruptedException e) {
+      // do not lose the test cases, but write the remaining ones directly
+      writeFiles(pFiles.subList(passed, pFiles.size()));
+      synchronized (unfinishedFilesLock) {
+        unfinishedFiles -= pFiles.size() - passed;
+        unfinishedFilesLock.notifyAll();
+      }
+      Thread.currentThread().interrupt();
+    } finally {
+      queueWaitTime.stop();
+    }
   }
 
-  private void writeTestCase(
+  /** Wait until all test cases that were passed to the background writers are written. */
+  public void waitForPendingTestCases() throws InterruptedException {
+    if (pendingFiles != null) {
+      queueWaitTime.start();
+      try {
+        synchronized (unfinishedFilesLock) {
+          while (unfinishedFiles > 0) {
+            unfinishedFilesLock.wait();
+          }
+        }
+      } finally {
+        queueWaitTime.stop();
+      }
+    }
+  }
+
+  /**
+   * Stop the background writers after all test cases that were passed to them are written. If
+   * further test cases are exported afterwards, new writers are started. This method must not be
+   * called concurrently to {@link #writeTestCaseFiles(CounterexampleInfo, Optional)}.
+   */
+  @Override
+  public void close() {
+    if (writers == null) {
+      return;
+    }
+    try {
+      waitForPendingTestCases();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    // the writers are idle unless waiting was interrupted, so this only stops them in take()
+    writers.shutdownNow();
+    // if waiting was interrupted, write the files that no writer has taken
+    List<TestCaseFile> remaining = new ArrayList<>();
+    pendingFiles.drainTo(remaining);
+    writeFiles(remaining);
+    synchronized (unfinishedFilesLock) {
+      unfinishedFiles -= remaining.size();
+      unfinishedFilesLock.notifyAll();
+    }
+    try {
+      if (!writers.awaitTermination(10, TimeUnit.SECONDS)) {
+        logger.log(Level.WARNING, "Test case writer threads did not terminate");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    writers = null;
+  }
+
+  /** Main loop of a background writer, which writes all available files at once. */
+  private void writePendingFiles() {
+    List<TestCaseFile> files = new ArrayList<>();
+    try {
+      while (true) {
+        files.add(pendingFiles.take());
+        pendingFiles.drainTo(files);
+        try {
+          writeFiles(files);
+        } catch (RuntimeException e) {
+          // keep the writer alive, otherwise the test generation would wait for it forever
+          logger.logException(Level.WARNING, e, "Could not write test case to file");
+        } finally {
+          synchronized (unfinishedFilesLock) {
+            unfinishedFiles -= files.size();
+            unfinishedFilesLock.notifyAll();
+          }
+          files.clear();
+        }
+      }
+    } catch (InterruptedException e) {
+      // the writers are stopped by close()
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void writeFiles(List<TestCaseFile> pFiles) {
+    if (pFiles.isEmpty()) {
+      return;
+    }
+    TimerWrapper timer = writeTime.getNewTimer();
+    timer.start();
+    try {
+      if (zipTestCases) {
+        // the zip file is rewritten when it is closed, so add as many files as possible at once
+        synchronized (zipLock) {
+          try (FileSystem zipFS = openZipFS()) {
+            for (TestCaseFile file : pFiles) {
+              Path fileName = file.path.getFileName();
+              Path testFile =
+                  zipFS.getPath(
+                      fileName != null ? fileName.toString() : id.getFreshId() + "test.txt");
+              try (Writer writer =
+                  new OutputStreamWriter(
+                      zipFS
+                          .provider()
+                          .newOutputStream(
+                              testFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE),
+                      Charset.defaultCharset())) {
+                writer.write(file.content);
+              }
+            }
+          }
+        }
+      } else {
+        for (TestCaseFile file : pFiles) {
+          IO.writeFile(file.path, Charset.defaultCharset(), file.content);
+        }
+      }
+      filesWritten.addAndGet(pFiles.size());
+    } catch (IOException e) {
+      logger.logUserException(Level.WARNING, e, "Could not write test case to file");
+    } finally {
+      timer.stop();
+    }
+  }
+
+  private Optional<TestCaseFile> renderTestCase(
       final Path pFile,
       final ARGPath pTargetPath,
       final CounterexampleInfo pCexInfo,
@@ -175,110 +416,57 @@ public class TestCaseExporter {
     final BiPredicate<ARGState, ARGState> relevantEdges =
         BiPredicates.pairIn(ImmutableSet.copyOf(pTargetPath.getStatePairs()));
     try {
-      Optional<String> testOutput;
-
-      if (zipTestCases) {
-        try (FileSystem zipFS = openZipFS()) {
-          Path fileName = pFile.getFileName();
-          Path testFile =
-              zipFS.getPath(fileName != null ? fileName.toString() : id.getFreshId() + "test.txt");
-          try (Writer writer =
-                   new OutputStreamWriter(
-                       zipFS
-                           .provider()
-                           .newOutputStream(testFile, StandardOpenOption.CREATE,
-                               StandardOpenOption.WRITE),
-                       Charset.defaultCharset())) {
-            switch (type) {
-              case HARNESS:
-                harnessExporter.writeHarness(
-                    writer, rootState, relevantStates, relevantEdges, pCexInfo);
-                break;
-              case METADATA:
-                XMLTestCaseExport.writeXMLMetadata(writer, cfa, pSpec.orElse(null), producerString);
-                break;
-              case PLAIN:
-                testOutput =
-                    writeTestInputNondetValues(
-                        rootState,
-                        relevantStates,
-                        relevantEdges,
-                        pCexInfo,
-                        TestCaseExporter::printLineSeparated);
-                if (testOutput.isPresent()) {
-                  writer.write(testOutput.orElseThrow());
-                }
-                break;
-              case XML:
-                testOutput =
-                    writeTestInputNondetValues(
-                        rootState,
-                        relevantStates,
-                        relevantEdges,
-                        pCexInfo,
-                        XMLTestCaseExport.XML_TEST_CASE);
-                if (testOutput.isPresent()) {
-                  writer.write(testOutput.orElseThrow());
-                }
-                break;
-              default:
-                throw new AssertionError("Unknown test case format.");
-            }
-          }
-        }
-      } else {
-        Object content = null;
-
-        switch (type) {
-          case HARNESS:
-            content =
-                (Appender)
-                    appendable ->
-                        harnessExporter.writeHarness(
-                            appendable, rootState, relevantStates, relevantEdges, pCexInfo);
-            break;
-          case METADATA:
-            content =
-                (Appender)
-                    appendable ->
-                        XMLTestCaseExport.writeXMLMetadata(
-                            appendable, cfa, pSpec.orElse(null), producerString);
-            break;
-          case PLAIN:
-            testOutput =
-                writeTestInputNondetValues(
-                    rootState,
-                    relevantStates,
-                    relevantEdges,
-                    pCexInfo,
-                    TestCaseExporter::printLineSeparated);
-
-            if (testOutput.isPresent()) {
-              content = (Appender) appendable -> appendable.append(testOutput.orElseThrow());
-            }
-            break;
-          case XML:
-            testOutput =
-                writeTestInputNondetValues(
-                    rootState,
-                    relevantStates,
-                    relevantEdges,
-                    pCexInfo,
-                    XMLTestCaseExport.XML_TEST_CASE);
-            if (testOutput.isPresent()) {
-              content = (Appender) appendable -> appendable.append(testOutput.orElseThrow());
-            }
-            break;
-          default:
-            throw new AssertionError("Unknown test case format.");
-        }
-        if (content != null) {
-          IO.writeFile(pFile, Charset.defaultCharset(), content);
-        }
+      Optional<String> content;
+
+      switch (type) {
+        case HARNESS:
+          StringBuilder harness = new StringBuilder();
+          harnessExporter.writeHarness(harness, rootState, relevantStates, relevantEdges, pCexInfo);
+          content = Optional.of(harness.toString());
+          break;
+        case METADATA:
+          StringBuilder metadata = new StringBuilder();
+          XMLTestCaseExport.writeXMLMetadata(metadata, cfa, pSpec.orElse(null), producerString);
+          content = Optional.of(metadata.toString());
+          break;
+        case PLAIN:
+          content =
+              writeTestInputNondetValues(
+                  rootState,
+                  relevantStates,
+                  relevantEdges,
+                  pCexInfo,
+                  TestCaseExporter::printLineSeparated);
+          break;
+        case XML:
+          content =
+              writeTestInputNondetValues(
+                  rootState,
+                  relevantStates,
+                  relevantEdges,
+                  pCexInfo,
+                  XMLTestCaseExport.XML_TEST_CASE);
+          break;
+        default:
+          throw new AssertionError("Unknown test case format.");
+      }
+      if (content.isPresent()) {
+        return Optional.of(new TestCaseFile(pFile, content.orElseThrow()));
+      } else if (zipTestCases) {
+        // an empty entry is created in the zip file in this case
+        return Optional.of(new TestCaseFile(pFile, ""));
       }
     } catch (IOException e) {
       logger.logUserException(Level.WARNING, e, "Could not write test case to file");
     }
+    return Optional.empty();
+  }
+
+  public void writeStatistics(StatisticsWriter pWriter) {
+    pWriter
+        .put("Number of written test case files", filesWritten.get())
+        .put(writeTime)
+        .putIfUpdatedAtLeastOnce(queueWaitTime);
   }
 
   private boolean areTestsEnabled() {
@@ -344,4 +532,15 @@ public class TestCaseExporter {
       return HashMultimap.create();
     }
   }
+
+  @VisibleForTesting
+  static final class TestCaseFile {
+    private final Path path;
+    private final String content;
+
+    TestCaseFile(Path pPath, String pContent) {
+      path = pPath;
+      content = pContent;
+    }
+  }
 }
@@ -0,0 +1,195 @@
+// This file is part of CPAchecker,
+// a tool for configurable software verification:
+// https://cpachecker.sosy-lab.org
+//
+// SPDX-FileCopyrightText: 2007-2020 Dirk Beyer <https://www.sosy-lab.org>
+//
+// SPDX-License-Identifier: Apache-2.0
+
+package org.sosy_lab.cpachecker.util.testcase;
+
+import static com.google.common.truth.Truth.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.ByteStreams;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import org.checkerframework.checker.nullness.qual.Nullable;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.sosy_lab.common.configuration.Configuration;
+import org.sosy_lab.common.configuration.ConfigurationBuilder;
+import org.sosy_lab.common.configuration.FileOption;
+import org.sosy_lab.common.configuration.converters.FileTypeConverter;
+import org.sosy_lab.common.log.LogManager;
+import org.sosy_lab.cpachecker.cfa.CFA;
+import org.sosy_lab.cpachecker.cfa.types.MachineModel;
+import org.sosy_lab.cpachecker.util.testcase.TestCaseExporter.TestCaseFile;
+
+public class TestCaseExporterTest {
+
+  private static final int NUM_TEST_CASES = 50;
+  private static final String WRITER_THREAD_PREFIX = "testcase-writer-";
+
+  @Rule public final TemporaryFolder tempFolder = new TemporaryFolder();
+
+  private Path outputPath;
+  private CFA cfa;
+
+  @Before
+  public void setUp() {
+    outputPath = tempFolder.getRoot().toPath();
+    cfa = mock(CFA.class);
+    when(cfa.getMachineModel()).thenReturn(MachineModel.LINUX32);
+  }
+
+  private TestCaseExporter createExporter(
+      int pWriterThreads, boolean pCompress, @Nullable String pZipFile) throws Exception {
+    return createExporter(pWriterThreads, pCompress, pZipFile, true);
+  }
+
+  private TestCaseExporter createExporter(
+      int pWriterThreads, boolean pCompress, @Nullable String pZipFile, boolean pAllowWriters)
+      throws Exception {
+    FileTypeConverter fileTypeConverter =
+        FileTypeConverter.create(
+            Configuration.builder().setOption("output.path", outputPath.toString()).build());
+    ConfigurationBuilder config =
+        Configuration.builder()
+            .addConverter(FileOption.class, fileTypeConverter)
+            .setOption("testcase.values", "test%d.txt")
+            .setOption("testcase.writerThreads", Integer.toString(pWriterThreads))
+            // small such that the analysis thread needs to wait for the writers
+            .setOption("testcase.writerQueueSize", "3");
+    if (pCompress) {
+      config.setOption("testcase.compress", "true").setOption("testcase.zip.file", pZipFile);
+    }
+    return new TestCaseExporter(
+        cfa, LogManager.createTestLogManager(), config.build(), pAllowWriters);
+  }
+
+  /** Export test cases that consist of two files each, like harness and values. */
+  private void exportTestCases(TestCaseExporter pExporter, int pFrom, int pTo) {
+    for (int i = pFrom; i < pTo; i++) {
+      pExporter.exportFiles(
+          ImmutableList.of(
+              new TestCaseFile(outputPath.resolve("harness" + i + ".c"), "harness " + i),
+              new TestCaseFile(outputPath.resolve("values" + i + ".txt"), "values " + i)));
+    }
+  }
+
+  private static Map<String, String> readZip(Path pZipFile) throws IOException {
+    Map<String, String> result = new HashMap<>();
+    try (ZipFile zip = new ZipFile(pZipFile.toFile())) {
+      Enumeration<? extends ZipEntry> entries = zip.entries();
+      while (entries.hasMoreElements()) {
+        ZipEntry entry = entries.nextElement();
+        try (InputStream in = zip.getInputStream(entry)) {
+          result.put(
+              entry.getName(), new String(ByteStreams.toByteArray(in), Charset.defaultCharset()));
+        }
+      }
+    }
+    return result;
+  }
+
+  private static Map<String, String> expectedFiles(int pNumTestCases) {
+    ImmutableMap.Builder<String, String> result = ImmutableMap.builder();
+    for (int i = 0; i < pNumTestCases; i++) {
+      result.put("harness" + i + ".c", "harness " + i).put("values" + i + ".txt", "values " + i);
+    }
+    return result.build();
+  }
+
+  private static boolean isWriterThreadAlive() {
+    return Thread.getAllStackTraces().keySet().stream()
+        .anyMatch(t -> t.getName().startsWith(WRITER_THREAD_PREFIX) && t.isAlive());
+  }
+
+  @Test
+  public void testBackgroundWritersWithZip() throws Exception {
+    TestCaseExporter exporter = createExporter(2, true, "tests.zip");
+
+    exportTestCases(exporter, 0, NUM_TEST_CASES);
+    exporter.waitForPendingTestCases();
+
+    assertThat(readZip(outputPath.resolve("tests.zip")))
+        .containsExactlyEntriesIn(expectedFiles(NUM_TEST_CASES));
+    exporter.close();
+    assertThat(isWriterThreadAlive()).isFalse();
+  }
+
+  @Test
+  public void testBackgroundWritersEqualDirectWriting() throws Exception {
+    try (TestCaseExporter direct = createExporter(0, true, "direct.zip");
+        TestCaseExporter background = createExporter(3, true, "background.zip")) {
+      exportTestCases(direct, 0, NUM_TEST_CASES);
+      exportTestCases(background, 0, NUM_TEST_CASES);
+      background.waitForPendingTestCases();
+
+      assertThat(readZip(outputPath.resolve("background.zip")))
+          .containsExactlyEntriesIn(readZip(outputPath.resolve("direct.zip")));
+    }
+  }
+
+  @Test
+  public void testBackgroundWritersWithoutZip() throws Exception {
+    try (TestCaseExporter exporter = createExporter(2, false, null)) {
+      exportTestCases(exporter, 0, NUM_TEST_CASES);
+      exporter.waitForPendingTestCases();
+
+      for (Map.Entry<String, String> file : expectedFiles(NUM_TEST_CASES).entrySet()) {
+        Path path = outputPath.resolve(file.getKey());
+        assertThat(Files.readAllLines(path, Charset.defaultCharset()))
+            .containsExactly(file.getValue());
+      }
+    }
+  }
+
+  @Test
+  public void testCloseWritesPendingFilesAndExportAfterClose() throws Exception {
+    TestCaseExporter exporter = createExporter(1, true, "tests.zip");
+    assertThat(isWriterThreadAlive()).isFalse();
+    exportTestCases(exporter, 0, NUM_TEST_CASES);
+
+    // close() waits for the writers
+    exporter.close();
+    assertThat(isWriterThreadAlive()).isFalse();
+    assertThat(readZip(outputPath.resolve("tests.zip")))
+        .containsExactlyEntriesIn(expectedFiles(NUM_TEST_CASES));
+
+    // new writers are started for test cases that are exported afterwards, like in another run
+    exportTestCases(exporter, NUM_TEST_CASES, 2 * NUM_TEST_CASES);
+    exporter.close();
+    assertThat(isWriterThreadAlive()).isFalse();
+    assertThat(readZip(outputPath.resolve("tests.zip")))
+        .containsExactlyEntriesIn(expectedFiles(2 * NUM_TEST_CASES));
+  }
+
+  @Test
+  public void testWriterThreadsNotAllowed() throws Exception {
+    TestCaseExporter exporter = createExporter(2, false, null, false);
+    exportTestCases(exporter, 0, NUM_TEST_CASES);
+
+    // the files are written directly, without close() or waiting
+    assertThat(isWriterThreadAlive()).isFalse();
+    for (Map.Entry<String, String> file : expectedFiles(NUM_TEST_CASES).entrySet()) {
+      Path path = outputPath.resolve(file.getKey());
+      assertThat(Files.readAllLines(path, Charset.defaultCharset()))
+          .containsExactly(file.getValue());
+    }
+  }
+}